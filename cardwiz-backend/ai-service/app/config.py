@@ -26,9 +26,15 @@ class Settings(BaseSettings):
     EUREKA_ENABLED: bool = False
     EUREKA_SERVER: str = "http://localhost:8761/eureka"
     EUREKA_INSTANCE_HOST: Optional[str] = None
+    # Relative capacity published as Eureka metadata; user-service sends proportionally more load
+    EUREKA_INSTANCE_WEIGHT: Optional[float] = None
     APP_NAME: str = "ai-service"
     INSTANCE_PORT: int = 8000
 
+    # Tracing Config (W3C trace context from user-service; spans exported only if an endpoint is set)
+    TRACING_ENABLED: bool = True
+    OTEL_EXPORTER_OTLP_TRACES_ENDPOINT: Optional[str] = None
+
     # Nova Config
     NOVA_ENABLE_REASONING: bool = False
     NOVA_REASONING_BUDGET_TOKENS: int = 1024
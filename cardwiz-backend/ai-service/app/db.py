@@ -17,6 +17,18 @@ def init_db():
             connection.execute(text("CREATE EXTENSION IF NOT EXISTS vector"))
         Base.metadata.create_all(bind=engine)
         with engine.begin() as connection:
+            # Tables created before rule ids became 64-bit; checked first, as the ALTER takes an
+            # ACCESS EXCLUSIVE lock on every boot even when the type already matches
+            rule_id_type = connection.execute(
+                text(
+                    "SELECT data_type FROM information_schema.columns "
+                    "WHERE table_schema = current_schema() "
+                    "AND table_name = 'reward_rule_vectors' AND column_name = 'rule_id'"
+                )
+            ).scalar()
+            if rule_id_type is not None and rule_id_type != "bigint":
+                logger.info("Widening reward_rule_vectors.rule_id from %s to bigint", rule_id_type)
+                connection.execute(text("ALTER TABLE reward_rule_vectors ALTER COLUMN rule_id TYPE BIGINT"))
             connection.execute(
                 text(
                     "CREATE INDEX IF NOT EXISTS reward_rule_vector_fts_idx "
@@ -16,6 +16,8 @@ async def init_eureka():
     }
     if settings.EUREKA_INSTANCE_HOST:
         init_kwargs["instance_host"] = settings.EUREKA_INSTANCE_HOST
+    if settings.EUREKA_INSTANCE_WEIGHT:
+        init_kwargs["metadata"] = {"weight": str(settings.EUREKA_INSTANCE_WEIGHT)}
 
     await eureka_client.init_async(
         **init_kwargs
@@ -3,6 +3,7 @@ from contextlib import asynccontextmanager
 from app.config import settings
 from app.db import init_db
 from app.dependencies import init_eureka, stop_eureka
+from app.tracing import init_tracing
 from app.routes import document_routes, recommendation_routes, embedding_routes
 from app.consumers.kafka_ingest_consumer import KafkaIngestConsumer
 
@@ -26,6 +27,8 @@ app = FastAPI(
     lifespan=lifespan
 )
 
+init_tracing(app)
+
 # Include Routers
 app.include_router(document_routes.router, prefix="/ai/v1/documents", tags=["Documents"])
 app.include_router(recommendation_routes.router, prefix="/ai/v1/recommend", tags=["Recommendations"])
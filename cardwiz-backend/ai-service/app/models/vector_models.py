@@ -1,4 +1,4 @@
-from sqlalchemy import Column, Integer, Text, Index, func
+from sqlalchemy import BigInteger, Column, Integer, Text, Index, func
 from sqlalchemy.ext.declarative import declarative_base
 from pgvector.sqlalchemy import Vector
 
@@ -8,7 +8,8 @@ class RewardRuleVector(Base):
     __tablename__ = 'reward_rule_vectors'
     
     id = Column(Integer, primary_key=True)
-    rule_id = Column(Integer, index=True) 
+    # Content-addressed by user-service: 64 bits of SHA-256 over card id and content_text
+    rule_id = Column(BigInteger, index=True)
     card_id = Column(Integer, index=True)
     content_text = Column(Text)
     # Using 1024 dimensions for Nova 2 Multimodal Embeddings
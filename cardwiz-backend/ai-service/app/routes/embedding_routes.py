@@ -1,6 +1,8 @@
 from fastapi import APIRouter, HTTPException
 
 from app.schemas.recommendation_schema import (
+    EmbeddingBatchSyncRequest,
+    EmbeddingBatchSyncResponse,
     EmbeddingCoverageRequest,
     EmbeddingCoverageResponse,
     EmbeddingSyncRequest,
@@ -25,6 +27,20 @@ async def sync_embedding(payload: EmbeddingSyncRequest) -> EmbeddingSyncResponse
         raise HTTPException(status_code=500, detail=f"Embedding sync failed: {exc}") from exc
 
 
+@router.post("/sync-batch", response_model=EmbeddingBatchSyncResponse)
+async def sync_embeddings(payload: EmbeddingBatchSyncRequest) -> EmbeddingBatchSyncResponse:
+    try:
+        result = await embedding_service.sync_card_rule_embeddings(
+            card_id=payload.cardId,
+            upserts=[(rule.ruleId, rule.contentText) for rule in payload.upserts],
+            delete_rule_ids=payload.deleteRuleIds,
+            replace=payload.replace,
+        )
+        return EmbeddingBatchSyncResponse(**result)
+    except Exception as exc:
+        raise HTTPException(status_code=500, detail=f"Embedding sync failed: {exc}") from exc
+
+
 @router.post("/coverage", response_model=EmbeddingCoverageResponse)
 async def get_coverage(payload: EmbeddingCoverageRequest) -> EmbeddingCoverageResponse:
     try:
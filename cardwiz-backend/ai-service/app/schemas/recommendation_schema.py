@@ -78,6 +78,25 @@ class EmbeddingSyncResponse(BaseModel):
     ruleId: int
 
 
+class RuleEmbedding(BaseModel):
+    ruleId: int
+    contentText: str
+
+
+class EmbeddingBatchSyncRequest(BaseModel):
+    cardId: int
+    upserts: List[RuleEmbedding] = Field(default_factory=list)
+    deleteRuleIds: List[int] = Field(default_factory=list)
+    # Also drop every other vector of the card, for a card user-service has not synced before
+    replace: bool = False
+
+
+class EmbeddingBatchSyncResponse(BaseModel):
+    cardId: int
+    upserted: int
+    deleted: int
+
+
 class EmbeddingCoverageRequest(BaseModel):
     cardIds: List[int]
 
@@ -4,7 +4,7 @@ import logging
 import re
 
 from botocore.exceptions import ClientError
-from sqlalchemy import desc, func, select
+from sqlalchemy import delete, desc, func, select
 
 from app.clients.bedrock_client import get_bedrock_runtime_client
 from app.clients.cache_client import get_cache_client
@@ -158,6 +158,57 @@ class EmbeddingService:
 
         return {"status": "SYNCED", "ruleId": rule_id}
 
+    async def sync_card_rule_embeddings(
+        self,
+        card_id: int,
+        upserts: list[tuple[int, str]],
+        delete_rule_ids: list[int],
+        replace: bool = False,
+    ):
+        # Embed first so a Bedrock failure leaves the card's vectors untouched
+        embeddings = []
+        for rule_id, content_text in upserts:
+            embedding = await self.get_embedding(content_text, settings.EMBEDDING_INDEX_PURPOSE)
+            if not embedding:
+                raise ValueError(f"No embedding returned from Bedrock for rule {rule_id}")
+            embeddings.append((rule_id, content_text, embedding))
+
+        upsert_ids = [rule_id for rule_id, _ in upserts]
+        with SessionLocal() as session:
+            stale = delete(RewardRuleVector).where(RewardRuleVector.card_id == card_id)
+            if not replace:
+                stale = stale.where(RewardRuleVector.rule_id.in_(delete_rule_ids))
+            elif upsert_ids:
+                stale = stale.where(RewardRuleVector.rule_id.not_in(upsert_ids))
+            deleted = session.execute(stale).rowcount or 0
+
+            existing = {
+                row.rule_id: row
+                for row in session.execute(
+                    select(RewardRuleVector).where(
+                        RewardRuleVector.card_id == card_id,
+                        RewardRuleVector.rule_id.in_(upsert_ids),
+                    )
+                ).scalars()
+            }
+            for rule_id, content_text, embedding in embeddings:
+                row = existing.get(rule_id)
+                if row:
+                    row.content_text = content_text
+                    row.embedding = embedding
+                else:
+                    session.add(
+                        RewardRuleVector(
+                            rule_id=rule_id,
+                            card_id=card_id,
+                            content_text=content_text,
+                            embedding=embedding,
+                        )
+                    )
+            session.commit()
+
+        return {"cardId": card_id, "upserted": len(embeddings), "deleted": deleted}
+
     async def search_similar_rules(self, query_text: str, top_k: int | None = None):
         query_embedding = await self.get_embedding(query_text, settings.EMBEDDING_RETRIEVAL_PURPOSE)
         if not query_embedding:
@@ -0,0 +1,34 @@
+import logging
+
+from fastapi import FastAPI
+from opentelemetry import trace
+from opentelemetry.instrumentation.fastapi import FastAPIInstrumentor
+from opentelemetry.sdk.resources import Resource
+from opentelemetry.sdk.trace import TracerProvider
+from opentelemetry.sdk.trace.export import BatchSpanProcessor
+
+from app.config import settings
+
+logger = logging.getLogger("uvicorn")
+
+
+def init_tracing(app: FastAPI) -> None:
+    """Continue user-service traces: the FastAPI instrumentation reads the W3C traceparent header
+    sent by AiServiceClient, so request spans here share the caller's trace id."""
+    if not settings.TRACING_ENABLED:
+        logger.info("Tracing disabled by configuration.")
+        return
+
+    provider = TracerProvider(resource=Resource.create({"service.name": settings.APP_NAME}))
+    if settings.OTEL_EXPORTER_OTLP_TRACES_ENDPOINT:
+        from opentelemetry.exporter.otlp.proto.http.trace_exporter import OTLPSpanExporter
+
+        provider.add_span_processor(
+            BatchSpanProcessor(OTLPSpanExporter(endpoint=settings.OTEL_EXPORTER_OTLP_TRACES_ENDPOINT))
+        )
+    trace.set_tracer_provider(provider)
+    FastAPIInstrumentor.instrument_app(app, excluded_urls="health")
+    logger.info(
+        "Tracing enabled (OTLP endpoint=%s)",
+        settings.OTEL_EXPORTER_OTLP_TRACES_ENDPOINT or "none, propagation only",
+    )
@@ -0,0 +1,177 @@
+package com.cardwiz.userservice.benchmarks;
+
+import com.cardwiz.userservice.dtos.AiResponseDTO;
+import com.cardwiz.userservice.dtos.RecommendationDTO;
+import com.cardwiz.userservice.dtos.TransactionSummary;
+import com.cardwiz.userservice.dtos.UserCardResponse;
+import com.cardwiz.userservice.models.DocumentStatus;
+import com.cardwiz.userservice.models.Transaction;
+import com.cardwiz.userservice.models.User;
+import com.cardwiz.userservice.models.UserCard;
+import com.cardwiz.userservice.models.UserRole;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Payloads sized like production traffic: a wallet of eight cards, a T&C extraction of a few
+ * dozen rules, and transaction histories from a handful to a few thousand rows.
+ */
+public final class Fixtures {
+
+    public static final int WALLET_SIZE = 8;
+    public static final int RULES_PER_DOCUMENT = 32;
+
+    private static final String[] MERCHANTS = {
+            "Swiggy", "Zomato", "Amazon.in", "Flipkart", "BigBasket", "Uber India", "IndiGo Airlines",
+            "Indian Oil", "BookMyShow", "Myntra", "Apollo Pharmacy", "Reliance Digital"
+    };
+    private static final String[] CATEGORIES = {
+            "dining", "dining", "online_shopping", "online_shopping", "grocery", "travel", "travel",
+            "fuel", "entertainment", "online_shopping", "health", "electronics"
+    };
+    private static final String[] CARD_NAMES = {
+            "HDFC Millennia", "SBI Cashback", "Axis Ace", "ICICI Amazon Pay", "HDFC Regalia Gold",
+            "Axis Atlas", "IDFC First Select", "AU LIT"
+    };
+
+    private Fixtures() {
+    }
+
+    public static User user() {
+        User user = new User();
+        user.setId(42L);
+        user.setEmail("madhav@example.com");
+        user.setPassword("$2a$10$7EqJtq98hPqEX7fNZaFWoO5f2BT6mCXkYxxL8x7x3a2G0k1gJf6e2");
+        user.setFirstName("Madhav");
+        user.setLastName("Sharma");
+        user.setRole(UserRole.USER);
+        user.setEnabled(true);
+        return user;
+    }
+
+    public static List<UserCard> cards(User user) {
+        List<UserCard> cards = new ArrayList<>();
+        for (int i = 0; i < WALLET_SIZE; i++) {
+            cards.add(UserCard.builder()
+                    .id(100L + i)
+                    .user(user)
+                    .cardName(CARD_NAMES[i])
+                    .issuer(CARD_NAMES[i].split(" ")[0])
+                    .network(i % 2 == 0 ? "VISA" : "MASTERCARD")
+                    .lastFourDigits(String.format("%04d", 1000 + i * 137))
+                    .active(i != WALLET_SIZE - 1)
+                    .docStatus(i < 6 ? DocumentStatus.COMPLETED : DocumentStatus.NOT_UPLOADED)
+                    .docS3Key(i < 6 ? "documents/42/5f0c1c9e-7d1b-4a8e-9f7e-" + (100000000000L + i) + ".pdf" : null)
+                    .lastAnalyzedAt(i < 6 ? Instant.parse("2026-09-01T10:15:30Z").plusSeconds(i * 3600L) : null)
+                    .build());
+        }
+        return cards;
+    }
+
+    public static List<UserCardResponse> cardResponses() {
+        return cards(user()).stream()
+                .map(card -> UserCardResponse.builder()
+                        .id(card.getId())
+                        .cardName(card.getCardName())
+                        .issuer(card.getIssuer())
+                        .network(card.getNetwork())
+                        .lastFourDigits(card.getLastFourDigits())
+                        .active(card.isActive())
+                        .docStatus(card.getDocStatus())
+                        .docS3Key(card.getDocS3Key())
+                        .lastAnalyzedAt(card.getLastAnalyzedAt())
+                        .build())
+                .toList();
+    }
+
+    public static List<Transaction> transactions(User user, int count) {
+        SplittableRandom random = new SplittableRandom(7L);
+        List<Transaction> transactions = new ArrayList<>(count);
+        LocalDate start = LocalDate.of(2026, 10, 1);
+        for (int i = 0; i < count; i++) {
+            int merchant = random.nextInt(MERCHANTS.length);
+            long suggested = 100L + random.nextInt(WALLET_SIZE - 1);
+            transactions.add(Transaction.builder()
+                    .id((long) i + 1)
+                    .amount(BigDecimal.valueOf(50 + random.nextInt(25_000)).add(BigDecimal.valueOf(random.nextInt(100), 2)))
+                    .merchant(MERCHANTS[merchant])
+                    .category(CATEGORIES[merchant])
+                    .currency("INR")
+                    .transactionDate(start.minusDays(random.nextInt(365)))
+                    .suggestedCardId(suggested)
+                    .actualCardId(random.nextInt(3) == 0 ? 100L + random.nextInt(WALLET_SIZE - 1) : suggested)
+                    .user(user)
+                    .build());
+        }
+        return transactions;
+    }
+
+    /** The projection rows {@code TransactionRepository} selects for the given transactions. */
+    public static List<TransactionSummary> transactionSummaries(List<Transaction> transactions) {
+        return transactions.stream()
+                .map(tx -> new TransactionSummary(tx.getId(), tx.getAmount(), tx.getMerchant(), tx.getCategory(),
+                        tx.getCurrency(), tx.getTransactionDate(), tx.getSuggestedCardId(), tx.getActualCardId()))
+                .toList();
+    }
+
+    public static List<AiResponseDTO.ExtractedRuleDTO> extractedRules() {
+        SplittableRandom random = new SplittableRandom(11L);
+        List<AiResponseDTO.ExtractedRuleDTO> rules = new ArrayList<>(RULES_PER_DOCUMENT);
+        for (int i = 0; i < RULES_PER_DOCUMENT; i++) {
+            boolean points = i % 3 != 0;
+            rules.add(new AiResponseDTO.ExtractedRuleDTO(
+                    CARD_NAMES[i % WALLET_SIZE],
+                    CATEGORIES[i % CATEGORIES.length],
+                    points ? 2.0d + random.nextInt(8) : 1.0d + random.nextInt(5),
+                    points ? "POINTS" : "CASHBACK",
+                    points ? 2.0d + random.nextInt(10) : null,
+                    points ? 100.0d + 50 * random.nextInt(3) : null,
+                    points && i % 2 == 0 ? 0.25d : null,
+                    // most extractions leave this empty and rely on the derivation
+                    i % 5 == 0 ? 3.3d : null,
+                    "Capped at Rs. 1,000 per statement cycle; excludes fuel, rent, wallet loads and EMI; "
+                            + "minimum transaction Rs. 100; accelerated rewards on partner merchants only"
+            ));
+        }
+        return rules;
+    }
+
+    public static RecommendationDTO recommendation() {
+        List<RecommendationDTO.ComparisonRow> rows = new ArrayList<>();
+        List<RecommendationDTO.CardRecommendation> alternatives = new ArrayList<>();
+        for (int i = 1; i < 4; i++) {
+            double pct = BigDecimal.valueOf(5.0d - i).setScale(2, RoundingMode.HALF_UP).doubleValue();
+            rows.add(new RecommendationDTO.ComparisonRow(CARD_NAMES[i], pct, 2400 * pct / 100, "Lower effective reward rate for this scenario."));
+            alternatives.add(new RecommendationDTO.CardRecommendation(100L + i, CARD_NAMES[i],
+                    "For INR 2,400 spent, you would earn: INR " + (2400 * pct / 100) + " (" + pct + "%).",
+                    "Lower effective reward rate for this scenario.", 0.6d));
+        }
+        return new RecommendationDTO(
+                new RecommendationDTO.CardRecommendation(100L, CARD_NAMES[0],
+                        "For INR 2,400 spent, you would earn: INR 120.00 worth of rewards (5.00%).",
+                        "5% cashback on Swiggy and Zomato. Monthly cap not reached.", 0.85d),
+                alternatives,
+                "Routing=llm_rerank; reason=close_scores. Analyzed 14 rules.",
+                "rec_3f9a1c2b7d",
+                new RecommendationDTO.TransactionContext("Swiggy", "dining", 2400.0d, "INR", null),
+                new RecommendationDTO.BestCard(100L, CARD_NAMES[0], "WINNER",
+                        new RecommendationDTO.Rewards(120.0d, "INR", 5.0d, "CASHBACK", null),
+                        "INR 2,400 x 5% cashback = INR 120.00",
+                        List.of("5% cashback on partner food delivery apps.", "Monthly cap of INR 1,000 not reached.",
+                                "No minimum spend condition for this merchant."),
+                        "Cashback is capped at INR 1,000 per statement cycle."),
+                rows,
+                List.of(100L, 101L, 102L, 103L, 104L, 105L),
+                List.of(106L),
+                Boolean.TRUE,
+                "llm_rerank",
+                "close_scores"
+        );
+    }
+}
@@ -0,0 +1,33 @@
+package com.cardwiz.userservice.benchmarks;
+
+import java.lang.reflect.Proxy;
+import java.util.function.Function;
+
+/**
+ * In-memory stand-ins for Spring Data repositories, so service methods can be measured
+ * without a database. Only the named query method is answered.
+ */
+public final class RepositoryStubs {
+
+    private RepositoryStubs() {
+    }
+
+    public static <T> T answering(Class<T> repositoryType, String methodName, Function<Object[], Object> answer) {
+        Object proxy = Proxy.newProxyInstance(
+                repositoryType.getClassLoader(),
+                new Class<?>[]{repositoryType},
+                (self, method, args) -> {
+                    if (method.getName().equals(methodName)) {
+                        return answer.apply(args);
+                    }
+                    return switch (method.getName()) {
+                        case "toString" -> repositoryType.getSimpleName() + "Stub";
+                        case "hashCode" -> System.identityHashCode(self);
+                        case "equals" -> self == args[0];
+                        default -> throw new UnsupportedOperationException(method.getName());
+                    };
+                }
+        );
+        return repositoryType.cast(proxy);
+    }
+}
@@ -0,0 +1,102 @@
+package com.cardwiz.userservice.config;
+
+import com.cardwiz.userservice.benchmarks.Fixtures;
+import com.cardwiz.userservice.dtos.CardCategoryMatrix;
+import com.cardwiz.userservice.services.RecommendationCacheService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Redis value round trips through {@link CacheConfig.SafeRedisValueSerializer} for the values
+ * user-service caches on every request: a wallet's card list, a cached recommendation envelope
+ * and a card category matrix.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CacheSerializerBenchmark {
+
+    @Param({"cardList", "recommendation", "categoryMatrix"})
+    public String payload;
+
+    private CacheConfig.SafeRedisValueSerializer serializer;
+    private Object value;
+    private byte[] serialized;
+
+    @Setup
+    public void setUp() {
+        serializer = new CacheConfig.SafeRedisValueSerializer();
+        value = switch (payload) {
+            case "cardList" -> new ArrayList<>(Fixtures.cardResponses());
+            case "recommendation" -> new RecommendationCacheService.CachedRecommendation(
+                    Fixtures.recommendation(), 2_300L, System.currentTimeMillis() + 480_000L);
+            case "categoryMatrix" -> categoryMatrix();
+            default -> throw new IllegalArgumentException(payload);
+        };
+        serialized = serializer.serialize(value);
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        return serializer.serialize(value);
+    }
+
+    @Benchmark
+    public Object deserialize() {
+        return serializer.deserialize(serialized);
+    }
+
+    @Benchmark
+    public Object roundTrip() {
+        return serializer.deserialize(serializer.serialize(value));
+    }
+
+    private static CardCategoryMatrix categoryMatrix() {
+        String[] categories = {"dining", "electronics", "entertainment", "fuel", "general", "grocery",
+                "health", "online_shopping", "travel", "utilities", "education", "insurance"};
+        int cards = Fixtures.WALLET_SIZE - 1;
+        long[] cardIds = new long[cards];
+        String[] cardNames = new String[cards];
+        Fixtures.cardResponses().stream().limit(cards).toList().forEach(card -> {
+            int slot = (int) (card.getId() - 100L);
+            cardIds[slot] = card.getId();
+            cardNames[slot] = card.getCardName();
+        });
+        int[] rowOffsets = new int[categories.length + 1];
+        int[] slots = new int[categories.length * cards];
+        int[] basisPoints = new int[slots.length];
+        byte[] rewardTypes = new byte[slots.length];
+        for (int row = 0; row < categories.length; row++) {
+            rowOffsets[row] = row * cards;
+            for (int rank = 0; rank < cards; rank++) {
+                int position = row * cards + rank;
+                slots[position] = (row + rank) % cards;
+                basisPoints[position] = 500 - rank * 50;
+                rewardTypes[position] = (byte) (1 + rank % 2);
+            }
+        }
+        rowOffsets[categories.length] = slots.length;
+        boolean[] knownRates = new boolean[slots.length];
+        Arrays.fill(knownRates, true);
+        boolean[] linearCards = new boolean[cards];
+        Arrays.fill(linearCards, true);
+        return new CardCategoryMatrix(cardIds, cardNames, categories, rowOffsets, slots, basisPoints, rewardTypes,
+                knownRates, linearCards, System.currentTimeMillis());
+    }
+}
@@ -0,0 +1,81 @@
+package com.cardwiz.userservice.security;
+
+import com.cardwiz.userservice.benchmarks.Fixtures;
+import com.cardwiz.userservice.models.User;
+import jakarta.servlet.ServletException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of authenticating one API request: token parsing and validation in {@link JwtService},
+ * and the full {@link JwtAuthenticationFilter} pass with an in-memory user lookup.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtFilterBenchmark {
+
+    private JwtService jwtService;
+    private JwtAuthenticationFilter filter;
+    private User user;
+    private String token;
+    private String authorizationHeader;
+
+    @Setup
+    public void setUp() {
+        jwtService = new JwtService();
+        ReflectionTestUtils.setField(jwtService, "secretKey", "Fk1Al6wj+mpRhqQHXHjRWPzezx4ddNz3XF2IX5VHsUo=");
+        ReflectionTestUtils.setField(jwtService, "jwtExpiration", 86_400_000L);
+
+        user = Fixtures.user();
+        token = jwtService.generateToken(Map.of("userId", String.valueOf(user.getId())), user);
+        authorizationHeader = "Bearer " + token;
+        filter = new JwtAuthenticationFilter(jwtService, email -> user);
+    }
+
+    @Benchmark
+    public boolean validateToken() {
+        return jwtService.isTokenValid(token, user);
+    }
+
+    @Benchmark
+    public String extractUsername() {
+        return jwtService.extractUsername(token);
+    }
+
+    @Benchmark
+    public void filterRequest(Blackhole blackhole) throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/v1/transactions/validate");
+        request.setServletPath("/api/v1/transactions/validate");
+        request.addHeader("Authorization", authorizationHeader);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        try {
+            filter.doFilter(request, response, new MockFilterChain());
+            blackhole.consume(SecurityContextHolder.getContext().getAuthentication());
+            blackhole.consume(response.getStatus());
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+}
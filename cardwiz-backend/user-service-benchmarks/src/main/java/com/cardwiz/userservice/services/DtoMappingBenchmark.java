@@ -0,0 +1,62 @@
+package com.cardwiz.userservice.services;
+
+import com.cardwiz.userservice.benchmarks.Fixtures;
+import com.cardwiz.userservice.benchmarks.RepositoryStubs;
+import com.cardwiz.userservice.dtos.TransactionResponse;
+import com.cardwiz.userservice.dtos.TransactionSummary;
+import com.cardwiz.userservice.models.User;
+import com.cardwiz.userservice.repositories.TransactionRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Projection to DTO mapping behind GET /api/v1/transactions ({@code TransactionService.toResponse}),
+ * driven through the public read method with an in-memory repository. GET /api/v1/cards has no
+ * mapping step left: its rows are selected straight into {@code UserCardResponse}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DtoMappingBenchmark {
+
+    @Param({"200"})
+    public int historySize;
+
+    private TransactionService transactionService;
+    private Long userId;
+
+    @Setup
+    public void setUp() {
+        User user = Fixtures.user();
+        userId = user.getId();
+        List<TransactionSummary> history = Fixtures.transactionSummaries(Fixtures.transactions(user, historySize));
+
+        transactionService = new TransactionService(
+                RepositoryStubs.answering(TransactionRepository.class, "findSummariesByUserId", args -> history),
+                null,
+                null,
+                null,
+                null
+        );
+    }
+
+    @Benchmark
+    public List<TransactionResponse> transactionsToResponse() {
+        return transactionService.listTransactions(userId);
+    }
+}
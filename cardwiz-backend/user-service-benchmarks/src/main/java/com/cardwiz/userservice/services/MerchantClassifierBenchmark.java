@@ -0,0 +1,85 @@
+package com.cardwiz.userservice.services;
+
+import com.cardwiz.userservice.benchmarks.Fixtures;
+import com.cardwiz.userservice.benchmarks.RepositoryStubs;
+import com.cardwiz.userservice.dtos.MerchantCategoryCount;
+import com.cardwiz.userservice.models.Transaction;
+import com.cardwiz.userservice.models.User;
+import com.cardwiz.userservice.repositories.TransactionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.core.io.ClassPathResource;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * {@link MerchantClassifier#classify} as run before ranking a request without a category, with
+ * the user's dictionary already loaded: eight card narrations per operation, a mix of bundled
+ * merchants, the user's own merchants and unknown ones.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MerchantClassifierBenchmark {
+
+    private static final List<String> NARRATIONS = List.of(
+            "SWIGGY*ORDER 8812734 BANGALORE IN",
+            "AMAZON PAY INDIA PRIVATE LIMITED 0098812",
+            "POS 4411 INDIAN OIL CORP LTD MUMBAI",
+            "Swiggy Instamart",
+            "BookMyShow Movie Tickets",
+            "Reliance Digital Retail",
+            "ZXQ Traders 99812",
+            "UPI/7712/Sharma Kirana Store/okaxis"
+    );
+
+    private MerchantClassifier classifier;
+    private Long userId;
+
+    @Setup
+    public void setUp() {
+        User user = Fixtures.user();
+        userId = user.getId();
+        List<Transaction> history = Fixtures.transactions(user, 2_000);
+        Map<List<String>, Long> counts = history.stream().collect(Collectors.groupingBy(
+                tx -> List.of(tx.getMerchant(), tx.getCategory()), Collectors.counting()));
+        List<MerchantCategoryCount> merchantCategories = counts.entrySet().stream()
+                .map(entry -> new MerchantCategoryCount(entry.getKey().get(0), entry.getKey().get(1), entry.getValue()))
+                .toList();
+
+        TransactionRepository repository = RepositoryStubs.answering(
+                TransactionRepository.class, "countMerchantCategoriesByUserId", args -> merchantCategories);
+        classifier = new MerchantClassifier(
+                new TransactionService(repository, null, null, null, null),
+                new RecommendationKeyCanonicalizer("100,500,1000,2000,5000,10000,25000,50000,100000"),
+                new SimpleMeterRegistry(),
+                new ClassPathResource("merchants/merchant-categories.csv"),
+                0.6d,
+                Duration.ofHours(1));
+        classifier.classify(userId, NARRATIONS.get(0));
+    }
+
+    @Benchmark
+    public void classify(Blackhole blackhole) {
+        for (String narration : NARRATIONS) {
+            blackhole.consume(classifier.classify(userId, narration));
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.cardwiz.userservice.services;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The {@link PortfolioEvaluator} search behind {@code /cards/portfolio/optimize}: the best
+ * {@code keep} of {@code cards} cards over 30 categories of spend, where each card is strong in
+ * a few categories and earns a base rate elsewhere, as extracted card rules look.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PortfolioEvaluatorBenchmark {
+
+    private static final int CATEGORIES = 30;
+
+    @Param({"5", "12", "24"})
+    public int cards;
+
+    @Param({"2", "4"})
+    public int keep;
+
+    private PortfolioEvaluator evaluator;
+    private ForkJoinPool pool;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        long[] spend = new long[CATEGORIES];
+        for (int c = 0; c < CATEGORIES; c++) {
+            spend[c] = 1_000_00L + random.nextInt(200_000_00);
+        }
+        int[][] rates = new int[cards][CATEGORIES];
+        for (int card = 0; card < cards; card++) {
+            int base = 50 + random.nextInt(100);
+            for (int c = 0; c < CATEGORIES; c++) {
+                rates[card][c] = random.nextInt(6) == 0 ? 200 + random.nextInt(800) : base;
+            }
+        }
+        evaluator = new PortfolioEvaluator(spend, rates);
+        pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Benchmark
+    public PortfolioEvaluator.Result search() {
+        return evaluator.search(pool, keep, 3);
+    }
+}
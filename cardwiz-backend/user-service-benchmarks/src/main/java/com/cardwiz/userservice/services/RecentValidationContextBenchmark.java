@@ -0,0 +1,58 @@
+package com.cardwiz.userservice.services;
+
+import com.cardwiz.userservice.benchmarks.Fixtures;
+import com.cardwiz.userservice.benchmarks.RepositoryStubs;
+import com.cardwiz.userservice.dtos.TransactionSummary;
+import com.cardwiz.userservice.models.User;
+import com.cardwiz.userservice.repositories.TransactionRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link TransactionService#buildRecentValidationContext} as run before every AI-backed
+ * recommendation. Ordering and the five-row limit run in SQL, so history size no longer matters
+ * here: the stub answers with the five rows the query would return and only the formatting is
+ * measured.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RecentValidationContextBenchmark {
+
+    private TransactionService transactionService;
+    private Long userId;
+
+    @Setup
+    public void setUp() {
+        User user = Fixtures.user();
+        userId = user.getId();
+        List<TransactionSummary> recent = Fixtures.transactionSummaries(Fixtures.transactions(user, 200)).stream()
+                .sorted(Comparator.comparing(TransactionSummary::transactionDate).reversed()
+                        .thenComparing(TransactionSummary::id, Comparator.reverseOrder()))
+                .limit(5)
+                .toList();
+        TransactionRepository repository = RepositoryStubs.answering(
+                TransactionRepository.class, "findRecentSummariesByUserId", args -> recent);
+        transactionService = new TransactionService(repository, null, null, null, null);
+    }
+
+    @Benchmark
+    public String buildRecentValidationContext() {
+        return transactionService.buildRecentValidationContext(userId);
+    }
+}
@@ -0,0 +1,52 @@
+package com.cardwiz.userservice.services;
+
+import com.cardwiz.userservice.benchmarks.Fixtures;
+import com.cardwiz.userservice.dtos.AiResponseDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rule text building and effective-percentage derivation for one ingested T&C document
+ * ({@link Fixtures#RULES_PER_DOCUMENT} rules per operation).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RewardRulesBenchmark {
+
+    private List<AiResponseDTO.ExtractedRuleDTO> rules;
+
+    @Setup
+    public void setUp() {
+        rules = Fixtures.extractedRules();
+    }
+
+    @Benchmark
+    public void buildRuleContentText(Blackhole blackhole) {
+        for (AiResponseDTO.ExtractedRuleDTO rule : rules) {
+            blackhole.consume(RewardRules.buildRuleContentText(rule));
+        }
+    }
+
+    @Benchmark
+    public void deriveEffectiveRewardPercentage(Blackhole blackhole) {
+        for (AiResponseDTO.ExtractedRuleDTO rule : rules) {
+            blackhole.consume(RewardRules.deriveEffectiveRewardPercentage(rule));
+        }
+    }
+}
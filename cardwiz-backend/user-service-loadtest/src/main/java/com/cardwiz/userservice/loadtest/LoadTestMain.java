@@ -0,0 +1,36 @@
+package com.cardwiz.userservice.loadtest;
+
+import com.cardwiz.userservice.loadtest.generator.LoadGenerator;
+import com.cardwiz.userservice.loadtest.startup.StartupBenchmark;
+import com.cardwiz.userservice.loadtest.stub.AiServiceStub;
+
+/**
+ * Entry point of loadtest.jar.
+ * <pre>
+ *   java -jar loadtest.jar stub [--port=18000] [--rank=median:400,p99:3000,errors:0.01] ...
+ *   java -jar loadtest.jar run  [--base-url=http://localhost:8080] [--concurrency=8,16,32,64] ...
+ *   java -jar loadtest.jar startup --command="java -jar app.jar" [--ready-url=...] [--runs=5] ...
+ * </pre>
+ * See {@link AiServiceStub}, {@link LoadGenerator} and {@link StartupBenchmark} for the full option lists.
+ */
+public class LoadTestMain {
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0) {
+            usage();
+            return;
+        }
+        Options options = Options.parse(args, 1);
+        switch (args[0]) {
+            case "stub" -> AiServiceStub.start(options).awaitShutdown();
+            case "run" -> new LoadGenerator(options).run();
+            case "startup" -> new StartupBenchmark(options).run();
+            default -> usage();
+        }
+    }
+
+    private static void usage() {
+        System.err.println("usage: java -jar loadtest.jar stub|run|startup [--key=value ...]");
+        System.exit(2);
+    }
+}
@@ -0,0 +1,77 @@
+package com.cardwiz.userservice.loadtest;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@code --key=value} command line options. Every key can also be given as a system property
+ * ({@code -Dloadtest.key=value}), which takes effect when the option is absent.
+ */
+public final class Options {
+
+    private final Map<String, String> values;
+
+    private Options(Map<String, String> values) {
+        this.values = values;
+    }
+
+    public static Options parse(String[] args, int from) {
+        Map<String, String> values = new LinkedHashMap<>();
+        for (String arg : Arrays.copyOfRange(args, from, args.length)) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --key=value but got '" + arg + "'");
+            }
+            int separator = arg.indexOf('=');
+            values.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+        return new Options(values);
+    }
+
+    public String string(String key, String defaultValue) {
+        String value = values.get(key);
+        if (value == null) {
+            value = System.getProperty("loadtest." + key);
+        }
+        return value == null || value.isBlank() ? defaultValue : value.trim();
+    }
+
+    public int integer(String key, int defaultValue) {
+        return Integer.parseInt(string(key, String.valueOf(defaultValue)));
+    }
+
+    public double decimal(String key, double defaultValue) {
+        return Double.parseDouble(string(key, String.valueOf(defaultValue)));
+    }
+
+    public List<Integer> integers(String key, String defaultValue) {
+        return Arrays.stream(string(key, defaultValue).split(","))
+                .map(String::trim)
+                .filter(value -> !value.isEmpty())
+                .map(Integer::parseInt)
+                .toList();
+    }
+
+    /**
+     * Durations as {@code 250ms}, {@code 30s} or {@code 5m}; a bare number is milliseconds.
+     */
+    public Duration duration(String key, String defaultValue) {
+        return parseDuration(string(key, defaultValue));
+    }
+
+    public static Duration parseDuration(String value) {
+        String trimmed = value.trim().toLowerCase();
+        if (trimmed.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(trimmed.substring(0, trimmed.length() - 2)));
+        }
+        if (trimmed.endsWith("s")) {
+            return Duration.ofMillis(Math.round(Double.parseDouble(trimmed.substring(0, trimmed.length() - 1)) * 1000));
+        }
+        if (trimmed.endsWith("m")) {
+            return Duration.ofSeconds(Math.round(Double.parseDouble(trimmed.substring(0, trimmed.length() - 1)) * 60));
+        }
+        return Duration.ofMillis(Long.parseLong(trimmed));
+    }
+}
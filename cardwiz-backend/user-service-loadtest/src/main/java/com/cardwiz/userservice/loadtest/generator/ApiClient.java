@@ -0,0 +1,88 @@
+package com.cardwiz.userservice.loadtest.generator;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+
+/**
+ * Thin JSON client for user-service's public API. Every call is timed from just before the
+ * request is handed to the HTTP client until the full body has been read.
+ */
+final class ApiClient {
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .findAndRegisterModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    private final HttpClient http;
+    private final String baseUrl;
+    private final Duration requestTimeout;
+
+    ApiClient(String baseUrl, Duration requestTimeout) {
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.requestTimeout = requestTimeout;
+        this.http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("loadgen-http-", 0).factory()))
+                .build();
+    }
+
+    record Result(int status, JsonNode body, long nanos) {
+
+        boolean ok() {
+            return status >= 200 && status < 300;
+        }
+    }
+
+    Result get(String path, String token) {
+        return send(HttpRequest.newBuilder(URI.create(baseUrl + path)).GET(), token);
+    }
+
+    Result post(String path, String token, Object body) {
+        try {
+            return send(HttpRequest.newBuilder(URI.create(baseUrl + path))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body))), token);
+        } catch (IOException ex) {
+            throw new IllegalStateException("Could not serialize request body for " + path, ex);
+        }
+    }
+
+    private Result send(HttpRequest.Builder builder, String token) {
+        builder.timeout(requestTimeout).header("Accept", "application/json");
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        HttpRequest request = builder.build();
+        long start = System.nanoTime();
+        try {
+            HttpResponse<byte[]> response = http.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            long elapsed = System.nanoTime() - start;
+            return new Result(response.statusCode(), parse(response.body()), elapsed);
+        } catch (IOException ex) {
+            return new Result(-1, null, System.nanoTime() - start);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return new Result(-1, null, System.nanoTime() - start);
+        }
+    }
+
+    private JsonNode parse(byte[] body) {
+        if (body == null || body.length == 0) {
+            return null;
+        }
+        try {
+            return objectMapper.readTree(body);
+        } catch (IOException ex) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.cardwiz.userservice.loadtest.generator;
+
+import java.util.Arrays;
+
+/**
+ * Raw latency samples of one endpoint within one load step. Samples are kept (not bucketed) so
+ * percentiles are exact; a five-minute step at a few thousand requests per second is a few MB.
+ */
+final class LatencyRecorder {
+
+    private long[] samples = new long[4096];
+    private int size;
+    private long errors;
+
+    synchronized void record(long nanos, boolean error) {
+        if (size == samples.length) {
+            samples = Arrays.copyOf(samples, size * 2);
+        }
+        samples[size++] = nanos;
+        if (error) {
+            errors++;
+        }
+    }
+
+    synchronized Snapshot snapshot() {
+        long[] sorted = Arrays.copyOf(samples, size);
+        Arrays.sort(sorted);
+        return new Snapshot(sorted, errors);
+    }
+
+    record Snapshot(long[] sortedNanos, long errors) {
+
+        long count() {
+            return sortedNanos.length;
+        }
+
+        double percentileMillis(double percentile) {
+            if (sortedNanos.length == 0) {
+                return 0;
+            }
+            int rank = (int) Math.ceil(percentile / 100.0 * sortedNanos.length);
+            return sortedNanos[Math.max(0, Math.min(rank, sortedNanos.length) - 1)] / 1_000_000.0;
+        }
+
+        double maxMillis() {
+            return sortedNanos.length == 0 ? 0 : sortedNanos[sortedNanos.length - 1] / 1_000_000.0;
+        }
+    }
+}
@@ -0,0 +1,270 @@
+package com.cardwiz.userservice.loadtest.generator;
+
+import com.cardwiz.userservice.loadtest.Options;
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Closed-loop load generator for user-service. Registers a pool of users with cards, then runs
+ * one step per concurrency level: N virtual users replay a weighted {@link Scenario} mix back to
+ * back for the step duration. Each step reports count, errors, throughput and p50/p95/p99 per
+ * endpoint; the step after which throughput stops growing while p99 keeps rising is the
+ * saturation point.
+ * <p>
+ * Options:
+ * <ul>
+ *   <li>{@code --base-url=http://localhost:8080}</li>
+ *   <li>{@code --users=50}, {@code --cards-per-user=4}, {@code --user-prefix=loadtest-<epoch>}</li>
+ *   <li>{@code --concurrency=8,16,32,64,128}, {@code --step-duration=60s}, {@code --warmup=10s}</li>
+ *   <li>{@code --mix=login:5,cards:30,validate:40,advisor:25}, {@code --think-time=0ms}</li>
+ *   <li>{@code --timeout=30s} per request, {@code --csv=<file>} to append per-step rows</li>
+ * </ul>
+ */
+public final class LoadGenerator {
+
+    private static final String PASSWORD = "LoadTest#2024";
+    private static final String[][] CARD_TEMPLATES = {
+            {"HDFC Millennia", "HDFC", "VISA"},
+            {"SBI Cashback", "SBI", "VISA"},
+            {"Axis Ace", "Axis", "VISA"},
+            {"ICICI Amazon Pay", "ICICI", "VISA"},
+            {"HDFC Regalia", "HDFC", "MASTERCARD"},
+            {"Amex MRCC", "Amex", "AMEX"},
+    };
+
+    private final ApiClient api;
+    private final int userCount;
+    private final int cardsPerUser;
+    private final String userPrefix;
+    private final List<Integer> concurrencySteps;
+    private final Duration stepDuration;
+    private final Duration warmup;
+    private final Duration thinkTime;
+    private final Scenario[] scenarioWheel;
+    private final String csvPath;
+
+    public LoadGenerator(Options options) {
+        this.api = new ApiClient(options.string("base-url", "http://localhost:8080"), options.duration("timeout", "30s"));
+        this.userCount = options.integer("users", 50);
+        this.cardsPerUser = options.integer("cards-per-user", 4);
+        this.userPrefix = options.string("user-prefix", "loadtest-" + System.currentTimeMillis() / 1000);
+        this.concurrencySteps = options.integers("concurrency", "8,16,32,64,128");
+        this.stepDuration = options.duration("step-duration", "60s");
+        this.warmup = options.duration("warmup", "10s");
+        this.thinkTime = options.duration("think-time", "0ms");
+        this.scenarioWheel = parseMix(options.string("mix", "login:5,cards:30,validate:40,advisor:25"));
+        this.csvPath = options.string("csv", null);
+    }
+
+    public void run() throws Exception {
+        List<UserSession> sessions = setUpUsers();
+        if (sessions.isEmpty()) {
+            throw new IllegalStateException("No load-test user could be registered; is user-service up?");
+        }
+
+        List<StepSummary> summaries = new ArrayList<>();
+        for (int concurrency : concurrencySteps) {
+            summaries.add(runStep(concurrency, sessions));
+        }
+
+        StepSummary peak = summaries.stream()
+                .max((a, b) -> Double.compare(a.throughput(), b.throughput()))
+                .orElseThrow();
+        System.out.println();
+        System.out.println("Concurrency  Throughput(req/s)  p50(ms)  p95(ms)  p99(ms)  Error%");
+        for (StepSummary summary : summaries) {
+            System.out.printf(Locale.ROOT, "%11d  %17.1f  %7.1f  %7.1f  %7.1f  %6.2f%s%n",
+                    summary.concurrency(), summary.throughput(), summary.p50(), summary.p95(), summary.p99(),
+                    summary.errorPercent(), summary == peak ? "  <- peak" : "");
+        }
+    }
+
+    private List<UserSession> setUpUsers() throws InterruptedException {
+        System.out.printf(Locale.ROOT, "Registering %d users (%s-*) with %d cards each%n", userCount, userPrefix, cardsPerUser);
+        Semaphore permits = new Semaphore(16);
+        List<Future<UserSession>> futures = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < userCount; i++) {
+                int index = i;
+                futures.add(executor.submit(() -> {
+                    permits.acquire();
+                    try {
+                        return setUpUser(index);
+                    } finally {
+                        permits.release();
+                    }
+                }));
+            }
+        }
+
+        List<UserSession> sessions = new ArrayList<>();
+        for (Future<UserSession> future : futures) {
+            try {
+                UserSession session = future.get();
+                if (session != null) {
+                    sessions.add(session);
+                }
+            } catch (Exception ex) {
+                System.err.println("User setup failed: " + ex.getMessage());
+            }
+        }
+        System.out.printf(Locale.ROOT, "Ready: %d/%d users%n", sessions.size(), userCount);
+        return sessions;
+    }
+
+    private UserSession setUpUser(int index) {
+        String email = userPrefix + "-" + index + "@loadtest.cardwiz.local";
+        ApiClient.Result auth = api.post("/api/v1/auth/register", null, Map.of(
+                "firstName", "Load", "lastName", "Test " + index, "email", email, "password", PASSWORD));
+        if (!auth.ok()) {
+            auth = api.post("/api/v1/auth/authenticate", null, Map.of("email", email, "password", PASSWORD));
+        }
+        if (!auth.ok() || auth.body() == null || !auth.body().hasNonNull("token")) {
+            System.err.println("Could not register or sign in " + email + " (HTTP " + auth.status() + ")");
+            return null;
+        }
+        String token = auth.body().get("token").asText();
+
+        List<Long> cardIds = new ArrayList<>();
+        ApiClient.Result existing = api.get("/api/v1/cards", token);
+        if (existing.ok() && existing.body() != null) {
+            existing.body().forEach(card -> cardIds.add(card.get("id").asLong()));
+        }
+        for (int i = cardIds.size(); i < cardsPerUser; i++) {
+            String[] template = CARD_TEMPLATES[(index + i) % CARD_TEMPLATES.length];
+            ApiClient.Result created = api.post("/api/v1/cards", token, Map.of(
+                    "cardName", template[0], "issuer", template[1], "network", template[2],
+                    "lastFourDigits", String.format(Locale.ROOT, "%04d", ThreadLocalRandom.current().nextInt(10_000)),
+                    "active", true));
+            JsonNode id = created.body() == null ? null : created.body().get("id");
+            if (created.ok() && id != null) {
+                cardIds.add(id.asLong());
+            }
+        }
+        return new UserSession(email, PASSWORD, token, cardIds);
+    }
+
+    private StepSummary runStep(int concurrency, List<UserSession> sessions) throws InterruptedException {
+        long start = System.nanoTime();
+        long measureFrom = start + warmup.toNanos();
+        long end = measureFrom + stepDuration.toNanos();
+        StepRecorder recorder = new StepRecorder(measureFrom);
+
+        System.out.printf(Locale.ROOT, "%n== concurrency %d: %ds warm-up + %ds measured ==%n",
+                concurrency, warmup.toSeconds(), stepDuration.toSeconds());
+        try (ExecutorService executor = Executors.newThreadPerTaskExecutor(
+                Thread.ofVirtual().name("vu-" + concurrency + "-", 0).factory())) {
+            for (int worker = 0; worker < concurrency; worker++) {
+                UserSession session = sessions.get(worker % sessions.size());
+                executor.submit(() -> virtualUser(session, recorder, end));
+            }
+            executor.shutdown();
+            if (!executor.awaitTermination(stepDuration.toSeconds() + warmup.toSeconds() + 120, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        }
+        return report(concurrency, recorder.snapshot(), stepDuration.toNanos() / 1e9);
+    }
+
+    private void virtualUser(UserSession session, StepRecorder recorder, long endNanos) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (System.nanoTime() - endNanos < 0) {
+            scenarioWheel[random.nextInt(scenarioWheel.length)].run(api, session, recorder);
+            if (!thinkTime.isZero()) {
+                try {
+                    Thread.sleep(thinkTime);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private StepSummary report(int concurrency, Map<String, LatencyRecorder.Snapshot> endpoints, double seconds) {
+        System.out.println("Endpoint                          Count  Errors  Req/s     p50(ms)  p95(ms)  p99(ms)  max(ms)");
+        long[] all = endpoints.values().stream().flatMapToLong(snapshot -> Arrays.stream(snapshot.sortedNanos())).sorted().toArray();
+        long allErrors = endpoints.values().stream().mapToLong(LatencyRecorder.Snapshot::errors).sum();
+        LatencyRecorder.Snapshot total = new LatencyRecorder.Snapshot(all, allErrors);
+
+        endpoints.forEach((endpoint, snapshot) -> printRow(endpoint, snapshot, seconds));
+        printRow("TOTAL", total, seconds);
+        appendCsv(concurrency, endpoints, total, seconds);
+
+        return new StepSummary(concurrency, total.count() / seconds, total.percentileMillis(50),
+                total.percentileMillis(95), total.percentileMillis(99),
+                total.count() == 0 ? 0 : 100.0 * total.errors() / total.count());
+    }
+
+    private void printRow(String endpoint, LatencyRecorder.Snapshot snapshot, double seconds) {
+        System.out.printf(Locale.ROOT, "%-32s %6d  %6d  %8.1f  %7.1f  %7.1f  %7.1f  %7.1f%n",
+                endpoint, snapshot.count(), snapshot.errors(), snapshot.count() / seconds,
+                snapshot.percentileMillis(50), snapshot.percentileMillis(95), snapshot.percentileMillis(99),
+                snapshot.maxMillis());
+    }
+
+    private void appendCsv(int concurrency, Map<String, LatencyRecorder.Snapshot> endpoints,
+                           LatencyRecorder.Snapshot total, double seconds) {
+        if (csvPath == null) {
+            return;
+        }
+        Path path = Path.of(csvPath);
+        try {
+            boolean header = !Files.exists(path);
+            try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(path,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND))) {
+                if (header) {
+                    out.println("concurrency,endpoint,count,errors,throughput_rps,p50_ms,p95_ms,p99_ms,max_ms");
+                }
+                endpoints.forEach((endpoint, snapshot) -> csvRow(out, concurrency, endpoint, snapshot, seconds));
+                csvRow(out, concurrency, "TOTAL", total, seconds);
+            }
+        } catch (IOException ex) {
+            System.err.println("Could not write " + csvPath + ": " + ex.getMessage());
+        }
+    }
+
+    private void csvRow(PrintWriter out, int concurrency, String endpoint, LatencyRecorder.Snapshot snapshot, double seconds) {
+        out.printf(Locale.ROOT, "%d,%s,%d,%d,%.2f,%.2f,%.2f,%.2f,%.2f%n",
+                concurrency, endpoint, snapshot.count(), snapshot.errors(), snapshot.count() / seconds,
+                snapshot.percentileMillis(50), snapshot.percentileMillis(95), snapshot.percentileMillis(99),
+                snapshot.maxMillis());
+    }
+
+    private static Scenario[] parseMix(String mix) {
+        List<Scenario> wheel = new ArrayList<>();
+        for (String part : mix.split(",")) {
+            String[] pair = part.trim().split(":");
+            Scenario scenario = Scenario.valueOf(pair[0].trim().toUpperCase(Locale.ROOT));
+            int weight = pair.length > 1 ? Integer.parseInt(pair[1].trim()) : 1;
+            for (int i = 0; i < weight; i++) {
+                wheel.add(scenario);
+            }
+        }
+        if (wheel.isEmpty()) {
+            throw new IllegalArgumentException("Empty scenario mix '" + mix + "'");
+        }
+        return wheel.toArray(Scenario[]::new);
+    }
+
+    private record StepSummary(int concurrency, double throughput, double p50, double p95, double p99,
+                               double errorPercent) {
+    }
+}
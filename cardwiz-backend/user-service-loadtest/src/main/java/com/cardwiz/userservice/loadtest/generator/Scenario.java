@@ -0,0 +1,104 @@
+package com.cardwiz.userservice.loadtest.generator;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * User journeys the generator replays, modelled on what the web client sends for each screen.
+ */
+enum Scenario {
+
+    /** Sign-in page: POST /auth/authenticate. */
+    LOGIN {
+        @Override
+        void run(ApiClient api, UserSession session, StepRecorder recorder) {
+            ApiClient.Result result = api.post("/api/v1/auth/authenticate", null,
+                    Map.of("email", session.email(), "password", session.password()));
+            recorder.record("POST /auth/authenticate", result);
+            if (result.ok() && result.body() != null && result.body().hasNonNull("token")) {
+                session.token(result.body().get("token").asText());
+            }
+        }
+    },
+
+    /** Wallet page: GET /cards. */
+    CARDS {
+        @Override
+        void run(ApiClient api, UserSession session, StepRecorder recorder) {
+            recorder.record("GET /cards", api.get("/api/v1/cards", session.token()));
+        }
+    },
+
+    /** Validation dialog: POST /transactions/validate with a card the user actually holds. */
+    VALIDATE {
+        @Override
+        void run(ApiClient api, UserSession session, StepRecorder recorder) {
+            Purchase purchase = Purchase.random();
+            Map<String, Object> body = new LinkedHashMap<>();
+            body.put("merchant", purchase.merchant());
+            body.put("amount", purchase.amount());
+            body.put("category", purchase.category());
+            body.put("currency", "INR");
+            body.put("transactionDate", LocalDate.now().toString());
+            body.put("actualCardId", session.randomCardId());
+            recorder.record("POST /transactions/validate", api.post("/api/v1/transactions/validate", session.token(), body));
+        }
+    },
+
+    /** Advisor chat turn: save the question, ask for a recommendation, save the answer. */
+    ADVISOR {
+        @Override
+        void run(ApiClient api, UserSession session, StepRecorder recorder) {
+            Purchase purchase = Purchase.random();
+            String question = String.format(Locale.ROOT, "Which card for %s at %s?", purchase.amount(), purchase.merchant());
+            recorder.record("POST /advisor/history", api.post("/api/v1/advisor/history", session.token(),
+                    Map.of("sender", "user", "text", question)));
+
+            Map<String, Object> request = new LinkedHashMap<>();
+            request.put("merchantName", purchase.merchant());
+            request.put("category", purchase.category());
+            request.put("transactionAmount", purchase.amount());
+            request.put("currency", "INR");
+            ApiClient.Result recommendation = api.post("/api/v1/cards/recommendations", session.token(), request);
+            recorder.record("POST /cards/recommendations", recommendation);
+
+            String answer = recommendation.ok() ? "Use the recommended card." : "Recommendation failed.";
+            recorder.record("POST /advisor/history", api.post("/api/v1/advisor/history", session.token(),
+                    Map.of("sender", "bot", "text", answer)));
+        }
+    };
+
+    abstract void run(ApiClient api, UserSession session, StepRecorder recorder);
+
+    record Purchase(String merchant, String category, BigDecimal amount) {
+
+        private static final List<String[]> MERCHANTS = List.of(
+                new String[]{"Swiggy", "dining"},
+                new String[]{"Zomato", "dining"},
+                new String[]{"Amazon", "online_shopping"},
+                new String[]{"Flipkart", "online_shopping"},
+                new String[]{"BigBasket", "grocery"},
+                new String[]{"Indian Oil", "fuel"},
+                new String[]{"MakeMyTrip", "travel"},
+                new String[]{"Uber", "travel"},
+                new String[]{"BookMyShow", "entertainment"},
+                new String[]{"Apollo Pharmacy", "health"},
+                new String[]{"Airtel", "utilities"},
+                new String[]{"Croma", "electronics"}
+        );
+
+        static Purchase random() {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            String[] merchant = MERCHANTS.get(random.nextInt(MERCHANTS.size()));
+            // Log-uniform between 50 and 50,000 INR: most purchases are small, a few are large
+            double amount = Math.exp(Math.log(50) + random.nextDouble() * (Math.log(50_000) - Math.log(50)));
+            return new Purchase(merchant[0], merchant[1], BigDecimal.valueOf(amount).setScale(2, RoundingMode.HALF_UP));
+        }
+    }
+}
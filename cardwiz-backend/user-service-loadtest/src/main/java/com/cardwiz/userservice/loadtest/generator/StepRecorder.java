@@ -0,0 +1,33 @@
+package com.cardwiz.userservice.loadtest.generator;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-endpoint recorders for one concurrency step. Requests that started before the end of
+ * warm-up are dropped so JIT, connection-pool and cache warm-up do not skew the percentiles.
+ */
+final class StepRecorder {
+
+    private final Map<String, LatencyRecorder> endpoints = new ConcurrentHashMap<>();
+    private final long measureFromNanos;
+
+    StepRecorder(long measureFromNanos) {
+        this.measureFromNanos = measureFromNanos;
+    }
+
+    void record(String endpoint, ApiClient.Result result) {
+        long startedAt = System.nanoTime() - result.nanos();
+        if (startedAt - measureFromNanos < 0) {
+            return;
+        }
+        endpoints.computeIfAbsent(endpoint, ignored -> new LatencyRecorder()).record(result.nanos(), !result.ok());
+    }
+
+    Map<String, LatencyRecorder.Snapshot> snapshot() {
+        Map<String, LatencyRecorder.Snapshot> snapshots = new TreeMap<>();
+        endpoints.forEach((endpoint, recorder) -> snapshots.put(endpoint, recorder.snapshot()));
+        return snapshots;
+    }
+}
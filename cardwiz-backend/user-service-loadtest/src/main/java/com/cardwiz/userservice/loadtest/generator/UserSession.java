@@ -0,0 +1,42 @@
+package com.cardwiz.userservice.loadtest.generator;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * A registered load-test user with its current JWT and the ids of the cards it holds.
+ */
+final class UserSession {
+
+    private final String email;
+    private final String password;
+    private final List<Long> cardIds;
+    private volatile String token;
+
+    UserSession(String email, String password, String token, List<Long> cardIds) {
+        this.email = email;
+        this.password = password;
+        this.token = token;
+        this.cardIds = List.copyOf(cardIds);
+    }
+
+    String email() {
+        return email;
+    }
+
+    String password() {
+        return password;
+    }
+
+    String token() {
+        return token;
+    }
+
+    void token(String token) {
+        this.token = token;
+    }
+
+    Long randomCardId() {
+        return cardIds.isEmpty() ? null : cardIds.get(ThreadLocalRandom.current().nextInt(cardIds.size()));
+    }
+}
@@ -0,0 +1,172 @@
+package com.cardwiz.userservice.loadtest.startup;
+
+import com.cardwiz.userservice.loadtest.Options;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Time-to-ready benchmark: starts a service process {@code --runs} times and measures from process
+ * launch until {@code --ready-url} first answers 2xx. The "Started ... in N seconds" figure Spring
+ * Boot logs is reported next to it; the gap between the two is JVM start plus whatever runs after
+ * the context (web server, Eureka registration, ready listeners). Run it once per variant, e.g. the
+ * executable jar and the fast-startup image, and compare the medians.
+ * <p>
+ * Options:
+ * <ul>
+ *   <li>{@code --command="java -XX:SharedArchiveFile=app.jsa -jar app.jar"} (required, split on spaces)</li>
+ *   <li>{@code --ready-url=http://localhost:9081/actuator/health}; user-service reports UP only
+ *       with its database and Redis reachable, the registry can use {@code http://localhost:8761/}</li>
+ *   <li>{@code --runs=5}, {@code --timeout=180s} per run, {@code --poll-interval=50ms}</li>
+ *   <li>{@code --label=<name>} and {@code --csv=<file>} to append one row per run</li>
+ * </ul>
+ */
+public final class StartupBenchmark {
+
+    private static final Pattern STARTED_IN = Pattern.compile("Started \\S+ in ([0-9.]+) seconds");
+
+    private final List<String> command;
+    private final URI readyUrl;
+    private final int runs;
+    private final Duration timeout;
+    private final Duration pollInterval;
+    private final String label;
+    private final String csvPath;
+    private final HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofMillis(500)).build();
+
+    public StartupBenchmark(Options options) {
+        String commandLine = options.string("command", null);
+        if (commandLine == null) {
+            throw new IllegalArgumentException("--command is required");
+        }
+        this.command = Arrays.stream(commandLine.split("\\s+")).filter(part -> !part.isEmpty()).toList();
+        this.readyUrl = URI.create(options.string("ready-url", "http://localhost:9081/actuator/health"));
+        this.runs = options.integer("runs", 5);
+        this.timeout = options.duration("timeout", "180s");
+        this.pollInterval = options.duration("poll-interval", "50ms");
+        this.label = options.string("label", command.get(command.size() - 1));
+        this.csvPath = options.string("csv", null);
+    }
+
+    public void run() throws Exception {
+        System.out.printf(Locale.ROOT, "Starting '%s' %d times, ready when %s answers 2xx%n",
+                String.join(" ", command), runs, readyUrl);
+        List<Long> readyMillis = new ArrayList<>();
+        for (int run = 1; run <= runs; run++) {
+            Result result = measureOnce();
+            if (result == null) {
+                System.out.printf(Locale.ROOT, "run %d: not ready within %ds%n", run, timeout.toSeconds());
+                continue;
+            }
+            readyMillis.add(result.readyMillis());
+            System.out.printf(Locale.ROOT, "run %d: ready in %d ms (Spring Boot reported %s)%n", run,
+                    result.readyMillis(), result.reportedSeconds() == null ? "n/a" : result.reportedSeconds() + " s");
+            appendCsv(run, result);
+        }
+        if (readyMillis.isEmpty()) {
+            throw new IllegalStateException("The service never became ready; check --command and --ready-url.");
+        }
+        readyMillis.sort(null);
+        System.out.printf(Locale.ROOT, "%ntime-to-ready (ms): min %d  median %d  max %d  (%d/%d runs)%n",
+                readyMillis.get(0), readyMillis.get(readyMillis.size() / 2), readyMillis.get(readyMillis.size() - 1),
+                readyMillis.size(), runs);
+    }
+
+    private Result measureOnce() throws Exception {
+        long startedAt = System.nanoTime();
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        AtomicReference<String> reportedSeconds = new AtomicReference<>();
+        Thread.ofVirtual().name("startup-output").start(() -> scanOutput(process, reportedSeconds));
+        try {
+            long deadline = startedAt + timeout.toNanos();
+            while (System.nanoTime() < deadline && process.isAlive()) {
+                if (isReady()) {
+                    long readyMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+                    // The log line and the first 2xx can race; give the line a moment to arrive
+                    for (int i = 0; i < 20 && reportedSeconds.get() == null; i++) {
+                        Thread.sleep(10);
+                    }
+                    return new Result(readyMillis, reportedSeconds.get());
+                }
+                Thread.sleep(pollInterval.toMillis());
+            }
+            return null;
+        } finally {
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly().waitFor();
+            }
+        }
+    }
+
+    private boolean isReady() {
+        try {
+            HttpResponse<Void> response = http.send(
+                    HttpRequest.newBuilder(readyUrl).timeout(Duration.ofSeconds(1)).GET().build(),
+                    HttpResponse.BodyHandlers.discarding());
+            return response.statusCode() / 100 == 2;
+        } catch (IOException ex) {
+            return false;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static void scanOutput(Process process, AtomicReference<String> reportedSeconds) {
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                Matcher matcher = STARTED_IN.matcher(line);
+                if (reportedSeconds.get() == null && matcher.find()) {
+                    reportedSeconds.set(matcher.group(1));
+                }
+            }
+        } catch (IOException ignored) {
+            // process exited
+        }
+    }
+
+    private void appendCsv(int run, Result result) {
+        if (csvPath == null) {
+            return;
+        }
+        Path path = Path.of(csvPath);
+        try {
+            boolean header = !Files.exists(path);
+            try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(path,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND))) {
+                if (header) {
+                    out.println("label,run,ready_ms,reported_started_s");
+                }
+                out.printf(Locale.ROOT, "%s,%d,%d,%s%n", label, run, result.readyMillis(),
+                        result.reportedSeconds() == null ? "" : result.reportedSeconds());
+            }
+        } catch (IOException ex) {
+            System.err.println("Could not write " + csvPath + ": " + ex.getMessage());
+        }
+    }
+
+    private record Result(long readyMillis, String reportedSeconds) {
+    }
+}
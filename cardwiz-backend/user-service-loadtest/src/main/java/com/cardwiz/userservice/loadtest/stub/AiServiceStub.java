@@ -0,0 +1,186 @@
+package com.cardwiz.userservice.loadtest.stub;
+
+import com.cardwiz.userservice.dtos.AnalyzeRequestDTO;
+import com.cardwiz.userservice.dtos.EmbeddingCoverageRequestDTO;
+import com.cardwiz.userservice.dtos.RecommendationRequestDTO;
+import com.cardwiz.userservice.dtos.RuleEmbeddingSyncRequestDTO;
+import com.cardwiz.userservice.dtos.StatementMissedSavingsRequestDTO;
+import com.cardwiz.userservice.loadtest.Options;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * In-process stand-in for the Python ai-service, serving the endpoints AiServiceClient calls
+ * with configurable latency and error injection. Each request runs on its own virtual thread,
+ * so thousands of slow in-flight calls cost nothing and the stub is never the bottleneck.
+ * <p>
+ * Options (latency specs: see {@link LatencyModel}):
+ * <ul>
+ *   <li>{@code --port=18000}, {@code --host=<first non-loopback address>}</li>
+ *   <li>{@code --eureka=http://localhost:8761/eureka/} ({@code none} to skip registration)</li>
+ *   <li>{@code --rank}, {@code --rank-llm}, {@code --rank-agent}: /ai/v1/recommend/rank per routing mode</li>
+ *   <li>{@code --llm-rerank-share=0.3}: share of non-agent rank calls answered as llm_rerank</li>
+ *   <li>{@code --agent-min-amount=25000}: amounts at or above this take the agent path</li>
+ *   <li>{@code --embeddings-sync}, {@code --embeddings-coverage}, {@code --analyze}, {@code --missed-savings}</li>
+ * </ul>
+ */
+public final class AiServiceStub {
+
+    private static final Map<String, String> DEFAULT_SPECS = Map.of(
+            "rank", "median:350,p99:1500,errors:0.002",
+            "rank-llm", "median:1800,p99:6000,errors:0.01",
+            "rank-agent", "median:5000,p99:15000,errors:0.02",
+            "embeddings-sync", "median:150,p99:700,errors:0.002",
+            "embeddings-coverage", "median:25,p99:150",
+            "analyze", "median:6000,p99:20000,errors:0.02",
+            "missed-savings", "median:8000,p99:25000,errors:0.02"
+    );
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .findAndRegisterModules()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    private final ExecutorService executor = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("ai-stub-", 0).factory());
+    private final CountDownLatch stopped = new CountDownLatch(1);
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong injectedErrors = new AtomicLong();
+    private final HttpServer server;
+    private final EurekaRegistration eureka;
+    private final Map<String, LatencyModel> models;
+    private final double llmRerankShare;
+    private final BigDecimal agentMinAmount;
+
+    private AiServiceStub(Options options) throws IOException, InterruptedException {
+        int port = options.integer("port", 18000);
+        String host = options.string("host", InetAddress.getLocalHost().getHostAddress());
+        this.models = DEFAULT_SPECS.entrySet().stream().collect(Collectors.toUnmodifiableMap(
+                Map.Entry::getKey, entry -> LatencyModel.parse(options.string(entry.getKey(), entry.getValue()))));
+        this.llmRerankShare = options.decimal("llm-rerank-share", 0.3);
+        this.agentMinAmount = new BigDecimal(options.string("agent-min-amount", "25000"));
+
+        server = HttpServer.create(new InetSocketAddress(port), 4096);
+        server.setExecutor(executor);
+        server.createContext("/health", exchange -> {
+            try (exchange) {
+                respond(exchange, 200, Map.of("status", "UP", "service", "ai-service-stub"));
+            }
+        });
+        server.createContext("/ai/v1/recommend/rank", exchange -> handle(exchange, RecommendationRequestDTO.class,
+                this::routingMode, StubResponses::rank));
+        server.createContext("/ai/v1/embeddings/sync-batch", exchange -> handle(exchange, RuleEmbeddingSyncRequestDTO.class,
+                request -> "embeddings-sync", (request, mode) -> StubResponses.syncRuleEmbeddings(request)));
+        server.createContext("/ai/v1/embeddings/coverage", exchange -> handle(exchange, EmbeddingCoverageRequestDTO.class,
+                request -> "embeddings-coverage", (request, mode) -> StubResponses.coverage(request)));
+        server.createContext("/ai/v1/documents/analyze", exchange -> handle(exchange, AnalyzeRequestDTO.class,
+                request -> "analyze", (request, mode) -> StubResponses.analyzeDocument(request)));
+        server.createContext("/ai/v1/recommend/statement-missed-savings", exchange -> handle(exchange,
+                StatementMissedSavingsRequestDTO.class,
+                request -> "missed-savings", (request, mode) -> StubResponses.missedSavings(request)));
+        server.start();
+        System.out.println("ai-service stub listening on " + host + ":" + port);
+        models.entrySet().stream().sorted(Map.Entry.comparingByKey())
+                .forEach(entry -> System.out.println("  " + entry.getKey() + ": " + entry.getValue()));
+
+        String eurekaUrl = options.string("eureka", "http://localhost:8761/eureka/");
+        if ("none".equalsIgnoreCase(eurekaUrl)) {
+            eureka = null;
+        } else {
+            eureka = new EurekaRegistration(eurekaUrl, host, port);
+            eureka.register();
+        }
+        Runtime.getRuntime().addShutdownHook(Thread.ofPlatform().unstarted(this::stop));
+    }
+
+    public static AiServiceStub start(Options options) throws IOException, InterruptedException {
+        return new AiServiceStub(options);
+    }
+
+    public void awaitShutdown() throws InterruptedException {
+        stopped.await();
+    }
+
+    public void stop() {
+        if (stopped.getCount() == 0) {
+            return;
+        }
+        if (eureka != null) {
+            eureka.close();
+        }
+        server.stop(1);
+        executor.shutdownNow();
+        System.out.println("ai-service stub stopped after " + requests.get() + " requests ("
+                + injectedErrors.get() + " injected errors)");
+        stopped.countDown();
+    }
+
+    private String routingMode(RecommendationRequestDTO request) {
+        if (StubResponses.isHighSpend(request, agentMinAmount)) {
+            return "agent";
+        }
+        return ThreadLocalRandom.current().nextDouble() < llmRerankShare ? "llm_rerank" : "deterministic";
+    }
+
+    private <T> void handle(HttpExchange exchange, Class<T> requestType, Function<T, String> modelKey,
+                            BiFunction<T, String, Object> responder) throws IOException {
+        requests.incrementAndGet();
+        try (exchange) {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                respond(exchange, 405, Map.of("detail", "Method Not Allowed"));
+                return;
+            }
+            T request;
+            try (InputStream body = exchange.getRequestBody()) {
+                request = objectMapper.readValue(body, requestType);
+            } catch (IOException ex) {
+                respond(exchange, 422, Map.of("detail", "Unparseable request: " + ex.getMessage()));
+                return;
+            }
+
+            String key = modelKey.apply(request);
+            String mode = key;
+            LatencyModel model = switch (key) {
+                case "deterministic" -> models.get("rank");
+                case "llm_rerank" -> models.get("rank-llm");
+                case "agent" -> models.get("rank-agent");
+                default -> models.get(key);
+            };
+
+            Thread.sleep(model.sampleMillis());
+            if (model.shouldFail()) {
+                injectedErrors.incrementAndGet();
+                respond(exchange, model.errorStatus(), Map.of("detail", "Injected failure (" + key + ")"));
+                return;
+            }
+            respond(exchange, 200, responder.apply(request, mode));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void respond(HttpExchange exchange, int status, Object body) throws IOException {
+        byte[] bytes = objectMapper.writeValueAsBytes(body);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.cardwiz.userservice.loadtest.stub;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Registers the stub with Eureka under the ai-service app name, the way ai-service's
+ * py_eureka_client does. user-service always reaches ai-service through its load-balanced
+ * RestClient (loopback AI_SERVICE_URLs are rewritten to http://ai-service), so the stub has to
+ * be discoverable rather than just listening on a port.
+ */
+final class EurekaRegistration implements AutoCloseable {
+
+    private static final String APP = "AI-SERVICE";
+    private static final Duration RENEWAL_INTERVAL = Duration.ofSeconds(30);
+
+    private final HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(3)).build();
+    private final ScheduledExecutorService heartbeats = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("eureka-heartbeat").daemon(true).factory());
+    private final String appUrl;
+    private final String instanceId;
+    private final String instanceJson;
+
+    EurekaRegistration(String eurekaUrl, String host, int port) {
+        String base = eurekaUrl.endsWith("/") ? eurekaUrl : eurekaUrl + "/";
+        this.appUrl = base + "apps/" + APP;
+        this.instanceId = host + ":ai-service:" + port;
+        String home = "http://" + host + ":" + port + "/";
+        this.instanceJson = """
+                {"instance":{
+                  "instanceId":"%s","hostName":"%s","app":"%s","ipAddr":"%s",
+                  "vipAddress":"ai-service","secureVipAddress":"ai-service","status":"UP",
+                  "port":{"$":%d,"@enabled":"true"},"securePort":{"$":443,"@enabled":"false"},
+                  "homePageUrl":"%s","statusPageUrl":"%shealth","healthCheckUrl":"%shealth",
+                  "dataCenterInfo":{"@class":"com.netflix.appinfo.InstanceInfo$DefaultDataCenterInfo","name":"MyOwn"},
+                  "leaseInfo":{"renewalIntervalInSecs":%d,"durationInSecs":90},
+                  "metadata":{"stub":"true"}
+                }}
+                """.formatted(instanceId, host, APP, host, port, home, home, home, RENEWAL_INTERVAL.toSeconds());
+    }
+
+    void register() throws IOException, InterruptedException {
+        HttpResponse<String> response = http.send(HttpRequest.newBuilder(URI.create(appUrl))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(instanceJson))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() >= 300) {
+            throw new IOException("Eureka registration failed: HTTP " + response.statusCode() + " " + response.body());
+        }
+        System.out.println("Registered " + instanceId + " with Eureka at " + appUrl);
+        heartbeats.scheduleAtFixedRate(this::renew, RENEWAL_INTERVAL.toSeconds(), RENEWAL_INTERVAL.toSeconds(),
+                TimeUnit.SECONDS);
+    }
+
+    private void renew() {
+        try {
+            HttpResponse<Void> response = http.send(HttpRequest.newBuilder(URI.create(appUrl + "/" + instanceId))
+                    .PUT(HttpRequest.BodyPublishers.noBody())
+                    .build(), HttpResponse.BodyHandlers.discarding());
+            if (response.statusCode() == 404) {
+                System.err.println("Eureka lease expired for " + instanceId + "; registering again");
+                heartbeats.execute(() -> {
+                    try {
+                        http.send(HttpRequest.newBuilder(URI.create(appUrl))
+                                .header("Content-Type", "application/json")
+                                .POST(HttpRequest.BodyPublishers.ofString(instanceJson))
+                                .build(), HttpResponse.BodyHandlers.discarding());
+                    } catch (IOException | InterruptedException ex) {
+                        System.err.println("Eureka re-registration failed: " + ex.getMessage());
+                    }
+                });
+            }
+        } catch (IOException | InterruptedException ex) {
+            System.err.println("Eureka heartbeat failed: " + ex.getMessage());
+        }
+    }
+
+    @Override
+    public void close() {
+        heartbeats.shutdownNow();
+        try {
+            http.send(HttpRequest.newBuilder(URI.create(appUrl + "/" + instanceId)).DELETE().build(),
+                    HttpResponse.BodyHandlers.discarding());
+            System.out.println("Deregistered " + instanceId + " from Eureka");
+        } catch (IOException | InterruptedException ex) {
+            System.err.println("Eureka deregistration failed: " + ex.getMessage());
+        }
+    }
+}
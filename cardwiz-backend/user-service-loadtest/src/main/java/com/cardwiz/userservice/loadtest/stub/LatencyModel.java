@@ -0,0 +1,61 @@
+package com.cardwiz.userservice.loadtest.stub;
+
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Response-time and failure model of one stubbed ai-service endpoint. Latencies are log-normal,
+ * fitted to a median and a p99, which matches the long right tail of Bedrock-backed calls far
+ * better than a fixed or uniform delay.
+ * <p>
+ * Spec format: {@code median:400,p99:3000,errors:0.01,status:503,max:20000} (times in ms).
+ */
+public record LatencyModel(double medianMillis, double p99Millis, double maxMillis, double errorRate, int errorStatus) {
+
+    // z-score of the 99th percentile of the standard normal distribution
+    private static final double Z_99 = 2.3263478740;
+
+    public static LatencyModel parse(String spec) {
+        double median = 0;
+        double p99 = 0;
+        double max = -1;
+        double errors = 0;
+        int status = 503;
+        for (String part : spec.split(",")) {
+            String[] pair = part.trim().split(":");
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("Bad latency spec part '" + part + "' in '" + spec + "'");
+            }
+            String value = pair[1].trim();
+            switch (pair[0].trim().toLowerCase(Locale.ROOT)) {
+                case "median" -> median = Double.parseDouble(value);
+                case "p99" -> p99 = Double.parseDouble(value);
+                case "max" -> max = Double.parseDouble(value);
+                case "errors" -> errors = Double.parseDouble(value);
+                case "status" -> status = Integer.parseInt(value);
+                default -> throw new IllegalArgumentException("Unknown latency spec key '" + pair[0] + "'");
+            }
+        }
+        p99 = Math.max(p99, median);
+        return new LatencyModel(median, p99, max < 0 ? p99 * 4 : max, errors, status);
+    }
+
+    public long sampleMillis() {
+        if (medianMillis <= 0) {
+            return 0;
+        }
+        double sigma = Math.log(p99Millis / medianMillis) / Z_99;
+        double sample = medianMillis * Math.exp(sigma * ThreadLocalRandom.current().nextGaussian());
+        return Math.round(Math.min(sample, maxMillis));
+    }
+
+    public boolean shouldFail() {
+        return errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "median=%.0fms p99=%.0fms max=%.0fms errors=%.2f%% status=%d",
+                medianMillis, p99Millis, maxMillis, errorRate * 100, errorStatus);
+    }
+}
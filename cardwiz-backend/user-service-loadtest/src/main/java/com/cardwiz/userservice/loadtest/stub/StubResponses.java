@@ -0,0 +1,149 @@
+package com.cardwiz.userservice.loadtest.stub;
+
+import com.cardwiz.userservice.dtos.AiResponseDTO;
+import com.cardwiz.userservice.dtos.EmbeddingCoverageRequestDTO;
+import com.cardwiz.userservice.dtos.EmbeddingCoverageResponseDTO;
+import com.cardwiz.userservice.dtos.AnalyzeRequestDTO;
+import com.cardwiz.userservice.dtos.RecommendationDTO;
+import com.cardwiz.userservice.dtos.RecommendationRequestDTO;
+import com.cardwiz.userservice.dtos.RuleEmbeddingSyncRequestDTO;
+import com.cardwiz.userservice.dtos.RuleEmbeddingSyncResponseDTO;
+import com.cardwiz.userservice.dtos.StatementMissedSavingsRequestDTO;
+import com.cardwiz.userservice.dtos.StatementMissedSavingsResponseDTO;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Plausible ai-service responses built from user-service's own DTOs, so the stub cannot drift
+ * from the contract AiServiceClient deserializes. Reward rates are a stable function of
+ * (card, category), which keeps rankings consistent across calls like the real rule store.
+ */
+final class StubResponses {
+
+    private static final String[] CATEGORIES = {"dining", "grocery", "fuel", "travel", "online_shopping", "utilities"};
+    private static final String[] MERCHANTS = {"Swiggy", "BigBasket", "Indian Oil", "MakeMyTrip", "Amazon", "Airtel"};
+
+    private StubResponses() {
+    }
+
+    static double effectivePercentage(long cardId, String category) {
+        int hash = Long.hashCode(cardId * 31 + (category == null ? 0 : category.hashCode()));
+        return Math.round((0.5 + Math.floorMod(hash, 450) / 100.0) * 100.0) / 100.0;
+    }
+
+    static RecommendationDTO rank(RecommendationRequestDTO request, String routingMode) {
+        List<Long> cardIds = request.getAvailableCardIds() == null ? List.of() : request.getAvailableCardIds();
+        double amount = request.getTransactionAmount() == null ? 0.0 : request.getTransactionAmount().doubleValue();
+        String category = request.getCategory() == null ? "general" : request.getCategory().toLowerCase(Locale.ROOT);
+
+        List<Long> ranked = new ArrayList<>(cardIds);
+        ranked.sort(Comparator.comparingDouble((Long id) -> effectivePercentage(id, category)).reversed());
+
+        List<RecommendationDTO.ComparisonRow> comparison = new ArrayList<>();
+        for (int i = 0; i < ranked.size(); i++) {
+            double pct = effectivePercentage(ranked.get(i), category);
+            comparison.add(new RecommendationDTO.ComparisonRow(
+                    "Card " + ranked.get(i), pct, round(amount * pct / 100.0), i == 0 ? "WINNER" : "ALTERNATIVE"));
+        }
+
+        RecommendationDTO dto = new RecommendationDTO();
+        dto.setRecommendationId("rec_" + UUID.randomUUID().toString().replace("-", "").substring(0, 10));
+        dto.setTransactionContext(new RecommendationDTO.TransactionContext(
+                request.getMerchantName(), category, amount, request.getCurrency(), null));
+        dto.setComparisonTable(comparison);
+        dto.setCoveredCardIds(cardIds);
+        dto.setMissingCardIds(List.of());
+        dto.setHasSufficientData(!ranked.isEmpty());
+        dto.setRoutingMode(routingMode);
+        dto.setRoutingReason("loadtest stub");
+        if (!ranked.isEmpty()) {
+            long best = ranked.get(0);
+            double pct = effectivePercentage(best, category);
+            dto.setBestCard(new RecommendationDTO.BestCard(
+                    best,
+                    "Card " + best,
+                    "WINNER",
+                    new RecommendationDTO.Rewards(round(amount * pct / 100.0), "INR", pct, "CASHBACK", null),
+                    "amount x " + pct + "%",
+                    List.of("Highest effective reward for " + category),
+                    null
+            ));
+        }
+        return dto;
+    }
+
+    static RuleEmbeddingSyncResponseDTO syncRuleEmbeddings(RuleEmbeddingSyncRequestDTO request) {
+        int upserted = request.getUpserts() == null ? 0 : request.getUpserts().size();
+        int deleted = request.getDeleteRuleIds() == null ? 0 : request.getDeleteRuleIds().size();
+        return new RuleEmbeddingSyncResponseDTO(request.getCardId(), upserted, deleted);
+    }
+
+    static EmbeddingCoverageResponseDTO coverage(EmbeddingCoverageRequestDTO request) {
+        List<Long> cardIds = request.getCardIds() == null ? List.of() : request.getCardIds();
+        return new EmbeddingCoverageResponseDTO(cardIds.stream().sorted().toList());
+    }
+
+    static AiResponseDTO analyzeDocument(AnalyzeRequestDTO request) {
+        List<AiResponseDTO.ExtractedRuleDTO> rules = new ArrayList<>();
+        for (String category : CATEGORIES) {
+            double pct = effectivePercentage(request.getDocId() == null ? 0 : request.getDocId(), category);
+            rules.add(new AiResponseDTO.ExtractedRuleDTO(
+                    "Stub Card", category, pct, "CASHBACK", null, null, null, pct, "loadtest stub rule"));
+        }
+        return new AiResponseDTO(
+                new AiResponseDTO.DocumentMetadataDTO(request.getDocId(), request.getS3Key(), "loadtest-stub"),
+                rules,
+                "Extracted " + rules.size() + " rules (stub)"
+        );
+    }
+
+    static StatementMissedSavingsResponseDTO missedSavings(StatementMissedSavingsRequestDTO request) {
+        List<Long> cardIds = request.getAvailableCardIds() == null ? List.of() : request.getAvailableCardIds();
+        int limit = request.getLimitTransactions() == null ? 30 : Math.min(request.getLimitTransactions(), 200);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        List<StatementMissedSavingsResponseDTO.TransactionRow> rows = new ArrayList<>();
+        double spend = 0;
+        double actual = 0;
+        double optimal = 0;
+        for (int i = 0; i < limit; i++) {
+            int slot = random.nextInt(CATEGORIES.length);
+            double amount = round(100 + random.nextDouble() * 4_900);
+            long actualCard = request.getActualCardId() == null ? 0 : request.getActualCardId();
+            long optimalCard = cardIds.stream()
+                    .max(Comparator.comparingDouble(id -> effectivePercentage(id, CATEGORIES[slot])))
+                    .orElse(actualCard);
+            double actualValue = round(amount * effectivePercentage(actualCard, CATEGORIES[slot]) / 100.0);
+            double optimalValue = Math.max(actualValue, round(amount * effectivePercentage(optimalCard, CATEGORIES[slot]) / 100.0));
+            rows.add(new StatementMissedSavingsResponseDTO.TransactionRow(
+                    LocalDate.now().minusDays(i).toString(), MERCHANTS[slot], amount,
+                    actualCard, "Card " + actualCard, actualValue, "stub",
+                    optimalCard, "Card " + optimalCard, optimalValue, round(optimalValue - actualValue), null));
+            spend += amount;
+            actual += actualValue;
+            optimal += optimalValue;
+        }
+        return new StatementMissedSavingsResponseDTO(
+                request.getStatementS3Key(),
+                new StatementMissedSavingsResponseDTO.Summary(
+                        rows.size(), round(spend), round(actual), round(optimal), round(optimal - actual),
+                        request.getCurrency(), null),
+                rows
+        );
+    }
+
+    static boolean isHighSpend(RecommendationRequestDTO request, BigDecimal threshold) {
+        return request.getTransactionAmount() != null && request.getTransactionAmount().compareTo(threshold) >= 0;
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100.0) / 100.0;
+    }
+}
@@ -1,11 +1,13 @@
 package com.cardwiz.userservice.config;
 
 import com.cardwiz.userservice.repositories.UserRepository;
+import io.micrometer.observation.ObservationRegistry;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.cloud.client.loadbalancer.LoadBalanced;
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClient;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.core.userdetails.UserDetailsService;
@@ -16,6 +18,9 @@ import org.springframework.web.client.RestClient;
 
 @Configuration
 @RequiredArgsConstructor
+// ai-service calls (RestClient and gateway lb:// routes) go to the replica with the lowest
+// latency-weighted load instead of round-robin
+@LoadBalancerClient(name = "ai-service", configuration = PeakEwmaLoadBalancerConfiguration.class)
 public class ApplicationConfig {
 
     private final UserRepository userRepository;
@@ -34,8 +39,9 @@ public class ApplicationConfig {
     @Bean
     @LoadBalanced
     @Qualifier("loadBalancedRestClientBuilder")
-    public RestClient.Builder restClientBuilder() {
-        return RestClient.builder();
+    public RestClient.Builder restClientBuilder(ObservationRegistry observationRegistry) {
+        // Observed clients send a W3C traceparent header, so ai-service joins the caller's trace
+        return RestClient.builder().observationRegistry(observationRegistry);
     }
 
     @Bean
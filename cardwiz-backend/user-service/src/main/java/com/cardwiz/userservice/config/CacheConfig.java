@@ -5,6 +5,8 @@ import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.jsontype.BasicPolymorphicTypeValidator;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.boot.autoconfigure.cache.RedisCacheManagerBuilderCustomizer;
@@ -29,6 +31,7 @@ public class CacheConfig {
     private static final Logger log = LoggerFactory.getLogger(CacheConfig.class);
     // Changing this prefix forces the app to ignore old broken cache keys
     private static final String CACHE_KEY_PREFIX_VERSION = "v3";
+    private static final String CACHE_ERRORS_METRIC = "cardwiz.cache.errors";
 
     @Bean
     public RedisCacheManagerBuilderCustomizer redisCacheManagerBuilderCustomizer() {
@@ -42,13 +45,19 @@ public class CacheConfig {
                 .serializeKeysWith(RedisSerializationContext.SerializationPair.fromSerializer(new StringRedisSerializer()))
                 .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(valueSerializer));
 
+        // enableStatistics() lets actuator bind cache.gets{result=hit|miss} and cache.puts per cache name
         return builder -> builder
+                .enableStatistics()
                 .cacheDefaults(defaultCacheConfiguration)
                 .withCacheConfiguration("userProfileByIdV2", defaultCacheConfiguration.entryTtl(Duration.ofMinutes(20)))
                 .withCacheConfiguration("userProfileByEmailV2", defaultCacheConfiguration.entryTtl(Duration.ofMinutes(20)))
                 .withCacheConfiguration("cardMetadataByUserV2", defaultCacheConfiguration.entryTtl(Duration.ofMinutes(30)))
                 .withCacheConfiguration("cardMetadataByIdV2", defaultCacheConfiguration.entryTtl(Duration.ofMinutes(30)))
-                .withCacheConfiguration("aiRecommendationsV2", defaultCacheConfiguration.entryTtl(Duration.ofMinutes(10)));
+                .withCacheConfiguration("aiRecommendationsV2", defaultCacheConfiguration.entryTtl(Duration.ofMinutes(10)))
+                // Keyed by ETag, so a change moves readers to a new key; the TTL clears the old ones
+                .withCacheConfiguration("dashboardV1", defaultCacheConfiguration.entryTtl(Duration.ofMinutes(10)))
+                // Rebuilt on every card or rule change, so the TTL only bounds abandoned entries
+                .withCacheConfiguration("cardCategoryMatrixV1", defaultCacheConfiguration.entryTtl(Duration.ofHours(24)));
     }
 
     @Bean
@@ -57,30 +66,42 @@ public class CacheConfig {
     }
 
     @Bean
-    public CacheErrorHandler cacheErrorHandler() {
+    public CacheErrorHandler cacheErrorHandler(MeterRegistry meterRegistry) {
         return new SimpleCacheErrorHandler() {
             @Override
             public void handleCacheGetError(RuntimeException exception, Cache cache, Object key) {
+                countCacheError(meterRegistry, cache.getName(), "get");
                 log.warn("Redis GET failed for key='{}'. Treating as Cache Miss.", key, exception);
             }
 
             @Override
             public void handleCachePutError(RuntimeException exception, Cache cache, Object key, Object value) {
+                countCacheError(meterRegistry, cache.getName(), "put");
                 log.warn("Redis PUT failed for key='{}'.", key, exception);
             }
 
             @Override
             public void handleCacheEvictError(RuntimeException exception, Cache cache, Object key) {
+                countCacheError(meterRegistry, cache.getName(), "evict");
                 log.warn("Redis EVICT failed for key='{}'.", key, exception);
             }
 
             @Override
             public void handleCacheClearError(RuntimeException exception, Cache cache) {
+                countCacheError(meterRegistry, cache.getName(), "clear");
                 log.warn("Redis CLEAR failed.", exception);
             }
         };
     }
 
+    /**
+     * Counts a failed cache operation. Also used by services that talk to {@link org.springframework.cache.CacheManager}
+     * directly and therefore bypass the {@link CacheErrorHandler}.
+     */
+    public static void countCacheError(MeterRegistry meterRegistry, String cacheName, String operation) {
+        meterRegistry.counter(CACHE_ERRORS_METRIC, "cache", cacheName, "operation", operation).increment();
+    }
+
     /**
      * Custom Serializer that handles Lists/Generics correctly and prevents crashes on bad data.
      */
@@ -113,6 +134,7 @@ public class CacheConfig {
             try {
                 return delegate.serialize(value);
             } catch (Exception e) {
+                Metrics.counter(CACHE_ERRORS_METRIC, "cache", "unknown", "operation", "serialize").increment();
                 log.error("Serialization failed for value: {}", value, e);
                 return null;
             }
@@ -124,6 +146,7 @@ public class CacheConfig {
                 return delegate.deserialize(bytes);
             } catch (Exception ex) {
                 // This prevents the 500 Error loop. If Redis data is bad, we just ignore it.
+                Metrics.counter(CACHE_ERRORS_METRIC, "cache", "unknown", "operation", "deserialize").increment();
                 log.warn("Unreadable Redis payload found. Treating as Cache Miss. Error: {}", ex.getMessage());
                 return null;
             }
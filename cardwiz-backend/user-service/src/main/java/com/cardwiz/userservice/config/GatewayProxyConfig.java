@@ -0,0 +1,39 @@
+package com.cardwiz.userservice.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.server.mvc.config.GatewayMvcProperties;
+import org.springframework.cloud.gateway.server.mvc.config.RouteProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Replaces the Gateway MVC proxy client (a bean of type ProxyExchange backs off the default one)
+ * with {@link StreamingProxyExchange} for the /api/v1/ai/** routes.
+ */
+@Configuration
+public class GatewayProxyConfig {
+
+    @Value("${app.gateway.connect-timeout:5s}")
+    private Duration connectTimeout;
+
+    @Value("${app.gateway.read-timeout:60s}")
+    private Duration defaultReadTimeout;
+
+    @Value("${app.gateway.buffer-size:8192}")
+    private int bufferSize;
+
+    @Bean
+    public StreamingProxyExchange streamingProxyExchange(
+            GatewayMvcProperties gatewayMvcProperties,
+            MeterRegistry meterRegistry
+    ) {
+        Map<String, RouteProperties> routes = new HashMap<>(gatewayMvcProperties.getRoutesMap());
+        gatewayMvcProperties.getRoutes().forEach(route -> routes.put(route.getId(), route));
+        return new StreamingProxyExchange(routes, connectTimeout, defaultReadTimeout, bufferSize, meterRegistry);
+    }
+}
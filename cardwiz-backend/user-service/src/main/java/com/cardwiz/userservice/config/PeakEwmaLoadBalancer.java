@@ -0,0 +1,224 @@
+package com.cardwiz.userservice.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.EmptyResponse;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycle;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.client.loadbalancer.ResponseData;
+import org.springframework.cloud.client.loadbalancer.TimedRequestContext;
+import org.springframework.cloud.loadbalancer.core.NoopServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.web.servlet.function.ServerResponse;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+
+/**
+ * Power-of-two-choices balancer for one service: picks two random instances and sends the request
+ * to the one with the lower cost, where
+ * <pre>cost = peak-EWMA latency * (outstanding requests + 1) / weight</pre>
+ * <ul>
+ *   <li>Peak EWMA: a sample slower than the average replaces it at once, faster samples pull it
+ *       down with time constant {@code decayTime}. A replica that turns slow is avoided after one
+ *       slow response, and is tried again as its average decays.</li>
+ *   <li>Failures (I/O errors, 429 and 5xx) count as a sample of at least {@code failurePenalty}, so
+ *       a replica that fails fast does not look fast.</li>
+ *   <li>{@code weight} is optional Eureka instance metadata (default 1); a replica with weight 2
+ *       is given about twice the outstanding requests of a weight 1 replica at the same latency.</li>
+ * </ul>
+ * The balancer is also the {@link LoadBalancerLifecycle} that feeds it: the blocking client behind
+ * the {@code @LoadBalanced} {@code RestClient.Builder} and the gateway's {@code lb://} routes both
+ * report request start and completion through it.
+ */
+@Slf4j
+public class PeakEwmaLoadBalancer implements ReactorServiceInstanceLoadBalancer,
+        LoadBalancerLifecycle<Object, Object, ServiceInstance> {
+
+    static final String WEIGHT_METADATA_KEY = "weight";
+
+    /** Cost of an instance with no latency sample yet while it already has a request in flight. */
+    private static final double UNPROBED_PENALTY = 1.0e12d;
+
+    private final ObjectProvider<ServiceInstanceListSupplier> serviceInstanceListSupplierProvider;
+    private final String serviceId;
+    private final double decayNanos;
+    private final long failurePenaltyNanos;
+    private final ConcurrentMap<String, InstanceStats> stats = new ConcurrentHashMap<>();
+
+    public PeakEwmaLoadBalancer(
+            ObjectProvider<ServiceInstanceListSupplier> serviceInstanceListSupplierProvider,
+            String serviceId,
+            Duration decayTime,
+            Duration failurePenalty
+    ) {
+        this.serviceInstanceListSupplierProvider = serviceInstanceListSupplierProvider;
+        this.serviceId = serviceId;
+        this.decayNanos = Math.max(1L, decayTime.toNanos());
+        this.failurePenaltyNanos = failurePenalty.toNanos();
+    }
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public Mono<Response<ServiceInstance>> choose(Request request) {
+        ServiceInstanceListSupplier supplier =
+                serviceInstanceListSupplierProvider.getIfAvailable(NoopServiceInstanceListSupplier::new);
+        return supplier.get(request).next().map(this::select);
+    }
+
+    Response<ServiceInstance> select(List<ServiceInstance> instances) {
+        if (instances.isEmpty()) {
+            log.warn("No servers available for service: {}", serviceId);
+            return new EmptyResponse();
+        }
+        forgetRemovedInstances(instances);
+        if (instances.size() == 1) {
+            return new DefaultResponse(instances.get(0));
+        }
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(instances.size());
+        int second = random.nextInt(instances.size() - 1);
+        if (second >= first) {
+            second++;
+        }
+        ServiceInstance a = instances.get(first);
+        ServiceInstance b = instances.get(second);
+        long now = System.nanoTime();
+        return new DefaultResponse(cost(a, now) <= cost(b, now) ? a : b);
+    }
+
+    @Override
+    public void onStart(Request<Object> request) {
+    }
+
+    @Override
+    public void onStartRequest(Request<Object> request, Response<ServiceInstance> lbResponse) {
+        if (lbResponse == null || !lbResponse.hasServer()) {
+            return;
+        }
+        if (request != null && request.getContext() instanceof TimedRequestContext timed) {
+            timed.setRequestStartTime(System.nanoTime());
+        }
+        statsFor(lbResponse.getServer()).start();
+    }
+
+    @Override
+    public void onComplete(CompletionContext<Object, ServiceInstance, Object> completionContext) {
+        Response<ServiceInstance> lbResponse = completionContext.getLoadBalancerResponse();
+        if (completionContext.status() == CompletionContext.Status.DISCARD
+                || lbResponse == null || !lbResponse.hasServer()) {
+            return;
+        }
+        long rttNanos = -1L;
+        Request<Object> request = completionContext.getLoadBalancerRequest();
+        if (request != null && request.getContext() instanceof TimedRequestContext timed
+                && timed.getRequestStartTime() > 0L) {
+            rttNanos = System.nanoTime() - timed.getRequestStartTime();
+        }
+        boolean failed = completionContext.status() == CompletionContext.Status.FAILED
+                || isOverloadStatus(completionContext.getClientResponse());
+        if (failed) {
+            rttNanos = Math.max(rttNanos, failurePenaltyNanos);
+        }
+        statsFor(lbResponse.getServer()).complete(rttNanos, System.nanoTime());
+    }
+
+    private double cost(ServiceInstance instance, long now) {
+        InstanceStats instanceStats = stats.get(key(instance));
+        double cost = instanceStats == null ? 0d : instanceStats.cost(now);
+        return cost / weight(instance);
+    }
+
+    private InstanceStats statsFor(ServiceInstance instance) {
+        return stats.computeIfAbsent(key(instance), ignored -> new InstanceStats());
+    }
+
+    private void forgetRemovedInstances(List<ServiceInstance> instances) {
+        if (stats.size() <= instances.size() * 2) {
+            return;
+        }
+        Set<String> current = instances.stream().map(PeakEwmaLoadBalancer::key).collect(Collectors.toSet());
+        stats.entrySet().removeIf(entry -> !current.contains(entry.getKey()) && entry.getValue().idle());
+    }
+
+    private static boolean isOverloadStatus(Object clientResponse) {
+        HttpStatusCode status = null;
+        if (clientResponse instanceof ResponseData responseData) {
+            status = responseData.getHttpStatus();
+        } else if (clientResponse instanceof ServerResponse serverResponse) {
+            status = serverResponse.statusCode();
+        }
+        return status != null && (status.is5xxServerError() || status.value() == 429);
+    }
+
+    static double weight(ServiceInstance instance) {
+        String raw = instance.getMetadata() == null ? null : instance.getMetadata().get(WEIGHT_METADATA_KEY);
+        if (raw == null || raw.isBlank()) {
+            return 1d;
+        }
+        try {
+            double weight = Double.parseDouble(raw.trim());
+            return weight > 0d && Double.isFinite(weight) ? weight : 1d;
+        } catch (NumberFormatException ex) {
+            return 1d;
+        }
+    }
+
+    private static String key(ServiceInstance instance) {
+        return instance.getInstanceId() != null
+                ? instance.getInstanceId()
+                : instance.getHost() + ":" + instance.getPort();
+    }
+
+    private final class InstanceStats {
+        private int outstanding;
+        private double ewmaNanos;
+        private long stampNanos;
+
+        synchronized void start() {
+            outstanding++;
+        }
+
+        synchronized void complete(long rttNanos, long now) {
+            outstanding = Math.max(0, outstanding - 1);
+            if (rttNanos < 0L) {
+                return;
+            }
+            if (stampNanos == 0L || rttNanos > ewmaNanos) {
+                ewmaNanos = rttNanos;
+            } else {
+                double decay = Math.exp(-(now - stampNanos) / decayNanos);
+                ewmaNanos = ewmaNanos * decay + rttNanos * (1d - decay);
+            }
+            stampNanos = now;
+        }
+
+        synchronized double cost(long now) {
+            if (stampNanos == 0L) {
+                // Unprobed: send it one request, then wait for that latency sample
+                return outstanding == 0 ? 0d : UNPROBED_PENALTY * outstanding;
+            }
+            // The average decays towards zero while no responses arrive, so an instance that was
+            // avoided after a slow spell is eventually probed again
+            double decayed = ewmaNanos * Math.exp(-Math.max(0L, now - stampNanos) / decayNanos);
+            return decayed * (outstanding + 1);
+        }
+
+        synchronized boolean idle() {
+            return outstanding == 0;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.cardwiz.userservice.config;
+
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+
+/**
+ * Per-client configuration registered through {@code @LoadBalancerClient} in
+ * {@link ApplicationConfig}. Deliberately not a {@code @Configuration}: it is only read by the
+ * load balancer's child context for that client, never by component scanning.
+ */
+public class PeakEwmaLoadBalancerConfiguration {
+
+    @Bean
+    public PeakEwmaLoadBalancer peakEwmaLoadBalancer(Environment environment, LoadBalancerClientFactory clientFactory) {
+        String serviceId = environment.getProperty(LoadBalancerClientFactory.PROPERTY_NAME);
+        return new PeakEwmaLoadBalancer(
+                clientFactory.getLazyProvider(serviceId, ServiceInstanceListSupplier.class),
+                serviceId,
+                DurationStyle.detectAndParse(environment.getProperty("app.loadbalancer.decay-time", "10s")),
+                DurationStyle.detectAndParse(environment.getProperty("app.loadbalancer.failure-penalty", "5s"))
+        );
+    }
+}
@@ -0,0 +1,84 @@
+package com.cardwiz.userservice.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.transaction.TransactionManagerCustomizers;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.TransactionManager;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Replaces the auto-configured data source with primary + read replica pools when
+ * {@code app.datasource.replica.url} is set. The primary pool is built from the usual
+ * {@code spring.datasource.*} properties, the replica pool from {@code app.datasource.replica.*}.
+ * <p>
+ * Only the primary is a health contributor: a replica outage falls back to the primary instead
+ * of taking the service out of rotation.
+ */
+@Configuration
+@ConditionalOnExpression("!'${app.datasource.replica.url:}'.isEmpty()")
+public class ReadReplicaConfig {
+
+    private HikariDataSource primaryPool;
+    private HikariDataSource replicaPool;
+
+    @Bean
+    @Primary
+    public DataSource dataSource(
+            DataSourceProperties properties,
+            Environment environment,
+            ReadYourWrites readYourWrites,
+            MeterRegistry meterRegistry,
+            @Value("${app.datasource.replica.retry-interval:10s}") Duration retryInterval
+    ) {
+        Binder binder = Binder.get(environment);
+        primaryPool = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        binder.bind("spring.datasource.hikari", Bindable.ofInstance(primaryPool));
+
+        replicaPool = new HikariDataSource();
+        replicaPool.setPoolName("replica");
+        replicaPool.setJdbcUrl(environment.getRequiredProperty("app.datasource.replica.url"));
+        replicaPool.setUsername(environment.getProperty("app.datasource.replica.username", properties.determineUsername()));
+        replicaPool.setPassword(environment.getProperty("app.datasource.replica.password", properties.determinePassword()));
+        replicaPool.setDriverClassName(properties.determineDriverClassName());
+        replicaPool.setReadOnly(true);
+        binder.bind("app.datasource.replica.hikari", Bindable.ofInstance(replicaPool));
+        // Boot binds pool metrics for data source beans only; the replica pool is not one
+        replicaPool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+
+        return new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(
+                primaryPool, replicaPool, readYourWrites, retryInterval, meterRegistry));
+    }
+
+    @Bean
+    public JpaTransactionManager transactionManager(ObjectProvider<TransactionManagerCustomizers> customizers) {
+        JpaTransactionManager transactionManager = new ReplicaRoutingTransactionManager();
+        customizers.ifAvailable(customizer -> customizer.customize((TransactionManager) transactionManager));
+        return transactionManager;
+    }
+
+    @PreDestroy
+    public void close() {
+        if (replicaPool != null) {
+            replicaPool.close();
+        }
+        if (primaryPool != null) {
+            primaryPool.close();
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.cardwiz.userservice.config;
+
+import com.cardwiz.userservice.models.User;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.StringUtils;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Per-user window after a write during which that user's {@link ReplicaRead} reads stay on the
+ * primary, so a user never reads a replica that has not replayed their own change yet.
+ * <p>
+ * Writes made by an authenticated user are recorded by {@link ReplicaRoutingDataSource}; writes
+ * made on a user's behalf without their principal (ai-service callbacks) are recorded explicitly.
+ * The window is kept per instance: a load balancer spreading one user's requests over several
+ * instances needs a window longer than the replica lag plus the time between their requests.
+ * Without a replica configured every call is a no-op.
+ */
+@Component
+public class ReadYourWrites {
+
+    private static final int CLEANUP_THRESHOLD = 10_000;
+
+    private final boolean enabled;
+    private final long windowNanos;
+    private final ConcurrentMap<Long, Long> pinnedUntil = new ConcurrentHashMap<>();
+
+    public ReadYourWrites(
+            @Value("${app.datasource.replica.url:}") String replicaUrl,
+            @Value("${app.datasource.replica.read-your-writes-window:5s}") Duration window
+    ) {
+        this.enabled = StringUtils.hasText(replicaUrl);
+        this.windowNanos = window.toNanos();
+    }
+
+    /**
+     * Pins the user's reads to the primary for the window. Inside a transaction the window starts
+     * once it commits; a rolled back write changes nothing a replica could lag behind on.
+     */
+    public void recordWrite(Long userId) {
+        if (!enabled || userId == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    pin(userId);
+                }
+            });
+        } else {
+            pin(userId);
+        }
+    }
+
+    public boolean isPinned(Long userId) {
+        if (userId == null) {
+            return false;
+        }
+        Long until = pinnedUntil.get(userId);
+        return until != null && until - System.nanoTime() > 0L;
+    }
+
+    /** Id of the authenticated user on this thread; RequestFanOut hands it to forked lookups. */
+    public static Long currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof User user) {
+            return user.getId();
+        }
+        return null;
+    }
+
+    private void pin(Long userId) {
+        long now = System.nanoTime();
+        pinnedUntil.put(userId, now + windowNanos);
+        if (pinnedUntil.size() > CLEANUP_THRESHOLD) {
+            pinnedUntil.values().removeIf(until -> until - now <= 0L);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.cardwiz.userservice.config;
+
+import org.springframework.transaction.annotation.Transactional;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Read-only transaction that may be served by the read replica when one is configured (see
+ * {@link ReplicaRoutingDataSource}). Only methods carrying this annotation are routed; plain
+ * read-only transactions, including Spring Data's default ones, stay on the primary, because
+ * callers such as registration read back a row they have just written.
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Transactional(readOnly = true, label = ReplicaRead.LABEL)
+public @interface ReplicaRead {
+
+    String LABEL = "replica";
+}
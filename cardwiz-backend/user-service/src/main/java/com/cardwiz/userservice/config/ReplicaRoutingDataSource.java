@@ -0,0 +1,118 @@
+package com.cardwiz.userservice.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Sends {@link ReplicaRead} transactions to the read replica and everything else to the primary.
+ * A replica read still goes to the primary when
+ * <ul>
+ *   <li>the current user wrote within the {@link ReadYourWrites} window, or</li>
+ *   <li>the replica failed to hand out a connection within the last {@code retryInterval}; the
+ *       failing read itself is retried on the primary.</li>
+ * </ul>
+ * The route is decided when a transaction runs its first statement, so this data source must sit
+ * behind a {@code LazyConnectionDataSourceProxy}: Hibernate asks for a connection while the
+ * transaction begins, before its read-only flag and synchronizations (which record the write for
+ * {@link ReadYourWrites}) are in place. Only obtaining a connection falls back; a replica
+ * connection that breaks mid-transaction fails that request as it would on the primary.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    enum Route { PRIMARY, REPLICA }
+
+    private static final ThreadLocal<Boolean> REPLICA_ELIGIBLE = new ThreadLocal<>();
+
+    private final DataSource primary;
+    private final DataSource replica;
+    private final ReadYourWrites readYourWrites;
+    private final long retryIntervalNanos;
+    private final Counter replicaReads;
+    private final Counter pinnedReads;
+    private final Counter fallbacks;
+    private volatile long replicaRetryAt;
+
+    public ReplicaRoutingDataSource(
+            DataSource primary,
+            DataSource replica,
+            ReadYourWrites readYourWrites,
+            Duration retryInterval,
+            MeterRegistry meterRegistry
+    ) {
+        this.primary = primary;
+        this.replica = replica;
+        this.readYourWrites = readYourWrites;
+        this.retryIntervalNanos = retryInterval.toNanos();
+        this.replicaReads = readCounter(meterRegistry, "replica");
+        this.pinnedReads = readCounter(meterRegistry, "primary_read_your_writes");
+        this.fallbacks = readCounter(meterRegistry, "primary_fallback");
+        this.replicaRetryAt = System.nanoTime();
+        setTargetDataSources(Map.of(Route.PRIMARY, primary, Route.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    /** Called by the transaction manager when a transaction begins and after it completes. */
+    static void bindReplicaEligible(boolean eligible) {
+        if (eligible) {
+            REPLICA_ELIGIBLE.set(Boolean.TRUE);
+        } else {
+            REPLICA_ELIGIBLE.remove();
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (determineCurrentLookupKey() != Route.REPLICA) {
+            if (TransactionSynchronizationManager.isActualTransactionActive()
+                    && !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+                readYourWrites.recordWrite(ReadYourWrites.currentUserId());
+            }
+            return primary.getConnection();
+        }
+        try {
+            Connection connection = replica.getConnection();
+            replicaReads.increment();
+            return connection;
+        } catch (SQLException ex) {
+            replicaRetryAt = System.nanoTime() + retryIntervalNanos;
+            fallbacks.increment();
+            log.warn("Read replica unavailable, using the primary for {}s: {}",
+                    Duration.ofNanos(retryIntervalNanos).toSeconds(), ex.getMessage());
+            return primary.getConnection();
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!Boolean.TRUE.equals(REPLICA_ELIGIBLE.get())) {
+            return Route.PRIMARY;
+        }
+        if (readYourWrites.isPinned(ReadYourWrites.currentUserId())) {
+            pinnedReads.increment();
+            return Route.PRIMARY;
+        }
+        if (replicaRetryAt - System.nanoTime() > 0L) {
+            fallbacks.increment();
+            return Route.PRIMARY;
+        }
+        return Route.REPLICA;
+    }
+
+    private static Counter readCounter(MeterRegistry meterRegistry, String target) {
+        return Counter.builder("cardwiz.datasource.replica.reads")
+                .description("@ReplicaRead transactions by the data source that served them")
+                .tag("target", target)
+                .register(meterRegistry);
+    }
+}
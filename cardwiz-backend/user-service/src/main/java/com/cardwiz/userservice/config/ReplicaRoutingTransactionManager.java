@@ -0,0 +1,35 @@
+package com.cardwiz.userservice.config;
+
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.interceptor.TransactionAttribute;
+
+/**
+ * Tells {@link ReplicaRoutingDataSource} whether the transaction being started is a
+ * {@link ReplicaRead}. Transaction labels are only visible here, on the definition passed to
+ * {@code begin}; transactions joining an outer one keep the outer transaction's route.
+ */
+class ReplicaRoutingTransactionManager extends JpaTransactionManager {
+
+    @Override
+    protected void doBegin(Object transaction, TransactionDefinition definition) {
+        ReplicaRoutingDataSource.bindReplicaEligible(definition.isReadOnly()
+                && definition instanceof TransactionAttribute attribute
+                && attribute.getLabels().contains(ReplicaRead.LABEL));
+        try {
+            super.doBegin(transaction, definition);
+        } catch (RuntimeException | Error ex) {
+            ReplicaRoutingDataSource.bindReplicaEligible(false);
+            throw ex;
+        }
+    }
+
+    @Override
+    protected void doCleanupAfterCompletion(Object transaction) {
+        try {
+            super.doCleanupAfterCompletion(transaction);
+        } finally {
+            ReplicaRoutingDataSource.bindReplicaEligible(false);
+        }
+    }
+}
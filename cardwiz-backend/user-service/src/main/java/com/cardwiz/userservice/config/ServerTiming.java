@@ -0,0 +1,112 @@
+package com.cardwiz.userservice.config;
+
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.StringJoiner;
+
+/**
+ * Request-scoped stage timings, rendered as a {@code Server-Timing} response header by
+ * {@link ServerTimingFilter}. Spans started outside a request, on a thread the request has not
+ * shared its attributes with (see RequestFanOut), or with the header disabled are no-ops, so call
+ * sites never need to check the flag.
+ * <pre>
+ *   try (ServerTiming.Span ignored = ServerTiming.start("profile")) { ... }
+ * </pre>
+ * Spans with the same name are summed. Spans may nest (e.g. {@code ai} inside {@code rec}) or
+ * overlap (concurrent lookups), so the entries are not expected to add up to {@code total}.
+ */
+public final class ServerTiming {
+
+    static final String REQUEST_ATTRIBUTE = ServerTiming.class.getName();
+
+    private static final Span NOOP = new Span() {
+        @Override
+        public void describe(String description) {
+        }
+
+        @Override
+        public void close() {
+        }
+    };
+
+    private final long startedAt = System.nanoTime();
+    private final Map<String, Entry> entries = new LinkedHashMap<>();
+
+    public interface Span extends AutoCloseable {
+
+        /** Adds a short description, e.g. the ai-service routing mode. */
+        void describe(String description);
+
+        @Override
+        void close();
+    }
+
+    public static Span start(String name) {
+        ServerTiming timing = current();
+        return timing == null ? NOOP : timing.new TimedSpan(name, System.nanoTime());
+    }
+
+    private static ServerTiming current() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return null;
+        }
+        Object timing = attributes.getAttribute(REQUEST_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        return timing instanceof ServerTiming serverTiming ? serverTiming : null;
+    }
+
+    synchronized String headerValue() {
+        StringJoiner header = new StringJoiner(", ");
+        entries.forEach((name, entry) -> {
+            String value = String.format(Locale.ROOT, "%s;dur=%.1f", name, entry.nanos / 1_000_000.0);
+            if (entry.description != null) {
+                value += ";desc=\"" + entry.description.replace("\"", "'") + "\"";
+            }
+            header.add(value);
+        });
+        header.add(String.format(Locale.ROOT, "total;dur=%.1f", (System.nanoTime() - startedAt) / 1_000_000.0));
+        return header.toString();
+    }
+
+    private synchronized void record(String name, long nanos, String description) {
+        Entry entry = entries.computeIfAbsent(name, ignored -> new Entry());
+        entry.nanos += nanos;
+        if (description != null) {
+            entry.description = description;
+        }
+    }
+
+    private static final class Entry {
+        private long nanos;
+        private String description;
+    }
+
+    private final class TimedSpan implements Span {
+        private final String name;
+        private final long spanStartedAt;
+        private String description;
+        private boolean closed;
+
+        private TimedSpan(String name, long spanStartedAt) {
+            this.name = name;
+            this.spanStartedAt = spanStartedAt;
+        }
+
+        @Override
+        public void describe(String description) {
+            this.description = description;
+        }
+
+        @Override
+        public void close() {
+            if (!closed) {
+                closed = true;
+                record(name, System.nanoTime() - spanStartedAt, description);
+            }
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.cardwiz.userservice.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.core.annotation.Order;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+
+/**
+ * Adds a {@code Server-Timing} header with the {@link ServerTiming} spans of the request, e.g.
+ * {@code auth;dur=2.1, profile;dur=0.8, history;dur=4.0, rec;dur=812.5, ai;dur=809.9;desc="llm_rerank", total;dur=826.3}.
+ * Ordered ahead of the security filter chain so the JWT check is included. The header is added
+ * just before the response commits, as the body is written after the last span has closed.
+ */
+@Component
+@Order(SecurityProperties.DEFAULT_FILTER_ORDER - 1)
+public class ServerTimingFilter extends OncePerRequestFilter {
+
+    static final String HEADER = "Server-Timing";
+
+    @Value("${app.observability.server-timing.enabled:false}")
+    private boolean enabled;
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return !enabled;
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+        ServerTiming timing = new ServerTiming();
+        request.setAttribute(ServerTiming.REQUEST_ATTRIBUTE, timing);
+        TimingResponseWrapper wrapped = new TimingResponseWrapper(response, timing);
+        try {
+            filterChain.doFilter(request, wrapped);
+        } finally {
+            wrapped.addHeaderOnce();
+            request.removeAttribute(ServerTiming.REQUEST_ATTRIBUTE);
+        }
+    }
+
+    private static final class TimingResponseWrapper extends HttpServletResponseWrapper {
+        private final ServerTiming timing;
+        private boolean headerAdded;
+
+        private TimingResponseWrapper(HttpServletResponse response, ServerTiming timing) {
+            super(response);
+            this.timing = timing;
+        }
+
+        private void addHeaderOnce() {
+            if (!headerAdded && !isCommitted()) {
+                headerAdded = true;
+                setHeader(HEADER, timing.headerValue());
+            }
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            addHeaderOnce();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            addHeaderOnce();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            addHeaderOnce();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            addHeaderOnce();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            addHeaderOnce();
+            super.sendError(sc);
+        }
+    }
+}
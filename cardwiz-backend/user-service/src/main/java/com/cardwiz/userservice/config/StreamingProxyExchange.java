@@ -0,0 +1,300 @@
+package com.cardwiz.userservice.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.cloud.gateway.server.mvc.common.MvcUtils;
+import org.springframework.cloud.gateway.server.mvc.config.RouteProperties;
+import org.springframework.cloud.gateway.server.mvc.handler.GatewayServerResponse;
+import org.springframework.cloud.gateway.server.mvc.handler.ProxyExchange;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.StreamingHttpOutputMessage;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.servlet.function.ServerResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.http.HttpClient;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Gateway MVC {@link ProxyExchange} that streams both bodies through a fixed-size buffer instead of
+ * the default exchange, which collects the whole request body in memory before sending it upstream.
+ * The JDK HttpClient runs on virtual threads, so a slow ai-service response parks a virtual thread
+ * rather than holding a platform thread the core API needs.
+ * <p>
+ * Settings are read per route from the route metadata ({@code read-timeout}, {@code max-in-flight});
+ * the route is identified by the {@code RouteId} filter. A route at its in-flight limit answers 503
+ * so slow ai-service calls queue at the client rather than in this service. Records
+ * cardwiz.gateway.inflight{route} and cardwiz.gateway.proxy{route,outcome}, the latter covering the
+ * exchange until the last response byte is written (outcome ABANDONED when the request completed
+ * without the body being written).
+ */
+@Slf4j
+public class StreamingProxyExchange implements ProxyExchange {
+
+    static final String INFLIGHT_METRIC = "cardwiz.gateway.inflight";
+    static final String PROXY_METRIC = "cardwiz.gateway.proxy";
+    static final String READ_TIMEOUT_KEY = "read-timeout";
+    static final String MAX_IN_FLIGHT_KEY = "max-in-flight";
+    private static final String DEFAULT_ROUTE = "default";
+
+    private final ExecutorService proxyExecutor = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("gateway-proxy-", 0).factory()
+    );
+    private final HttpClient httpClient;
+    private final Map<String, RouteProperties> routes;
+    private final Duration defaultReadTimeout;
+    private final int bufferSize;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, RouteState> routeStates = new ConcurrentHashMap<>();
+
+    public StreamingProxyExchange(
+            Map<String, RouteProperties> routes,
+            Duration connectTimeout,
+            Duration defaultReadTimeout,
+            int bufferSize,
+            MeterRegistry meterRegistry
+    ) {
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(connectTimeout)
+                .executor(proxyExecutor)
+                .build();
+        this.routes = routes;
+        this.defaultReadTimeout = defaultReadTimeout;
+        this.bufferSize = bufferSize;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        httpClient.shutdownNow();
+        proxyExecutor.shutdownNow();
+    }
+
+    @Override
+    public ServerResponse exchange(Request request) {
+        RouteState route = routeState(request);
+        if (!route.permits.tryAcquire()) {
+            record(route, Timer.start(meterRegistry), "REJECTED");
+            log.warn("Gateway route {} at max in-flight ({}); rejecting {} {}",
+                    route.id, route.maxInFlight, request.getMethod(), request.getUri().getPath());
+            return GatewayServerResponse.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .build();
+        }
+        route.inFlight.incrementAndGet();
+        Lease lease = new Lease(route, Timer.start(meterRegistry));
+        releaseOnCompletion(lease);
+
+        try {
+            ClientHttpRequest outbound = route.requestFactory.createRequest(request.getUri(), request.getMethod());
+            outbound.getHeaders().putAll(request.getHeaders());
+            InputStream requestBody = request.getServerRequest().servletRequest().getInputStream();
+            ((StreamingHttpOutputMessage) outbound).setBody(out -> copy(requestBody, out, false));
+            ClientHttpResponse upstream = outbound.execute();
+            lease.upstream = upstream;
+
+            HttpStatusCode status = upstream.getStatusCode();
+            ServerResponse serverResponse = GatewayServerResponse.status(status).build((servletRequest, servletResponse) -> {
+                String outcome = outcome(status);
+                try {
+                    copy(upstream.getBody(), servletResponse.getOutputStream(), true);
+                } catch (IOException | RuntimeException ex) {
+                    outcome = "IO_ERROR";
+                    throw ex;
+                } finally {
+                    lease.release(outcome);
+                }
+                return null;
+            });
+            Response upstreamResponse = new UpstreamResponse(status, upstream.getHeaders());
+            Collection<ResponseConsumer> consumers = request.getResponseConsumers();
+            consumers.forEach(consumer -> consumer.accept(upstreamResponse, serverResponse));
+            return serverResponse;
+        } catch (IOException ex) {
+            if (isTimeout(ex)) {
+                lease.release("TIMEOUT");
+                log.warn("Gateway route {} timed out after {} on {} {}", route.id, route.readTimeout,
+                        request.getMethod(), request.getUri().getPath());
+                return GatewayServerResponse.status(HttpStatus.GATEWAY_TIMEOUT).build();
+            }
+            lease.release("IO_ERROR");
+            log.warn("Gateway route {} failed on {} {}: {}", route.id, request.getMethod(),
+                    request.getUri().getPath(), ex.getMessage());
+            return GatewayServerResponse.status(HttpStatus.BAD_GATEWAY).build();
+        } catch (RuntimeException ex) {
+            lease.release("UNKNOWN");
+            throw ex;
+        }
+    }
+
+    /**
+     * Releases the lease when the servlet request completes, in case the body writer never runs
+     * (a filter replaced the response, or writing failed before it started). After the body writer
+     * has released it this is a no-op.
+     */
+    private static void releaseOnCompletion(Lease lease) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null) {
+            attributes.registerDestructionCallback(
+                    Lease.class.getName() + "@" + System.identityHashCode(lease),
+                    () -> lease.release("ABANDONED"),
+                    RequestAttributes.SCOPE_REQUEST);
+        }
+    }
+
+    /**
+     * Copies through one buffer of {@code bufferSize} bytes. Response chunks are flushed as they
+     * arrive so a slow upstream body reaches the client incrementally.
+     */
+    private void copy(InputStream in, OutputStream out, boolean flushEachChunk) throws IOException {
+        byte[] buffer = new byte[bufferSize];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+            if (flushEachChunk) {
+                out.flush();
+            }
+        }
+        out.flush();
+    }
+
+    private void record(RouteState route, Timer.Sample sample, String outcome) {
+        sample.stop(Timer.builder(PROXY_METRIC)
+                .tag("route", route.id)
+                .tag("outcome", outcome)
+                .register(meterRegistry));
+    }
+
+    private RouteState routeState(Request request) {
+        Object routeId = request.getServerRequest().attributes().get(MvcUtils.GATEWAY_ROUTE_ID_ATTR);
+        String id = routeId == null ? DEFAULT_ROUTE : routeId.toString();
+        return routeStates.computeIfAbsent(id, this::newRouteState);
+    }
+
+    private RouteState newRouteState(String id) {
+        RouteProperties route = routes.get(id);
+        Map<String, Object> metadata = route == null ? Map.of() : route.getMetadata();
+        Duration readTimeout = metadata.containsKey(READ_TIMEOUT_KEY)
+                ? DurationStyle.detectAndParse(metadata.get(READ_TIMEOUT_KEY).toString())
+                : defaultReadTimeout;
+        int maxInFlight = metadata.containsKey(MAX_IN_FLIGHT_KEY)
+                ? Integer.parseInt(metadata.get(MAX_IN_FLIGHT_KEY).toString())
+                : Integer.MAX_VALUE;
+
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient, proxyExecutor);
+        requestFactory.setReadTimeout(readTimeout);
+        RouteState state = new RouteState(id, requestFactory, readTimeout, maxInFlight);
+        Gauge.builder(INFLIGHT_METRIC, state.inFlight, AtomicInteger::get)
+                .tag("route", id)
+                .register(meterRegistry);
+        log.info("Gateway route {} streaming with read-timeout={} max-in-flight={}", id, readTimeout,
+                maxInFlight == Integer.MAX_VALUE ? "unbounded" : maxInFlight);
+        return state;
+    }
+
+    private static String outcome(HttpStatusCode status) {
+        if (status.is5xxServerError()) {
+            return "SERVER_ERROR";
+        }
+        return status.is4xxClientError() ? "CLIENT_ERROR" : "SUCCESS";
+    }
+
+    /**
+     * The JDK request factory wraps both the client's HttpTimeoutException and its own response
+     * deadline in a plain IOException.
+     */
+    private static boolean isTimeout(Throwable ex) {
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (cause instanceof HttpTimeoutException || cause instanceof TimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * One exchange's route permit, in-flight count, timer and upstream response, released exactly
+     * once by whichever of the body writer, the error paths and the request-completion callback
+     * gets there first.
+     */
+    private final class Lease {
+        private final RouteState route;
+        private final Timer.Sample sample;
+        private final AtomicBoolean released = new AtomicBoolean();
+        private volatile ClientHttpResponse upstream;
+
+        private Lease(RouteState route, Timer.Sample sample) {
+            this.route = route;
+            this.sample = sample;
+        }
+
+        private void release(String outcome) {
+            if (!released.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                ClientHttpResponse response = upstream;
+                if (response != null) {
+                    response.close();
+                }
+            } finally {
+                route.inFlight.decrementAndGet();
+                route.permits.release();
+                record(route, sample, outcome);
+            }
+        }
+    }
+
+    private static final class RouteState {
+        private final String id;
+        private final JdkClientHttpRequestFactory requestFactory;
+        private final Duration readTimeout;
+        private final int maxInFlight;
+        private final Semaphore permits;
+        private final AtomicInteger inFlight = new AtomicInteger();
+
+        private RouteState(String id, JdkClientHttpRequestFactory requestFactory, Duration readTimeout, int maxInFlight) {
+            this.id = id;
+            this.requestFactory = requestFactory;
+            this.readTimeout = readTimeout;
+            this.maxInFlight = maxInFlight;
+            this.permits = new Semaphore(maxInFlight);
+        }
+    }
+
+    private record UpstreamResponse(HttpStatusCode status, HttpHeaders headers) implements Response {
+
+        @Override
+        public HttpStatusCode getStatusCode() {
+            return status;
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+    }
+}
@@ -4,12 +4,16 @@ import com.cardwiz.userservice.dtos.AdvisorMessageCreateRequest;
 import com.cardwiz.userservice.dtos.AdvisorMessageResponse;
 import com.cardwiz.userservice.dtos.UserResponseDTO;
 import com.cardwiz.userservice.services.AdvisorHistoryService;
+import com.cardwiz.userservice.services.ExportFormat;
 import com.cardwiz.userservice.services.UserService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -29,6 +33,23 @@ public class AdvisorController {
         return ResponseEntity.ok(advisorHistoryService.getHistory(Long.valueOf(current.getId())));
     }
 
+    /** The whole history as {@code ?format=ndjson} (default) or {@code csv}, streamed from a database cursor. */
+    @GetMapping("/history/export")
+    public ResponseEntity<StreamingResponseBody> exportHistory(
+            @AuthenticationPrincipal UserDetails userDetails,
+            @RequestParam(defaultValue = "ndjson") String format
+    ) {
+        UserResponseDTO current = userService.getUserProfileByEmail(userDetails.getUsername());
+        Long userId = Long.valueOf(current.getId());
+        ExportFormat exportFormat = ExportFormat.of(format);
+        StreamingResponseBody body = out -> advisorHistoryService.exportHistory(userId, exportFormat, out);
+        return ResponseEntity.ok()
+                .contentType(exportFormat.mediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(exportFormat.fileName("advisor-history")).build().toString())
+                .body(body);
+    }
+
     @PostMapping("/history")
     public ResponseEntity<AdvisorMessageResponse> saveMessage(
             @AuthenticationPrincipal UserDetails userDetails,
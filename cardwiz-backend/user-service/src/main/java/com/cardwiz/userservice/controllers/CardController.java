@@ -1,10 +1,14 @@
 package com.cardwiz.userservice.controllers;
 
+import com.cardwiz.userservice.config.ServerTiming;
 import com.cardwiz.userservice.dtos.AiResponseDTO;
+import com.cardwiz.userservice.dtos.CardCategoryMatrix;
+import com.cardwiz.userservice.dtos.CategoryInference;
 import com.cardwiz.userservice.dtos.DocumentIngestionResponseDTO;
 import com.cardwiz.userservice.dtos.DocumentJobStatusDTO;
 import com.cardwiz.userservice.dtos.IngestCallbackRequestDTO;
 import com.cardwiz.userservice.dtos.IngestRequestDTO;
+import com.cardwiz.userservice.dtos.PortfolioOptimizationResponse;
 import com.cardwiz.userservice.dtos.RecommendationDTO;
 import com.cardwiz.userservice.dtos.RecommendationRequestDTO;
 import com.cardwiz.userservice.dtos.StatementMissedSavingsRequestDTO;
@@ -12,12 +16,20 @@ import com.cardwiz.userservice.dtos.StatementMissedSavingsResponseDTO;
 import com.cardwiz.userservice.dtos.UserCardRequest;
 import com.cardwiz.userservice.dtos.UserCardResponse;
 import com.cardwiz.userservice.dtos.UserResponseDTO;
-import com.cardwiz.userservice.dtos.TransactionResponse;
 import com.cardwiz.userservice.models.UploadedDocument;
 import com.cardwiz.userservice.services.AiServiceClient;
+import com.cardwiz.userservice.services.CardCategoryMatrixService;
 import com.cardwiz.userservice.services.CardService;
+import com.cardwiz.userservice.services.ConditionalGet;
 import com.cardwiz.userservice.services.DocumentIngestEventPublisher;
 import com.cardwiz.userservice.services.ImageUploadService;
+import com.cardwiz.userservice.services.MerchantClassifier;
+import com.cardwiz.userservice.services.MissedSavingsCalculator;
+import com.cardwiz.userservice.services.PortfolioOptimizer;
+import com.cardwiz.userservice.services.RecommendationCacheService;
+import com.cardwiz.userservice.services.RequestFanOut;
+import com.cardwiz.userservice.services.ResourceVersions;
+import com.cardwiz.userservice.services.RuleEmbeddingSync;
 import com.cardwiz.userservice.services.TransactionService;
 import com.cardwiz.userservice.services.UserService;
 import lombok.RequiredArgsConstructor;
@@ -28,15 +40,17 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Objects;
 import java.util.Optional;
-import java.util.Comparator;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
@@ -47,22 +61,31 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 @Slf4j
 public class CardController {
-    private static final double DEFAULT_POINT_VALUE_RUPEES = 0.25d;
-
     private final CardService cardService;
+    private final CardCategoryMatrixService cardCategoryMatrixService;
     private final UserService userService;
     private final ImageUploadService imageUploadService;
     private final AiServiceClient aiServiceClient;
+    private final RecommendationCacheService recommendationCacheService;
     private final TransactionService transactionService;
+    private final RequestFanOut requestFanOut;
     private final DocumentIngestEventPublisher ingestEventPublisher;
+    private final ConditionalGet conditionalGet;
+    private final MerchantClassifier merchantClassifier;
+    private final RuleEmbeddingSync ruleEmbeddingSync;
+    private final PortfolioOptimizer portfolioOptimizer;
+    private final MissedSavingsCalculator missedSavingsCalculator;
 
     @Value("${app.internal.ai-callback-secret}")
     private String aiCallbackSecret;
 
     @GetMapping
-    public ResponseEntity<List<UserCardResponse>> listCards(@AuthenticationPrincipal UserDetails userDetails) {
-        UserResponseDTO current = userService.getUserProfileByEmail(userDetails.getUsername());
-        return ResponseEntity.ok(cardService.getCardsForUser(Long.valueOf(current.getId())));
+    public ResponseEntity<List<UserCardResponse>> listCards(
+            @AuthenticationPrincipal UserDetails userDetails,
+            WebRequest webRequest) {
+        Long userId = userService.resolveUserId(userDetails);
+        return conditionalGet.respond(webRequest, userId, ResourceVersions.Resource.CARDS,
+                () -> cardService.getCardsForUser(userId));
     }
 
     @GetMapping("/{cardId}")
@@ -133,6 +156,10 @@ public class CardController {
 
         String status = callback.getStatus() == null ? "" : callback.getStatus().toUpperCase(Locale.ROOT);
         if ("COMPLETED".equals(status)) {
+            if (callback.getExtractedRules() != null) {
+                cardService.replaceCardRules(callback.getCardId(), callback.getDocumentId(), callback.getExtractedRules());
+                ruleEmbeddingSync.scheduleSync(callback.getCardId(), callback.getExtractedRules());
+            }
             cardService.markDocumentComplete(callback.getDocumentId(), callback.getAiSummary());
             cardService.markCardDocumentCompleted(callback.getCardId());
             return ResponseEntity.ok().build();
@@ -143,6 +170,16 @@ public class CardController {
         return ResponseEntity.ok().build();
     }
 
+    /** Which {@code keep} active cards would have earned the most on the user's own spending. */
+    @GetMapping("/portfolio/optimize")
+    public ResponseEntity<PortfolioOptimizationResponse> optimizePortfolio(
+            @AuthenticationPrincipal UserDetails userDetails,
+            @RequestParam(value = "keep", defaultValue = "2") int keep,
+            @RequestParam(value = "top", defaultValue = "3") int top) {
+        Long userId = userService.resolveUserId(userDetails);
+        return ResponseEntity.ok(portfolioOptimizer.optimize(userId, keep, top));
+    }
+
     @GetMapping("/knowledge-coverage")
     public ResponseEntity<Map<Long, Boolean>> getKnowledgeCoverage(@AuthenticationPrincipal UserDetails userDetails) {
         UserResponseDTO current = userService.getUserProfileByEmail(userDetails.getUsername());
@@ -234,22 +271,75 @@ public class CardController {
     public ResponseEntity<RecommendationDTO> getRecommendation(
             @AuthenticationPrincipal UserDetails userDetails,
             @RequestBody RecommendationRequestDTO request) {
-        UserResponseDTO current = userService.getUserProfileByEmail(userDetails.getUsername());
-        Long userId = Long.valueOf(current.getId());
-        String historyContext = buildRecentValidationContext(userId);
-        List<Long> eligibleCardIds = resolveEligibleCardIds(userId, request.getAvailableCardIds());
+        Long userId;
+        try (ServerTiming.Span ignored = ServerTiming.start("profile")) {
+            userId = userService.resolveUserId(userDetails);
+        }
 
-        RecommendationRequestDTO enrichedRequest = new RecommendationRequestDTO(
-                userId,
-                request.getMerchantName(),
-                request.getCategory(),
-                request.getTransactionAmount(),
-                request.getCurrency(),
-                mergeContextNotes(request.getContextNotes(), historyContext),
-                eligibleCardIds
-        );
+        // A blank category would be "general", which neither the matrix nor the cache can answer
+        String category = StringUtils.hasText(request.getCategory())
+                ? request.getCategory()
+                : merchantClassifier.classify(userId, request.getMerchantName())
+                        .map(CategoryInference::getCategory)
+                        .orElse(request.getCategory());
+
+        // Cards, the category matrix and recent history are independent lookups; history is
+        // only forked up front when the matrix cannot answer this request anyway.
+        boolean matrixCandidate = cardCategoryMatrixService.mayAnswer(category, request.getContextNotes());
+        try (RequestFanOut.Scope scope = requestFanOut.open()) {
+            RequestFanOut.Task<List<Long>> cards = scope.fork("cards", () -> {
+                try (ServerTiming.Span ignored = ServerTiming.start("cards")) {
+                    return resolveEligibleCardIds(userId, request.getAvailableCardIds());
+                }
+            });
+            RequestFanOut.Task<CardCategoryMatrix> matrix = matrixCandidate
+                    ? scope.fork("matrix", () -> {
+                        try (ServerTiming.Span ignored = ServerTiming.start("matrix")) {
+                            return cardCategoryMatrixService.getMatrix(userId);
+                        }
+                    })
+                    : null;
+            RequestFanOut.Task<String> history = matrixCandidate ? null : forkHistory(scope, userId);
+
+            List<Long> eligibleCardIds = cards.join();
+            if (matrix != null) {
+                Optional<RecommendationDTO> precomputed = cardCategoryMatrixService.tryRecommend(new RecommendationRequestDTO(
+                        userId,
+                        request.getMerchantName(),
+                        category,
+                        request.getTransactionAmount(),
+                        request.getCurrency(),
+                        request.getContextNotes(),
+                        eligibleCardIds
+                ), matrix::join);
+                if (precomputed.isPresent()) {
+                    return ResponseEntity.ok(precomputed.get());
+                }
+                history = forkHistory(scope, userId);
+            }
+
+            RecommendationRequestDTO enrichedRequest = new RecommendationRequestDTO(
+                    userId,
+                    request.getMerchantName(),
+                    category,
+                    request.getTransactionAmount(),
+                    request.getCurrency(),
+                    mergeContextNotes(request.getContextNotes(), history.join()),
+                    eligibleCardIds
+            );
+
+            try (ServerTiming.Span ignored = ServerTiming.start("rec")) {
+                return ResponseEntity.ok(recommendationCacheService.getRecommendation(enrichedRequest));
+            }
+        }
+    }
 
-        return ResponseEntity.ok(aiServiceClient.getRecommendation(enrichedRequest));
+    private RequestFanOut.Task<String> forkHistory(RequestFanOut.Scope scope, Long userId) {
+        return scope.fork("history", () -> {
+            try (ServerTiming.Span ignored = ServerTiming.start("history")) {
+                return transactionService.buildRecentValidationContext(userId);
+            }
+        });
     }
 
     @PostMapping("/statement-missed-savings")
@@ -286,6 +376,19 @@ public class CardController {
         return ResponseEntity.ok(aiServiceClient.analyzeStatementMissedSavings(request));
     }
 
+    /**
+     * Missed savings over every stored transaction that records the card it was paid with, valued
+     * locally with the card rules; the summary covers them all, the rows are the ones missing most.
+     */
+    @GetMapping("/missed-savings")
+    public ResponseEntity<StatementMissedSavingsResponseDTO> recomputeMissedSavings(
+            @AuthenticationPrincipal UserDetails userDetails,
+            @RequestParam(value = "currency", defaultValue = "INR") String currency,
+            @RequestParam(value = "limitTransactions", defaultValue = "30") int limitTransactions) {
+        Long userId = userService.resolveUserId(userDetails);
+        return ResponseEntity.ok(missedSavingsCalculator.calculate(userId, currency, limitTransactions));
+    }
+
     private String mergeContextNotes(String requestContext, String historyContext) {
         boolean hasRequest = requestContext != null && !requestContext.isBlank();
         boolean hasHistory = historyContext != null && !historyContext.isBlank();
@@ -312,36 +415,6 @@ public class CardController {
                 .toList();
     }
 
-    private String buildRecentValidationContext(Long userId) {
-        List<TransactionResponse> recent = transactionService.listTransactions(userId).stream()
-                .sorted(
-                        Comparator.comparing(
-                                TransactionResponse::getTransactionDate,
-                                Comparator.nullsLast(Comparator.reverseOrder())
-                        ).thenComparing(
-                                TransactionResponse::getId,
-                                Comparator.nullsLast(Comparator.reverseOrder())
-                        )
-                )
-                .limit(5)
-                .toList();
-
-        if (recent.isEmpty()) {
-            return "";
-        }
-
-        return recent.stream()
-                .map(tx -> {
-                    String merchant = tx.getMerchant() == null ? "unknown-merchant" : tx.getMerchant();
-                    String category = tx.getCategory() == null ? "general" : tx.getCategory();
-                    String currency = tx.getCurrency() == null ? "INR" : tx.getCurrency();
-                    String amount = tx.getAmount() == null ? "0" : tx.getAmount().toPlainString();
-                    return merchant + ":" + category + ":" + currency + ":" + amount;
-                })
-                .reduce((left, right) -> left + " ; " + right)
-                .orElse("");
-    }
-
     private void syncExtractedRules(Long userId, Long documentId, AiResponseDTO analysis, Long forcedCardId) {
         if (analysis == null || analysis.getExtractedRules() == null || analysis.getExtractedRules().isEmpty()) {
             return;
@@ -355,27 +428,23 @@ public class CardController {
         }
 
         Long fallbackCardId = forcedCardId != null ? forcedCardId : userCards.get(0).getId();
+        Map<Long, List<AiResponseDTO.ExtractedRuleDTO>> rulesByCard = new LinkedHashMap<>();
 
-        for (int index = 0; index < analysis.getExtractedRules().size(); index++) {
-            AiResponseDTO.ExtractedRuleDTO rule = analysis.getExtractedRules().get(index);
+        for (AiResponseDTO.ExtractedRuleDTO rule : analysis.getExtractedRules()) {
             Long mappedCardId = forcedCardId != null
                     ? forcedCardId
                     : matchCardId(rule.getCardName(), userCards).orElse(fallbackCardId);
-            Integer ruleId = Objects.hash(documentId, index, mappedCardId, rule.getCategory(), rule.getRewardType());
-            String contentText = buildRuleContentText(rule);
+            rulesByCard.computeIfAbsent(mappedCardId, ignored -> new ArrayList<>()).add(rule);
+        }
 
+        rulesByCard.forEach((cardId, rules) -> {
             try {
-                aiServiceClient.syncEmbedding(ruleId, mappedCardId, contentText);
+                ruleEmbeddingSync.sync(cardId, rules);
             } catch (RuntimeException ex) {
-                log.warn(
-                        "Failed syncing embedding for documentId={}, ruleIndex={}, mappedCardId={}: {}",
-                        documentId,
-                        index,
-                        mappedCardId,
-                        ex.getMessage()
-                );
+                log.warn("Failed syncing rule embeddings for documentId={}, cardId={}: {}", documentId, cardId, ex.getMessage());
             }
-        }
+        });
+        rulesByCard.forEach((cardId, rules) -> cardService.replaceCardRules(cardId, documentId, rules));
     }
 
     private Optional<Long> matchCardId(String extractedCardName, List<UserCardResponse> userCards) {
@@ -393,57 +462,4 @@ public class CardController {
                 .map(UserCardResponse::getId)
                 .findFirst();
     }
-
-    private String buildRuleContentText(AiResponseDTO.ExtractedRuleDTO rule) {
-        String cardName = rule.getCardName() == null ? "unknown" : rule.getCardName();
-        String category = rule.getCategory() == null ? "general" : rule.getCategory();
-        String rewardType = rule.getRewardType() == null ? "REWARD" : rule.getRewardType();
-        String rewardRate = rule.getRewardRate() == null ? "0" : String.valueOf(rule.getRewardRate());
-        String pointsPerUnit = rule.getPointsPerUnit() == null ? "null" : String.valueOf(rule.getPointsPerUnit());
-        String spendUnit = rule.getSpendUnit() == null ? "null" : String.valueOf(rule.getSpendUnit());
-        String pointValueRupees = rule.getPointValueRupees() == null ? "null" : String.valueOf(rule.getPointValueRupees());
-        double effectivePctValue = deriveEffectiveRewardPercentage(rule);
-        String effectivePct = String.valueOf(effectivePctValue);
-        String conditions = rule.getConditions() == null ? "none" : rule.getConditions().replace(";", ",");
-
-        return "card_name=" + cardName
-                + ";category=" + category
-                + ";reward_type=" + rewardType
-                + ";reward_rate=" + rewardRate
-                + ";points_per_unit=" + pointsPerUnit
-                + ";spend_unit=" + spendUnit
-                + ";point_value_rupees=" + pointValueRupees
-                + ";effective_reward_percentage=" + effectivePct
-                + ";conditions=" + conditions;
-    }
-
-    private double deriveEffectiveRewardPercentage(AiResponseDTO.ExtractedRuleDTO rule) {
-        if (rule.getEffectiveRewardPercentage() != null && rule.getEffectiveRewardPercentage() > 0) {
-            return rule.getEffectiveRewardPercentage();
-        }
-
-        String rewardType = rule.getRewardType() == null ? "" : rule.getRewardType().toUpperCase(Locale.ROOT);
-        if ("CASHBACK".equals(rewardType) && rule.getRewardRate() != null && rule.getRewardRate() > 0) {
-            return roundTwoDecimals(rule.getRewardRate());
-        }
-
-        if ("POINTS".equals(rewardType)) {
-            Double pointsPerUnit = rule.getPointsPerUnit();
-            Double spendUnit = rule.getSpendUnit();
-            Double pointValue = rule.getPointValueRupees() != null ? rule.getPointValueRupees() : DEFAULT_POINT_VALUE_RUPEES;
-            if (pointsPerUnit != null && spendUnit != null && spendUnit > 0 && pointValue > 0) {
-                double pct = (pointsPerUnit * pointValue / spendUnit) * 100.0d;
-                return roundTwoDecimals(pct);
-            }
-        }
-
-        if (rule.getRewardRate() != null && rule.getRewardRate() > 0) {
-            return roundTwoDecimals(rule.getRewardRate());
-        }
-        return 0.0d;
-    }
-
-    private double roundTwoDecimals(double value) {
-        return Math.round(value * 100.0d) / 100.0d;
-    }
 }
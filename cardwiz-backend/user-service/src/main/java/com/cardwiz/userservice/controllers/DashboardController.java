@@ -0,0 +1,34 @@
+package com.cardwiz.userservice.controllers;
+
+import com.cardwiz.userservice.dtos.DashboardResponse;
+import com.cardwiz.userservice.services.ConditionalGet;
+import com.cardwiz.userservice.services.DashboardService;
+import com.cardwiz.userservice.services.UserService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+@RestController
+@RequestMapping("/api/v1/dashboard")
+@RequiredArgsConstructor
+public class DashboardController {
+
+    private final DashboardService dashboardService;
+    private final UserService userService;
+    private final ConditionalGet conditionalGet;
+
+    /** Profile, cards, knowledge coverage and recent transactions in one round trip. */
+    @GetMapping
+    public ResponseEntity<DashboardResponse> getDashboard(
+            @AuthenticationPrincipal UserDetails userDetails,
+            WebRequest webRequest) {
+        Long userId = userService.resolveUserId(userDetails);
+        return conditionalGet.respond(webRequest, userId, DashboardService.RESOURCES,
+                etag -> dashboardService.getDashboard(userId, etag), DashboardService::isComplete);
+    }
+}
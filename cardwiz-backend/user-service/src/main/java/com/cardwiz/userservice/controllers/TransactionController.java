@@ -1,19 +1,32 @@
 package com.cardwiz.userservice.controllers;
 
+import com.cardwiz.userservice.config.ServerTiming;
+import com.cardwiz.userservice.dtos.TransactionImportResponse;
 import com.cardwiz.userservice.dtos.TransactionRequest;
 import com.cardwiz.userservice.dtos.TransactionResponse;
 import com.cardwiz.userservice.dtos.UserResponseDTO;
 import com.cardwiz.userservice.dtos.ValidationRequestDTO;
 import com.cardwiz.userservice.dtos.ValidationResponseDTO;
+import com.cardwiz.userservice.services.ConditionalGet;
+import com.cardwiz.userservice.services.ExportFormat;
+import com.cardwiz.userservice.services.ResourceVersions;
+import com.cardwiz.userservice.services.TransactionImportService;
 import com.cardwiz.userservice.services.TransactionService;
 import com.cardwiz.userservice.services.UserService;
 import com.cardwiz.userservice.services.ValidationService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.YearMonth;
 import java.util.List;
 
 @RestController
@@ -22,14 +35,47 @@ import java.util.List;
 public class TransactionController {
 
     private final TransactionService transactionService;
+    private final TransactionImportService transactionImportService;
     private final UserService userService;
     private final ValidationService validationService;
+    private final ConditionalGet conditionalGet;
 
     @GetMapping
     public ResponseEntity<List<TransactionResponse>> listTransactions(
-            @AuthenticationPrincipal UserDetails userDetails) {
+            @AuthenticationPrincipal UserDetails userDetails,
+            WebRequest webRequest) {
+        Long userId = userService.resolveUserId(userDetails);
+        return conditionalGet.respond(webRequest, userId, ResourceVersions.Resource.TRANSACTIONS,
+                () -> transactionService.listTransactions(userId));
+    }
+
+    /**
+     * All transactions as {@code ?format=ndjson} (default) or {@code csv}, streamed from a database
+     * cursor on a virtual thread rather than built up as a list like {@link #listTransactions}.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportTransactions(
+            @AuthenticationPrincipal UserDetails userDetails,
+            @RequestParam(defaultValue = "ndjson") String format) {
         UserResponseDTO current = userService.getUserProfileByEmail(userDetails.getUsername());
-        return ResponseEntity.ok(transactionService.listTransactions(Long.valueOf(current.getId())));
+        Long userId = Long.valueOf(current.getId());
+        ExportFormat exportFormat = ExportFormat.of(format);
+        StreamingResponseBody body = out -> transactionService.exportTransactions(userId, exportFormat, out);
+        return ResponseEntity.ok()
+                .contentType(exportFormat.mediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(exportFormat.fileName("transactions")).build().toString())
+                .body(body);
+    }
+
+    /** Transactions of archived months, e.g. {@code ?from=2023-01&to=2023-12}. */
+    @GetMapping("/archive")
+    public ResponseEntity<List<TransactionResponse>> listArchivedTransactions(
+            @AuthenticationPrincipal UserDetails userDetails,
+            @RequestParam @DateTimeFormat(pattern = "yyyy-MM") YearMonth from,
+            @RequestParam @DateTimeFormat(pattern = "yyyy-MM") YearMonth to) {
+        UserResponseDTO current = userService.getUserProfileByEmail(userDetails.getUsername());
+        return ResponseEntity.ok(transactionService.listArchivedTransactions(Long.valueOf(current.getId()), from, to));
     }
 
     @GetMapping("/{transactionId}")
@@ -48,6 +94,15 @@ public class TransactionController {
         return ResponseEntity.ok(transactionService.createTransaction(Long.valueOf(current.getId()), request));
     }
 
+    /** Bulk import from a bank or card CSV export; see {@link TransactionImportService} for the format. */
+    @PostMapping("/import")
+    public ResponseEntity<TransactionImportResponse> importTransactions(
+            @AuthenticationPrincipal UserDetails userDetails,
+            @RequestParam("file") MultipartFile file) {
+        UserResponseDTO current = userService.getUserProfileByEmail(userDetails.getUsername());
+        return ResponseEntity.ok(transactionImportService.importCsv(Long.valueOf(current.getId()), file));
+    }
+
     @PutMapping("/{transactionId}")
     public ResponseEntity<TransactionResponse> updateTransaction(
             @AuthenticationPrincipal UserDetails userDetails,
@@ -70,7 +125,10 @@ public class TransactionController {
     public ResponseEntity<ValidationResponseDTO> validateTransaction(
             @AuthenticationPrincipal UserDetails userDetails,
             @RequestBody ValidationRequestDTO request) {
-        UserResponseDTO current = userService.getUserProfileByEmail(userDetails.getUsername());
-        return ResponseEntity.ok(validationService.processValidation(Long.valueOf(current.getId()), request));
+        Long userId;
+        try (ServerTiming.Span ignored = ServerTiming.start("profile")) {
+            userId = userService.resolveUserId(userDetails);
+        }
+        return ResponseEntity.ok(validationService.processValidation(userId, request));
     }
 }
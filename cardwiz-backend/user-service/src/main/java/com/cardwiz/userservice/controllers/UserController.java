@@ -3,12 +3,15 @@ package com.cardwiz.userservice.controllers;
 import com.cardwiz.userservice.dtos.ChangePasswordRequest;
 import com.cardwiz.userservice.dtos.UserResponseDTO;
 import com.cardwiz.userservice.dtos.UserUpdateRequest;
+import com.cardwiz.userservice.services.ConditionalGet;
+import com.cardwiz.userservice.services.ResourceVersions;
 import com.cardwiz.userservice.services.UserService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 @RestController
 @RequestMapping("/api/v1/users")
@@ -16,10 +19,14 @@ import org.springframework.web.bind.annotation.*;
 public class UserController {
 
     private final UserService userService;
+    private final ConditionalGet conditionalGet;
 
     @GetMapping("/me")
-    public ResponseEntity<UserResponseDTO> getCurrentUser(@AuthenticationPrincipal UserDetails userDetails) {
-        return ResponseEntity.ok(userService.getUserProfileByEmail(userDetails.getUsername()));
+    public ResponseEntity<UserResponseDTO> getCurrentUser(
+            @AuthenticationPrincipal UserDetails userDetails,
+            WebRequest webRequest) {
+        return conditionalGet.respond(webRequest, userService.resolveUserId(userDetails), ResourceVersions.Resource.PROFILE,
+                () -> userService.getUserProfileByEmail(userDetails.getUsername()));
     }
 
     @PutMapping("/me")
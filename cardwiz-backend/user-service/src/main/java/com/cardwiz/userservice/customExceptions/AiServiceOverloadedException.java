@@ -0,0 +1,7 @@
+package com.cardwiz.userservice.customExceptions;
+
+public class AiServiceOverloadedException extends RuntimeException {
+    public AiServiceOverloadedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,119 @@
+package com.cardwiz.userservice.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Collection;
+
+/**
+ * Per-user ranking of active cards for every category that has a known reward rule.
+ * Stored in Redis in a flat primitive layout: row {@code i} of {@code categories} spans
+ * {@code rankedCardSlots[rowOffsets[i] .. rowOffsets[i + 1])}, best card first, and each slot
+ * indexes into {@code cardIds}/{@code cardNames}. Percentages are kept as basis points and
+ * reward types as {@link #REWARD_TYPES} codes, both aligned with {@code rankedCardSlots}, as is
+ * {@code knownRates}: whether the card has a rule for the category or a general one, rather than
+ * being ranked at zero for having neither.
+ * {@code linearCards} is aligned with {@code cardIds}: whether none of the card's rules carries
+ * conditions (caps, minimum spend), so that its reward is proportional to the amount.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CardCategoryMatrix {
+    public static final String[] REWARD_TYPES = {"UNKNOWN", "CASHBACK", "POINTS", "MILES"};
+
+    private long[] cardIds;
+    private String[] cardNames;
+    private String[] categories;
+    private int[] rowOffsets;
+    private int[] rankedCardSlots;
+    private int[] basisPoints;
+    private byte[] rewardTypeCodes;
+    private boolean[] knownRates;
+    private boolean[] linearCards;
+    private long builtAt;
+
+    public int categoryIndex(String category) {
+        if (categories == null || category == null) {
+            return -1;
+        }
+        for (int i = 0; i < categories.length; i++) {
+            if (categories[i].equals(category)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Basis points each card slot earns in the category, taken from the general row when the
+     * category has none; all zeros when neither exists.
+     */
+    public int[] slotBasisPoints(String category) {
+        int[] slotBasisPoints = new int[cardIds == null ? 0 : cardIds.length];
+        int row = categoryIndex(category);
+        if (row < 0) {
+            row = categoryIndex("general");
+        }
+        if (row < 0) {
+            return slotBasisPoints;
+        }
+        for (int position = rowOffsets[row]; position < rowOffsets[row + 1]; position++) {
+            slotBasisPoints[rankedCardSlots[position]] = basisPoints[position];
+        }
+        return slotBasisPoints;
+    }
+
+    /**
+     * Whether every card in {@code cardIds} has a rule for the category in {@code row}, or a
+     * general one; false for a matrix cached before this was recorded.
+     */
+    public boolean knownRates(int row, Collection<Long> cardIds) {
+        if (knownRates == null || row < 0 || cardIds == null) {
+            return false;
+        }
+        for (int position = rowOffsets[row]; position < rowOffsets[row + 1]; position++) {
+            if (!knownRates[position] && cardIds.contains(this.cardIds[rankedCardSlots[position]])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Whether every card in {@code cardIds} is in the matrix with a reward proportional to the
+     * amount; false for an empty list, and for a matrix cached before linearity was recorded.
+     */
+    public boolean linearRewards(Collection<Long> cardIds) {
+        if (linearCards == null || cardIds == null || cardIds.isEmpty()) {
+            return false;
+        }
+        for (Long cardId : cardIds) {
+            if (cardId == null || !linearCard(cardSlot(cardId))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Whether the card in {@code slot} earns in proportion to the amount; false for a matrix cached
+     * before linearity was recorded.
+     */
+    public boolean linearCard(int slot) {
+        return linearCards != null && slot >= 0 && slot < linearCards.length && linearCards[slot];
+    }
+
+    public int cardSlot(long cardId) {
+        if (cardIds == null) {
+            return -1;
+        }
+        for (int i = 0; i < cardIds.length; i++) {
+            if (cardIds[i] == cardId) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
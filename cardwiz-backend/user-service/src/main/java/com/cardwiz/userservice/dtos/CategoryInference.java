@@ -0,0 +1,21 @@
+package com.cardwiz.userservice.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Category user-service filled in for a request that named none. {@code source} is
+ * {@code history} when it came from the user's own categorized transactions, {@code dictionary}
+ * when it came from the bundled merchant dictionary.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CategoryInference {
+    private String category;
+    private Double confidence;
+    private String source;
+}
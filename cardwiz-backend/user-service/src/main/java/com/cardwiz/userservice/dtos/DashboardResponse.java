@@ -0,0 +1,26 @@
+package com.cardwiz.userservice.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Everything the dashboard shows on load, in the shapes of {@code /users/me}, {@code /cards},
+ * {@code /cards/knowledge-coverage} and the newest page of {@code /transactions}.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DashboardResponse {
+    private UserResponseDTO profile;
+    private List<UserCardResponse> cards;
+    // Null when ai-service could not be asked; the rest of the dashboard is still served
+    private Map<Long, Boolean> knowledgeCoverage;
+    // Newest first
+    private List<TransactionResponse> recentTransactions;
+}
@@ -1,13 +0,0 @@
-package com.cardwiz.userservice.dtos;
-
-import lombok.AllArgsConstructor;
-import lombok.Data;
-import lombok.NoArgsConstructor;
-
-@Data
-@NoArgsConstructor
-@AllArgsConstructor
-public class EmbeddingSyncResponseDTO {
-    private String status;
-    private Integer ruleId;
-}
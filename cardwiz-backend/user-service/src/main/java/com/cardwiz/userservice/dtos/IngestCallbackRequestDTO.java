@@ -4,6 +4,8 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.List;
+
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -13,4 +15,5 @@ public class IngestCallbackRequestDTO {
     private String status; // COMPLETED / FAILED
     private String aiSummary;
     private String error;
+    private List<AiResponseDTO.ExtractedRuleDTO> extractedRules;
 }
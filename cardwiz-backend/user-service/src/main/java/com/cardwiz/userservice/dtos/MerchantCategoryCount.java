@@ -0,0 +1,9 @@
+package com.cardwiz.userservice.dtos;
+
+/** How many of a user's transactions at one merchant were filed under one category. */
+public record MerchantCategoryCount(
+        String merchant,
+        String category,
+        Long transactions
+) {
+}
@@ -0,0 +1,14 @@
+package com.cardwiz.userservice.dtos;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/** A user's total spend at one merchant under one category, and when the earliest of it was. */
+public record MerchantCategorySpend(
+        String merchant,
+        String category,
+        BigDecimal amount,
+        Long transactions,
+        LocalDate firstDate
+) {
+}
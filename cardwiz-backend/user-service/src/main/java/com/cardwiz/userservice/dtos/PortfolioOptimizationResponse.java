@@ -0,0 +1,69 @@
+package com.cardwiz.userservice.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Which {@code keep} of the user's active cards earn the most on their own spending, projected to
+ * a year from their transaction history and the card rules user-service holds.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PortfolioOptimizationResponse {
+    private int keep;
+    private String currency;
+    private int historyDays;
+    private long transactions;
+    private double annualSpend;
+    private double allCardsAnnualRewards;
+    // Every card on its own, best first
+    private List<CardValue> cards;
+    private List<Portfolio> portfolios;
+    // Active cards without extracted reward rules, which the optimizer cannot value
+    private List<Long> cardsWithoutRules;
+    // Cards with a capped or minimum-spend rule, valued at its headline rate: whatever they earn is an estimate
+    private List<Long> cardsWithConditionalRules;
+    private long evaluatedPortfolios;
+    private long prunedPortfolios;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class CardValue {
+        private Long cardId;
+        private String cardName;
+        private double annualRewards;
+        private boolean estimate;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Portfolio {
+        private List<Long> cardIds;
+        private List<String> cardNames;
+        private double annualRewards;
+        private double rewardsGivenUp;
+        private List<CategoryRoute> routing;
+        // Whether any category is routed to a card in cardsWithConditionalRules
+        private boolean estimate;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class CategoryRoute {
+        private String category;
+        private Long cardId;
+        private double annualSpend;
+        private double rewardPercentage;
+        private double annualRewards;
+        private boolean estimate;
+    }
+}
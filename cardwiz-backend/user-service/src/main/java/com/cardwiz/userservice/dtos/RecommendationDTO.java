@@ -53,6 +53,10 @@ public class RecommendationDTO {
         @JsonProperty("spend_amount")
         private Double spendAmount;
         private String currency;
+        // Set when the recommendation was computed for another amount in the same band: the amount
+        // the model's reasoning, verdicts and any text that could not be regenerated were written for
+        @JsonProperty("reasoning_spend_amount")
+        private Double reasoningSpendAmount;
     }
 
     @Data
@@ -0,0 +1,29 @@
+package com.cardwiz.userservice.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * The changes to one card's rule embeddings since its last sync. With {@code replace} set,
+ * ai-service also drops every other vector it holds for the card.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RuleEmbeddingSyncRequestDTO {
+    private Long cardId;
+    private List<RuleDTO> upserts;
+    private List<Long> deleteRuleIds;
+    private boolean replace;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RuleDTO {
+        private Long ruleId;
+        private String contentText;
+    }
+}
@@ -7,8 +7,8 @@ import lombok.NoArgsConstructor;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-public class EmbeddingSyncRequestDTO {
-    private Integer ruleId;
+public class RuleEmbeddingSyncResponseDTO {
     private Long cardId;
-    private String contentText;
+    private int upserted;
+    private int deleted;
 }
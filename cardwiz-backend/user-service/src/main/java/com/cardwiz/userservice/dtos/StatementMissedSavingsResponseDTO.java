@@ -31,6 +31,9 @@ public class StatementMissedSavingsResponseDTO {
         @JsonProperty("total_missed_savings")
         private Double totalMissedSavings;
         private String currency;
+        // Transactions valued with a card whose rule has a cap or minimum spend, at its headline rate
+        @JsonProperty("estimated_transactions")
+        private Integer estimatedTransactions;
     }
 
     @Data
@@ -56,5 +59,7 @@ public class StatementMissedSavingsResponseDTO {
         private Double optimalRewardValue;
         @JsonProperty("missed_value")
         private Double missedValue;
+        // Whether the actual or the optimal card has a capped or minimum-spend rule, valued at its headline rate
+        private Boolean estimate;
     }
 }
@@ -0,0 +1,20 @@
+package com.cardwiz.userservice.dtos;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Outcome of a CSV import. Skipped rows are not spend (zero, negative or credit amounts) or were
+ * imported before; failed rows could not be parsed or saved. {@code errors} lists the first few
+ * failures by line number.
+ */
+@Data
+@Builder
+public class TransactionImportResponse {
+    private long imported;
+    private long skipped;
+    private long failed;
+    private List<String> errors;
+}
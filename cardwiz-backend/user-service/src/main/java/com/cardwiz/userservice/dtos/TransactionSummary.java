@@ -0,0 +1,20 @@
+package com.cardwiz.userservice.dtos;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Transaction columns read by the history endpoints, selected directly by
+ * {@code TransactionRepository} so neither the entity nor its user is loaded.
+ */
+public record TransactionSummary(
+        Long id,
+        BigDecimal amount,
+        String merchant,
+        String category,
+        String currency,
+        LocalDate transactionDate,
+        Long suggestedCardId,
+        Long actualCardId
+) {
+}
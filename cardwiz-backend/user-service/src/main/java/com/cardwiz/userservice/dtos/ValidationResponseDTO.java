@@ -12,5 +12,6 @@ import lombok.NoArgsConstructor;
 public class ValidationResponseDTO {
     private TransactionResponse transaction;
     private RecommendationDTO recommendation;
+    private CategoryInference categoryInference;
     private String message;
 }
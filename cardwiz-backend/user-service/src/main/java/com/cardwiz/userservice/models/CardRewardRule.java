@@ -0,0 +1,56 @@
+package com.cardwiz.userservice.models;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import java.time.Instant;
+
+/**
+ * Reward rule extracted from a card's T&C document, kept locally so that per-category rankings
+ * can be computed without a round trip to ai-service.
+ */
+@Entity
+@Table(name = "card_reward_rules")
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CardRewardRule {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_card_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private UserCard userCard;
+
+    private Long documentId;
+
+    @Column(nullable = false)
+    private String category;
+
+    private String rewardType;
+    private Double rewardRate;
+    private Double pointsPerUnit;
+    private Double spendUnit;
+    private Double pointValueRupees;
+
+    @Column(nullable = false)
+    private Double effectiveRewardPercentage;
+
+    @Column(columnDefinition = "TEXT")
+    private String conditions;
+
+    @Column(nullable = false, updatable = false)
+    private Instant createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        this.createdAt = Instant.now();
+    }
+}
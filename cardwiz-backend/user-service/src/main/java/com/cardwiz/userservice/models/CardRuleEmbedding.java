@@ -0,0 +1,38 @@
+package com.cardwiz.userservice.models;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * A reward rule of a card whose embedding ai-service holds, identified by its content-addressed
+ * rule id. Together the rows of a card are the rule set last synced to the vector store.
+ */
+@Entity
+@Table(name = "card_rule_embeddings")
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CardRuleEmbedding {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long userCardId;
+
+    @Column(nullable = false)
+    private Long ruleId;
+
+    @Column(nullable = false)
+    private Instant syncedAt;
+
+    @PrePersist
+    protected void onSync() {
+        this.syncedAt = Instant.now();
+    }
+}
@@ -32,7 +32,7 @@ public class Transaction {
     private Long suggestedCardId;   // AI recommendation
     private Long actualCardId;      // What user selected
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
     private User user;
 }
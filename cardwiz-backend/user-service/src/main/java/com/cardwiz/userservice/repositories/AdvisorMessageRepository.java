@@ -1,11 +1,25 @@
 package com.cardwiz.userservice.repositories;
 
+import com.cardwiz.userservice.dtos.AdvisorMessageResponse;
 import com.cardwiz.userservice.models.AdvisorMessage;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface AdvisorMessageRepository extends JpaRepository<AdvisorMessage, Long> {
     List<AdvisorMessage> findByUserIdOrderByCreatedAtAsc(Long userId);
+
+    /** Forward-only cursor over the user's messages, oldest first; consume inside a transaction. */
+    @Query("select new com.cardwiz.userservice.dtos.AdvisorMessageResponse(m.id, m.sender, m.text, m.createdAt) "
+            + "from AdvisorMessage m where m.user.id = :userId order by m.createdAt")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    Stream<AdvisorMessageResponse> streamByUserId(@Param("userId") Long userId);
+
     void deleteByUserId(Long userId);
 }
@@ -0,0 +1,12 @@
+package com.cardwiz.userservice.repositories;
+
+import com.cardwiz.userservice.models.CardRewardRule;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface CardRewardRuleRepository extends JpaRepository<CardRewardRule, Long> {
+    List<CardRewardRule> findByUserCardIdIn(Collection<Long> userCardIds);
+    void deleteByUserCardId(Long userCardId);
+}
@@ -0,0 +1,24 @@
+package com.cardwiz.userservice.repositories;
+
+import com.cardwiz.userservice.models.CardRuleEmbedding;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface CardRuleEmbeddingRepository extends JpaRepository<CardRuleEmbedding, Long> {
+
+    @Query("select e.ruleId from CardRuleEmbedding e where e.userCardId = :userCardId")
+    List<Long> findRuleIdsByUserCardId(@Param("userCardId") Long userCardId);
+
+    @Modifying
+    @Query("delete from CardRuleEmbedding e where e.userCardId = :userCardId and e.ruleId in :ruleIds")
+    int deleteByUserCardIdAndRuleIdIn(@Param("userCardId") Long userCardId, @Param("ruleIds") Collection<Long> ruleIds);
+
+    @Modifying
+    @Query("delete from CardRuleEmbedding e where e.userCardId = :userCardId")
+    int deleteByUserCardId(@Param("userCardId") Long userCardId);
+}
@@ -1,10 +1,58 @@
 package com.cardwiz.userservice.repositories;
 
+import com.cardwiz.userservice.dtos.MerchantCategoryCount;
+import com.cardwiz.userservice.dtos.MerchantCategorySpend;
+import com.cardwiz.userservice.dtos.TransactionSummary;
 import com.cardwiz.userservice.models.Transaction;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDate;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface TransactionRepository extends JpaRepository<Transaction, Long> {
-    List<Transaction> findByUserId(Long userId);
+    @Query("select new com.cardwiz.userservice.dtos.TransactionSummary(t.id, t.amount, t.merchant, t.category, "
+            + "t.currency, t.transactionDate, t.suggestedCardId, t.actualCardId) "
+            + "from Transaction t where t.user.id = :userId order by t.id")
+    List<TransactionSummary> findSummariesByUserId(@Param("userId") Long userId);
+
+    /** Most recent first; undated transactions sort after dated ones. */
+    @Query("select new com.cardwiz.userservice.dtos.TransactionSummary(t.id, t.amount, t.merchant, t.category, "
+            + "t.currency, t.transactionDate, t.suggestedCardId, t.actualCardId) "
+            + "from Transaction t where t.user.id = :userId "
+            + "order by t.transactionDate desc nulls last, t.id desc")
+    List<TransactionSummary> findRecentSummariesByUserId(@Param("userId") Long userId, Limit limit);
+
+    /** Forward-only cursor over the same rows as findSummariesByUserId; consume inside a transaction. */
+    @Query("select new com.cardwiz.userservice.dtos.TransactionSummary(t.id, t.amount, t.merchant, t.category, "
+            + "t.currency, t.transactionDate, t.suggestedCardId, t.actualCardId) "
+            + "from Transaction t where t.user.id = :userId order by t.id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    Stream<TransactionSummary> streamSummariesByUserId(@Param("userId") Long userId);
+
+    /** Forward-only cursor over the transactions paid with a known card; consume inside a transaction. */
+    @Query("select new com.cardwiz.userservice.dtos.TransactionSummary(t.id, t.amount, t.merchant, t.category, "
+            + "t.currency, t.transactionDate, t.suggestedCardId, t.actualCardId) "
+            + "from Transaction t where t.user.id = :userId and t.actualCardId is not null order by t.id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    Stream<TransactionSummary> streamPaidSummariesByUserId(@Param("userId") Long userId);
+
+    /** Categorized merchants with the number of transactions per category, most frequent first. */
+    @Query("select new com.cardwiz.userservice.dtos.MerchantCategoryCount(t.merchant, t.category, count(t)) "
+            + "from Transaction t where t.user.id = :userId and t.merchant is not null and t.category is not null "
+            + "group by t.merchant, t.category order by count(t) desc")
+    List<MerchantCategoryCount> countMerchantCategoriesByUserId(@Param("userId") Long userId, Limit limit);
+
+    /** Spend per merchant and category dated on or after {@code since}. */
+    @Query("select new com.cardwiz.userservice.dtos.MerchantCategorySpend(t.merchant, t.category, sum(t.amount), count(t), "
+            + "min(t.transactionDate)) "
+            + "from Transaction t where t.user.id = :userId and t.transactionDate >= :since "
+            + "group by t.merchant, t.category")
+    List<MerchantCategorySpend> sumSpendByMerchantAndCategory(@Param("userId") Long userId, @Param("since") LocalDate since);
 }
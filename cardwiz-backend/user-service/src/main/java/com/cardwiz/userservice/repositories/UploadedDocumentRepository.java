@@ -2,11 +2,17 @@ package com.cardwiz.userservice.repositories;
 
 import com.cardwiz.userservice.models.UploadedDocument;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 import java.util.Optional;
 
 public interface UploadedDocumentRepository extends JpaRepository<UploadedDocument, Long> {
-    List<UploadedDocument> findByUserIdOrderByUploadedAtDesc(Long userId);
-    Optional<UploadedDocument> findByIdAndUserId(Long id, Long userId);
+    // Explicit queries compare the user_id column; derived "UserId" queries join the users table
+    @Query("select d from UploadedDocument d where d.user.id = :userId order by d.uploadedAt desc")
+    List<UploadedDocument> findByUserIdOrderByUploadedAtDesc(@Param("userId") Long userId);
+
+    @Query("select d from UploadedDocument d where d.id = :id and d.user.id = :userId")
+    Optional<UploadedDocument> findByIdAndUserId(@Param("id") Long id, @Param("userId") Long userId);
 }
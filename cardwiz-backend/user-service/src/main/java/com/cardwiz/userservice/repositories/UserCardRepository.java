@@ -1,10 +1,29 @@
 package com.cardwiz.userservice.repositories;
 
+import com.cardwiz.userservice.dtos.UserCardResponse;
 import com.cardwiz.userservice.models.UserCard;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
+import java.util.Optional;
 
 public interface UserCardRepository extends JpaRepository<UserCard, Long> {
-    List<UserCard> findByUserId(Long userId);
+    @Query("select c from UserCard c where c.user.id = :userId and c.active = true order by c.id")
+    List<UserCard> findActiveByUserId(@Param("userId") Long userId);
+
+    @Query("select new com.cardwiz.userservice.dtos.UserCardResponse(c.id, c.cardName, c.issuer, c.network, "
+            + "c.lastFourDigits, c.active, c.docStatus, c.docS3Key, c.lastAnalyzedAt) "
+            + "from UserCard c where c.user.id = :userId order by c.id")
+    List<UserCardResponse> findResponsesByUserId(@Param("userId") Long userId);
+
+    @Query("select c.id from UserCard c where c.user.id = :userId and c.active = true order by c.id")
+    List<Long> findActiveIdsByUserId(@Param("userId") Long userId);
+
+    @Query("select c.user.id from UserCard c where c.id = :cardId")
+    Optional<Long> findUserIdById(@Param("cardId") Long cardId);
+
+    @Query("select c.id from UserCard c where c.user.id = :userId and c.docS3Key = :docS3Key order by c.id")
+    List<Long> findIdsByUserIdAndDocS3Key(@Param("userId") Long userId, @Param("docS3Key") String docS3Key);
 }
@@ -0,0 +1,57 @@
+package com.cardwiz.userservice.security;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.util.AntPathMatcher;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * AI-backed endpoints with their own per-user request budget. A burst of document uploads does
+ * not use up the budget for recommendations, and the other way round. The first budget with a
+ * matching pattern applies, so the gateway's document analysis route counts as document analysis
+ * and the rest of the ai-service route as {@link #AI_GATEWAY}.
+ */
+public enum RateLimitBudget {
+
+    RECOMMENDATION("recommendation", List.of("/api/v1/cards/recommendations")),
+    VALIDATION("validation", List.of("/api/v1/transactions/validate")),
+    DOCUMENT_ANALYSIS("document-analysis", List.of(
+            "/api/v1/cards/documents/analyze",
+            "/api/v1/cards/*/documents/analyze",
+            "/api/v1/cards/*/upload-docs",
+            "/api/v1/ai/documents/analyze"
+    )),
+    STATEMENT_ANALYSIS("statement-analysis", List.of("/api/v1/cards/statement-missed-savings")),
+    // Everything else proxied to ai-service by the gateway route (spring.cloud.gateway.mvc.routes[1])
+    AI_GATEWAY("ai-gateway", List.of("/api/v1/ai/**"));
+
+    private static final AntPathMatcher PATH_MATCHER = new AntPathMatcher();
+
+    private final String key;
+    private final List<String> pathPatterns;
+
+    RateLimitBudget(String key, List<String> pathPatterns) {
+        this.key = key;
+        this.pathPatterns = pathPatterns;
+    }
+
+    /** Short name used in Redis keys, metric tags and the app.rate-limit.* properties. */
+    public String key() {
+        return key;
+    }
+
+    public static Optional<RateLimitBudget> forRequest(String method, String path) {
+        if (!HttpMethod.POST.matches(method) || path == null) {
+            return Optional.empty();
+        }
+        for (RateLimitBudget budget : values()) {
+            for (String pattern : budget.pathPatterns) {
+                if (PATH_MATCHER.match(pattern, path)) {
+                    return Optional.of(budget);
+                }
+            }
+        }
+        return Optional.empty();
+    }
+}
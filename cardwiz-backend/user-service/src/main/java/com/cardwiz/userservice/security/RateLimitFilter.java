@@ -0,0 +1,68 @@
+package com.cardwiz.userservice.security;
+
+import com.cardwiz.userservice.models.User;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Optional;
+
+/**
+ * Admission control for the AI-backed endpoints, placed right after {@link JwtAuthenticationFilter}
+ * so the caller is known. A user over their {@link RateLimitBudget} gets a 429 with
+ * {@code Retry-After} before the request reaches a controller or ai-service.
+ */
+@Component
+@RequiredArgsConstructor
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final RedisTokenBucketLimiter limiter;
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+        Optional<RateLimitBudget> budget = RateLimitBudget.forRequest(request.getMethod(), request.getServletPath());
+        Long userId = currentUserId();
+        if (budget.isEmpty() || userId == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        RedisTokenBucketLimiter.Decision decision = limiter.tryAcquire(userId, budget.get());
+        if (!decision.allowed()) {
+            long retryAfterSeconds = Math.max(1L, (decision.retryAfter().toMillis() + 999L) / 1000L);
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getWriter().write("{\"message\":\"Too many " + budget.get().key()
+                    + " requests. Retry after " + retryAfterSeconds + "s.\"}");
+            return;
+        }
+        if (decision.remaining() >= 0) {
+            response.setHeader("X-RateLimit-Remaining", String.valueOf(decision.remaining()));
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    private static Long currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof User user) {
+            return user.getId();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,177 @@
+package com.cardwiz.userservice.security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Per-user token buckets for the {@link RateLimitBudget}s, shared by all user-service instances
+ * through one atomic Lua script ({@code redis/token-bucket.lua}).
+ * <p>
+ * When Redis rejects a request it also reports when the next token is due. Until then the
+ * rejection is repeated from a local map without a Redis round-trip. No instance can get a token
+ * sooner, so this never rejects a request Redis would have allowed. If Redis is unavailable,
+ * requests are allowed (the limiter fails open, like the caches).
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RedisTokenBucketLimiter {
+
+    private static final String KEY_PREFIX = "v3::rate-limit::";
+    private static final String DECISIONS_METRIC = "cardwiz.ratelimit.decisions";
+    private static final int LOCAL_BLOCK_LIMIT = 10_000;
+
+    private final StringRedisTemplate redisTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @SuppressWarnings("rawtypes")
+    private final RedisScript<List> tokenBucketScript =
+            RedisScript.of(new ClassPathResource("redis/token-bucket.lua"), List.class);
+
+    private final ConcurrentMap<String, Long> blockedUntil = new ConcurrentHashMap<>();
+    private final Map<RateLimitBudget, Limit> limits = new EnumMap<>(RateLimitBudget.class);
+
+    @Value("${app.rate-limit.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.rate-limit.recommendation.capacity:30}")
+    private int recommendationCapacity;
+
+    @Value("${app.rate-limit.recommendation.refill-per-minute:30}")
+    private double recommendationRefillPerMinute;
+
+    @Value("${app.rate-limit.validation.capacity:60}")
+    private int validationCapacity;
+
+    @Value("${app.rate-limit.validation.refill-per-minute:60}")
+    private double validationRefillPerMinute;
+
+    @Value("${app.rate-limit.document-analysis.capacity:5}")
+    private int documentAnalysisCapacity;
+
+    @Value("${app.rate-limit.document-analysis.refill-per-minute:1}")
+    private double documentAnalysisRefillPerMinute;
+
+    @Value("${app.rate-limit.statement-analysis.capacity:3}")
+    private int statementAnalysisCapacity;
+
+    @Value("${app.rate-limit.statement-analysis.refill-per-minute:0.5}")
+    private double statementAnalysisRefillPerMinute;
+
+    @Value("${app.rate-limit.ai-gateway.capacity:30}")
+    private int aiGatewayCapacity;
+
+    @Value("${app.rate-limit.ai-gateway.refill-per-minute:30}")
+    private double aiGatewayRefillPerMinute;
+
+    public record Decision(boolean allowed, long remaining, Duration retryAfter) {
+        static Decision allow(long remaining) {
+            return new Decision(true, remaining, Duration.ZERO);
+        }
+
+        static Decision reject(Duration retryAfter) {
+            return new Decision(false, 0L, retryAfter);
+        }
+    }
+
+    private record Limit(int capacity, double tokensPerMilli) {
+    }
+
+    @PostConstruct
+    public void initLimits() {
+        limits.put(RateLimitBudget.RECOMMENDATION, limit(recommendationCapacity, recommendationRefillPerMinute));
+        limits.put(RateLimitBudget.VALIDATION, limit(validationCapacity, validationRefillPerMinute));
+        limits.put(RateLimitBudget.DOCUMENT_ANALYSIS, limit(documentAnalysisCapacity, documentAnalysisRefillPerMinute));
+        limits.put(RateLimitBudget.STATEMENT_ANALYSIS, limit(statementAnalysisCapacity, statementAnalysisRefillPerMinute));
+        limits.put(RateLimitBudget.AI_GATEWAY, limit(aiGatewayCapacity, aiGatewayRefillPerMinute));
+        limits.forEach((budget, limit) -> log.info("Rate limit {}: capacity={} refill={}/min",
+                budget.key(), limit.capacity(), limit.tokensPerMilli() * 60_000d));
+    }
+
+    public Decision tryAcquire(Long userId, RateLimitBudget budget) {
+        if (!enabled || userId == null) {
+            return Decision.allow(-1L);
+        }
+        String key = KEY_PREFIX + budget.key() + "::" + userId;
+
+        Long localBlock = blockedUntil.get(key);
+        if (localBlock != null) {
+            long waitMillis = localBlock - System.currentTimeMillis();
+            if (waitMillis > 0) {
+                count(budget, "REJECTED_LOCAL");
+                return Decision.reject(Duration.ofMillis(waitMillis));
+            }
+            blockedUntil.remove(key, localBlock);
+        }
+
+        Limit limit = limits.get(budget);
+        List<?> result;
+        try {
+            result = redisTemplate.execute(
+                    tokenBucketScript,
+                    List.of(key),
+                    String.valueOf(limit.capacity()),
+                    String.valueOf(limit.tokensPerMilli()),
+                    "1"
+            );
+        } catch (RuntimeException ex) {
+            count(budget, "ERROR");
+            log.warn("Redis rate limit check failed for budget={} userId={}. Allowing request.", budget.key(), userId, ex);
+            return Decision.allow(-1L);
+        }
+        if (result == null || result.size() < 3) {
+            count(budget, "ERROR");
+            return Decision.allow(-1L);
+        }
+
+        boolean allowed = toLong(result.get(0)) == 1L;
+        if (allowed) {
+            count(budget, "ALLOWED");
+            return Decision.allow(toLong(result.get(1)));
+        }
+        long retryAfterMillis = Math.max(1L, toLong(result.get(2)));
+        blockLocally(key, System.currentTimeMillis() + retryAfterMillis);
+        count(budget, "REJECTED");
+        return Decision.reject(Duration.ofMillis(retryAfterMillis));
+    }
+
+    private void blockLocally(String key, long untilMillis) {
+        if (blockedUntil.size() >= LOCAL_BLOCK_LIMIT) {
+            long now = System.currentTimeMillis();
+            blockedUntil.values().removeIf(until -> until <= now);
+            if (blockedUntil.size() >= LOCAL_BLOCK_LIMIT) {
+                return;
+            }
+        }
+        blockedUntil.put(key, untilMillis);
+    }
+
+    private void count(RateLimitBudget budget, String outcome) {
+        meterRegistry.counter(DECISIONS_METRIC, "budget", budget.key(), "outcome", outcome).increment();
+    }
+
+    private static Limit limit(int capacity, double refillPerMinute) {
+        if (capacity < 1 || refillPerMinute <= 0) {
+            throw new IllegalStateException("Rate limit capacity and refill-per-minute must be positive.");
+        }
+        return new Limit(capacity, refillPerMinute / 60_000d);
+    }
+
+    private static long toLong(Object value) {
+        return value instanceof Number number ? number.longValue() : Long.parseLong(String.valueOf(value));
+    }
+}
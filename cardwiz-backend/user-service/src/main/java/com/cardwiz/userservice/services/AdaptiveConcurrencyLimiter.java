@@ -0,0 +1,184 @@
+package com.cardwiz.userservice.services;
+
+import com.cardwiz.userservice.customExceptions.AiServiceOverloadedException;
+
+import java.time.Duration;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Concurrency limit for one kind of ai-service call that adapts to ai-service's current capacity
+ * (which moves with Bedrock throttling) instead of a fixed pool size.
+ * <ul>
+ *   <li>Gradient increase: each successful call compares its latency with a slow-moving baseline.
+ *       While latency stays near the baseline the limit grows by about sqrt(limit); as latency rises
+ *       the gradient falls below 1 and the limit shrinks towards what ai-service is sustaining.</li>
+ *   <li>Multiplicative decrease: a 429, 5xx or I/O failure cuts the limit by {@code backoffRatio}.</li>
+ * </ul>
+ * Callers over the limit wait in a short queue for at most {@code queueTimeout}. When the queue is
+ * full, or the wait runs out, the call fails fast with {@link AiServiceOverloadedException}.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    public enum Outcome {
+        /** Completed normally; its latency is a capacity sample. */
+        SUCCESS,
+        /** 429, 5xx or I/O failure: ai-service is overloaded or throttled. */
+        OVERLOAD,
+        /** Failed for a reason unrelated to capacity (e.g. a 4xx); no sample. */
+        IGNORE
+    }
+
+    private static final double SMOOTHING = 0.5d;
+    private static final double BASELINE_DECAY = 0.05d;
+
+    private final String name;
+    private final int minLimit;
+    private final int maxLimit;
+    private final int maxQueue;
+    private final long queueTimeoutNanos;
+    private final double tolerance;
+    private final double backoffRatio;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition permitReleased = lock.newCondition();
+    private double limit;
+    private int inFlight;
+    private int queued;
+    private double baselineRttNanos;
+    private long windowRttNanos;
+    private int windowSamples;
+    private int windowPeakInFlight;
+
+    public AdaptiveConcurrencyLimiter(
+            String name,
+            int initialLimit,
+            int minLimit,
+            int maxLimit,
+            int maxQueue,
+            Duration queueTimeout,
+            double tolerance,
+            double backoffRatio
+    ) {
+        this.name = name;
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.maxQueue = maxQueue;
+        this.queueTimeoutNanos = queueTimeout.toNanos();
+        this.tolerance = tolerance;
+        this.backoffRatio = backoffRatio;
+    }
+
+    /** Takes a slot, waiting briefly in the queue if the limit is reached. */
+    public Permit acquire() {
+        lock.lock();
+        try {
+            if (inFlight < currentLimit()) {
+                inFlight++;
+                return new Permit(System.nanoTime());
+            }
+            if (queued >= maxQueue) {
+                throw new AiServiceOverloadedException("ai-service " + name + " limit reached (" + currentLimit() + " in flight).");
+            }
+            queued++;
+            try {
+                long remaining = queueTimeoutNanos;
+                while (inFlight >= currentLimit()) {
+                    if (remaining <= 0L) {
+                        throw new AiServiceOverloadedException("ai-service " + name + " queue wait timed out.");
+                    }
+                    remaining = permitReleased.awaitNanos(remaining);
+                }
+                inFlight++;
+                return new Permit(System.nanoTime());
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new AiServiceOverloadedException("Interrupted waiting for an ai-service " + name + " slot.");
+            } finally {
+                queued--;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int currentLimit() {
+        return (int) limit;
+    }
+
+    public int inFlight() {
+        return inFlight;
+    }
+
+    public int queued() {
+        return queued;
+    }
+
+    private void release(long rttNanos, Outcome outcome) {
+        lock.lock();
+        try {
+            int inFlightAtRelease = inFlight;
+            inFlight--;
+            if (outcome == Outcome.OVERLOAD) {
+                limit = Math.max(minLimit, limit * backoffRatio);
+            } else if (outcome == Outcome.SUCCESS) {
+                adjustForLatency(rttNanos, inFlightAtRelease);
+            }
+            permitReleased.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Latency samples are averaged over a window of about half the limit, roughly one round of
+     * in-flight calls, so the limit moves once per round instead of compounding on every call.
+     */
+    private void adjustForLatency(long rttNanos, int inFlightAtRelease) {
+        windowRttNanos += rttNanos;
+        windowSamples++;
+        windowPeakInFlight = Math.max(windowPeakInFlight, inFlightAtRelease);
+        if (windowSamples < Math.max(1, (int) Math.ceil(limit / 2d))) {
+            return;
+        }
+        double averageRtt = (double) windowRttNanos / windowSamples;
+        int peakInFlight = windowPeakInFlight;
+        windowRttNanos = 0L;
+        windowSamples = 0;
+        windowPeakInFlight = 0;
+
+        if (baselineRttNanos == 0d) {
+            baselineRttNanos = averageRtt;
+            return;
+        }
+        // The baseline follows latency slowly upwards and immediately downwards, so it stays
+        // near the best recent case
+        baselineRttNanos = averageRtt < baselineRttNanos
+                ? averageRtt
+                : baselineRttNanos * (1d - BASELINE_DECAY) + averageRtt * BASELINE_DECAY;
+
+        double gradient = Math.max(0.5d, Math.min(1.0d, tolerance * baselineRttNanos / averageRtt));
+        // Grow only while latency is flat and the limit is actually in use; an idle limit says
+        // nothing about capacity
+        double headroom = gradient >= 1.0d && peakInFlight * 2 >= limit ? Math.sqrt(limit) : 0d;
+        double target = limit * gradient + headroom;
+        limit = Math.max(minLimit, Math.min(maxLimit, limit * (1d - SMOOTHING) + target * SMOOTHING));
+    }
+
+    public final class Permit {
+        private final long startedAt;
+        private boolean released;
+
+        private Permit(long startedAt) {
+            this.startedAt = startedAt;
+        }
+
+        public void release(Outcome outcome) {
+            if (!released) {
+                released = true;
+                AdaptiveConcurrencyLimiter.this.release(System.nanoTime() - startedAt, outcome);
+            }
+        }
+    }
+}
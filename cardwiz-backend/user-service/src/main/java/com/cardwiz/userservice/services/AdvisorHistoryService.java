@@ -1,5 +1,6 @@
 package com.cardwiz.userservice.services;
 
+import com.cardwiz.userservice.config.ReplicaRead;
 import com.cardwiz.userservice.customExceptions.UserNotFoundException;
 import com.cardwiz.userservice.dtos.AdvisorMessageCreateRequest;
 import com.cardwiz.userservice.dtos.AdvisorMessageResponse;
@@ -11,25 +12,48 @@ import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
+import java.io.OutputStream;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 public class AdvisorHistoryService {
 
     private static final Set<String> ALLOWED_SENDERS = Set.of("user", "bot");
+    private static final Map<String, Function<AdvisorMessageResponse, ?>> EXPORT_COLUMNS = new LinkedHashMap<>();
+
+    static {
+        EXPORT_COLUMNS.put("id", AdvisorMessageResponse::getId);
+        EXPORT_COLUMNS.put("createdAt", AdvisorMessageResponse::getCreatedAt);
+        EXPORT_COLUMNS.put("sender", AdvisorMessageResponse::getSender);
+        EXPORT_COLUMNS.put("text", AdvisorMessageResponse::getText);
+    }
 
     private final AdvisorMessageRepository advisorMessageRepository;
     private final UserRepository userRepository;
+    private final ExportWriter exportWriter;
 
+    @ReplicaRead
     public List<AdvisorMessageResponse> getHistory(Long userId) {
         return advisorMessageRepository.findByUserIdOrderByCreatedAtAsc(userId).stream()
                 .map(this::toResponse)
                 .toList();
     }
 
+    /** Writes the user's whole history to {@code out} straight from a database cursor, oldest first. */
+    @ReplicaRead
+    public long exportHistory(Long userId, ExportFormat format, OutputStream out) {
+        try (Stream<AdvisorMessageResponse> rows = advisorMessageRepository.streamByUserId(userId)) {
+            return exportWriter.write(rows, format, EXPORT_COLUMNS, out);
+        }
+    }
+
     @Transactional
     public AdvisorMessageResponse saveMessage(Long userId, AdvisorMessageCreateRequest request) {
         User user = userRepository.findById(userId)
@@ -1,39 +1,80 @@
 package com.cardwiz.userservice.services;
 
+import com.cardwiz.userservice.config.ServerTiming;
+import com.cardwiz.userservice.customExceptions.AiServiceOverloadedException;
 import com.cardwiz.userservice.dtos.AiResponseDTO;
 import com.cardwiz.userservice.dtos.AnalyzeRequestDTO;
-import com.cardwiz.userservice.dtos.EmbeddingSyncRequestDTO;
-import com.cardwiz.userservice.dtos.EmbeddingSyncResponseDTO;
 import com.cardwiz.userservice.dtos.EmbeddingCoverageRequestDTO;
 import com.cardwiz.userservice.dtos.EmbeddingCoverageResponseDTO;
 import com.cardwiz.userservice.dtos.RecommendationDTO;
 import com.cardwiz.userservice.dtos.RecommendationRequestDTO;
+import com.cardwiz.userservice.dtos.RuleEmbeddingSyncRequestDTO;
+import com.cardwiz.userservice.dtos.RuleEmbeddingSyncResponseDTO;
 import com.cardwiz.userservice.dtos.StatementMissedSavingsRequestDTO;
 import com.cardwiz.userservice.dtos.StatementMissedSavingsResponseDTO;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.cache.annotation.Cacheable;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientResponseException;
 
 import java.net.URI;
+import java.time.Duration;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class AiServiceClient {
 
+    private static final String REQUESTS_METRIC = "cardwiz.ai.client.requests";
+    private static final String NO_ROUTING_MODE = "none";
+    private static final String LIMIT_METRIC = "cardwiz.ai.client.limit";
+    private static final String INFLIGHT_METRIC = "cardwiz.ai.client.inflight";
+    private static final String QUEUE_METRIC = "cardwiz.ai.client.queue";
+
     @Qualifier("loadBalancedRestClientBuilder")
     private final RestClient.Builder restClientBuilder;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, AdaptiveConcurrencyLimiter> limiters = new ConcurrentHashMap<>();
 
     @Value("${AI_SERVICE_URL:http://ai-service}")
     private String aiServiceUrl;
 
+    @Value("${app.ai.client.limit.initial:16}")
+    private int limitInitial;
+
+    @Value("${app.ai.client.limit.min:2}")
+    private int limitMin;
+
+    @Value("${app.ai.client.limit.max:128}")
+    private int limitMax;
+
+    @Value("${app.ai.client.limit.queue-size:8}")
+    private int limitQueueSize;
+
+    @Value("${app.ai.client.limit.queue-timeout:250ms}")
+    private Duration limitQueueTimeout;
+
+    @Value("${app.ai.client.limit.latency-tolerance:2.0}")
+    private double limitLatencyTolerance;
+
+    @Value("${app.ai.client.limit.backoff-ratio:0.9}")
+    private double limitBackoffRatio;
+
     @PostConstruct
     public void normalizeAiServiceUrl() {
         String configuredUrl = aiServiceUrl;
@@ -54,51 +95,130 @@ public class AiServiceClient {
     }
 
     public AiResponseDTO analyzeDocument(String bucket, String s3Key, Long docId) {
-        return restClientBuilder.build()
+        return timed("analyzeDocument", () -> restClientBuilder.build()
                 .post()
                 .uri(aiServiceUrl + "/ai/v1/documents/analyze")
                 .body(new AnalyzeRequestDTO(docId, s3Key, bucket))
                 .retrieve()
-                .body(AiResponseDTO.class);
+                .body(AiResponseDTO.class));
     }
 
-    @Cacheable(
-            cacheNames = "aiRecommendationsV2",
-            key = "T(java.util.Objects).hash(#request.userId, #request.merchantName, #request.category, #request.transactionAmount, #request.currency, #request.contextNotes, #request.availableCardIds)"
-    )
     public RecommendationDTO getRecommendation(RecommendationRequestDTO request) {
-        return restClientBuilder.build()
+        return timed("getRecommendation", () -> restClientBuilder.build()
                 .post()
                 .uri(aiServiceUrl + "/ai/v1/recommend/rank")
                 .body(request)
                 .retrieve()
-                .body(RecommendationDTO.class);
+                .body(RecommendationDTO.class), RecommendationDTO::getRoutingMode);
     }
 
-    public EmbeddingSyncResponseDTO syncEmbedding(Integer ruleId, Long cardId, String contentText) {
-        return restClientBuilder.build()
+    public RuleEmbeddingSyncResponseDTO syncRuleEmbeddings(RuleEmbeddingSyncRequestDTO request) {
+        return timed("syncRuleEmbeddings", () -> restClientBuilder.build()
                 .post()
-                .uri(aiServiceUrl + "/ai/v1/embeddings/sync")
-                .body(new EmbeddingSyncRequestDTO(ruleId, cardId, contentText))
+                .uri(aiServiceUrl + "/ai/v1/embeddings/sync-batch")
+                .body(request)
                 .retrieve()
-                .body(EmbeddingSyncResponseDTO.class);
+                .body(RuleEmbeddingSyncResponseDTO.class));
     }
 
     public EmbeddingCoverageResponseDTO getEmbeddingCoverage(List<Long> cardIds) {
-        return restClientBuilder.build()
+        return timed("getEmbeddingCoverage", () -> restClientBuilder.build()
                 .post()
                 .uri(aiServiceUrl + "/ai/v1/embeddings/coverage")
                 .body(new EmbeddingCoverageRequestDTO(cardIds))
                 .retrieve()
-                .body(EmbeddingCoverageResponseDTO.class);
+                .body(EmbeddingCoverageResponseDTO.class));
     }
 
     public StatementMissedSavingsResponseDTO analyzeStatementMissedSavings(StatementMissedSavingsRequestDTO request) {
-        return restClientBuilder.build()
+        return timed("analyzeStatementMissedSavings", () -> restClientBuilder.build()
                 .post()
                 .uri(aiServiceUrl + "/ai/v1/recommend/statement-missed-savings")
                 .body(request)
                 .retrieve()
-                .body(StatementMissedSavingsResponseDTO.class);
+                .body(StatementMissedSavingsResponseDTO.class));
+    }
+
+    private <T> T timed(String method, Supplier<T> call) {
+        return timed(method, call, response -> NO_ROUTING_MODE);
+    }
+
+    /**
+     * Records one ai-service call as cardwiz.ai.client.requests, tagged with the client method,
+     * the outcome class and, for ranking calls, the routing_mode ai-service reports. The call runs
+     * under the method's adaptive concurrency limit; calls turned away there are tagged REJECTED.
+     */
+    private <T> T timed(String method, Supplier<T> call, Function<T, String> routingMode) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        ServerTiming.Span span = ServerTiming.start("ai");
+        String outcome = "SUCCESS";
+        String mode = NO_ROUTING_MODE;
+        AdaptiveConcurrencyLimiter.Permit permit = null;
+        AdaptiveConcurrencyLimiter.Outcome limiterOutcome = AdaptiveConcurrencyLimiter.Outcome.SUCCESS;
+        try {
+            permit = limiter(method).acquire();
+            T response = call.get();
+            if (response != null && routingMode.apply(response) != null) {
+                mode = routingMode.apply(response);
+            }
+            return response;
+        } catch (AiServiceOverloadedException ex) {
+            outcome = "REJECTED";
+            throw ex;
+        } catch (RestClientResponseException ex) {
+            outcome = ex.getStatusCode().is4xxClientError() ? "CLIENT_ERROR" : "SERVER_ERROR";
+            limiterOutcome = ex.getStatusCode().is5xxServerError() || ex.getStatusCode().value() == 429
+                    ? AdaptiveConcurrencyLimiter.Outcome.OVERLOAD
+                    : AdaptiveConcurrencyLimiter.Outcome.IGNORE;
+            throw ex;
+        } catch (ResourceAccessException ex) {
+            outcome = "IO_ERROR";
+            limiterOutcome = AdaptiveConcurrencyLimiter.Outcome.OVERLOAD;
+            throw ex;
+        } catch (RuntimeException ex) {
+            outcome = "UNKNOWN";
+            limiterOutcome = AdaptiveConcurrencyLimiter.Outcome.IGNORE;
+            throw ex;
+        } finally {
+            if (permit != null) {
+                permit.release(limiterOutcome);
+            }
+            span.describe(NO_ROUTING_MODE.equals(mode) ? method : method + " " + mode);
+            span.close();
+            sample.stop(Timer.builder(REQUESTS_METRIC)
+                    .tag("method", method)
+                    .tag("outcome", outcome)
+                    .tag("routing_mode", mode)
+                    .register(meterRegistry));
+        }
+    }
+
+    /**
+     * One limiter per client method: document analysis and ranking have very different latency
+     * baselines, so each adapts separately. Exports the limit, in-flight count and queue depth.
+     */
+    private AdaptiveConcurrencyLimiter limiter(String method) {
+        return limiters.computeIfAbsent(method, name -> {
+            AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(
+                    name,
+                    limitInitial,
+                    limitMin,
+                    limitMax,
+                    limitQueueSize,
+                    limitQueueTimeout,
+                    limitLatencyTolerance,
+                    limitBackoffRatio
+            );
+            Gauge.builder(LIMIT_METRIC, limiter, AdaptiveConcurrencyLimiter::currentLimit)
+                    .tag("method", name)
+                    .register(meterRegistry);
+            Gauge.builder(INFLIGHT_METRIC, limiter, AdaptiveConcurrencyLimiter::inFlight)
+                    .tag("method", name)
+                    .register(meterRegistry);
+            Gauge.builder(QUEUE_METRIC, limiter, AdaptiveConcurrencyLimiter::queued)
+                    .tag("method", name)
+                    .register(meterRegistry);
+            return limiter;
+        });
     }
 }
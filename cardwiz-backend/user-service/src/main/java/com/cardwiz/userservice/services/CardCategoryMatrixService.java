@@ -0,0 +1,355 @@
+package com.cardwiz.userservice.services;
+
+import com.cardwiz.userservice.config.CacheConfig;
+import com.cardwiz.userservice.dtos.CardCategoryMatrix;
+import com.cardwiz.userservice.dtos.RecommendationDTO;
+import com.cardwiz.userservice.dtos.RecommendationRequestDTO;
+import com.cardwiz.userservice.models.CardRewardRule;
+import com.cardwiz.userservice.models.UserCard;
+import com.cardwiz.userservice.repositories.CardRewardRuleRepository;
+import com.cardwiz.userservice.repositories.UserCardRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+/**
+ * Precomputes, per user, which active card wins for each category with a known reward rule.
+ * Rebuilt whenever a card or its rules change, and used to answer plain category questions
+ * without calling ai-service.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CardCategoryMatrixService {
+
+    static final String CACHE_NAME = "cardCategoryMatrixV1";
+    private static final String ROUTING_MODE = "precomputed_matrix";
+    private static final String GENERAL_CATEGORY = "general";
+
+    private final UserCardRepository userCardRepository;
+    private final CardRewardRuleRepository cardRewardRuleRepository;
+    private final RecommendationKeyCanonicalizer keyCanonicalizer;
+    private final CacheManager cacheManager;
+    private final MeterRegistry meterRegistry;
+
+    private final ExecutorService rebuildExecutor = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("card-matrix-", 0).factory()
+    );
+
+    /**
+     * Rebuilds the user's matrix once the surrounding transaction commits, so the rebuild sees
+     * the new card and rule rows.
+     */
+    public void scheduleRebuild(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        Runnable task = () -> rebuildExecutor.execute(() -> {
+            try {
+                rebuild(userId);
+            } catch (RuntimeException ex) {
+                log.warn("Failed rebuilding card category matrix for userId={}: {}", userId, ex.getMessage());
+                evict(userId);
+            }
+        });
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    task.run();
+                }
+            });
+        } else {
+            task.run();
+        }
+    }
+
+    public CardCategoryMatrix rebuild(Long userId) {
+        CardCategoryMatrix matrix = build(userId);
+        Cache cache = cacheManager.getCache(CACHE_NAME);
+        if (cache != null) {
+            try {
+                cache.put(userId, matrix);
+            } catch (RuntimeException ex) {
+                CacheConfig.countCacheError(meterRegistry, CACHE_NAME, "put");
+                log.warn("Redis PUT failed for key='{}'.", userId, ex);
+            }
+        }
+        return matrix;
+    }
+
+    public CardCategoryMatrix getMatrix(Long userId) {
+        Cache cache = cacheManager.getCache(CACHE_NAME);
+        if (cache != null) {
+            try {
+                CardCategoryMatrix cached = cache.get(userId, CardCategoryMatrix.class);
+                if (cached != null) {
+                    return cached;
+                }
+            } catch (RuntimeException ex) {
+                CacheConfig.countCacheError(meterRegistry, CACHE_NAME, "get");
+                log.warn("Redis GET failed for key='{}'. Treating as Cache Miss.", userId, ex);
+            }
+        }
+        return rebuild(userId);
+    }
+
+    /**
+     * Answers from the matrix when the request names a concrete category, carries no
+     * user-supplied context notes, and every eligible card has a rule for the category or a
+     * general one, none of them with conditions. A capped or minimum-spend rule is ranked at its
+     * headline rate here, and a card with no applicable rule at zero, so either needs ai-service's
+     * reasoning, as does anything else.
+     */
+    public Optional<RecommendationDTO> tryRecommend(RecommendationRequestDTO request) {
+        return tryRecommend(request, () -> getMatrix(request.getUserId()));
+    }
+
+    /**
+     * Same as {@link #tryRecommend(RecommendationRequestDTO)} with the matrix supplied by the
+     * caller, e.g. fetched concurrently with the active cards.
+     */
+    public Optional<RecommendationDTO> tryRecommend(RecommendationRequestDTO request, Supplier<CardCategoryMatrix> matrixSupplier) {
+        if (request.getUserId() == null || !mayAnswer(request.getCategory(), request.getContextNotes())) {
+            return Optional.empty();
+        }
+        String category = keyCanonicalizer.normalizeCategory(request.getCategory());
+        List<Long> eligibleCardIds = request.getAvailableCardIds();
+        if (eligibleCardIds == null || eligibleCardIds.isEmpty()) {
+            return Optional.empty();
+        }
+
+        CardCategoryMatrix matrix = matrixSupplier.get();
+        int row = matrix.categoryIndex(category);
+        if (row < 0 || !matrix.linearRewards(eligibleCardIds) || !matrix.knownRates(row, eligibleCardIds)) {
+            return Optional.empty();
+        }
+
+        List<Integer> rankedPositions = new ArrayList<>();
+        for (int position = matrix.getRowOffsets()[row]; position < matrix.getRowOffsets()[row + 1]; position++) {
+            long cardId = matrix.getCardIds()[matrix.getRankedCardSlots()[position]];
+            if (eligibleCardIds.contains(cardId)) {
+                rankedPositions.add(position);
+            }
+        }
+        if (rankedPositions.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(toRecommendation(matrix, rankedPositions, category, request));
+    }
+
+    /** Whether a request with this category and context notes can be answered from the matrix at all. */
+    public boolean mayAnswer(String category, String contextNotes) {
+        return !StringUtils.hasText(contextNotes)
+                && !GENERAL_CATEGORY.equals(keyCanonicalizer.normalizeCategory(category));
+    }
+
+    public void evict(Long userId) {
+        Cache cache = cacheManager.getCache(CACHE_NAME);
+        if (cache == null) {
+            return;
+        }
+        try {
+            cache.evict(userId);
+        } catch (RuntimeException ex) {
+            CacheConfig.countCacheError(meterRegistry, CACHE_NAME, "evict");
+            log.warn("Redis EVICT failed for key='{}'.", userId, ex);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        rebuildExecutor.shutdownNow();
+    }
+
+    private CardCategoryMatrix build(Long userId) {
+        List<UserCard> activeCards = userCardRepository.findActiveByUserId(userId);
+        Map<Long, UserCard> cardsById = new LinkedHashMap<>();
+        activeCards.forEach(card -> cardsById.put(card.getId(), card));
+
+        // cardId -> category -> best rule for that category
+        Map<Long, Map<String, CardRewardRule>> bestRules = new LinkedHashMap<>();
+        Set<Long> conditionalCardIds = new HashSet<>();
+        List<CardRewardRule> rules = cardsById.isEmpty()
+                ? List.of()
+                : cardRewardRuleRepository.findByUserCardIdIn(cardsById.keySet());
+        for (CardRewardRule rule : rules) {
+            Long cardId = rule.getUserCard().getId();
+            String category = keyCanonicalizer.normalizeCategory(rule.getCategory());
+            if (RewardRules.hasConditions(rule.getConditions())) {
+                conditionalCardIds.add(cardId);
+            }
+            bestRules.computeIfAbsent(cardId, ignored -> new HashMap<>())
+                    .merge(category, rule, (left, right) ->
+                            right.getEffectiveRewardPercentage() > left.getEffectiveRewardPercentage() ? right : left);
+        }
+
+        List<Long> coveredCardIds = cardsById.keySet().stream().filter(bestRules::containsKey).toList();
+        TreeSet<String> categories = new TreeSet<>();
+        bestRules.values().forEach(byCategory -> categories.addAll(byCategory.keySet()));
+
+        long[] cardIds = coveredCardIds.stream().mapToLong(Long::longValue).toArray();
+        String[] cardNames = coveredCardIds.stream().map(id -> cardsById.get(id).getCardName()).toArray(String[]::new);
+        boolean[] linearCards = new boolean[cardIds.length];
+        for (int slot = 0; slot < cardIds.length; slot++) {
+            linearCards[slot] = !conditionalCardIds.contains(cardIds[slot]);
+        }
+        String[] categoryNames = categories.toArray(String[]::new);
+        int[] rowOffsets = new int[categoryNames.length + 1];
+        int[] rankedCardSlots = new int[categoryNames.length * cardIds.length];
+        int[] basisPoints = new int[rankedCardSlots.length];
+        byte[] rewardTypeCodes = new byte[rankedCardSlots.length];
+        boolean[] knownRates = new boolean[rankedCardSlots.length];
+
+        int position = 0;
+        for (int row = 0; row < categoryNames.length; row++) {
+            rowOffsets[row] = position;
+            String category = categoryNames[row];
+            Integer[] slots = new Integer[cardIds.length];
+            int[] rowBasisPoints = new int[cardIds.length];
+            byte[] rowRewardTypes = new byte[cardIds.length];
+            boolean[] rowKnownRates = new boolean[cardIds.length];
+            for (int slot = 0; slot < cardIds.length; slot++) {
+                Map<String, CardRewardRule> byCategory = bestRules.get(cardIds[slot]);
+                CardRewardRule rule = byCategory.getOrDefault(category, byCategory.get(GENERAL_CATEGORY));
+                slots[slot] = slot;
+                rowBasisPoints[slot] = rule == null ? 0 : (int) Math.round(rule.getEffectiveRewardPercentage() * 100.0d);
+                rowRewardTypes[slot] = rule == null ? 0 : rewardTypeCode(rule.getRewardType());
+                rowKnownRates[slot] = rule != null;
+            }
+            Arrays.sort(slots, Comparator.<Integer>comparingInt(slot -> rowBasisPoints[slot]).reversed()
+                    .thenComparingLong(slot -> cardIds[slot]));
+            for (Integer slot : slots) {
+                rankedCardSlots[position] = slot;
+                basisPoints[position] = rowBasisPoints[slot];
+                rewardTypeCodes[position] = rowRewardTypes[slot];
+                knownRates[position] = rowKnownRates[slot];
+                position++;
+            }
+        }
+        rowOffsets[categoryNames.length] = position;
+
+        return new CardCategoryMatrix(
+                cardIds,
+                cardNames,
+                categoryNames,
+                rowOffsets,
+                rankedCardSlots,
+                basisPoints,
+                rewardTypeCodes,
+                knownRates,
+                linearCards,
+                System.currentTimeMillis()
+        );
+    }
+
+    private byte rewardTypeCode(String rewardType) {
+        if (rewardType == null) {
+            return 0;
+        }
+        String normalized = rewardType.toUpperCase(Locale.ROOT);
+        for (byte code = 0; code < CardCategoryMatrix.REWARD_TYPES.length; code++) {
+            if (CardCategoryMatrix.REWARD_TYPES[code].equals(normalized)) {
+                return code;
+            }
+        }
+        return 0;
+    }
+
+    private RecommendationDTO toRecommendation(
+            CardCategoryMatrix matrix,
+            List<Integer> rankedPositions,
+            String category,
+            RecommendationRequestDTO request
+    ) {
+        String currency = StringUtils.hasText(request.getCurrency())
+                ? request.getCurrency().toUpperCase(Locale.ROOT)
+                : "INR";
+        double spend = request.getTransactionAmount() == null ? 0.0d : request.getTransactionAmount().doubleValue();
+
+        int winnerPosition = rankedPositions.get(0);
+        int winnerSlot = matrix.getRankedCardSlots()[winnerPosition];
+        long winnerId = matrix.getCardIds()[winnerSlot];
+        String winnerName = matrix.getCardNames()[winnerSlot];
+        double winnerPct = matrix.getBasisPoints()[winnerPosition] / 100.0d;
+        double winnerValue = RewardRules.roundTwoDecimals(spend * winnerPct / 100.0d);
+        String rewardType = CardCategoryMatrix.REWARD_TYPES[matrix.getRewardTypeCodes()[winnerPosition]];
+        List<String> reasoning = List.of(
+                winnerName + " has the highest effective reward rate (" + String.format(Locale.ROOT, "%.2f", winnerPct)
+                        + "%) for " + category + " among your active cards."
+        );
+
+        List<RecommendationDTO.ComparisonRow> comparisonTable = new ArrayList<>();
+        List<RecommendationDTO.CardRecommendation> alternatives = new ArrayList<>();
+        for (int position : rankedPositions.subList(1, Math.min(rankedPositions.size(), 4))) {
+            int slot = matrix.getRankedCardSlots()[position];
+            double pct = matrix.getBasisPoints()[position] / 100.0d;
+            double value = RewardRules.roundTwoDecimals(spend * pct / 100.0d);
+            String verdict = "Lower effective reward rate for this scenario.";
+            comparisonTable.add(new RecommendationDTO.ComparisonRow(matrix.getCardNames()[slot], pct, value, verdict));
+            alternatives.add(new RecommendationDTO.CardRecommendation(
+                    matrix.getCardIds()[slot],
+                    matrix.getCardNames()[slot],
+                    RewardRules.estimatedRewardText(currency, spend, value, pct),
+                    verdict,
+                    0.6d
+            ));
+        }
+
+        List<Long> eligibleCardIds = request.getAvailableCardIds();
+        String routingReason = "Category '" + category + "' answered from precomputed card rules.";
+        return new RecommendationDTO(
+                new RecommendationDTO.CardRecommendation(
+                        winnerId,
+                        winnerName,
+                        RewardRules.estimatedRewardText(currency, spend, winnerValue, winnerPct),
+                        String.join(" ", reasoning),
+                        0.9d
+                ),
+                alternatives,
+                "Routing=" + ROUTING_MODE + "; reason=" + routingReason,
+                "rec_" + UUID.randomUUID().toString().replace("-", "").substring(0, 10),
+                new RecommendationDTO.TransactionContext(request.getMerchantName(), category, spend, currency, null),
+                new RecommendationDTO.BestCard(
+                        winnerId,
+                        winnerName,
+                        "WINNER",
+                        new RecommendationDTO.Rewards(winnerValue, currency, winnerPct, rewardType, null),
+                        RewardRules.calculationText(currency, spend, winnerPct, winnerValue),
+                        reasoning,
+                        null
+                ),
+                comparisonTable,
+                eligibleCardIds,
+                List.of(),
+                Boolean.TRUE,
+                ROUTING_MODE,
+                routingReason
+        );
+    }
+}
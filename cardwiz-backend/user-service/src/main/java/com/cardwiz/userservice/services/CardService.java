@@ -1,14 +1,19 @@
 package com.cardwiz.userservice.services;
 
+import com.cardwiz.userservice.config.ReadYourWrites;
+import com.cardwiz.userservice.config.ReplicaRead;
 import com.cardwiz.userservice.customExceptions.UserNotFoundException;
+import com.cardwiz.userservice.dtos.AiResponseDTO;
 import com.cardwiz.userservice.dtos.UserCardRequest;
 import com.cardwiz.userservice.dtos.UserCardResponse;
 import com.cardwiz.userservice.dtos.DocumentJobStatusDTO;
+import com.cardwiz.userservice.models.CardRewardRule;
 import com.cardwiz.userservice.models.DocumentStatus;
 import com.cardwiz.userservice.models.ProcessingStatus;
 import com.cardwiz.userservice.models.UploadedDocument;
 import com.cardwiz.userservice.models.User;
 import com.cardwiz.userservice.models.UserCard;
+import com.cardwiz.userservice.repositories.CardRewardRuleRepository;
 import com.cardwiz.userservice.repositories.UploadedDocumentRepository;
 import com.cardwiz.userservice.repositories.UserCardRepository;
 import com.cardwiz.userservice.repositories.UserRepository;
@@ -21,6 +26,7 @@ import org.springframework.stereotype.Service;
 
 import java.time.Instant;
 import java.util.List;
+import java.util.Objects;
 
 @Service
 @RequiredArgsConstructor
@@ -29,14 +35,18 @@ public class CardService {
     private final UserCardRepository userCardRepository;
     private final UserRepository userRepository;
     private final UploadedDocumentRepository uploadedDocumentRepository;
+    private final CardRewardRuleRepository cardRewardRuleRepository;
+    private final CardCategoryMatrixService cardCategoryMatrixService;
+    private final ReadYourWrites readYourWrites;
+    private final ResourceVersions resourceVersions;
 
+    @ReplicaRead
     @Cacheable(cacheNames = "cardMetadataByUserV2", key = "#userId")
     public List<UserCardResponse> getCardsForUser(Long userId) {
-        return userCardRepository.findByUserId(userId).stream()
-                .map(this::toResponse)
-                .toList();
+        return userCardRepository.findResponsesByUserId(userId);
     }
 
+    @ReplicaRead
     @Cacheable(cacheNames = "cardMetadataByIdV2", key = "T(java.lang.String).valueOf(#userId).concat(':').concat(T(java.lang.String).valueOf(#cardId))")
     public UserCardResponse getCard(Long userId, Long cardId) {
         UserCard card = userCardRepository.findById(cardId)
@@ -66,7 +76,10 @@ public class CardService {
                 .user(user)
                 .build();
 
-        return toResponse(userCardRepository.save(card));
+        UserCardResponse response = toResponse(userCardRepository.save(card));
+        resourceVersions.bump(userId, ResourceVersions.Resource.CARDS);
+        cardCategoryMatrixService.scheduleRebuild(userId);
+        return response;
     }
 
     @Transactional
@@ -95,7 +108,10 @@ public class CardService {
         }
         card.setActive(request.isActive());
 
-        return toResponse(userCardRepository.save(card));
+        UserCardResponse response = toResponse(userCardRepository.save(card));
+        resourceVersions.bump(userId, ResourceVersions.Resource.CARDS);
+        cardCategoryMatrixService.scheduleRebuild(userId);
+        return response;
     }
 
     @Transactional
@@ -110,13 +126,13 @@ public class CardService {
             throw new RuntimeException("Card does not belong to user");
         }
         userCardRepository.delete(card);
+        resourceVersions.bump(userId, ResourceVersions.Resource.CARDS);
+        cardCategoryMatrixService.scheduleRebuild(userId);
     }
 
+    @ReplicaRead
     public List<Long> getActiveCardIds(Long userId) {
-        return userCardRepository.findByUserId(userId).stream()
-                .filter(UserCard::isActive)
-                .map(UserCard::getId)
-                .toList();
+        return userCardRepository.findActiveIdsByUserId(userId);
     }
 
     @Transactional
@@ -132,6 +148,7 @@ public class CardService {
         }
         card.setDocStatus(DocumentStatus.PROCESSING);
         card.setDocS3Key(s3Key);
+        resourceVersions.bump(userId, ResourceVersions.Resource.CARDS);
         return userCardRepository.save(card);
     }
 
@@ -145,7 +162,40 @@ public class CardService {
                 .orElseThrow(() -> new RuntimeException("Card not found"));
         card.setDocStatus(DocumentStatus.COMPLETED);
         card.setLastAnalyzedAt(Instant.now());
-        return userCardRepository.save(card);
+        UserCard saved = userCardRepository.save(card);
+        readYourWrites.recordWrite(card.getUser().getId());
+        resourceVersions.bump(card.getUser().getId(), ResourceVersions.Resource.CARDS);
+        cardCategoryMatrixService.scheduleRebuild(card.getUser().getId());
+        return saved;
+    }
+
+    /**
+     * Replaces the locally stored reward rules of a card with the rules extracted from its
+     * latest document.
+     */
+    @Transactional
+    public void replaceCardRules(Long cardId, Long documentId, List<AiResponseDTO.ExtractedRuleDTO> rules) {
+        UserCard card = userCardRepository.findById(cardId)
+                .orElseThrow(() -> new RuntimeException("Card not found"));
+
+        cardRewardRuleRepository.deleteByUserCardId(cardId);
+        List<CardRewardRule> entities = rules.stream()
+                .filter(Objects::nonNull)
+                .map(rule -> CardRewardRule.builder()
+                        .userCard(card)
+                        .documentId(documentId)
+                        .category(rule.getCategory() == null ? "general" : rule.getCategory())
+                        .rewardType(rule.getRewardType())
+                        .rewardRate(rule.getRewardRate())
+                        .pointsPerUnit(rule.getPointsPerUnit())
+                        .spendUnit(rule.getSpendUnit())
+                        .pointValueRupees(rule.getPointValueRupees())
+                        .effectiveRewardPercentage(RewardRules.deriveEffectiveRewardPercentage(rule))
+                        .conditions(rule.getConditions())
+                        .build())
+                .toList();
+        cardRewardRuleRepository.saveAll(entities);
+        cardCategoryMatrixService.scheduleRebuild(card.getUser().getId());
     }
 
     @Transactional
@@ -157,6 +207,8 @@ public class CardService {
         UserCard card = userCardRepository.findById(cardId)
                 .orElseThrow(() -> new RuntimeException("Card not found"));
         card.setDocStatus(DocumentStatus.FAILED);
+        readYourWrites.recordWrite(card.getUser().getId());
+        resourceVersions.bump(card.getUser().getId(), ResourceVersions.Resource.CARDS);
         return userCardRepository.save(card);
     }
 
@@ -181,6 +233,7 @@ public class CardService {
                 .orElseThrow(() -> new RuntimeException("Document record not found"));
         document.setStatus(ProcessingStatus.COMPLETED);
         document.setAiSummary(aiSummary);
+        readYourWrites.recordWrite(document.getUser().getId());
         return uploadedDocumentRepository.save(document);
     }
 
@@ -189,22 +242,20 @@ public class CardService {
         UploadedDocument document = uploadedDocumentRepository.findById(documentId)
                 .orElseThrow(() -> new RuntimeException("Document record not found"));
         document.setStatus(ProcessingStatus.FAILED);
+        readYourWrites.recordWrite(document.getUser().getId());
         return uploadedDocumentRepository.save(document);
     }
 
+    @ReplicaRead
     public DocumentJobStatusDTO getDocumentJobStatus(Long userId, Long documentId) {
         UploadedDocument document = uploadedDocumentRepository.findByIdAndUserId(documentId, userId)
                 .orElseThrow(() -> new RuntimeException("Document job not found"));
 
         Long cardId = null;
         if (document.getS3Url() != null) {
-            List<UserCard> cards = userCardRepository.findByUserId(userId);
-            for (UserCard card : cards) {
-                if (document.getS3Url().equals(card.getDocS3Key())) {
-                    cardId = card.getId();
-                    break;
-                }
-            }
+            cardId = userCardRepository.findIdsByUserIdAndDocS3Key(userId, document.getS3Url()).stream()
+                    .findFirst()
+                    .orElse(null);
         }
 
         return DocumentJobStatusDTO.builder()
@@ -0,0 +1,100 @@
+package com.cardwiz.userservice.services;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Conditional GET on a {@link ResourceVersions} version: a request whose {@code If-None-Match}
+ * carries the current ETag gets a 304 without the body being loaded or serialized.
+ */
+@Component
+@RequiredArgsConstructor
+public class ConditionalGet {
+
+    // Browsers keep the body but revalidate before every use; shared caches never store it
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
+    private final ResourceVersions resourceVersions;
+
+    public <T> ResponseEntity<T> respond(
+            WebRequest request,
+            Long userId,
+            ResourceVersions.Resource resource,
+            Supplier<T> body) {
+        return respond(request, userId, List.of(resource), etag -> body.get());
+    }
+
+    /**
+     * Same over several resources, with one ETag that changes whenever any of them does. The body
+     * is handed the ETag it will be sent with, {@code null} when there is none, so it can be cached
+     * under it.
+     */
+    public <T> ResponseEntity<T> respond(
+            WebRequest request,
+            Long userId,
+            List<ResourceVersions.Resource> resources,
+            Function<String, T> body) {
+        return respond(request, userId, resources, body, value -> true);
+    }
+
+    /**
+     * Same, for a body that can come out degraded (a part left out because its source failed). A
+     * body that fails {@code complete} is not what the versions describe, so it is sent without
+     * the ETag and is not stored; otherwise a later request would get a 304 for it after the source
+     * recovers.
+     */
+    public <T> ResponseEntity<T> respond(
+            WebRequest request,
+            Long userId,
+            List<ResourceVersions.Resource> resources,
+            Function<String, T> body,
+            Predicate<? super T> complete) {
+        // Read before the body: a change committed in between only makes the ETag older than the body
+        String etag = resourceVersions.etag(userId, resources.toArray(ResourceVersions.Resource[]::new));
+        if (etag == null) {
+            return ResponseEntity.ok(body.apply(null));
+        }
+        // Matched here rather than with WebRequest.checkNotModified, which writes the ETag to the
+        // response before the body is known
+        if (notModified(request, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(REVALIDATE).build();
+        }
+        T value = body.apply(etag);
+        if (!complete.test(value)) {
+            return ResponseEntity.ok().cacheControl(CacheControl.noStore()).body(value);
+        }
+        return ResponseEntity.ok().eTag(etag).cacheControl(REVALIDATE).body(value);
+    }
+
+    // Weak comparison, as If-None-Match calls for
+    private static boolean notModified(WebRequest request, String etag) {
+        String[] ifNoneMatch = request.getHeaderValues(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        String current = opaqueTag(etag);
+        for (String header : ifNoneMatch) {
+            for (String candidate : header.split(",")) {
+                String tag = candidate.trim();
+                if ("*".equals(tag) || current.equals(opaqueTag(tag))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static String opaqueTag(String etag) {
+        return etag.startsWith("W/") ? etag.substring(2) : etag;
+    }
+}
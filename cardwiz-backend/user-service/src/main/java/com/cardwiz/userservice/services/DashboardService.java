@@ -0,0 +1,146 @@
+package com.cardwiz.userservice.services;
+
+import com.cardwiz.userservice.config.CacheConfig;
+import com.cardwiz.userservice.config.ServerTiming;
+import com.cardwiz.userservice.dtos.DashboardResponse;
+import com.cardwiz.userservice.dtos.EmbeddingCoverageResponseDTO;
+import com.cardwiz.userservice.dtos.TransactionResponse;
+import com.cardwiz.userservice.dtos.UserCardResponse;
+import com.cardwiz.userservice.dtos.UserResponseDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Assembles the dashboard's profile, cards, knowledge coverage and recent transactions in one
+ * request, fetching the four concurrently through {@link RequestFanOut}.
+ * <p>
+ * The assembled dashboard is cached under its ETag, which {@link ResourceVersions} derives from
+ * the user id and the versions of {@link #RESOURCES}. Every write that evicts one of the parts
+ * already bumps its version, so such a write also retires the cached dashboard without an
+ * eviction of its own; superseded entries are left to expire. Without an ETag (Redis down, or a
+ * write still inside the read-replica window) the dashboard is assembled and not cached. One that
+ * lacks coverage because ai-service failed is neither cached nor sent with the ETag, so the browser
+ * asks again in full once ai-service is back.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DashboardService {
+
+    public static final List<ResourceVersions.Resource> RESOURCES = List.of(
+            ResourceVersions.Resource.PROFILE,
+            ResourceVersions.Resource.CARDS,
+            ResourceVersions.Resource.TRANSACTIONS,
+            ResourceVersions.Resource.COVERAGE);
+
+    static final String CACHE_NAME = "dashboardV1";
+
+    private final UserService userService;
+    private final CardService cardService;
+    private final TransactionService transactionService;
+    private final AiServiceClient aiServiceClient;
+    private final RequestFanOut requestFanOut;
+    private final CacheManager cacheManager;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.dashboard.recent-transactions:10}")
+    private int recentTransactions;
+
+    /**
+     * The user's dashboard as of {@code etag}, the ETag it is sent with.
+     *
+     * @param etag cache key; {@code null} to assemble without the cache
+     */
+    public DashboardResponse getDashboard(Long userId, String etag) {
+        Cache cache = etag == null ? null : cacheManager.getCache(CACHE_NAME);
+        if (cache != null) {
+            try {
+                DashboardResponse cached = cache.get(etag, DashboardResponse.class);
+                if (cached != null) {
+                    return cached;
+                }
+            } catch (RuntimeException ex) {
+                CacheConfig.countCacheError(meterRegistry, CACHE_NAME, "get");
+                log.warn("Redis GET failed for key='{}'. Treating as Cache Miss.", etag, ex);
+            }
+        }
+
+        DashboardResponse dashboard = assemble(userId);
+        if (cache != null && isComplete(dashboard)) {
+            try {
+                cache.put(etag, dashboard);
+            } catch (RuntimeException ex) {
+                CacheConfig.countCacheError(meterRegistry, CACHE_NAME, "put");
+                log.warn("Redis PUT failed for key='{}'.", etag, ex);
+            }
+        }
+        return dashboard;
+    }
+
+    /** Whether every part made it in; one without coverage is neither cached nor sent with the ETag. */
+    public static boolean isComplete(DashboardResponse dashboard) {
+        return dashboard.getKnowledgeCoverage() != null;
+    }
+
+    private DashboardResponse assemble(Long userId) {
+        try (RequestFanOut.Scope scope = requestFanOut.open()) {
+            RequestFanOut.Task<UserResponseDTO> profile = scope.fork("profile", () -> {
+                try (ServerTiming.Span ignored = ServerTiming.start("profile")) {
+                    return userService.getUserProfile(userId);
+                }
+            });
+            RequestFanOut.Task<List<UserCardResponse>> cards = scope.fork("cards", () -> {
+                try (ServerTiming.Span ignored = ServerTiming.start("cards")) {
+                    return cardService.getCardsForUser(userId);
+                }
+            });
+            RequestFanOut.Task<List<TransactionResponse>> transactions = scope.fork("transactions", () -> {
+                try (ServerTiming.Span ignored = ServerTiming.start("transactions")) {
+                    return transactionService.listRecentTransactions(userId, recentTransactions);
+                }
+            });
+            RequestFanOut.Task<Map<Long, Boolean>> coverage = scope.fork("coverage", () -> {
+                try (ServerTiming.Span ignored = ServerTiming.start("coverage")) {
+                    return knowledgeCoverage(cardService.getActiveCardIds(userId));
+                }
+            });
+
+            DashboardResponse.DashboardResponseBuilder dashboard = DashboardResponse.builder()
+                    .profile(profile.join())
+                    .cards(cards.join())
+                    .recentTransactions(transactions.join());
+            // Joined last: a slow or failing ai-service only costs the coverage
+            try {
+                dashboard.knowledgeCoverage(coverage.join());
+            } catch (RuntimeException ex) {
+                log.warn("Serving the dashboard of userId={} without knowledge coverage: {}", userId, ex.getMessage());
+            }
+            return dashboard.build();
+        }
+    }
+
+    private Map<Long, Boolean> knowledgeCoverage(List<Long> activeCardIds) {
+        if (activeCardIds.isEmpty()) {
+            return Map.of();
+        }
+        Set<Long> covered = new HashSet<>();
+        EmbeddingCoverageResponseDTO response = aiServiceClient.getEmbeddingCoverage(activeCardIds);
+        if (response != null && response.getCoveredCardIds() != null) {
+            covered.addAll(response.getCoveredCardIds());
+        }
+        Map<Long, Boolean> coverage = new LinkedHashMap<>();
+        activeCardIds.forEach(cardId -> coverage.put(cardId, covered.contains(cardId)));
+        return coverage;
+    }
+}
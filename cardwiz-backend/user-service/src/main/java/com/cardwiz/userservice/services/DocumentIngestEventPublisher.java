@@ -3,6 +3,8 @@ package com.cardwiz.userservice.services;
 import com.cardwiz.userservice.dtos.IngestRequestDTO;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -18,6 +20,7 @@ public class DocumentIngestEventPublisher {
 
     private final KafkaTemplate<String, String> kafkaTemplate;
     private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
 
     @Value("${app.kafka.topic.document-ingest}")
     private String ingestTopic;
@@ -31,12 +34,21 @@ public class DocumentIngestEventPublisher {
         }
 
         String key = payload.getCardId() == null ? "unknown" : String.valueOf(payload.getCardId());
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "SUCCESS";
         try {
             kafkaTemplate.send(ingestTopic, key, serialized).get(5, TimeUnit.SECONDS);
             log.info("Published ingest event for cardId={} to topic={}", payload.getCardId(), ingestTopic);
         } catch (Exception ex) {
+            outcome = "FAILURE";
             log.error("Failed publishing ingest event for cardId={}: {}", payload.getCardId(), ex.getMessage());
             throw new RuntimeException("Failed to publish ingest event to Kafka", ex);
+        } finally {
+            // Send-until-acked latency; failures include the 5s ack timeout
+            sample.stop(Timer.builder("cardwiz.kafka.publish")
+                    .tag("topic", ingestTopic)
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
         }
     }
 }
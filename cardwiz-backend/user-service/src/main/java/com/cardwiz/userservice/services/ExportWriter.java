@@ -0,0 +1,124 @@
+package com.cardwiz.userservice.services;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Writes rows from a database cursor to a response body as they arrive, so an export holds one
+ * row and one output buffer in memory however many rows it has. NDJSON writes each row as it
+ * serializes in the API; CSV writes the given columns under a header line.
+ */
+@Component
+@RequiredArgsConstructor
+public class ExportWriter {
+
+    private static final int BUFFER_SIZE = 16 * 1024;
+
+    private final ObjectMapper objectMapper;
+
+    /** Writes every row and returns how many there were; the caller closes {@code rows} and {@code out}. */
+    public <T> long write(Stream<T> rows, ExportFormat format, Map<String, Function<T, ?>> csvColumns, OutputStream out) {
+        try {
+            return switch (format) {
+                case NDJSON -> writeNdjson(rows, out);
+                case CSV -> writeCsv(rows, csvColumns, out);
+            };
+        } catch (IOException ex) {
+            // Usually the client going away mid-download; unwinding closes the cursor
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private long writeNdjson(Stream<?> rows, OutputStream out) throws IOException {
+        long count = 0;
+        // Flushing after each row would send every row as its own chunk; the buffer fills instead
+        try (SequenceWriter writer = objectMapper.writer()
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .withRootValueSeparator("\n")
+                .writeValues(out)) {
+            for (Iterator<?> iterator = rows.iterator(); iterator.hasNext(); count++) {
+                writer.write(iterator.next());
+            }
+        }
+        if (count > 0) {
+            out.write('\n');
+        }
+        out.flush();
+        return count;
+    }
+
+    private <T> long writeCsv(Stream<T> rows, Map<String, Function<T, ?>> columns, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        writeCsvLine(writer, columns.keySet().stream().map(name -> (Object) name).iterator());
+        long count = 0;
+        for (Iterator<T> iterator = rows.iterator(); iterator.hasNext(); count++) {
+            T row = iterator.next();
+            writeCsvLine(writer, columns.values().stream().map(column -> (Object) column.apply(row)).iterator());
+        }
+        writer.flush();
+        return count;
+    }
+
+    private static void writeCsvLine(Writer writer, Iterator<Object> values) throws IOException {
+        boolean first = true;
+        while (values.hasNext()) {
+            if (!first) {
+                writer.write(',');
+            }
+            first = false;
+            Object value = values.next();
+            if (value != null) {
+                writeCsvField(writer, value.toString());
+            }
+        }
+        writer.write("\r\n");
+    }
+
+    /**
+     * RFC 4180 quoting, plus a leading quote mark on values a spreadsheet would run as a formula. A
+     * leading tab or carriage return is marked whatever follows it: spreadsheets strip it before
+     * parsing the cell, and the number check skips it too.
+     */
+    private static void writeCsvField(Writer writer, String value) throws IOException {
+        boolean formula = !value.isEmpty() && ("\t\r".indexOf(value.charAt(0)) >= 0
+                || "=+-@".indexOf(value.charAt(0)) >= 0 && !isNumber(value));
+        boolean quote = formula || value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        if (formula) {
+            writer.write('\'');
+        }
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    private static boolean isNumber(String value) {
+        try {
+            Double.parseDouble(value);
+            return true;
+        } catch (NumberFormatException ex) {
+            return false;
+        }
+    }
+}
@@ -1,9 +1,13 @@
 package com.cardwiz.userservice.services;
 
-import jakarta.annotation.PostConstruct;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 import software.amazon.awssdk.core.sync.RequestBody;
@@ -26,6 +30,7 @@ import java.util.UUID;
 public class ImageUploadService {
 
     private final S3Client s3Client;
+    private final MeterRegistry meterRegistry;
 
     @Value("${aws.s3.document-bucket-name:epoch-docs}")
     private String documentBucketName;
@@ -36,12 +41,23 @@ public class ImageUploadService {
     private static final long MAX_DOCUMENT_SIZE = 20 * 1024 * 1024; // 20MB
     private static final String[] ALLOWED_DOCUMENT_EXTENSIONS = {"jpg", "jpeg", "png", "pdf", "webp"};
 
-    @PostConstruct
+    /**
+     * Checks the document bucket once the application is ready, on a virtual thread, so a slow or
+     * unreachable S3 endpoint does not hold up startup. Uploads create a missing bucket on their
+     * own, so a failed check is only logged.
+     */
+    @EventListener(ApplicationReadyEvent.class)
     public void initializeBuckets() {
         if (!s3Enabled) {
             return;
         }
-        ensureBucketExists(documentBucketName);
+        Thread.ofVirtual().name("s3-bucket-check").start(() -> {
+            try {
+                ensureBucketExists(documentBucketName);
+            } catch (RuntimeException ex) {
+                log.warn("S3 bucket check for {} failed; uploads will retry bucket creation.", documentBucketName, ex);
+            }
+        });
     }
 
     public String uploadDocument(MultipartFile file, Long userId) {
@@ -63,7 +79,8 @@ public class ImageUploadService {
                     .contentType(file.getContentType() != null ? file.getContentType() : "application/octet-stream")
                     .build();
 
-            putObjectWithBucketAutoCreate(documentBucketName, putObjectRequest, RequestBody.fromBytes(file.getBytes()));
+            byte[] bytes = file.getBytes();
+            timedUpload(documentBucketName, putObjectRequest, bytes);
             return key;
         } catch (IOException e) {
             log.error("Error reading document for user {}: {}", userId, e.getMessage());
@@ -109,6 +126,29 @@ public class ImageUploadService {
         return String.format("documents/%d/%s%s", userId, UUID.randomUUID(), extension);
     }
 
+    private void timedUpload(String bucketName, PutObjectRequest request, byte[] bytes) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "SUCCESS";
+        try {
+            putObjectWithBucketAutoCreate(bucketName, request, RequestBody.fromBytes(bytes));
+        } catch (RuntimeException ex) {
+            outcome = "FAILURE";
+            throw ex;
+        } finally {
+            sample.stop(Timer.builder("cardwiz.s3.upload")
+                    .tag("bucket", bucketName)
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
+            DistributionSummary.builder("cardwiz.s3.upload.size")
+                    .baseUnit("bytes")
+                    .tag("bucket", bucketName)
+                    .tag("outcome", outcome)
+                    .serviceLevelObjectives(64 * 1024, 256 * 1024, 1024 * 1024, 5 * 1024 * 1024, MAX_DOCUMENT_SIZE)
+                    .register(meterRegistry)
+                    .record(bytes.length);
+        }
+    }
+
     private void putObjectWithBucketAutoCreate(String bucketName, PutObjectRequest request, RequestBody body) {
         try {
             s3Client.putObject(request, body);
@@ -0,0 +1,180 @@
+package com.cardwiz.userservice.services;
+
+import com.cardwiz.userservice.config.ServerTiming;
+import com.cardwiz.userservice.dtos.CategoryInference;
+import com.cardwiz.userservice.dtos.MerchantCategoryCount;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Infers the category of a merchant a request left blank, before it reaches the category matrix,
+ * the recommendation cache or ai-service, all of which treat "general" as a miss.
+ * <p>
+ * Two {@link MerchantDictionary} automatons are consulted: the user's own, built from how they
+ * categorized earlier transactions at a merchant, and a shared one seeded from
+ * {@code merchants/merchant-categories.csv}. The user's labels win once they are confident enough.
+ * A user's dictionary is loaded with one grouped query and kept in memory per instance for
+ * {@code user-ttl}, so after the first request a classification is a walk over the merchant name.
+ */
+@Component
+@Slf4j
+public class MerchantClassifier {
+
+    static final String SOURCE_HISTORY = "history";
+    static final String SOURCE_DICTIONARY = "dictionary";
+    private static final String GENERAL_CATEGORY = "general";
+    private static final int CLEANUP_THRESHOLD = 10_000;
+
+    private final TransactionService transactionService;
+    private final RecommendationKeyCanonicalizer keyCanonicalizer;
+    private final MeterRegistry meterRegistry;
+    private final MerchantDictionary seedDictionary;
+    private final double minConfidence;
+    private final long userTtlNanos;
+    private final ConcurrentMap<Long, UserDictionary> userDictionaries = new ConcurrentHashMap<>();
+
+    private record UserDictionary(MerchantDictionary dictionary, long loadedAt) {
+    }
+
+    public MerchantClassifier(
+            TransactionService transactionService,
+            RecommendationKeyCanonicalizer keyCanonicalizer,
+            MeterRegistry meterRegistry,
+            @Value("${app.merchant-classifier.dictionary:classpath:merchants/merchant-categories.csv}") Resource dictionary,
+            @Value("${app.merchant-classifier.min-confidence:0.6}") double minConfidence,
+            @Value("${app.merchant-classifier.user-ttl:10m}") Duration userTtl
+    ) {
+        this.transactionService = transactionService;
+        this.keyCanonicalizer = keyCanonicalizer;
+        this.meterRegistry = meterRegistry;
+        this.seedDictionary = MerchantDictionary.build(readSeed(dictionary));
+        this.minConfidence = minConfidence;
+        this.userTtlNanos = userTtl.toNanos();
+    }
+
+    /**
+     * The merchant's category with its confidence, or empty when nothing clears min-confidence.
+     * The result is also reported as the {@code classify} Server-Timing entry.
+     */
+    public Optional<CategoryInference> classify(Long userId, String merchant) {
+        if (merchant == null || merchant.isBlank()) {
+            return Optional.empty();
+        }
+        Optional<CategoryInference> inference;
+        try (ServerTiming.Span span = ServerTiming.start("classify")) {
+            inference = userDictionary(userId).classify(merchant)
+                    .filter(match -> match.confidence() >= minConfidence)
+                    .map(match -> inference(match, SOURCE_HISTORY))
+                    .or(() -> seedDictionary.classify(merchant)
+                            .filter(match -> match.confidence() >= minConfidence)
+                            .map(match -> inference(match, SOURCE_DICTIONARY)));
+            inference.ifPresent(found -> span.describe(found.getCategory() + " " + found.getConfidence()));
+        }
+
+        String outcome = inference.map(CategoryInference::getSource).orElse("none");
+        meterRegistry.counter("cardwiz.merchant.classifier.lookups", "outcome", outcome).increment();
+        inference.ifPresent(found -> meterRegistry.summary("cardwiz.merchant.classifier.confidence", "source", outcome)
+                .record(found.getConfidence()));
+        return inference;
+    }
+
+    private MerchantDictionary userDictionary(Long userId) {
+        if (userId == null) {
+            return MerchantDictionary.EMPTY;
+        }
+        long now = System.nanoTime();
+        UserDictionary cached = userDictionaries.get(userId);
+        if (cached != null && now - cached.loadedAt() < userTtlNanos) {
+            return cached.dictionary();
+        }
+
+        MerchantDictionary dictionary;
+        try {
+            dictionary = buildUserDictionary(transactionService.countMerchantCategories(userId));
+        } catch (RuntimeException ex) {
+            log.warn("Loading merchant categories of user {} failed; using the seed dictionary only: {}", userId, ex.getMessage());
+            return MerchantDictionary.EMPTY;
+        }
+        userDictionaries.put(userId, new UserDictionary(dictionary, now));
+        if (userDictionaries.size() > CLEANUP_THRESHOLD) {
+            userDictionaries.values().removeIf(entry -> now - entry.loadedAt() >= userTtlNanos);
+        }
+        return dictionary;
+    }
+
+    /**
+     * One pattern per merchant, labelled with its most frequent category. The confidence is that
+     * category's share of the merchant's transactions, discounted for small samples: n / (n + 1).
+     */
+    MerchantDictionary buildUserDictionary(List<MerchantCategoryCount> counts) {
+        Map<String, Map<String, Long>> byMerchant = new HashMap<>();
+        for (MerchantCategoryCount count : counts) {
+            String category = keyCanonicalizer.normalizeCategory(count.category());
+            if (GENERAL_CATEGORY.equals(category)) {
+                continue;
+            }
+            byMerchant.computeIfAbsent(MerchantDictionary.normalize(count.merchant()), ignored -> new HashMap<>())
+                    .merge(category, count.transactions(), Long::sum);
+        }
+
+        Map<String, MerchantDictionary.Entry> patterns = new HashMap<>();
+        byMerchant.forEach((merchant, categories) -> {
+            long total = categories.values().stream().mapToLong(Long::longValue).sum();
+            categories.entrySet().stream()
+                    .max(Map.Entry.comparingByValue())
+                    .ifPresent(best -> patterns.put(merchant, new MerchantDictionary.Entry(
+                            best.getKey(), (double) best.getValue() / (total + 1))));
+        });
+        return MerchantDictionary.build(patterns);
+    }
+
+    private static CategoryInference inference(MerchantDictionary.Match match, String source) {
+        return CategoryInference.builder()
+                .category(match.category())
+                .confidence(Math.round(match.confidence() * 1000.0d) / 1000.0d)
+                .source(source)
+                .build();
+    }
+
+    private Map<String, MerchantDictionary.Entry> readSeed(Resource dictionary) {
+        Map<String, MerchantDictionary.Entry> patterns = new LinkedHashMap<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(dictionary.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                line = line.strip();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] fields = line.split(",");
+                if (fields.length < 2 || fields.length > 3) {
+                    throw new IllegalStateException("Merchant dictionary line " + lineNumber + " is not pattern,category[,confidence]");
+                }
+                double confidence = fields.length == 3 ? Double.parseDouble(fields[2].strip()) : 0.9d;
+                patterns.put(fields[0].strip(), new MerchantDictionary.Entry(
+                        keyCanonicalizer.normalizeCategory(fields[1]), confidence));
+            }
+        } catch (IOException ex) {
+            throw new IllegalStateException("Could not read merchant dictionary " + dictionary, ex);
+        }
+        log.info("Loaded {} merchant patterns from {}", patterns.size(), dictionary);
+        return patterns;
+    }
+}
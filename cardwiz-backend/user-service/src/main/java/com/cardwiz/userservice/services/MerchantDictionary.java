@@ -0,0 +1,216 @@
+package com.cardwiz.userservice.services;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+/**
+ * Aho-Corasick automaton over merchant name patterns, each mapped to a category with a
+ * confidence. One pass over a merchant name finds every pattern it contains; patterns match whole
+ * words only, as both sides are normalized to space-separated words with a space at each end.
+ * <p>
+ * Every match votes for its category with its confidence times its length squared, so a specific
+ * pattern outweighs a shorter one it contains. The result's confidence is that of the strongest
+ * pattern for the winning category, scaled by the winner's share of all votes. Immutable and safe
+ * to share between threads.
+ */
+final class MerchantDictionary {
+
+    static final MerchantDictionary EMPTY = build(Map.of());
+
+    private static final int ROOT = 0;
+
+    private final char[][] edgeChars;
+    private final int[][] edgeTargets;
+    private final int[] fail;
+    private final int[] output;
+    private final int[] outputLink;
+    private final int[] patternLengths;
+    private final Entry[] entries;
+
+    record Entry(String category, double confidence) {
+    }
+
+    record Match(String category, double confidence) {
+    }
+
+    private MerchantDictionary(char[][] edgeChars, int[][] edgeTargets, int[] fail, int[] output, int[] outputLink,
+                               int[] patternLengths, Entry[] entries) {
+        this.edgeChars = edgeChars;
+        this.edgeTargets = edgeTargets;
+        this.fail = fail;
+        this.output = output;
+        this.outputLink = outputLink;
+        this.patternLengths = patternLengths;
+        this.entries = entries;
+    }
+
+    /** Builds the automaton; patterns are normalized first and blank ones are dropped. */
+    static MerchantDictionary build(Map<String, Entry> patterns) {
+        List<TreeMap<Character, Integer>> children = new ArrayList<>();
+        List<Integer> outputs = new ArrayList<>();
+        List<Integer> lengths = new ArrayList<>();
+        List<Entry> entries = new ArrayList<>();
+        children.add(new TreeMap<>());
+        outputs.add(-1);
+
+        patterns.forEach((pattern, entry) -> {
+            String normalized = normalize(pattern);
+            if (normalized.isBlank()) {
+                return;
+            }
+            int node = ROOT;
+            for (int i = 0; i < normalized.length(); i++) {
+                Integer next = children.get(node).get(normalized.charAt(i));
+                if (next == null) {
+                    next = children.size();
+                    children.add(new TreeMap<>());
+                    outputs.add(-1);
+                    children.get(node).put(normalized.charAt(i), next);
+                }
+                node = next;
+            }
+            if (outputs.get(node) < 0) {
+                outputs.set(node, entries.size());
+                lengths.add(normalized.length());
+                entries.add(entry);
+            } else {
+                // Two spellings normalizing alike: keep the more confident one
+                int existing = outputs.get(node);
+                if (entry.confidence() > entries.get(existing).confidence()) {
+                    entries.set(existing, entry);
+                }
+            }
+        });
+
+        int size = children.size();
+        char[][] edgeChars = new char[size][];
+        int[][] edgeTargets = new int[size][];
+        for (int node = 0; node < size; node++) {
+            TreeMap<Character, Integer> edges = children.get(node);
+            edgeChars[node] = new char[edges.size()];
+            edgeTargets[node] = new int[edges.size()];
+            int i = 0;
+            for (Map.Entry<Character, Integer> edge : edges.entrySet()) {
+                edgeChars[node][i] = edge.getKey();
+                edgeTargets[node][i++] = edge.getValue();
+            }
+        }
+
+        int[] output = outputs.stream().mapToInt(Integer::intValue).toArray();
+        int[] fail = new int[size];
+        int[] outputLink = new int[size];
+        Arrays.fill(outputLink, -1);
+        // Breadth first, so every failure target is final before its children are linked
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        for (int target : edgeTargets[ROOT]) {
+            queue.add(target);
+        }
+        while (!queue.isEmpty()) {
+            int node = queue.poll();
+            for (int i = 0; i < edgeChars[node].length; i++) {
+                char c = edgeChars[node][i];
+                int child = edgeTargets[node][i];
+                int state = fail[node];
+                int next = step(edgeChars, edgeTargets, state, c);
+                while (next < 0 && state != ROOT) {
+                    state = fail[state];
+                    next = step(edgeChars, edgeTargets, state, c);
+                }
+                fail[child] = next < 0 ? ROOT : next;
+                outputLink[child] = output[fail[child]] >= 0 ? fail[child] : outputLink[fail[child]];
+                queue.add(child);
+            }
+        }
+
+        return new MerchantDictionary(edgeChars, edgeTargets, fail, output, outputLink,
+                lengths.stream().mapToInt(Integer::intValue).toArray(), entries.toArray(Entry[]::new));
+    }
+
+    /**
+     * Lower case words of letters and digits, separated and surrounded by single spaces. Words
+     * made of digits only (order numbers, terminal ids) are dropped.
+     */
+    static String normalize(String value) {
+        if (value == null) {
+            return " ";
+        }
+        StringBuilder normalized = new StringBuilder(value.length() + 2).append(' ');
+        int wordStart = 1;
+        boolean lettered = false;
+        String lower = value.toLowerCase(Locale.ROOT);
+        for (int i = 0; i <= lower.length(); i++) {
+            char c = i < lower.length() ? lower.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                normalized.append(c);
+                lettered |= Character.isLetter(c);
+            } else if (normalized.length() > wordStart) {
+                if (lettered) {
+                    normalized.append(' ');
+                } else {
+                    normalized.setLength(wordStart);
+                }
+                wordStart = normalized.length();
+                lettered = false;
+            }
+        }
+        return normalized.toString();
+    }
+
+    boolean isEmpty() {
+        return entries.length == 0;
+    }
+
+    /** Best category for the merchant name, if any pattern occurs in it. */
+    Optional<Match> classify(String merchant) {
+        if (entries.length == 0) {
+            return Optional.empty();
+        }
+        String text = normalize(merchant);
+        Map<String, double[]> votes = new HashMap<>();
+        double total = 0.0d;
+        int state = ROOT;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            int next = step(edgeChars, edgeTargets, state, c);
+            while (next < 0 && state != ROOT) {
+                state = fail[state];
+                next = step(edgeChars, edgeTargets, state, c);
+            }
+            state = next < 0 ? ROOT : next;
+            for (int node = output[state] >= 0 ? state : outputLink[state]; node >= 0; node = outputLink[node]) {
+                int pattern = output[node];
+                Entry entry = entries[pattern];
+                double weight = entry.confidence() * patternLengths[pattern] * patternLengths[pattern];
+                // {summed weight, strongest confidence}
+                double[] vote = votes.computeIfAbsent(entry.category(), ignored -> new double[2]);
+                vote[0] += weight;
+                vote[1] = Math.max(vote[1], entry.confidence());
+                total += weight;
+            }
+        }
+
+        String best = null;
+        double[] bestVote = null;
+        for (Map.Entry<String, double[]> vote : votes.entrySet()) {
+            if (bestVote == null || vote.getValue()[0] > bestVote[0]) {
+                best = vote.getKey();
+                bestVote = vote.getValue();
+            }
+        }
+        return best == null
+                ? Optional.empty()
+                : Optional.of(new Match(best, bestVote[1] * bestVote[0] / total));
+    }
+
+    private static int step(char[][] edgeChars, int[][] edgeTargets, int node, char c) {
+        int index = Arrays.binarySearch(edgeChars[node], c);
+        return index < 0 ? -1 : edgeTargets[node][index];
+    }
+}
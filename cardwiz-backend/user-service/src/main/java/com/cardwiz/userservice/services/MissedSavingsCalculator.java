@@ -0,0 +1,283 @@
+package com.cardwiz.userservice.services;
+
+import com.cardwiz.userservice.config.ServerTiming;
+import com.cardwiz.userservice.dtos.CardCategoryMatrix;
+import com.cardwiz.userservice.dtos.CategoryInference;
+import com.cardwiz.userservice.dtos.StatementMissedSavingsResponseDTO;
+import com.cardwiz.userservice.dtos.TransactionSummary;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Missed savings over the transactions the user already stored with the card they paid with,
+ * valued with the reward rules extracted for their cards instead of an ai-service statement
+ * analysis.
+ * <p>
+ * Each transaction earns its amount times the rate of the card it was paid with in its category,
+ * from the user's {@link CardCategoryMatrixService} matrix with the same general fallback as
+ * {@link PortfolioOptimizer}; the optimal card is the active card with the best rate there.
+ * Transactions filed under "general" are categorized by {@link MerchantClassifier} where it is
+ * confident. Refunds, other currencies and transactions paid with a card that is no longer active
+ * are left out, as there is nothing to compare them with. A card with a capped or minimum-spend
+ * rule is valued at its headline rate, as caps are only known as free text; rows paid with or
+ * optimal on such a card are marked as estimates and counted in the summary.
+ * <p>
+ * Rows come off a database cursor in batches of {@code app.missed-savings.batch-size}, each valued
+ * on the fork-join pool while the next is read and merged into one running total as soon as it is
+ * done. Reading blocks while twice the pool's parallelism batches are in flight, so memory stays
+ * bounded by that and {@code limit} however long the history is. The summary covers every
+ * transaction; only the {@code limit} rows with the most missed are returned.
+ */
+@Service
+@Slf4j
+public class MissedSavingsCalculator {
+
+    public static final String REWARD_SOURCE = "CARD_RULES";
+    public static final int MAX_ROWS = 500;
+
+    private static final String GENERAL_CATEGORY = "general";
+    private static final String DEFAULT_CURRENCY = "INR";
+    private static final double BASIS_POINT_PAISE_PER_RUPEE = 100.0d * 10_000.0d;
+
+    // Most missed first, then the latest stored
+    private static final Comparator<Row> RANKING = Comparator.comparingLong(Row::missed).reversed()
+            .thenComparing(row -> row.transaction().id(), Comparator.reverseOrder());
+
+    private final TransactionService transactionService;
+    private final CardCategoryMatrixService cardCategoryMatrixService;
+    private final MerchantClassifier merchantClassifier;
+    private final RecommendationKeyCanonicalizer keyCanonicalizer;
+    private final int batchSize;
+    private final ForkJoinPool pool;
+
+    public MissedSavingsCalculator(
+            TransactionService transactionService,
+            CardCategoryMatrixService cardCategoryMatrixService,
+            MerchantClassifier merchantClassifier,
+            RecommendationKeyCanonicalizer keyCanonicalizer,
+            @Value("${app.missed-savings.batch-size:1000}") int batchSize,
+            @Value("${app.missed-savings.parallelism:0}") int parallelism
+    ) {
+        this.transactionService = transactionService;
+        this.cardCategoryMatrixService = cardCategoryMatrixService;
+        this.merchantClassifier = merchantClassifier;
+        this.keyCanonicalizer = keyCanonicalizer;
+        this.batchSize = Math.max(1, batchSize);
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    public StatementMissedSavingsResponseDTO calculate(Long userId, String currency, int limit) {
+        if (limit < 1 || limit > MAX_ROWS) {
+            throw new IllegalArgumentException("limitTransactions must be between 1 and " + MAX_ROWS);
+        }
+        String requestedCurrency = currency == null || currency.isBlank()
+                ? DEFAULT_CURRENCY
+                : currency.trim().toUpperCase(Locale.ROOT);
+
+        Valuation valuation = new Valuation(userId, cardCategoryMatrixService.getMatrix(userId), requestedCurrency, limit);
+        Batch total = new Batch(limit);
+        int maxInFlight = pool.getParallelism() * 2;
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        AtomicInteger batches = new AtomicInteger();
+        long read;
+        try (ServerTiming.Span span = ServerTiming.start("history")) {
+            read = transactionService.forEachPaidBatch(userId, batchSize, rows -> {
+                inFlight.acquireUninterruptibly();
+                batches.incrementAndGet();
+                pool.execute(() -> {
+                    try {
+                        Batch batch = valuation.value(rows);
+                        synchronized (total) {
+                            total.merge(batch);
+                        }
+                    } catch (RuntimeException ex) {
+                        failure.compareAndSet(null, ex);
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            });
+            // Every permit back means every batch is merged
+            inFlight.acquireUninterruptibly(maxInFlight);
+            span.describe(read + " transactions in " + batches + " batches");
+        }
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+
+        log.debug("Recomputed missed savings for userId={}: {} of {} paid transactions valued in {} batches",
+                userId, total.transactions, read, batches);
+        return new StatementMissedSavingsResponseDTO(
+                null,
+                new StatementMissedSavingsResponseDTO.Summary(
+                        (int) total.transactions,
+                        RewardRules.roundTwoDecimals(total.spendPaise / 100.0d),
+                        rupees(total.actual),
+                        rupees(total.optimal),
+                        rupees(total.optimal - total.actual),
+                        requestedCurrency,
+                        (int) total.estimated),
+                total.rows().stream().map(valuation::toRow).toList());
+    }
+
+    /** One transaction's value in paise times basis points, paid with {@code actualSlot} against the best slot. */
+    private record Row(TransactionSummary transaction, long paise, int actualSlot, long actual, int optimalSlot, long optimal,
+                       boolean estimate) {
+        long missed() {
+            return optimal - actual;
+        }
+    }
+
+    /** Totals of a batch or of the whole request, and its rows with the most missed. */
+    private static final class Batch {
+        private final int limit;
+        private final PriorityQueue<Row> top = new PriorityQueue<>(RANKING.reversed());
+        private long transactions;
+        private long estimated;
+        private long spendPaise;
+        private long actual;
+        private long optimal;
+
+        private Batch(int limit) {
+            this.limit = limit;
+        }
+
+        private void add(Row row) {
+            transactions++;
+            estimated += row.estimate() ? 1L : 0L;
+            spendPaise += row.paise();
+            actual += row.actual();
+            optimal += row.optimal();
+            offer(row);
+        }
+
+        private void offer(Row row) {
+            if (row.missed() <= 0L) {
+                return;
+            }
+            if (top.size() < limit) {
+                top.add(row);
+            } else if (RANKING.compare(row, top.peek()) < 0) {
+                top.poll();
+                top.add(row);
+            }
+        }
+
+        private void merge(Batch other) {
+            transactions += other.transactions;
+            estimated += other.estimated;
+            spendPaise += other.spendPaise;
+            actual += other.actual;
+            optimal += other.optimal;
+            other.top.forEach(this::offer);
+        }
+
+        private List<Row> rows() {
+            List<Row> ranked = new ArrayList<>(top);
+            ranked.sort(RANKING);
+            return ranked;
+        }
+    }
+
+    /** Rates for one request, shared by the batches valued in parallel. */
+    private final class Valuation {
+        private final Long userId;
+        private final CardCategoryMatrix matrix;
+        private final String currency;
+        private final int limit;
+        private final Map<String, int[]> slotBasisPoints = new ConcurrentHashMap<>();
+        private final Map<String, String> merchantCategories = new ConcurrentHashMap<>();
+
+        private Valuation(Long userId, CardCategoryMatrix matrix, String currency, int limit) {
+            this.userId = userId;
+            this.matrix = matrix;
+            this.currency = currency;
+            this.limit = limit;
+        }
+
+        private Batch value(List<TransactionSummary> transactions) {
+            Batch batch = new Batch(limit);
+            for (TransactionSummary transaction : transactions) {
+                Row row = value(transaction);
+                if (row != null) {
+                    batch.add(row);
+                }
+            }
+            return batch;
+        }
+
+        private Row value(TransactionSummary transaction) {
+            if (transaction.amount() == null || transaction.amount().signum() <= 0
+                    || !currency.equalsIgnoreCase(transaction.currency() == null ? DEFAULT_CURRENCY : transaction.currency())) {
+                return null;
+            }
+            int actualSlot = matrix.cardSlot(transaction.actualCardId());
+            if (actualSlot < 0) {
+                return null;
+            }
+            int[] rates = slotBasisPoints.computeIfAbsent(category(transaction), matrix::slotBasisPoints);
+            int optimalSlot = actualSlot;
+            for (int slot = 0; slot < rates.length; slot++) {
+                if (rates[slot] > rates[optimalSlot]) {
+                    optimalSlot = slot;
+                }
+            }
+            long paise = transaction.amount().movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+            return new Row(transaction, paise, actualSlot, paise * rates[actualSlot], optimalSlot, paise * rates[optimalSlot],
+                    !matrix.linearCard(actualSlot) || !matrix.linearCard(optimalSlot));
+        }
+
+        private String category(TransactionSummary transaction) {
+            String category = keyCanonicalizer.normalizeCategory(transaction.category());
+            if (!GENERAL_CATEGORY.equals(category) || transaction.merchant() == null) {
+                return category;
+            }
+            return merchantCategories.computeIfAbsent(transaction.merchant(), merchant ->
+                    merchantClassifier.classify(userId, merchant)
+                            .map(CategoryInference::getCategory)
+                            .orElse(GENERAL_CATEGORY));
+        }
+
+        private StatementMissedSavingsResponseDTO.TransactionRow toRow(Row row) {
+            TransactionSummary transaction = row.transaction();
+            return new StatementMissedSavingsResponseDTO.TransactionRow(
+                    transaction.transactionDate() == null ? null : transaction.transactionDate().toString(),
+                    transaction.merchant(),
+                    RewardRules.roundTwoDecimals(row.paise() / 100.0d),
+                    matrix.getCardIds()[row.actualSlot()],
+                    matrix.getCardNames()[row.actualSlot()],
+                    rupees(row.actual()),
+                    REWARD_SOURCE,
+                    matrix.getCardIds()[row.optimalSlot()],
+                    matrix.getCardNames()[row.optimalSlot()],
+                    rupees(row.optimal()),
+                    rupees(row.missed()),
+                    row.estimate());
+        }
+    }
+
+    private static double rupees(long paiseBasisPoints) {
+        return RewardRules.roundTwoDecimals(paiseBasisPoints / BASIS_POINT_PAISE_PER_RUPEE);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+}
@@ -0,0 +1,200 @@
+package com.cardwiz.userservice.services;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.IntStream;
+
+/**
+ * Branch and bound over the subsets of a fixed size of a user's cards, valuing a subset as the
+ * spend of every category times the best rate any of its cards earns there, i.e. each
+ * transaction paid with the best card the user kept. Spend is in paise and rates in basis
+ * points, so values are exact integers (paise times basis points) and ties break the same way
+ * on every run.
+ * <p>
+ * Cards are searched in order of their standalone value, so strong subsets are found early. A
+ * branch is dropped when even the best rate of each remaining card per category could not lift
+ * it into the current top results. Branches with many subsets left are split into fork-join
+ * subtasks; smaller ones run on the worker that reached them.
+ */
+final class PortfolioEvaluator {
+
+    private static final long SEQUENTIAL_THRESHOLD = 256;
+
+    // Higher value first, then the lexicographically smaller card set
+    private static final Comparator<Subset> RANKING = Comparator.comparingLong(Subset::value).reversed()
+            .thenComparing(Subset::cards, Arrays::compare);
+
+    private final long[] spendPaise;
+    private final int[][] basisPoints;
+    private final int[] order;
+    // suffixBest[i][c]: the best rate in category c among the cards at positions i.. of order
+    private final int[][] suffixBest;
+
+    record Subset(int[] cards, long value) {
+    }
+
+    record Result(List<Subset> best, long evaluated, long pruned) {
+    }
+
+    /**
+     * @param spendPaise  spend per category
+     * @param basisPoints rate per card and category, {@code basisPoints[card][category]}
+     */
+    PortfolioEvaluator(long[] spendPaise, int[][] basisPoints) {
+        this.spendPaise = spendPaise;
+        this.basisPoints = basisPoints;
+        int cards = basisPoints.length;
+        this.order = IntStream.range(0, cards).boxed()
+                .sorted(Comparator.<Integer>comparingLong(card -> value(new int[]{card})).reversed()
+                        .thenComparingInt(card -> card))
+                .mapToInt(Integer::intValue)
+                .toArray();
+        this.suffixBest = new int[cards + 1][spendPaise.length];
+        for (int i = cards - 1; i >= 0; i--) {
+            for (int c = 0; c < spendPaise.length; c++) {
+                suffixBest[i][c] = Math.max(suffixBest[i + 1][c], basisPoints[order[i]][c]);
+            }
+        }
+    }
+
+    /** Value of a set of cards, in paise times basis points. */
+    long value(int[] cards) {
+        long value = 0L;
+        for (int c = 0; c < spendPaise.length; c++) {
+            int best = 0;
+            for (int card : cards) {
+                best = Math.max(best, basisPoints[card][c]);
+            }
+            value += spendPaise[c] * best;
+        }
+        return value;
+    }
+
+    /** Index of the card with the best rate in the category among {@code cards}, or -1 if none earns anything. */
+    int bestCard(int[] cards, int category) {
+        int best = -1;
+        for (int card : cards) {
+            if (basisPoints[card][category] > 0 && (best < 0 || basisPoints[card][category] > basisPoints[best][category])) {
+                best = card;
+            }
+        }
+        return best;
+    }
+
+    /** The {@code top} most valuable subsets of {@code size} cards, best first. */
+    Result search(ForkJoinPool pool, int size, int top) {
+        int cards = order.length;
+        if (size < 1 || size > cards || top < 1) {
+            throw new IllegalArgumentException("Subset size must be between 1 and " + cards);
+        }
+        Search search = new Search(size, top);
+        pool.invoke(search.new Branch(new int[0], 0, new int[spendPaise.length]));
+        return new Result(search.best(), search.evaluated.sum(), search.pruned.sum());
+    }
+
+    private final class Search {
+        private final int size;
+        private final int top;
+        private final PriorityQueue<Subset> best;
+        private final LongAdder evaluated = new LongAdder();
+        private final LongAdder pruned = new LongAdder();
+        // Value of the weakest kept subset once top are kept; a branch must beat it to be explored
+        private volatile long threshold = Long.MIN_VALUE;
+
+        private Search(int size, int top) {
+            this.size = size;
+            this.top = top;
+            this.best = new PriorityQueue<>(RANKING.reversed());
+        }
+
+        private synchronized void offer(Subset subset) {
+            if (best.size() < top) {
+                best.add(subset);
+            } else if (RANKING.compare(subset, best.peek()) < 0) {
+                best.poll();
+                best.add(subset);
+            } else {
+                return;
+            }
+            if (best.size() == top) {
+                threshold = best.peek().value();
+            }
+        }
+
+        private synchronized List<Subset> best() {
+            List<Subset> ranked = new ArrayList<>(best);
+            ranked.sort(RANKING);
+            return ranked;
+        }
+
+        private final class Branch extends RecursiveAction {
+            private final int[] chosen;
+            private final int next;
+            private final int[] bestRates;
+
+            private Branch(int[] chosen, int next, int[] bestRates) {
+                this.chosen = chosen;
+                this.next = next;
+                this.bestRates = bestRates;
+            }
+
+            @Override
+            protected void compute() {
+                if (chosen.length == size) {
+                    long value = 0L;
+                    for (int c = 0; c < spendPaise.length; c++) {
+                        value += spendPaise[c] * bestRates[c];
+                    }
+                    int[] cards = chosen.clone();
+                    Arrays.sort(cards);
+                    evaluated.increment();
+                    offer(new Subset(cards, value));
+                    return;
+                }
+
+                int remaining = size - chosen.length;
+                long bound = 0L;
+                for (int c = 0; c < spendPaise.length; c++) {
+                    bound += spendPaise[c] * Math.max(bestRates[c], suffixBest[next][c]);
+                }
+                long subsets = binomial(order.length - next, remaining);
+                if (bound < threshold) {
+                    pruned.add(subsets);
+                    return;
+                }
+
+                int last = order.length - remaining;
+                List<Branch> children = new ArrayList<>(last - next + 1);
+                for (int position = next; position <= last; position++) {
+                    int card = order[position];
+                    int[] rates = bestRates.clone();
+                    for (int c = 0; c < rates.length; c++) {
+                        rates[c] = Math.max(rates[c], basisPoints[card][c]);
+                    }
+                    int[] cards = Arrays.copyOf(chosen, chosen.length + 1);
+                    cards[chosen.length] = card;
+                    children.add(new Branch(cards, position + 1, rates));
+                }
+                if (subsets > SEQUENTIAL_THRESHOLD) {
+                    invokeAll(children);
+                } else {
+                    children.forEach(Branch::compute);
+                }
+            }
+        }
+    }
+
+    static long binomial(int n, int k) {
+        long result = 1L;
+        for (int i = 1; i <= k; i++) {
+            result = result * (n - k + i) / i;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,245 @@
+package com.cardwiz.userservice.services;
+
+import com.cardwiz.userservice.config.ServerTiming;
+import com.cardwiz.userservice.dtos.CardCategoryMatrix;
+import com.cardwiz.userservice.dtos.CategoryInference;
+import com.cardwiz.userservice.dtos.MerchantCategorySpend;
+import com.cardwiz.userservice.dtos.PortfolioOptimizationResponse;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Answers "which {@code keep} of my cards should I keep?" from the user's own transactions and the
+ * reward rules already extracted for their cards, without calling ai-service.
+ * <p>
+ * The history of the last {@code app.portfolio.history} is read as one grouped query of spend per
+ * merchant and category; transactions filed under "general" are categorized by
+ * {@link MerchantClassifier} where it is confident. Card rates come from the user's
+ * {@link CardCategoryMatrixService} matrix, falling back to a card's general rate for categories it
+ * has no rule for. As rates are per category, routing every transaction to the best kept card
+ * is the same as routing each category's total, so the {@link PortfolioEvaluator} search works on
+ * a few dozen category totals however long the history is. Spend is projected to a year from the
+ * days the history covers, counting at least {@code min-history}.
+ * <p>
+ * Caps and minimum spends are only known as the free text of a rule's conditions, so a card with
+ * such a rule is valued at its headline rate for all of its spend. Those cards are listed in
+ * {@code cardsWithConditionalRules}, and every value that routes spend to one is marked as an
+ * estimate.
+ */
+@Service
+@Slf4j
+public class PortfolioOptimizer {
+
+    private static final String GENERAL_CATEGORY = "general";
+    private static final String CURRENCY = "INR";
+    private static final double BASIS_POINT_PAISE_PER_RUPEE = 100.0d * 10_000.0d;
+
+    private final TransactionService transactionService;
+    private final CardService cardService;
+    private final CardCategoryMatrixService cardCategoryMatrixService;
+    private final MerchantClassifier merchantClassifier;
+    private final RecommendationKeyCanonicalizer keyCanonicalizer;
+    private final Duration history;
+    private final Duration minHistory;
+    private final ForkJoinPool pool;
+
+    public PortfolioOptimizer(
+            TransactionService transactionService,
+            CardService cardService,
+            CardCategoryMatrixService cardCategoryMatrixService,
+            MerchantClassifier merchantClassifier,
+            RecommendationKeyCanonicalizer keyCanonicalizer,
+            @Value("${app.portfolio.history:365d}") Duration history,
+            @Value("${app.portfolio.min-history:30d}") Duration minHistory,
+            @Value("${app.portfolio.parallelism:0}") int parallelism
+    ) {
+        this.transactionService = transactionService;
+        this.cardService = cardService;
+        this.cardCategoryMatrixService = cardCategoryMatrixService;
+        this.merchantClassifier = merchantClassifier;
+        this.keyCanonicalizer = keyCanonicalizer;
+        this.history = history;
+        this.minHistory = minHistory;
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    public PortfolioOptimizationResponse optimize(Long userId, int keep, int top) {
+        if (keep < 1) {
+            throw new IllegalArgumentException("keep must be at least 1");
+        }
+        if (top < 1 || top > 10) {
+            throw new IllegalArgumentException("top must be between 1 and 10");
+        }
+
+        LocalDate today = LocalDate.now();
+        Spend spend;
+        try (ServerTiming.Span ignored = ServerTiming.start("history")) {
+            spend = spendByCategory(userId, transactionService.sumSpend(userId, today.minusDays(history.toDays())));
+        }
+        CardCategoryMatrix matrix = cardCategoryMatrixService.getMatrix(userId);
+        Set<Long> valued = new HashSet<>();
+        Arrays.stream(matrix.getCardIds()).forEach(valued::add);
+        List<Long> cardsWithoutRules = cardService.getActiveCardIds(userId).stream()
+                .filter(cardId -> !valued.contains(cardId))
+                .toList();
+        List<Long> cardsWithConditionalRules = IntStream.range(0, matrix.getCardIds().length)
+                .filter(card -> !matrix.linearCard(card))
+                .mapToObj(card -> matrix.getCardIds()[card])
+                .toList();
+
+        int historyDays = spend.firstDate() == null
+                ? 0
+                : (int) Math.max(minHistory.toDays(), ChronoUnit.DAYS.between(spend.firstDate(), today) + 1);
+        double annualFactor = historyDays == 0 ? 0.0d : 365.0d / historyDays;
+        String[] categories = spend.byCategory().keySet().toArray(String[]::new);
+        long[] spendPaise = spend.byCategory().values().stream().mapToLong(Long::longValue).toArray();
+        int[][] basisPoints = basisPoints(matrix, categories);
+
+        PortfolioOptimizationResponse.PortfolioOptimizationResponseBuilder response = PortfolioOptimizationResponse.builder()
+                .currency(CURRENCY)
+                .historyDays(historyDays)
+                .transactions(spend.transactions())
+                .annualSpend(RewardRules.roundTwoDecimals(Arrays.stream(spendPaise).sum() / 100.0d * annualFactor))
+                .cardsWithoutRules(cardsWithoutRules)
+                .cardsWithConditionalRules(cardsWithConditionalRules);
+        int cardCount = basisPoints.length;
+        if (cardCount == 0) {
+            return response.keep(0).cards(List.of()).portfolios(List.of()).build();
+        }
+        int size = Math.min(keep, cardCount);
+
+        PortfolioEvaluator evaluator = new PortfolioEvaluator(spendPaise, basisPoints);
+        PortfolioEvaluator.Result result;
+        try (ServerTiming.Span span = ServerTiming.start("optimize")) {
+            result = evaluator.search(pool, size, top);
+            span.describe(result.evaluated() + " evaluated, " + result.pruned() + " pruned");
+        }
+
+        int[] allCards = IntStream.range(0, cardCount).toArray();
+        double allCardsRewards = rupees(evaluator.value(allCards), annualFactor);
+        List<PortfolioOptimizationResponse.CardValue> cards = new ArrayList<>();
+        for (int card = 0; card < cardCount; card++) {
+            cards.add(new PortfolioOptimizationResponse.CardValue(
+                    matrix.getCardIds()[card],
+                    matrix.getCardNames()[card],
+                    rupees(evaluator.value(new int[]{card}), annualFactor),
+                    !matrix.linearCard(card)));
+        }
+        cards.sort(Comparator.comparingDouble(PortfolioOptimizationResponse.CardValue::getAnnualRewards).reversed());
+
+        List<PortfolioOptimizationResponse.Portfolio> portfolios = result.best().stream()
+                .map(subset -> portfolio(subset, evaluator, matrix, categories, spendPaise, basisPoints, annualFactor, allCardsRewards))
+                .toList();
+        log.debug("Optimized portfolio of {} from {} cards for userId={}: {} evaluated, {} pruned",
+                size, cardCount, userId, result.evaluated(), result.pruned());
+        return response
+                .keep(size)
+                .allCardsAnnualRewards(allCardsRewards)
+                .cards(cards)
+                .portfolios(portfolios)
+                .evaluatedPortfolios(result.evaluated())
+                .prunedPortfolios(result.pruned())
+                .build();
+    }
+
+    private record Spend(Map<String, Long> byCategory, long transactions, LocalDate firstDate) {
+    }
+
+    /** Spend per canonical category in paise; categories whose refunds outweigh their spend count as none. */
+    private Spend spendByCategory(Long userId, List<MerchantCategorySpend> rows) {
+        Map<String, Long> byCategory = new TreeMap<>();
+        long transactions = 0L;
+        LocalDate firstDate = null;
+        for (MerchantCategorySpend row : rows) {
+            if (row.amount() == null) {
+                continue;
+            }
+            String category = keyCanonicalizer.normalizeCategory(row.category());
+            if (GENERAL_CATEGORY.equals(category)) {
+                category = merchantClassifier.classify(userId, row.merchant())
+                        .map(CategoryInference::getCategory)
+                        .orElse(GENERAL_CATEGORY);
+            }
+            long paise = row.amount().movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+            byCategory.merge(category, paise, Long::sum);
+            transactions += row.transactions() == null ? 0L : row.transactions();
+            if (row.firstDate() != null && (firstDate == null || row.firstDate().isBefore(firstDate))) {
+                firstDate = row.firstDate();
+            }
+        }
+        byCategory.values().removeIf(paise -> paise <= 0L);
+        return new Spend(byCategory, transactions, firstDate);
+    }
+
+    /** {@code [card][category]} rates from the matrix, with each card's general rate where it has no rule. */
+    private static int[][] basisPoints(CardCategoryMatrix matrix, String[] categories) {
+        int[][] basisPoints = new int[matrix.getCardIds().length][categories.length];
+        for (int c = 0; c < categories.length; c++) {
+            int[] slotBasisPoints = matrix.slotBasisPoints(categories[c]);
+            for (int card = 0; card < slotBasisPoints.length; card++) {
+                basisPoints[card][c] = slotBasisPoints[card];
+            }
+        }
+        return basisPoints;
+    }
+
+    private static PortfolioOptimizationResponse.Portfolio portfolio(
+            PortfolioEvaluator.Subset subset,
+            PortfolioEvaluator evaluator,
+            CardCategoryMatrix matrix,
+            String[] categories,
+            long[] spendPaise,
+            int[][] basisPoints,
+            double annualFactor,
+            double allCardsRewards
+    ) {
+        List<PortfolioOptimizationResponse.CategoryRoute> routing = new ArrayList<>();
+        for (int c = 0; c < categories.length; c++) {
+            int card = evaluator.bestCard(subset.cards(), c);
+            if (card < 0) {
+                continue;
+            }
+            routing.add(new PortfolioOptimizationResponse.CategoryRoute(
+                    categories[c],
+                    matrix.getCardIds()[card],
+                    RewardRules.roundTwoDecimals(spendPaise[c] / 100.0d * annualFactor),
+                    basisPoints[card][c] / 100.0d,
+                    rupees(spendPaise[c] * basisPoints[card][c], annualFactor),
+                    !matrix.linearCard(card)));
+        }
+        double annualRewards = rupees(subset.value(), annualFactor);
+        return new PortfolioOptimizationResponse.Portfolio(
+                Arrays.stream(subset.cards()).mapToObj(card -> matrix.getCardIds()[card]).toList(),
+                Arrays.stream(subset.cards()).mapToObj(card -> matrix.getCardNames()[card]).toList(),
+                annualRewards,
+                RewardRules.roundTwoDecimals(allCardsRewards - annualRewards),
+                routing,
+                routing.stream().anyMatch(PortfolioOptimizationResponse.CategoryRoute::isEstimate));
+    }
+
+    private static double rupees(long paiseBasisPoints, double annualFactor) {
+        return RewardRules.roundTwoDecimals(paiseBasisPoints / BASIS_POINT_PAISE_PER_RUPEE * annualFactor);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+}
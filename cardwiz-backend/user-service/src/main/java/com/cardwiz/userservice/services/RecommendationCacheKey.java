@@ -0,0 +1,68 @@
+package com.cardwiz.userservice.services;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Canonical identity of a recommendation request in the aiRecommendationsV2 cache.
+ * Built by {@link RecommendationKeyCanonicalizer}; two requests that can only produce the same
+ * ranking map to the same key.
+ */
+public record RecommendationCacheKey(
+        Long userId,
+        String merchant,
+        String category,
+        String amount,
+        String currency,
+        String cardIds,
+        String context
+) {
+
+    public enum Dimension {
+        MERCHANT,
+        CATEGORY,
+        AMOUNT,
+        CURRENCY,
+        CARDS,
+        CONTEXT;
+
+        public String tagValue() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    public String asString() {
+        return "u=" + userId
+                + "|m=" + merchant
+                + "|c=" + category
+                + "|a=" + amount
+                + "|cur=" + currency
+                + "|cards=" + cardIds
+                + "|ctx=" + context;
+    }
+
+    /**
+     * Signature of this key with one dimension wildcarded. Two keys that differ only in
+     * {@code dimension} share the same signature.
+     */
+    public String without(Dimension dimension) {
+        Map<Dimension, String> parts = new EnumMap<>(Dimension.class);
+        parts.put(Dimension.MERCHANT, merchant);
+        parts.put(Dimension.CATEGORY, category);
+        parts.put(Dimension.AMOUNT, amount);
+        parts.put(Dimension.CURRENCY, currency);
+        parts.put(Dimension.CARDS, cardIds);
+        parts.put(Dimension.CONTEXT, context);
+        parts.put(dimension, "*");
+
+        StringBuilder signature = new StringBuilder("u=").append(userId);
+        parts.forEach((key, value) -> signature.append('|').append(key.ordinal()).append('=').append(value));
+        return signature.toString();
+    }
+
+    @Override
+    public String toString() {
+        return asString();
+    }
+}
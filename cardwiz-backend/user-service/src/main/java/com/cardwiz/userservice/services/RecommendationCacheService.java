@@ -0,0 +1,415 @@
+package com.cardwiz.userservice.services;
+
+import com.cardwiz.userservice.config.CacheConfig;
+import com.cardwiz.userservice.dtos.RecommendationDTO;
+import com.cardwiz.userservice.dtos.RecommendationRequestDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Read-through cache for ai-service recommendations with XFetch-style early refresh.
+ * Entries carry a soft expiry that sits before the hard Redis TTL configured in CacheConfig;
+ * readers always get the cached value while hot entries are recomputed on a virtual thread.
+ * Keys come from {@link RecommendationKeyCanonicalizer}; misses are attributed to the key
+ * dimension that broke the hit. Entries are shared across an amount band only when every eligible
+ * card's reward is linear in the amount, per the user's {@link CardCategoryMatrixService} matrix;
+ * with a cap or minimum spend in play the key carries the exact amount.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RecommendationCacheService {
+
+    static final String CACHE_NAME = "aiRecommendationsV2";
+    private static final String REFRESH_LOCK_PREFIX = "v3::" + CACHE_NAME + "::refresh-lock::";
+    private static final int MISS_INDEX_SIZE = 10_000;
+
+    private final AiServiceClient aiServiceClient;
+    private final CacheManager cacheManager;
+    private final StringRedisTemplate redisTemplate;
+    private final RecommendationKeyCanonicalizer keyCanonicalizer;
+    private final CardCategoryMatrixService cardCategoryMatrixService;
+    private final MeterRegistry meterRegistry;
+
+    private final ConcurrentMap<String, CompletableFuture<RecommendationDTO>> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, Boolean> recentKeys = boundedIndex();
+    private final Map<RecommendationCacheKey.Dimension, Map<String, Boolean>> recentSignatures = signatureIndexes();
+    private final ExecutorService refreshExecutor = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("ai-rec-refresh-", 0).factory()
+    );
+
+    @Value("${app.cache.ai-recommendations.soft-ttl:8m}")
+    private Duration softTtl;
+
+    @Value("${app.cache.ai-recommendations.xfetch-beta:1.0}")
+    private double xfetchBeta;
+
+    @Value("${app.cache.ai-recommendations.refresh-lock-ttl:30s}")
+    private Duration refreshLockTtl;
+
+    public RecommendationDTO getRecommendation(RecommendationRequestDTO request) {
+        RecommendationCacheKey canonicalKey = keyCanonicalizer.canonicalize(request, linearRewards(request));
+        String key = canonicalKey.asString();
+        CachedRecommendation cached = read(key);
+        if (cached != null) {
+            meterRegistry.counter("cardwiz.recommendation.cache.lookups", "result", "hit").increment();
+            if (shouldRefreshEarly(cached, System.currentTimeMillis())) {
+                scheduleRefresh(key, request);
+            }
+            return rescaleToAmount(cached.getValue(), request.getTransactionAmount());
+        }
+
+        meterRegistry.counter("cardwiz.recommendation.cache.lookups", "result", "miss").increment();
+        recordMissCauses(canonicalKey);
+        return rescaleToAmount(loadSingleFlight(key, request), request.getTransactionAmount());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refreshExecutor.shutdownNow();
+    }
+
+    /**
+     * Attributes a miss to every key dimension whose change alone explains it: if a recently seen
+     * key matches on all other dimensions, that dimension broke the hit. A miss on a key seen
+     * before is an expiry or eviction; anything else is a cold key.
+     */
+    private void recordMissCauses(RecommendationCacheKey key) {
+        List<String> causes = new ArrayList<>();
+        if (recentKeys.containsKey(key.asString())) {
+            causes.add("expired");
+        } else {
+            for (RecommendationCacheKey.Dimension dimension : RecommendationCacheKey.Dimension.values()) {
+                if (recentSignatures.get(dimension).containsKey(key.without(dimension))) {
+                    causes.add(dimension.tagValue());
+                }
+            }
+        }
+        if (causes.isEmpty()) {
+            causes.add("cold");
+        }
+        causes.forEach(cause -> meterRegistry.counter("cardwiz.recommendation.cache.miss.causes", "cause", cause).increment());
+
+        recentKeys.put(key.asString(), Boolean.TRUE);
+        recentSignatures.forEach((dimension, index) -> index.put(key.without(dimension), Boolean.TRUE));
+    }
+
+    private boolean linearRewards(RecommendationRequestDTO request) {
+        if (request.getUserId() == null) {
+            return false;
+        }
+        try {
+            return cardCategoryMatrixService.getMatrix(request.getUserId()).linearRewards(request.getAvailableCardIds());
+        } catch (RuntimeException ex) {
+            log.warn("Card matrix unavailable for userId={}; keying the recommendation on the exact amount: {}",
+                    request.getUserId(), ex.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Cached rankings are shared across an amount band only for linear rewards, so the values this
+     * service owns follow the amount of the current request: reward and comparison values scale,
+     * and the calculation and estimated reward lines are regenerated from them with
+     * {@link RewardRules}. The model's reasoning and verdicts are returned as written, with
+     * {@code reasoning_spend_amount} naming the amount they were written for.
+     */
+    private RecommendationDTO rescaleToAmount(RecommendationDTO source, BigDecimal requestedAmount) {
+        if (source == null || requestedAmount == null || source.getTransactionContext() == null) {
+            return source;
+        }
+        RecommendationDTO.TransactionContext context = source.getTransactionContext();
+        Double cachedAmount = context.getSpendAmount();
+        double targetAmount = requestedAmount.doubleValue();
+        if (cachedAmount == null || cachedAmount <= 0.0d || Double.compare(cachedAmount, targetAmount) == 0) {
+            return source;
+        }
+        double ratio = targetAmount / cachedAmount;
+        String currency = context.getCurrency() == null ? "INR" : context.getCurrency();
+
+        List<RecommendationDTO.ComparisonRow> scaledRows = source.getComparisonTable() == null ? null
+                : source.getComparisonTable().stream()
+                .map(row -> new RecommendationDTO.ComparisonRow(
+                        row.getCardName(),
+                        row.getEffectivePercentage(),
+                        scaleValue(row.getEstimatedValue(), ratio),
+                        row.getVerdict()
+                ))
+                .toList();
+
+        RecommendationDTO.BestCard bestCard = source.getBestCard();
+        RecommendationDTO.BestCard scaledBestCard = null;
+        if (bestCard != null) {
+            RecommendationDTO.Rewards rewards = scaleRewards(bestCard.getRewards(), ratio);
+            scaledBestCard = new RecommendationDTO.BestCard(
+                    bestCard.getId(),
+                    bestCard.getName(),
+                    bestCard.getStatus(),
+                    rewards,
+                    hasRate(rewards)
+                            ? RewardRules.calculationText(currency, targetAmount, rewards.getEffectivePercentage(),
+                                    rewards.getEstimatedValue())
+                            : bestCard.getCalculationLogic(),
+                    bestCard.getReasoning(),
+                    bestCard.getWarning()
+            );
+        }
+
+        RecommendationDTO.CardRecommendation bestOption = source.getBestOption();
+        if (bestOption != null) {
+            boolean bestCardOption = scaledBestCard != null && Objects.equals(bestOption.getCardId(), scaledBestCard.getId());
+            bestOption = rescaleOption(bestOption, bestCardOption ? scaledBestCard.getRewards() : null, currency, targetAmount);
+        }
+        List<RecommendationDTO.CardRecommendation> alternatives = source.getAlternatives() == null ? null
+                : source.getAlternatives().stream()
+                .map(option -> rescaleOption(option, rowRewards(scaledRows, option.getCardName()), currency, targetAmount))
+                .toList();
+
+        return new RecommendationDTO(
+                bestOption,
+                alternatives,
+                source.getSemanticContext(),
+                source.getRecommendationId(),
+                new RecommendationDTO.TransactionContext(
+                        context.getMerchant(), context.getCategory(), targetAmount, context.getCurrency(), cachedAmount
+                ),
+                scaledBestCard,
+                scaledRows,
+                source.getCoveredCardIds(),
+                source.getMissingCardIds(),
+                source.getHasSufficientData(),
+                source.getRoutingMode(),
+                source.getRoutingReason()
+        );
+    }
+
+    /** Regenerates the estimated reward line when the option's scaled reward is known; the reasoning stays. */
+    private static RecommendationDTO.CardRecommendation rescaleOption(
+            RecommendationDTO.CardRecommendation option,
+            RecommendationDTO.Rewards rewards,
+            String currency,
+            double targetAmount) {
+        if (!hasRate(rewards)) {
+            return option;
+        }
+        return new RecommendationDTO.CardRecommendation(
+                option.getCardId(),
+                option.getCardName(),
+                RewardRules.estimatedRewardText(currency, targetAmount, rewards.getEstimatedValue(),
+                        rewards.getEffectivePercentage()),
+                option.getReasoning(),
+                option.getConfidenceScore()
+        );
+    }
+
+    private static RecommendationDTO.Rewards rowRewards(List<RecommendationDTO.ComparisonRow> rows, String cardName) {
+        if (rows == null || cardName == null) {
+            return null;
+        }
+        return rows.stream()
+                .filter(row -> cardName.equals(row.getCardName()))
+                .findFirst()
+                .map(row -> new RecommendationDTO.Rewards(
+                        row.getEstimatedValue(), null, row.getEffectivePercentage(), null, null))
+                .orElse(null);
+    }
+
+    private static boolean hasRate(RecommendationDTO.Rewards rewards) {
+        return rewards != null && rewards.getEstimatedValue() != null && rewards.getEffectivePercentage() != null;
+    }
+
+    private RecommendationDTO.Rewards scaleRewards(RecommendationDTO.Rewards rewards, double ratio) {
+        if (rewards == null) {
+            return null;
+        }
+        return new RecommendationDTO.Rewards(
+                scaleValue(rewards.getEstimatedValue(), ratio),
+                rewards.getValueUnit(),
+                rewards.getEffectivePercentage(),
+                rewards.getRewardType(),
+                scaleValue(rewards.getRawPointsEarned(), ratio)
+        );
+    }
+
+    private Double scaleValue(Double value, double ratio) {
+        return value == null ? null : Math.round(value * ratio * 100.0d) / 100.0d;
+    }
+
+    /**
+     * XFetch: refresh with probability that rises as the soft expiry approaches, scaled by how long
+     * the value took to compute. Past the soft expiry a refresh is always requested.
+     */
+    private boolean shouldRefreshEarly(CachedRecommendation cached, long nowMillis) {
+        double random = ThreadLocalRandom.current().nextDouble();
+        double gap = cached.getComputeMillis() * xfetchBeta * -Math.log(random <= 0.0d ? Double.MIN_VALUE : random);
+        return nowMillis + gap >= cached.getSoftExpiresAt();
+    }
+
+    private RecommendationDTO loadSingleFlight(String key, RecommendationRequestDTO request) {
+        CompletableFuture<RecommendationDTO> created = new CompletableFuture<>();
+        CompletableFuture<RecommendationDTO> existing = inFlight.putIfAbsent(key, created);
+        if (existing != null) {
+            RecommendationDTO shared = await(existing);
+            return shared != null ? shared : computeAndStore(key, request);
+        }
+
+        try {
+            RecommendationDTO value = computeAndStore(key, request);
+            created.complete(value);
+            return value;
+        } catch (RuntimeException ex) {
+            created.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlight.remove(key, created);
+        }
+    }
+
+    private void scheduleRefresh(String key, RecommendationRequestDTO request) {
+        CompletableFuture<RecommendationDTO> created = new CompletableFuture<>();
+        if (inFlight.putIfAbsent(key, created) != null) {
+            return;
+        }
+
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    if (acquireRefreshLock(key)) {
+                        created.complete(computeAndStore(key, request));
+                    } else {
+                        created.complete(null);
+                    }
+                } catch (RuntimeException ex) {
+                    log.warn("Background refresh failed for recommendation key='{}': {}", key, ex.getMessage());
+                    created.completeExceptionally(ex);
+                } finally {
+                    inFlight.remove(key, created);
+                }
+            });
+        } catch (RuntimeException ex) {
+            inFlight.remove(key, created);
+            log.warn("Could not schedule recommendation refresh for key='{}': {}", key, ex.getMessage());
+        }
+    }
+
+    private RecommendationDTO computeAndStore(String key, RecommendationRequestDTO request) {
+        long startedAt = System.currentTimeMillis();
+        RecommendationDTO value = aiServiceClient.getRecommendation(request);
+        long finishedAt = System.currentTimeMillis();
+        if (value != null) {
+            write(key, new CachedRecommendation(value, finishedAt - startedAt, finishedAt + softTtl.toMillis()));
+        }
+        return value;
+    }
+
+    /**
+     * Only one replica refreshes a given key at a time. If Redis is unreachable the local
+     * single-flight guard still applies, so the refresh goes ahead.
+     */
+    private boolean acquireRefreshLock(String key) {
+        try {
+            Boolean acquired = redisTemplate.opsForValue()
+                    .setIfAbsent(REFRESH_LOCK_PREFIX + key, "1", refreshLockTtl);
+            return !Boolean.FALSE.equals(acquired);
+        } catch (RuntimeException ex) {
+            log.warn("Redis refresh lock unavailable for key='{}'. Refreshing locally.", key);
+            return true;
+        }
+    }
+
+    private CachedRecommendation read(String key) {
+        Cache cache = cacheManager.getCache(CACHE_NAME);
+        if (cache == null) {
+            return null;
+        }
+        try {
+            Cache.ValueWrapper wrapper = cache.get(key);
+            Object value = wrapper == null ? null : wrapper.get();
+            if (value instanceof CachedRecommendation cached && cached.getValue() != null) {
+                return cached;
+            }
+            return null;
+        } catch (RuntimeException ex) {
+            CacheConfig.countCacheError(meterRegistry, CACHE_NAME, "get");
+            log.warn("Redis GET failed for key='{}'. Treating as Cache Miss.", key, ex);
+            return null;
+        }
+    }
+
+    private void write(String key, CachedRecommendation entry) {
+        Cache cache = cacheManager.getCache(CACHE_NAME);
+        if (cache == null) {
+            return;
+        }
+        try {
+            cache.put(key, entry);
+        } catch (RuntimeException ex) {
+            CacheConfig.countCacheError(meterRegistry, CACHE_NAME, "put");
+            log.warn("Redis PUT failed for key='{}'.", key, ex);
+        }
+    }
+
+    private RecommendationDTO await(CompletableFuture<RecommendationDTO> future) {
+        try {
+            return future.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    private static Map<String, Boolean> boundedIndex() {
+        return Collections.synchronizedMap(new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                return size() > MISS_INDEX_SIZE;
+            }
+        });
+    }
+
+    private static Map<RecommendationCacheKey.Dimension, Map<String, Boolean>> signatureIndexes() {
+        Map<RecommendationCacheKey.Dimension, Map<String, Boolean>> indexes = new EnumMap<>(RecommendationCacheKey.Dimension.class);
+        for (RecommendationCacheKey.Dimension dimension : RecommendationCacheKey.Dimension.values()) {
+            indexes.put(dimension, boundedIndex());
+        }
+        return indexes;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class CachedRecommendation {
+        private RecommendationDTO value;
+        private long computeMillis;
+        private long softExpiresAt;
+    }
+}
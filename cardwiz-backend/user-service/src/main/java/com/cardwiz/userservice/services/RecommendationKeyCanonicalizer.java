@@ -0,0 +1,173 @@
+package com.cardwiz.userservice.services;
+
+import com.cardwiz.userservice.dtos.RecommendationRequestDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Reduces a recommendation request to the parts that can change the ranking, so that requests
+ * differing only in spelling, recent-history noise or, where every card's reward is linear in the
+ * amount, the exact amount share one cache entry.
+ */
+@Component
+public class RecommendationKeyCanonicalizer {
+
+    private static final String CONTEXT_SEPARATOR = " | ";
+    private static final String HISTORY_ITEM_SEPARATOR = " ; ";
+    // Matches one entry of the recent-validation context: merchant:category:currency:amount
+    private static final Pattern HISTORY_ITEM = Pattern.compile("^[^:]*:[^:]*:[A-Za-z]{3}:-?[0-9.]+$");
+    private static final Pattern NON_ALPHANUMERIC = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Set<String> MERCHANT_NOISE_TOKENS = Set.of(
+            "www", "com", "in", "pvt", "private", "ltd", "limited", "llp", "inc", "india"
+    );
+    private static final int MAX_CONTEXT_LENGTH = 96;
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final long[] amountBands;
+
+    public RecommendationKeyCanonicalizer(
+            @Value("${app.cache.ai-recommendations.amount-bands:100,500,1000,2000,5000,10000,25000,50000,100000}")
+            String amountBands
+    ) {
+        this.amountBands = Arrays.stream(amountBands.split(","))
+                .map(String::trim)
+                .filter(band -> !band.isEmpty())
+                .mapToLong(Long::parseLong)
+                .sorted()
+                .toArray();
+    }
+
+    /**
+     * @param linearRewards whether every eligible card's reward is proportional to the amount
+     *                      ({@link com.cardwiz.userservice.dtos.CardCategoryMatrix#linearRewards}).
+     *                      Only then is the amount reduced to its band; a cap or minimum spend can
+     *                      change the ranking inside a band, so otherwise the exact amount is kept.
+     */
+    public RecommendationCacheKey canonicalize(RecommendationRequestDTO request, boolean linearRewards) {
+        return new RecommendationCacheKey(
+                request.getUserId(),
+                normalizeMerchant(request.getMerchantName()),
+                normalizeCategory(request.getCategory()),
+                linearRewards ? amountBand(request.getTransactionAmount()) : exactAmount(request.getTransactionAmount()),
+                normalizeCurrency(request.getCurrency()),
+                sortedCardIds(request.getAvailableCardIds()),
+                reduceContext(request.getContextNotes())
+        );
+    }
+
+    String normalizeMerchant(String merchant) {
+        if (merchant == null || merchant.isBlank()) {
+            return "unknown";
+        }
+        List<String> tokens = new ArrayList<>(Arrays.asList(
+                NON_ALPHANUMERIC.matcher(merchant.toLowerCase(Locale.ROOT)).replaceAll(" ").trim().split(" +")
+        ));
+        tokens.removeIf(String::isEmpty);
+        while (tokens.size() > 1 && MERCHANT_NOISE_TOKENS.contains(tokens.get(tokens.size() - 1))) {
+            tokens.remove(tokens.size() - 1);
+        }
+        while (tokens.size() > 1 && MERCHANT_NOISE_TOKENS.contains(tokens.get(0))) {
+            tokens.remove(0);
+        }
+        return tokens.isEmpty() ? "unknown" : String.join(" ", tokens);
+    }
+
+    String normalizeCategory(String category) {
+        if (category == null || category.isBlank()) {
+            return "general";
+        }
+        String normalized = NON_ALPHANUMERIC.matcher(category.trim().toLowerCase(Locale.ROOT)).replaceAll("_");
+        normalized = normalized.replaceAll("^_+|_+$", "");
+        return normalized.isEmpty() ? "general" : normalized;
+    }
+
+    String amountBand(BigDecimal amount) {
+        if (amount == null) {
+            return "na";
+        }
+        for (long band : amountBands) {
+            if (amount.compareTo(BigDecimal.valueOf(band)) < 0) {
+                return "lt" + band;
+            }
+        }
+        return amountBands.length == 0 ? "any" : "ge" + amountBands[amountBands.length - 1];
+    }
+
+    String exactAmount(BigDecimal amount) {
+        return amount == null ? "na" : "eq" + amount.stripTrailingZeros().toPlainString();
+    }
+
+    private String normalizeCurrency(String currency) {
+        return (currency == null || currency.isBlank()) ? "INR" : currency.trim().toUpperCase(Locale.ROOT);
+    }
+
+    private String sortedCardIds(List<Long> cardIds) {
+        if (cardIds == null || cardIds.isEmpty()) {
+            return "";
+        }
+        return cardIds.stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .sorted()
+                .map(String::valueOf)
+                .collect(Collectors.joining(","));
+    }
+
+    /**
+     * Free-text notes are kept (normalized), while the recent-validation history is reduced to the
+     * set of categories it covers: the exact merchants and amounts change after every validation
+     * but do not move the ranking.
+     */
+    String reduceContext(String contextNotes) {
+        if (contextNotes == null || contextNotes.isBlank()) {
+            return "";
+        }
+
+        List<String> notes = new ArrayList<>();
+        Set<String> historyCategories = new TreeSet<>();
+        for (String segment : contextNotes.split(Pattern.quote(CONTEXT_SEPARATOR))) {
+            if (segment.isBlank()) {
+                continue;
+            }
+            List<String> items = Arrays.stream(segment.split(Pattern.quote(HISTORY_ITEM_SEPARATOR)))
+                    .map(String::trim)
+                    .toList();
+            if (items.stream().allMatch(item -> HISTORY_ITEM.matcher(item).matches())) {
+                items.forEach(item -> historyCategories.add(normalizeCategory(item.split(":")[1])));
+            } else {
+                String normalized = NON_ALPHANUMERIC.matcher(segment.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+                if (!normalized.isEmpty()) {
+                    notes.add(normalized);
+                }
+            }
+        }
+
+        String reduced = String.join(" ", notes);
+        if (!historyCategories.isEmpty()) {
+            reduced = reduced + "#h=" + String.join(",", historyCategories);
+        }
+        return reduced.length() > MAX_CONTEXT_LENGTH ? "h" + Long.toHexString(fnv1a64(reduced)) : reduced;
+    }
+
+    private long fnv1a64(String value) {
+        long hash = FNV_OFFSET;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= (b & 0xff);
+            hash *= FNV_PRIME;
+        }
+        return hash;
+    }
+}
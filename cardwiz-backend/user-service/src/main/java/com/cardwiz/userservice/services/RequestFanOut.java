@@ -0,0 +1,144 @@
+package com.cardwiz.userservice.services;
+
+import io.micrometer.context.ContextSnapshotFactory;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Runs the independent lookups of one request (active cards, category matrix, recent history)
+ * concurrently on virtual threads, so assembling a recommendation request costs the slowest
+ * lookup rather than their sum.
+ * <pre>
+ *   try (RequestFanOut.Scope scope = requestFanOut.open()) {
+ *       RequestFanOut.Task&lt;List&lt;Long&gt;&gt; cards = scope.fork("cards", () -&gt; ...);
+ *       RequestFanOut.Task&lt;String&gt; history = scope.fork("history", () -&gt; ...);
+ *       List&lt;Long&gt; cardIds = cards.join();
+ *   }
+ * </pre>
+ * Follows StructuredTaskScope's shutdown-on-failure shape without the Java 21 preview flag: all
+ * tasks share one deadline, the first failure or timeout cancels the siblings, and closing the
+ * scope cancels whatever was not joined. Forked tasks see the caller's request attributes (for
+ * {@link com.cardwiz.userservice.config.ServerTiming}), security context (for read-replica
+ * routing) and trace context.
+ */
+@Component
+@Slf4j
+public class RequestFanOut {
+
+    private final ExecutorService fanOutExecutor = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("request-fanout-", 0).factory()
+    );
+    private final ContextSnapshotFactory snapshotFactory = ContextSnapshotFactory.builder().build();
+
+    @Value("${app.fanout.deadline:3s}")
+    private Duration deadline;
+
+    public Scope open() {
+        return new Scope(System.nanoTime() + deadline.toNanos());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        fanOutExecutor.shutdownNow();
+    }
+
+    public final class Scope implements AutoCloseable {
+        private final long deadlineNanos;
+        private final List<Future<?>> futures = new ArrayList<>();
+
+        private Scope(long deadlineNanos) {
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        public <T> Task<T> fork(String name, Callable<T> lookup) {
+            RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+            SecurityContext securityContext = SecurityContextHolder.getContext();
+            Callable<T> traced = snapshotFactory.captureAll().wrap(lookup);
+            Future<T> future = fanOutExecutor.submit(() -> {
+                RequestContextHolder.setRequestAttributes(requestAttributes);
+                SecurityContextHolder.setContext(securityContext);
+                try {
+                    return traced.call();
+                } finally {
+                    SecurityContextHolder.clearContext();
+                    RequestContextHolder.resetRequestAttributes();
+                }
+            });
+            futures.add(future);
+            return new Task<>(this, name, future);
+        }
+
+        /**
+         * Cancels every unfinished task. Interrupting a task blocked on JDBC closes its
+         * connection, which the pool replaces; only failure and timeout paths get here with
+         * work still running.
+         */
+        private void cancelAll() {
+            futures.forEach(future -> future.cancel(true));
+        }
+
+        @Override
+        public void close() {
+            cancelAll();
+        }
+    }
+
+    public static final class Task<T> {
+        private final Scope scope;
+        private final String name;
+        private final Future<T> future;
+
+        private Task(Scope scope, String name, Future<T> future) {
+            this.scope = scope;
+            this.name = name;
+            this.future = future;
+        }
+
+        /**
+         * Waits for the result until the scope's deadline. A failure is rethrown as-is when it
+         * is a RuntimeException, so callers keep their existing error handling.
+         */
+        public T join() {
+            try {
+                long remaining = scope.deadlineNanos - System.nanoTime();
+                return future.get(Math.max(0L, remaining), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException ex) {
+                scope.cancelAll();
+                log.warn("Request fan-out task '{}' missed its deadline", name);
+                throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Timed out loading " + name + ".");
+            } catch (ExecutionException ex) {
+                scope.cancelAll();
+                if (ex.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw new IllegalStateException("Failed loading " + name + ".", ex.getCause());
+            } catch (CancellationException ex) {
+                throw new IllegalStateException("Loading " + name + " was cancelled.", ex);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                scope.cancelAll();
+                throw new IllegalStateException("Interrupted while loading " + name + ".", ex);
+            }
+        }
+    }
+}
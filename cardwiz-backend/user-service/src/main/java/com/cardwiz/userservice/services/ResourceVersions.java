@@ -0,0 +1,186 @@
+package com.cardwiz.userservice.services;
+
+import com.cardwiz.userservice.config.ReadYourWrites;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.StringUtils;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Per-user version counters of the resources the dashboard re-fetches on every navigation, shared
+ * by all user-service instances through Redis ({@code redis/resource-version*.lua}). The service
+ * methods that change a resource bump its version once their transaction commits, and
+ * {@link ConditionalGet} turns the current version into a strong ETag before running the read.
+ * <p>
+ * Versions are Redis server milliseconds, so a version also says how long ago the resource last
+ * changed. With a read replica configured no ETag is handed out while that is inside the
+ * read-your-writes window, as the read may still come from a replica that has not replayed the
+ * change. If Redis is unavailable there is no ETag and every read returns the body. A bump that
+ * fails would leave the old ETag valid for data that changed, so the instance remembers it and
+ * hands out no ETag for that resource until a retry of the bump succeeds, on the next read of it
+ * or every {@code app.etag.bump-retry-interval}.
+ */
+@Component
+@Slf4j
+public class ResourceVersions {
+
+    private static final String KEY_PREFIX = "v3::resource-version::";
+
+    private final StringRedisTemplate redisTemplate;
+    private final ReadYourWrites readYourWrites;
+    private final boolean replicaEnabled;
+    private final long replicaWindowMillis;
+    // Keys whose last bump failed; no ETag covers them until a bump succeeds
+    private final Set<String> failedBumps = ConcurrentHashMap.newKeySet();
+
+    @SuppressWarnings("rawtypes")
+    private final RedisScript<List> currentScript =
+            RedisScript.of(new ClassPathResource("redis/resource-version.lua"), List.class);
+    private final RedisScript<Long> bumpScript =
+            RedisScript.of(new ClassPathResource("redis/resource-version-bump.lua"), Long.class);
+
+    @Value("${app.etag.version-ttl:30d}")
+    private Duration versionTtl;
+
+    public enum Resource {
+        CARDS("cards"),
+        PROFILE("profile"),
+        TRANSACTIONS("transactions"),
+        // Which cards ai-service holds rule embeddings for; bumped by RuleEmbeddingSync
+        COVERAGE("coverage");
+
+        private final String key;
+
+        Resource(String key) {
+            this.key = key;
+        }
+
+        public String key() {
+            return key;
+        }
+    }
+
+    public ResourceVersions(
+            StringRedisTemplate redisTemplate,
+            ReadYourWrites readYourWrites,
+            @Value("${app.datasource.replica.url:}") String replicaUrl,
+            @Value("${app.datasource.replica.read-your-writes-window:5s}") Duration replicaWindow
+    ) {
+        this.redisTemplate = redisTemplate;
+        this.readYourWrites = readYourWrites;
+        this.replicaEnabled = StringUtils.hasText(replicaUrl);
+        this.replicaWindowMillis = replicaWindow.toMillis();
+    }
+
+    /**
+     * Strong ETag for the user's current versions of the resources, or {@code null} to send no
+     * ETag. An ETag over several resources changes whenever any of them does.
+     */
+    public String etag(Long userId, Resource... resources) {
+        if (userId == null || resources.length == 0) {
+            return null;
+        }
+        List<String> keys = Arrays.stream(resources).map(resource -> key(userId, resource)).toList();
+        String names = Arrays.stream(resources).map(Resource::key).collect(Collectors.joining("+"));
+        for (String key : keys) {
+            if (failedBumps.contains(key) && !bump(key)) {
+                return null;
+            }
+        }
+        List<?> result;
+        try {
+            result = redisTemplate.execute(currentScript, keys, ttlMillis());
+        } catch (RuntimeException ex) {
+            log.warn("Reading the {} version of user {} failed; answering without an ETag.", names, userId, ex);
+            return null;
+        }
+        if (result == null || result.size() < 2 * resources.length) {
+            return null;
+        }
+        StringJoiner versions = new StringJoiner(".");
+        for (int i = 0; i < resources.length; i++) {
+            long ageMillis = toLong(result.get(2 * i + 1));
+            if (replicaEnabled && ageMillis < replicaWindowMillis && !readYourWrites.isPinned(userId)) {
+                return null;
+            }
+            versions.add(String.valueOf(toLong(result.get(2 * i))));
+        }
+        return "\"" + names + "-" + userId + "-" + versions + "\"";
+    }
+
+    /** Bumps the versions once the surrounding transaction commits, or right away outside one. */
+    public void bump(Long userId, Resource... resources) {
+        if (userId == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    bumpNow(userId, resources);
+                }
+            });
+        } else {
+            bumpNow(userId, resources);
+        }
+    }
+
+    /** Retries the bumps that failed, stopping at the first that fails again. */
+    @Scheduled(fixedDelayString = "${app.etag.bump-retry-interval:PT5S}")
+    public void retryFailedBumps() {
+        for (String key : failedBumps) {
+            if (!bump(key)) {
+                log.debug("Retrying {} version bumps; Redis is still unavailable.", failedBumps.size());
+                return;
+            }
+        }
+    }
+
+    private void bumpNow(Long userId, Resource... resources) {
+        for (Resource resource : resources) {
+            if (!bump(key(userId, resource))) {
+                log.warn("Bumping the {} version of user {} failed; no ETag for it until a retry succeeds.",
+                        resource.key(), userId);
+            }
+        }
+    }
+
+    /** Bumps one version, remembering the key if that fails and forgetting it once it succeeds. */
+    private boolean bump(String key) {
+        try {
+            redisTemplate.execute(bumpScript, List.of(key), ttlMillis());
+        } catch (RuntimeException ex) {
+            failedBumps.add(key);
+            log.debug("Bumping {} failed: {}", key, ex.getMessage());
+            return false;
+        }
+        failedBumps.remove(key);
+        return true;
+    }
+
+    private String ttlMillis() {
+        return String.valueOf(versionTtl.toMillis());
+    }
+
+    private static String key(Long userId, Resource resource) {
+        return KEY_PREFIX + resource.key() + "::" + userId;
+    }
+
+    private static long toLong(Object value) {
+        return value instanceof Number number ? number.longValue() : Long.parseLong(String.valueOf(value));
+    }
+}
@@ -0,0 +1,87 @@
+package com.cardwiz.userservice.services;
+
+import com.cardwiz.userservice.dtos.AiResponseDTO;
+
+import java.util.Locale;
+
+/**
+ * Reward-rule arithmetic shared by the ingestion path and the local recommendation paths.
+ * Mirrors the effective-percentage derivation in ai-service's recommendation_service.py, which
+ * parses the content text built here back out of the embedded rules.
+ */
+public final class RewardRules {
+
+    public static final double DEFAULT_POINT_VALUE_RUPEES = 0.25d;
+
+    private RewardRules() {
+    }
+
+    public static String buildRuleContentText(AiResponseDTO.ExtractedRuleDTO rule) {
+        String cardName = rule.getCardName() == null ? "unknown" : rule.getCardName();
+        String category = rule.getCategory() == null ? "general" : rule.getCategory();
+        String rewardType = rule.getRewardType() == null ? "REWARD" : rule.getRewardType();
+        String rewardRate = rule.getRewardRate() == null ? "0" : String.valueOf(rule.getRewardRate());
+        String pointsPerUnit = rule.getPointsPerUnit() == null ? "null" : String.valueOf(rule.getPointsPerUnit());
+        String spendUnit = rule.getSpendUnit() == null ? "null" : String.valueOf(rule.getSpendUnit());
+        String pointValueRupees = rule.getPointValueRupees() == null ? "null" : String.valueOf(rule.getPointValueRupees());
+        double effectivePctValue = deriveEffectiveRewardPercentage(rule);
+        String effectivePct = String.valueOf(effectivePctValue);
+        String conditions = rule.getConditions() == null ? "none" : rule.getConditions().replace(";", ",");
+
+        return "card_name=" + cardName
+                + ";category=" + category
+                + ";reward_type=" + rewardType
+                + ";reward_rate=" + rewardRate
+                + ";points_per_unit=" + pointsPerUnit
+                + ";spend_unit=" + spendUnit
+                + ";point_value_rupees=" + pointValueRupees
+                + ";effective_reward_percentage=" + effectivePct
+                + ";conditions=" + conditions;
+    }
+
+    public static double deriveEffectiveRewardPercentage(AiResponseDTO.ExtractedRuleDTO rule) {
+        if (rule.getEffectiveRewardPercentage() != null && rule.getEffectiveRewardPercentage() > 0) {
+            return rule.getEffectiveRewardPercentage();
+        }
+
+        String rewardType = rule.getRewardType() == null ? "" : rule.getRewardType().toUpperCase(Locale.ROOT);
+        if ("CASHBACK".equals(rewardType) && rule.getRewardRate() != null && rule.getRewardRate() > 0) {
+            return roundTwoDecimals(rule.getRewardRate());
+        }
+
+        if ("POINTS".equals(rewardType)) {
+            Double pointsPerUnit = rule.getPointsPerUnit();
+            Double spendUnit = rule.getSpendUnit();
+            Double pointValue = rule.getPointValueRupees() != null ? rule.getPointValueRupees() : DEFAULT_POINT_VALUE_RUPEES;
+            if (pointsPerUnit != null && spendUnit != null && spendUnit > 0 && pointValue > 0) {
+                double pct = (pointsPerUnit * pointValue / spendUnit) * 100.0d;
+                return roundTwoDecimals(pct);
+            }
+        }
+
+        if (rule.getRewardRate() != null && rule.getRewardRate() > 0) {
+            return roundTwoDecimals(rule.getRewardRate());
+        }
+        return 0.0d;
+    }
+
+    /** Worked calculation for a flat-rate reward, e.g. "INR 1000.00 x 5.00% = INR 50.00". */
+    public static String calculationText(String currency, double spend, double percentage, double value) {
+        return String.format(Locale.ROOT, "%s %.2f x %.2f%% = %s %.2f", currency, spend, percentage, currency, value);
+    }
+
+    /** Reward line of a card recommendation, e.g. "For INR 1,000 spent, you would earn: INR 50.00 (5.00%)." */
+    public static String estimatedRewardText(String currency, double spend, double value, double percentage) {
+        return String.format(Locale.ROOT, "For %s %,.0f spent, you would earn: %s %,.2f (%.2f%%).",
+                currency, spend, currency, value, percentage);
+    }
+
+    /** Whether the rule's reward depends on more than the amount: caps, minimum spend and the like. */
+    public static boolean hasConditions(String conditions) {
+        return conditions != null && !conditions.isBlank() && !"none".equalsIgnoreCase(conditions.trim());
+    }
+
+    public static double roundTwoDecimals(double value) {
+        return Math.round(value * 100.0d) / 100.0d;
+    }
+}
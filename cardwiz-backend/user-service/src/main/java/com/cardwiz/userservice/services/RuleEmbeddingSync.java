@@ -0,0 +1,186 @@
+package com.cardwiz.userservice.services;
+
+import com.cardwiz.userservice.dtos.AiResponseDTO;
+import com.cardwiz.userservice.dtos.RuleEmbeddingSyncRequestDTO;
+import com.cardwiz.userservice.dtos.RuleEmbeddingSyncResponseDTO;
+import com.cardwiz.userservice.models.CardRuleEmbedding;
+import com.cardwiz.userservice.repositories.CardRuleEmbeddingRepository;
+import com.cardwiz.userservice.repositories.UserCardRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Keeps ai-service's vector store in step with the reward rules of each card without re-embedding
+ * rules that did not change.
+ * <p>
+ * A rule's id is the first 64 bits of the SHA-256 of its card id and the text that gets embedded,
+ * so re-ingesting a document, or a newer one with mostly the same terms, yields the same ids for
+ * the same rules. The ids last synced for a card are kept in {@code card_rule_embeddings}; a sync
+ * sends ai-service only the rules whose id is new and the ids that disappeared, and a rule whose
+ * wording changed is both. A card with nothing recorded yet is synced in replace mode, which also
+ * drops vectors stored under the old per-document ids. If ai-service fails the record is left as
+ * it was, so the next ingestion of the card sends the same changes again. A sync that changed
+ * anything bumps the owner's coverage version, as it usually lands after the ingestion callback
+ * already bumped their cards.
+ * <p>
+ * Each sync diffs against what the previous one recorded, so concurrent syncs of one card must not
+ * both apply a diff taken from the same record. The diff is sent to ai-service without holding a
+ * connection. The new record is then written in a transaction holding a PostgreSQL advisory lock
+ * on the card id, across every instance, and only if the record still matches the one the diff
+ * was taken from. Otherwise the sync diffs against the newer record and sends again. After
+ * {@value #MAX_ATTEMPTS} attempts it clears the record instead, so the next sync of the card runs
+ * in replace mode and drops whatever the lost races left behind.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RuleEmbeddingSync {
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final CardRuleEmbeddingRepository cardRuleEmbeddingRepository;
+    private final UserCardRepository userCardRepository;
+    private final AiServiceClient aiServiceClient;
+    private final ResourceVersions resourceVersions;
+    private final TransactionTemplate transactionTemplate;
+    private final JdbcTemplate jdbcTemplate;
+    private final MeterRegistry meterRegistry;
+
+    private final ExecutorService syncExecutor = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("rule-embedding-sync-", 0).factory()
+    );
+
+    /** Syncs in the background; used where the caller should not wait for the embeddings. */
+    public void scheduleSync(Long cardId, List<AiResponseDTO.ExtractedRuleDTO> rules) {
+        syncExecutor.execute(() -> {
+            try {
+                sync(cardId, rules);
+            } catch (RuntimeException ex) {
+                log.warn("Failed syncing rule embeddings for cardId={}: {}", cardId, ex.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Brings the card's embeddings in line with {@code rules}, the card's complete current rule
+     * set. Throws if ai-service rejects the changes.
+     */
+    public void sync(Long cardId, List<AiResponseDTO.ExtractedRuleDTO> rules) {
+        Map<Long, String> current = ruleContents(cardId, rules);
+        for (int attempt = 1; ; attempt++) {
+            Set<Long> synced = new HashSet<>(cardRuleEmbeddingRepository.findRuleIdsByUserCardId(cardId));
+            boolean replace = synced.isEmpty();
+
+            List<RuleEmbeddingSyncRequestDTO.RuleDTO> upserts = new ArrayList<>();
+            current.forEach((ruleId, contentText) -> {
+                if (!synced.contains(ruleId)) {
+                    upserts.add(new RuleEmbeddingSyncRequestDTO.RuleDTO(ruleId, contentText));
+                }
+            });
+            List<Long> deletes = synced.stream().filter(ruleId -> !current.containsKey(ruleId)).toList();
+            int unchanged = current.size() - upserts.size();
+            if (!replace && upserts.isEmpty() && deletes.isEmpty()) {
+                record(0, 0, unchanged);
+                return;
+            }
+
+            RuleEmbeddingSyncResponseDTO response = aiServiceClient.syncRuleEmbeddings(
+                    new RuleEmbeddingSyncRequestDTO(cardId, upserts, deletes, replace));
+            boolean applied = Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+                lockCard(cardId);
+                if (!synced.equals(new HashSet<>(cardRuleEmbeddingRepository.findRuleIdsByUserCardId(cardId)))) {
+                    return false;
+                }
+                if (!deletes.isEmpty()) {
+                    cardRuleEmbeddingRepository.deleteByUserCardIdAndRuleIdIn(cardId, deletes);
+                }
+                cardRuleEmbeddingRepository.saveAll(upserts.stream()
+                        .map(rule -> CardRuleEmbedding.builder().userCardId(cardId).ruleId(rule.getRuleId()).build())
+                        .toList());
+                return true;
+            }));
+
+            if (applied) {
+                userCardRepository.findUserIdById(cardId)
+                        .ifPresent(userId -> resourceVersions.bump(userId, ResourceVersions.Resource.COVERAGE));
+                int deleted = response == null ? deletes.size() : response.getDeleted();
+                record(upserts.size(), deleted, unchanged);
+                log.info("Synced rule embeddings for cardId={}: {} embedded, {} deleted, {} unchanged",
+                        cardId, upserts.size(), deleted, unchanged);
+                return;
+            }
+            if (attempt == MAX_ATTEMPTS) {
+                transactionTemplate.executeWithoutResult(status -> {
+                    lockCard(cardId);
+                    cardRuleEmbeddingRepository.deleteByUserCardId(cardId);
+                });
+                throw new IllegalStateException("Rule embeddings of card " + cardId
+                        + " kept changing during sync; cleared its record so the next sync replaces them");
+            }
+            log.debug("Rule embeddings of cardId={} changed during sync; diffing again (attempt {})", cardId, attempt + 1);
+        }
+    }
+
+    /** Serializes writes of the card's record across instances until the surrounding transaction ends. */
+    private void lockCard(Long cardId) {
+        jdbcTemplate.queryForList("select pg_advisory_xact_lock(?)", cardId);
+    }
+
+    /** The card's rules by content-addressed id; identical rules collapse into one. */
+    static Map<Long, String> ruleContents(Long cardId, List<AiResponseDTO.ExtractedRuleDTO> rules) {
+        Map<Long, String> contents = new LinkedHashMap<>();
+        if (rules == null) {
+            return contents;
+        }
+        for (AiResponseDTO.ExtractedRuleDTO rule : rules) {
+            if (rule == null) {
+                continue;
+            }
+            String contentText = RewardRules.buildRuleContentText(rule);
+            contents.putIfAbsent(ruleId(cardId, contentText), contentText);
+        }
+        return contents;
+    }
+
+    static long ruleId(Long cardId, String contentText) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(String.valueOf(Objects.requireNonNull(cardId)).getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) '\n');
+            digest.update(contentText.getBytes(StandardCharsets.UTF_8));
+            return ByteBuffer.wrap(digest.digest()).getLong();
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available", ex);
+        }
+    }
+
+    private void record(int embedded, int deleted, int unchanged) {
+        meterRegistry.counter("cardwiz.rule.embeddings", "change", "embedded").increment(embedded);
+        meterRegistry.counter("cardwiz.rule.embeddings", "change", "deleted").increment(deleted);
+        meterRegistry.counter("cardwiz.rule.embeddings", "change", "unchanged").increment(unchanged);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        syncExecutor.shutdownNow();
+    }
+}
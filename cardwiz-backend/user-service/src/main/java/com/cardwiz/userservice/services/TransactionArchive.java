@@ -0,0 +1,124 @@
+package com.cardwiz.userservice.services;
+
+import com.cardwiz.userservice.dtos.TransactionSummary;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Request;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.S3Object;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Archived transactions in the document bucket: one gzipped NDJSON object of
+ * {@link TransactionSummary} lines per user and month, at
+ * {@code archive/transactions/<userId>/<yyyy-MM>.ndjson.gz}. Keying by user first lets a user's
+ * old history be found with a single listing, without touching other users' archives.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TransactionArchive {
+
+    private static final String PREFIX = "archive/transactions/";
+    private static final String SUFFIX = ".ndjson.gz";
+    private static final String UNOWNED = "unowned";
+
+    private final S3Client s3Client;
+    private final ObjectMapper objectMapper;
+
+    @Value("${aws.s3.document-bucket-name:epoch-docs}")
+    private String documentBucketName;
+
+    /** Writes one user's transactions for a month, replacing an earlier archive of that month. */
+    public void write(Long userId, YearMonth month, List<TransactionSummary> transactions) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (Writer writer = new OutputStreamWriter(new GZIPOutputStream(bytes), StandardCharsets.UTF_8)) {
+            for (TransactionSummary transaction : transactions) {
+                writer.write(objectMapper.writeValueAsString(transaction));
+                writer.write('\n');
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to compress archived transactions", ex);
+        }
+
+        s3Client.putObject(PutObjectRequest.builder()
+                        .bucket(documentBucketName)
+                        .key(userPrefix(userId) + month + SUFFIX)
+                        .contentType("application/x-ndjson")
+                        .contentEncoding("gzip")
+                        .build(),
+                RequestBody.fromBytes(bytes.toByteArray()));
+    }
+
+    /** The user's archived transactions from {@code from} through {@code to}, oldest month first. */
+    public List<TransactionSummary> read(Long userId, YearMonth from, YearMonth to) {
+        List<TransactionSummary> transactions = new ArrayList<>();
+        ListObjectsV2Request listing = ListObjectsV2Request.builder()
+                .bucket(documentBucketName)
+                .prefix(userPrefix(userId))
+                .build();
+        for (S3Object object : s3Client.listObjectsV2Paginator(listing).contents()) {
+            YearMonth month = monthOf(object.key());
+            if (month == null || month.isBefore(from) || month.isAfter(to)) {
+                continue;
+            }
+            readObject(object.key(), transactions);
+        }
+        return transactions;
+    }
+
+    private void readObject(String key, List<TransactionSummary> into) {
+        GetObjectRequest request = GetObjectRequest.builder().bucket(documentBucketName).key(key).build();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(s3Client.getObject(request)), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isBlank()) {
+                    into.add(objectMapper.readValue(line, TransactionSummary.class));
+                }
+            }
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Corrupt transaction archive " + key, ex);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to read transaction archive " + key, ex);
+        }
+    }
+
+    private static String userPrefix(Long userId) {
+        return PREFIX + (userId == null ? UNOWNED : userId.toString()) + "/";
+    }
+
+    private static YearMonth monthOf(String key) {
+        if (!key.endsWith(SUFFIX)) {
+            return null;
+        }
+        String name = key.substring(key.lastIndexOf('/') + 1, key.length() - SUFFIX.length());
+        try {
+            return YearMonth.parse(name);
+        } catch (DateTimeParseException ex) {
+            log.warn("Ignoring unexpected object {} in the transaction archive", key);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,336 @@
+package com.cardwiz.userservice.services;
+
+import com.cardwiz.userservice.config.CacheConfig;
+import com.cardwiz.userservice.customExceptions.UserNotFoundException;
+import com.cardwiz.userservice.dtos.TransactionImportResponse;
+import com.cardwiz.userservice.repositories.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Imports transactions from a bank or card CSV export. The file is read a record at a time and
+ * written in chunks of {@value #CHUNK_SIZE} rows, each a JDBC batch in its own transaction, so
+ * memory stays flat whatever the file size and a 50k row file costs 50 round trips instead of 50k
+ * requests. The recommendation cache is cleared once, after the last chunk.
+ * <p>
+ * Columns are found by header name (see {@link Column}); only date and amount are required.
+ * Rows that match a transaction the user already had before the import (same date, amount and
+ * merchant) are skipped, so importing overlapping exports, or the same file again after a failure,
+ * does not double count.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TransactionImportService {
+
+    static final int CHUNK_SIZE = 1_000;
+    private static final int MAX_REPORTED_ERRORS = 20;
+    private static final int MAX_TEXT_LENGTH = 255;
+    private static final String CACHE_NAME = RecommendationCacheService.CACHE_NAME;
+    private static final String INSERT = "insert into transactions "
+            + "(user_id, amount, merchant, category, currency, transaction_date) values (?, ?, ?, ?, ?, ?)";
+    // Day first, as Indian bank exports write them
+    private static final List<DateTimeFormatter> DATE_FORMATS = List.of(
+            DateTimeFormatter.ISO_LOCAL_DATE,
+            DateTimeFormatter.ofPattern("dd/MM/uuuu"),
+            DateTimeFormatter.ofPattern("dd-MM-uuuu"),
+            DateTimeFormatter.ofPattern("dd MMM uuuu", Locale.ENGLISH),
+            DateTimeFormatter.ofPattern("dd-MMM-uuuu", Locale.ENGLISH));
+    private static final Pattern AMOUNT_NOISE = Pattern.compile("(?i)inr|rs\\.?|[\u20B9$,\\s]");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final UserRepository userRepository;
+    private final CacheManager cacheManager;
+    private final ResourceVersions resourceVersions;
+    private final MeterRegistry meterRegistry;
+
+    enum Column {
+        DATE("date", "transaction date", "txn date", "posting date", "value date"),
+        AMOUNT("amount", "debit", "debit amount", "withdrawal amount", "amount (inr)"),
+        MERCHANT("merchant", "description", "narration", "details", "payee", "transaction details"),
+        CATEGORY("category"),
+        CURRENCY("currency");
+
+        private final List<String> names;
+
+        Column(String... names) {
+            this.names = List.of(names);
+        }
+    }
+
+    public TransactionImportResponse importCsv(Long userId, MultipartFile file) {
+        if (file == null || file.isEmpty()) {
+            throw new IllegalArgumentException("File is empty");
+        }
+        if (!userRepository.existsById(userId)) {
+            throw new UserNotFoundException("User not found");
+        }
+
+        Summary summary = new Summary();
+        try (CsvReader reader = new CsvReader(new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8))) {
+            Map<Column, Integer> columns = readHeader(reader.next());
+            Existing existing = jdbcTemplate.queryForObject("select coalesce(max(id), 0), min(transaction_date), "
+                            + "max(transaction_date) from transactions where user_id = ?",
+                    (resultSet, rowNum) -> new Existing(resultSet.getLong(1),
+                            resultSet.getObject(2, LocalDate.class), resultSet.getObject(3, LocalDate.class)),
+                    userId);
+
+            List<Row> chunk = new ArrayList<>(CHUNK_SIZE);
+            List<String> record;
+            while ((record = reader.next()) != null) {
+                if (record.stream().allMatch(String::isBlank)) {
+                    continue;
+                }
+                Row row;
+                try {
+                    row = parse(reader.recordLine(), record, columns);
+                } catch (IllegalArgumentException ex) {
+                    summary.fail(1, "line " + reader.recordLine() + ": " + ex.getMessage());
+                    continue;
+                }
+                if (row.amount().signum() <= 0) {
+                    summary.skipped++;
+                    continue;
+                }
+                chunk.add(row);
+                if (chunk.size() == CHUNK_SIZE) {
+                    writeChunk(userId, existing, chunk, summary);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                writeChunk(userId, existing, chunk, summary);
+            }
+        } catch (IOException ex) {
+            log.warn("Reading CSV import for user {} failed after {} rows: {}", userId, summary.imported, ex.getMessage());
+            throw new RuntimeException("Failed to read CSV file");
+        } finally {
+            if (summary.imported > 0) {
+                evictRecommendations();
+                resourceVersions.bump(userId, ResourceVersions.Resource.TRANSACTIONS);
+            }
+            meterRegistry.counter("cardwiz.transactions.import.rows", "outcome", "imported").increment(summary.imported);
+            meterRegistry.counter("cardwiz.transactions.import.rows", "outcome", "skipped").increment(summary.skipped);
+            meterRegistry.counter("cardwiz.transactions.import.rows", "outcome", "failed").increment(summary.failed);
+        }
+
+        return TransactionImportResponse.builder()
+                .imported(summary.imported)
+                .skipped(summary.skipped)
+                .failed(summary.failed)
+                .errors(summary.errors)
+                .build();
+    }
+
+    private static Map<Column, Integer> readHeader(List<String> header) {
+        if (header == null) {
+            throw new IllegalArgumentException("CSV file has no header row");
+        }
+        Map<Column, Integer> columns = new EnumMap<>(Column.class);
+        for (int index = 0; index < header.size(); index++) {
+            String name = header.get(index).trim().toLowerCase(Locale.ROOT).replaceAll("[_\\s]+", " ");
+            for (Column column : Column.values()) {
+                if (column.names.contains(name)) {
+                    columns.putIfAbsent(column, index);
+                }
+            }
+        }
+        if (!columns.containsKey(Column.DATE) || !columns.containsKey(Column.AMOUNT)) {
+            throw new IllegalArgumentException("CSV header must name a date and an amount column");
+        }
+        return columns;
+    }
+
+    private static Row parse(int line, List<String> record, Map<Column, Integer> columns) {
+        return new Row(
+                line,
+                parseDate(field(record, columns, Column.DATE)),
+                parseAmount(field(record, columns, Column.AMOUNT)),
+                text(field(record, columns, Column.MERCHANT)),
+                text(field(record, columns, Column.CATEGORY)),
+                text(field(record, columns, Column.CURRENCY)));
+    }
+
+    private static String field(List<String> record, Map<Column, Integer> columns, Column column) {
+        Integer index = columns.get(column);
+        return index == null || index >= record.size() ? "" : record.get(index).trim();
+    }
+
+    private static LocalDate parseDate(String value) {
+        if (value.isEmpty()) {
+            throw new IllegalArgumentException("missing date");
+        }
+        for (DateTimeFormatter format : DATE_FORMATS) {
+            try {
+                return LocalDate.parse(value, format);
+            } catch (DateTimeParseException ignored) {
+                // try the next format
+            }
+        }
+        throw new IllegalArgumentException("unrecognised date '" + value + "'");
+    }
+
+    /** Credits ({@code Cr} suffix, leading minus or parentheses) come back negative. */
+    private static BigDecimal parseAmount(String value) {
+        String amount = value.toLowerCase(Locale.ROOT);
+        boolean credit = false;
+        if (amount.endsWith("cr") || amount.endsWith("dr")) {
+            credit = amount.endsWith("cr");
+            amount = amount.substring(0, amount.length() - 2);
+        }
+        if (amount.startsWith("(") && amount.endsWith(")")) {
+            credit = true;
+            amount = amount.substring(1, amount.length() - 1);
+        }
+        amount = AMOUNT_NOISE.matcher(amount).replaceAll("");
+        if (amount.isEmpty()) {
+            throw new IllegalArgumentException("missing amount");
+        }
+        try {
+            BigDecimal parsed = new BigDecimal(amount).setScale(2, RoundingMode.HALF_UP);
+            return credit ? parsed.negate() : parsed;
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("invalid amount '" + value + "'");
+        }
+    }
+
+    private static String text(String value) {
+        if (value.isEmpty()) {
+            return null;
+        }
+        return value.length() > MAX_TEXT_LENGTH ? value.substring(0, MAX_TEXT_LENGTH) : value;
+    }
+
+    private void writeChunk(Long userId, Existing existing, List<Row> chunk, Summary summary) {
+        try {
+            Integer written = transactionTemplate.execute(status -> {
+                List<Row> fresh = withoutExisting(userId, existing, chunk);
+                jdbcTemplate.batchUpdate(INSERT, fresh, fresh.size(), (statement, row) -> {
+                    statement.setLong(1, userId);
+                    statement.setBigDecimal(2, row.amount());
+                    statement.setString(3, row.merchant());
+                    statement.setString(4, row.category());
+                    statement.setString(5, row.currency());
+                    statement.setDate(6, Date.valueOf(row.date()));
+                });
+                return fresh.size();
+            });
+            summary.imported += written;
+            summary.skipped += chunk.size() - written;
+        } catch (DataAccessException ex) {
+            log.warn("Saving imported transactions for user {} failed: {}", userId, ex.getMessage());
+            summary.fail(chunk.size(), "lines " + chunk.get(0).line() + "-" + chunk.get(chunk.size() - 1).line()
+                    + ": not saved");
+        }
+    }
+
+    /**
+     * Drops the rows matching a transaction the user had before the import. Matching is by count:
+     * two identical rows against one existing transaction import one of them.
+     */
+    private List<Row> withoutExisting(Long userId, Existing existing, List<Row> chunk) {
+        LocalDate from = chunk.stream().map(Row::date).min(Comparator.naturalOrder()).orElseThrow();
+        LocalDate to = chunk.stream().map(Row::date).max(Comparator.naturalOrder()).orElseThrow();
+        // Exports are in date order, so most chunks of an import onto existing history miss it entirely
+        if (existing.from() == null || to.isBefore(existing.from()) || from.isAfter(existing.to())) {
+            return chunk;
+        }
+
+        Map<Row.Key, Integer> matches = new HashMap<>();
+        jdbcTemplate.query("select transaction_date, amount, merchant from transactions "
+                        + "where user_id = ? and transaction_date between ? and ? and id <= ?",
+                resultSet -> {
+                    Row.Key key = new Row.Key(resultSet.getObject(1, LocalDate.class),
+                            resultSet.getBigDecimal(2), resultSet.getString(3));
+                    matches.merge(key, 1, Integer::sum);
+                },
+                userId, from, to, existing.maxId());
+        if (matches.isEmpty()) {
+            return chunk;
+        }
+
+        List<Row> fresh = new ArrayList<>(chunk.size());
+        for (Row row : chunk) {
+            Row.Key key = row.key();
+            Integer remaining = matches.get(key);
+            if (remaining != null && remaining > 0) {
+                matches.put(key, remaining - 1);
+            } else {
+                fresh.add(row);
+            }
+        }
+        return fresh;
+    }
+
+    private void evictRecommendations() {
+        Cache cache = cacheManager.getCache(CACHE_NAME);
+        if (cache == null) {
+            return;
+        }
+        try {
+            cache.clear();
+        } catch (RuntimeException ex) {
+            CacheConfig.countCacheError(meterRegistry, CACHE_NAME, "clear");
+            log.warn("Redis CLEAR of {} after a transaction import failed.", CACHE_NAME, ex);
+        }
+    }
+
+    /**
+     * The user's transactions before the import: ids up to {@code maxId}, dated {@code from} to
+     * {@code to} (null without any). Rows the import writes get higher ids, so later chunks do not
+     * take them for duplicates.
+     */
+    private record Existing(long maxId, LocalDate from, LocalDate to) {
+    }
+
+    private record Row(int line, LocalDate date, BigDecimal amount, String merchant, String category, String currency) {
+
+        record Key(LocalDate date, BigDecimal amount, String merchant) {
+        }
+
+        Key key() {
+            return new Key(date, amount, merchant);
+        }
+    }
+
+    private static final class Summary {
+        private long imported;
+        private long skipped;
+        private long failed;
+        private final List<String> errors = new ArrayList<>();
+
+        void fail(int rows, String error) {
+            failed += rows;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(error);
+            }
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package com.cardwiz.userservice.services;
+
+import com.cardwiz.userservice.dtos.TransactionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps the monthly partitions of {@code transactions} (see V3 migration) in shape:
+ * <ul>
+ *   <li>creates the partitions for the current month and {@code months-ahead} after it, and one for
+ *       any month that has rows in {@code transactions_default}, moving those rows into it;</li>
+ *   <li>archives every month older than {@code horizon-months} to {@link TransactionArchive} and
+ *       then detaches and drops its partition, so the per-user queries stop walking it.</li>
+ * </ul>
+ * Each step runs in a transaction holding a PostgreSQL advisory lock; with several instances,
+ * whichever takes the lock does the work and the others skip it. A month is dropped only in the
+ * transaction that archived it, so a failed upload or a lock timeout leaves the partition in place
+ * for the next run, which rewrites the same archive objects.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TransactionPartitionMaintenance {
+
+    private static final long ADVISORY_LOCK_KEY = 7_141_920_420L;
+    private static final Pattern MONTHLY_PARTITION = Pattern.compile("transactions_p(\\d{4})(\\d{2})");
+    private static final int FETCH_SIZE = 1_000;
+    private static final String COLUMNS =
+            "id, user_id, amount, merchant, category, currency, transaction_date, suggested_card_id, actual_card_id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionArchive transactionArchive;
+    private final ResourceVersions resourceVersions;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.transactions.partitions.months-ahead:2}")
+    private int monthsAhead;
+
+    @Value("${app.transactions.archive.enabled:true}")
+    private boolean archiveEnabled;
+
+    @Value("${app.transactions.archive.horizon-months:24}")
+    private int horizonMonths;
+
+    @Value("${app.transactions.archive.lock-timeout:5s}")
+    private String lockTimeout;
+
+    /**
+     * Makes sure the current month has a partition after a deploy, on a virtual thread so startup
+     * does not wait on it. Without one, new transactions would pile up in the default partition.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void createPartitionsOnStartup() {
+        Thread.ofVirtual().name("transaction-partitions").start(() -> {
+            try {
+                createPartitions();
+            } catch (RuntimeException ex) {
+                log.warn("Creating transaction partitions failed; the scheduled run will retry.", ex);
+            }
+        });
+    }
+
+    @Scheduled(cron = "${app.transactions.partitions.cron:0 30 3 * * *}")
+    public void maintain() {
+        createPartitions();
+        if (!archiveEnabled) {
+            return;
+        }
+        YearMonth horizon = YearMonth.now().minusMonths(horizonMonths);
+        for (YearMonth month : existingPartitions()) {
+            if (!month.isBefore(horizon)) {
+                break;
+            }
+            try {
+                runLocked(() -> archivePartition(month));
+            } catch (RuntimeException ex) {
+                log.warn("Archiving transactions of {} failed; the partition stays until the next run.", month, ex);
+                return;
+            }
+        }
+    }
+
+    void createPartitions() {
+        runLocked(() -> {
+            SortedSet<YearMonth> missing = new TreeSet<>();
+            YearMonth current = YearMonth.now();
+            for (int ahead = 0; ahead <= monthsAhead; ahead++) {
+                missing.add(current.plusMonths(ahead));
+            }
+            jdbcTemplate.queryForList(
+                            "select distinct date_trunc('month', transaction_date)::date from transactions_default",
+                            LocalDate.class)
+                    .forEach(day -> missing.add(YearMonth.from(day)));
+            missing.removeAll(existingPartitions());
+            missing.forEach(this::createPartition);
+        });
+    }
+
+    private void createPartition(YearMonth month) {
+        String partition = partitionName(month);
+        LocalDate from = month.atDay(1);
+        LocalDate to = month.plusMonths(1).atDay(1);
+        // Attaching a range the default partition still has rows for fails, so they move first
+        jdbcTemplate.execute("create table " + partition + " (like transactions including defaults including constraints)");
+        int moved = jdbcTemplate.update("with moved as (delete from transactions_default "
+                + "where transaction_date >= ? and transaction_date < ? returning " + COLUMNS + ") "
+                + "insert into " + partition + " (" + COLUMNS + ") select " + COLUMNS + " from moved", from, to);
+        jdbcTemplate.execute("alter table transactions attach partition " + partition
+                + " for values from ('" + from + "') to ('" + to + "')");
+        log.info("Created transaction partition {} ({} rows moved from the default partition)", partition, moved);
+    }
+
+    private void archivePartition(YearMonth month) {
+        String partition = partitionName(month);
+        // Writes to the month wait until it is archived and gone; reads carry on
+        jdbcTemplate.execute("lock table " + partition + " in share mode");
+
+        UserBatch batch = new UserBatch(month);
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                    "select " + COLUMNS + " from " + partition + " order by user_id nulls last, id");
+            statement.setFetchSize(FETCH_SIZE);
+            return statement;
+        }, batch::add);
+        batch.flush();
+
+        // Detaching waits for queries still reading the partition; give up rather than queue
+        // every new query on transactions behind it
+        jdbcTemplate.execute("set local lock_timeout = '" + lockTimeout + "'");
+        jdbcTemplate.execute("alter table transactions detach partition " + partition);
+        jdbcTemplate.execute("drop table " + partition);
+        meterRegistry.counter("cardwiz.transactions.archived").increment(batch.archived);
+        log.info("Archived {} transactions of {} and dropped partition {}", batch.archived, month, partition);
+    }
+
+    private SortedSet<YearMonth> existingPartitions() {
+        SortedSet<YearMonth> months = new TreeSet<>();
+        jdbcTemplate.queryForList("select c.relname from pg_inherits i join pg_class c on c.oid = i.inhrelid "
+                        + "where i.inhparent = 'transactions'::regclass", String.class)
+                .forEach(name -> {
+                    Matcher matcher = MONTHLY_PARTITION.matcher(name);
+                    if (matcher.matches()) {
+                        months.add(YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2))));
+                    }
+                });
+        return months;
+    }
+
+    private void runLocked(Runnable work) {
+        transactionTemplate.executeWithoutResult(status -> {
+            Boolean locked = jdbcTemplate.queryForObject(
+                    "select pg_try_advisory_xact_lock(?)", Boolean.class, ADVISORY_LOCK_KEY);
+            if (Boolean.TRUE.equals(locked)) {
+                work.run();
+            } else {
+                log.debug("Transaction partition maintenance is running on another instance");
+            }
+        });
+    }
+
+    private static String partitionName(YearMonth month) {
+        return String.format("transactions_p%04d%02d", month.getYear(), month.getMonthValue());
+    }
+
+    /** Collects one user's rows at a time; the query returns them grouped by user. */
+    private final class UserBatch {
+        private final YearMonth month;
+        private final List<TransactionSummary> rows = new ArrayList<>();
+        private Long userId;
+        private long archived;
+
+        private UserBatch(YearMonth month) {
+            this.month = month;
+        }
+
+        void add(ResultSet resultSet) throws SQLException {
+            Long rowUserId = resultSet.getObject("user_id", Long.class);
+            if (!rows.isEmpty() && !Objects.equals(userId, rowUserId)) {
+                flush();
+            }
+            userId = rowUserId;
+            rows.add(new TransactionSummary(
+                    resultSet.getLong("id"),
+                    resultSet.getBigDecimal("amount"),
+                    resultSet.getString("merchant"),
+                    resultSet.getString("category"),
+                    resultSet.getString("currency"),
+                    resultSet.getObject("transaction_date", LocalDate.class),
+                    resultSet.getObject("suggested_card_id", Long.class),
+                    resultSet.getObject("actual_card_id", Long.class)));
+        }
+
+        void flush() {
+            if (rows.isEmpty()) {
+                return;
+            }
+            transactionArchive.write(userId, month, rows);
+            // The rows leave the user's transaction list once the partition is dropped
+            resourceVersions.bump(userId, ResourceVersions.Resource.TRANSACTIONS);
+            archived += rows.size();
+            rows.clear();
+        }
+    }
+}
@@ -1,8 +1,12 @@
 package com.cardwiz.userservice.services;
 
+import com.cardwiz.userservice.config.ReplicaRead;
 import com.cardwiz.userservice.customExceptions.UserNotFoundException;
+import com.cardwiz.userservice.dtos.MerchantCategoryCount;
+import com.cardwiz.userservice.dtos.MerchantCategorySpend;
 import com.cardwiz.userservice.dtos.TransactionRequest;
 import com.cardwiz.userservice.dtos.TransactionResponse;
+import com.cardwiz.userservice.dtos.TransactionSummary;
 import com.cardwiz.userservice.models.Transaction;
 import com.cardwiz.userservice.models.User;
 import com.cardwiz.userservice.repositories.TransactionRepository;
@@ -10,23 +14,148 @@ import com.cardwiz.userservice.repositories.UserRepository;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 public class TransactionService {
 
+    private static final Limit RECENT_CONTEXT_LIMIT = Limit.of(5);
+    private static final Limit MERCHANT_CATEGORY_LIMIT = Limit.of(1000);
+    private static final Map<String, Function<TransactionResponse, ?>> EXPORT_COLUMNS = new LinkedHashMap<>();
+
+    static {
+        EXPORT_COLUMNS.put("id", TransactionResponse::getId);
+        EXPORT_COLUMNS.put("transactionDate", TransactionResponse::getTransactionDate);
+        EXPORT_COLUMNS.put("merchant", TransactionResponse::getMerchant);
+        EXPORT_COLUMNS.put("category", TransactionResponse::getCategory);
+        EXPORT_COLUMNS.put("amount", TransactionResponse::getAmount);
+        EXPORT_COLUMNS.put("currency", TransactionResponse::getCurrency);
+        EXPORT_COLUMNS.put("suggestedCardId", TransactionResponse::getSuggestedCardId);
+        EXPORT_COLUMNS.put("actualCardId", TransactionResponse::getActualCardId);
+        EXPORT_COLUMNS.put("validationStatus", TransactionResponse::getValidationStatus);
+    }
+
     private final TransactionRepository transactionRepository;
     private final UserRepository userRepository;
+    private final TransactionArchive transactionArchive;
+    private final ExportWriter exportWriter;
+    private final ResourceVersions resourceVersions;
 
+    @ReplicaRead
     public List<TransactionResponse> listTransactions(Long userId) {
-        return transactionRepository.findByUserId(userId).stream()
+        return transactionRepository.findSummariesByUserId(userId).stream()
+                .map(this::toResponse)
+                .toList();
+    }
+
+    /** The user's {@code limit} most recent transactions, newest first. */
+    @ReplicaRead
+    public List<TransactionResponse> listRecentTransactions(Long userId, int limit) {
+        return transactionRepository.findRecentSummariesByUserId(userId, Limit.of(limit)).stream()
+                .map(this::toResponse)
+                .toList();
+    }
+
+    /**
+     * Writes all of the user's transactions to {@code out} as they come off a database cursor, in
+     * the same order and shape as {@link #listTransactions}, without collecting them first.
+     */
+    @ReplicaRead
+    public long exportTransactions(Long userId, ExportFormat format, OutputStream out) {
+        try (Stream<TransactionResponse> rows = transactionRepository.streamSummariesByUserId(userId).map(this::toResponse)) {
+            return exportWriter.write(rows, format, EXPORT_COLUMNS, out);
+        }
+    }
+
+    /**
+     * Transactions from months already archived out of the database (see
+     * {@link TransactionPartitionMaintenance}), read back from S3. Archived transactions are
+     * read-only and no longer reachable by id.
+     */
+    public List<TransactionResponse> listArchivedTransactions(Long userId, YearMonth from, YearMonth to) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("from must not be after to");
+        }
+        return transactionArchive.read(userId, from, to).stream()
                 .map(this::toResponse)
                 .toList();
     }
 
+    /**
+     * Compact summary of the user's five most recent transactions, passed to ai-service as
+     * ranking context: {@code merchant:category:currency:amount} entries joined by {@code " ; "}.
+     */
+    @ReplicaRead
+    public String buildRecentValidationContext(Long userId) {
+        List<TransactionSummary> recent = transactionRepository.findRecentSummariesByUserId(userId, RECENT_CONTEXT_LIMIT);
+
+        if (recent.isEmpty()) {
+            return "";
+        }
+
+        return recent.stream()
+                .map(tx -> {
+                    String merchant = tx.merchant() == null ? "unknown-merchant" : tx.merchant();
+                    String category = tx.category() == null ? "general" : tx.category();
+                    String currency = tx.currency() == null ? "INR" : tx.currency();
+                    String amount = tx.amount() == null ? "0" : tx.amount().toPlainString();
+                    return merchant + ":" + category + ":" + currency + ":" + amount;
+                })
+                .reduce((left, right) -> left + " ; " + right)
+                .orElse("");
+    }
+
+    /** The user's categorized merchants, from which {@link MerchantClassifier} learns their own labels. */
+    @ReplicaRead
+    public List<MerchantCategoryCount> countMerchantCategories(Long userId) {
+        return transactionRepository.countMerchantCategoriesByUserId(userId, MERCHANT_CATEGORY_LIMIT);
+    }
+
+    /** The user's spend per merchant and category since the date, for {@link PortfolioOptimizer}. */
+    @ReplicaRead
+    public List<MerchantCategorySpend> sumSpend(Long userId, LocalDate since) {
+        return transactionRepository.sumSpendByMerchantAndCategory(userId, since);
+    }
+
+    /**
+     * Hands the user's transactions that record the card they were paid with to {@code batches}, in
+     * lists of up to {@code batchSize} as they come off a database cursor, for
+     * {@link MissedSavingsCalculator}.
+     */
+    @ReplicaRead
+    public long forEachPaidBatch(Long userId, int batchSize, Consumer<List<TransactionSummary>> batches) {
+        long read = 0L;
+        List<TransactionSummary> batch = new ArrayList<>(batchSize);
+        try (Stream<TransactionSummary> rows = transactionRepository.streamPaidSummariesByUserId(userId)) {
+            for (Iterator<TransactionSummary> it = rows.iterator(); it.hasNext(); read++) {
+                batch.add(it.next());
+                if (batch.size() == batchSize) {
+                    batches.accept(batch);
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            batches.accept(batch);
+        }
+        return read;
+    }
+
+    @ReplicaRead
     public TransactionResponse getTransaction(Long userId, Long transactionId) {
         Transaction tx = transactionRepository.findById(transactionId)
                 .orElseThrow(() -> new RuntimeException("Transaction not found"));
@@ -47,12 +176,14 @@ public class TransactionService {
                 .merchant(request.getMerchant())
                 .category(request.getCategory())
                 .currency(request.getCurrency())
-                .transactionDate(request.getTransactionDate())
+                // Transactions are partitioned by date, so an undated one is dated today
+                .transactionDate(request.getTransactionDate() != null ? request.getTransactionDate() : LocalDate.now())
                 .suggestedCardId(request.getSuggestedCardId())
                 .actualCardId(request.getActualCardId())
                 .user(user)
                 .build();
 
+        resourceVersions.bump(userId, ResourceVersions.Resource.TRANSACTIONS);
         return toResponse(transactionRepository.save(tx));
     }
 
@@ -87,6 +218,7 @@ public class TransactionService {
             tx.setActualCardId(request.getActualCardId());
         }
 
+        resourceVersions.bump(userId, ResourceVersions.Resource.TRANSACTIONS);
         return toResponse(transactionRepository.save(tx));
     }
 
@@ -99,6 +231,7 @@ public class TransactionService {
             throw new RuntimeException("Transaction does not belong to user");
         }
         transactionRepository.delete(tx);
+        resourceVersions.bump(userId, ResourceVersions.Resource.TRANSACTIONS);
     }
 
     private TransactionResponse toResponse(Transaction tx) {
@@ -116,6 +249,20 @@ public class TransactionService {
                 .build();
     }
 
+    private TransactionResponse toResponse(TransactionSummary tx) {
+        return TransactionResponse.builder()
+                .id(tx.id())
+                .amount(tx.amount())
+                .merchant(tx.merchant())
+                .category(tx.category())
+                .currency(tx.currency())
+                .transactionDate(tx.transactionDate())
+                .suggestedCardId(tx.suggestedCardId())
+                .actualCardId(tx.actualCardId())
+                .validationStatus(deriveValidationStatus(tx.suggestedCardId(), tx.actualCardId()))
+                .build();
+    }
+
     private String deriveValidationStatus(Long suggestedCardId, Long actualCardId) {
         if (actualCardId == null || suggestedCardId == null) {
             return "NOT_SET";
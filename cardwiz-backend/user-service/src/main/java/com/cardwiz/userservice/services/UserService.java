@@ -15,6 +15,7 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
@@ -24,6 +25,7 @@ public class UserService {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final ResourceVersions resourceVersions;
 
     public Page<UserResponseDTO> getAllUsers(int page, int size) {
         Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "createdAt"));
@@ -38,6 +40,19 @@ public class UserService {
         return toResponse(user);
     }
 
+    /**
+     * The JWT filter authenticates with the User entity itself, so its id is already loaded and
+     * request handlers need no profile lookup before fanning out.
+     */
+    public Long resolveUserId(UserDetails principal) {
+        if (principal instanceof User user && user.getId() != null) {
+            return user.getId();
+        }
+        return userRepository.findByEmail(principal.getUsername())
+                .map(User::getId)
+                .orElseThrow(() -> new UserNotFoundException("User not found"));
+    }
+
     @Cacheable(cacheNames = "userProfileByEmailV2", key = "#email")
     public UserResponseDTO getUserProfileByEmail(String email) {
         User user = userRepository.findByEmail(email)
@@ -58,6 +73,7 @@ public class UserService {
             user.setLastName(request.getLastName());
         }
 
+        resourceVersions.bump(userId, ResourceVersions.Resource.PROFILE);
         return toResponse(userRepository.save(user));
     }
 
@@ -91,13 +107,15 @@ public class UserService {
     @Caching(evict = {
             @CacheEvict(cacheNames = {"userProfileByIdV2", "userProfileByEmailV2"}, allEntries = true),
             @CacheEvict(cacheNames = {"cardMetadataByUserV2", "cardMetadataByIdV2"}, allEntries = true),
-            @CacheEvict(cacheNames = "aiRecommendationsV2", allEntries = true)
+            @CacheEvict(cacheNames = "aiRecommendationsV2", allEntries = true),
+            @CacheEvict(cacheNames = "cardCategoryMatrixV1", key = "#userId")
     })
     public void deleteUser(Long userId) {
         if (!userRepository.existsById(userId)) {
             throw new UserNotFoundException("User not found");
         }
         userRepository.deleteById(userId);
+        resourceVersions.bump(userId, ResourceVersions.Resource.values());
     }
 
     private UserResponseDTO toResponse(User user) {
@@ -1,5 +1,8 @@
 package com.cardwiz.userservice.services;
 
+import com.cardwiz.userservice.config.ServerTiming;
+import com.cardwiz.userservice.dtos.CategoryInference;
+import com.cardwiz.userservice.dtos.CardCategoryMatrix;
 import com.cardwiz.userservice.dtos.RecommendationDTO;
 import com.cardwiz.userservice.dtos.RecommendationRequestDTO;
 import com.cardwiz.userservice.dtos.TransactionRequest;
@@ -12,16 +15,19 @@ import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.time.LocalDate;
-import java.util.Comparator;
 import java.util.List;
+import java.util.Optional;
 
 @Service
 @RequiredArgsConstructor
 public class ValidationService {
 
     private final CardService cardService;
+    private final CardCategoryMatrixService cardCategoryMatrixService;
     private final TransactionService transactionService;
-    private final AiServiceClient aiServiceClient;
+    private final RecommendationCacheService recommendationCacheService;
+    private final RequestFanOut requestFanOut;
+    private final MerchantClassifier merchantClassifier;
 
     public ValidationResponseDTO processValidation(Long userId, ValidationRequestDTO request) {
         if (request.getMerchant() == null || request.getMerchant().isBlank()) {
@@ -31,48 +37,109 @@ public class ValidationService {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Amount must be greater than zero.");
         }
 
-        List<Long> eligibleCardIds = cardService.getActiveCardIds(userId);
-        if (eligibleCardIds.isEmpty()) {
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "No active cards found for this user.");
+        // A blank category would be "general", which neither the matrix nor the cache can answer
+        CategoryInference categoryInference = inferCategory(userId, request.getMerchant(), request.getCategory());
+        String category = categoryInference != null ? categoryInference.getCategory() : request.getCategory();
+
+        // Cards, the category matrix and recent history are independent lookups; history is
+        // only forked up front when the matrix cannot answer this request anyway.
+        boolean matrixCandidate = cardCategoryMatrixService.mayAnswer(category, request.getContextNotes());
+        List<Long> eligibleCardIds;
+        RecommendationDTO recommendation;
+        try (RequestFanOut.Scope scope = requestFanOut.open()) {
+            RequestFanOut.Task<List<Long>> cards = scope.fork("cards", () -> {
+                try (ServerTiming.Span ignored = ServerTiming.start("cards")) {
+                    return cardService.getActiveCardIds(userId);
+                }
+            });
+            RequestFanOut.Task<CardCategoryMatrix> matrix = matrixCandidate
+                    ? scope.fork("matrix", () -> {
+                        try (ServerTiming.Span ignored = ServerTiming.start("matrix")) {
+                            return cardCategoryMatrixService.getMatrix(userId);
+                        }
+                    })
+                    : null;
+            RequestFanOut.Task<String> eagerHistory = matrixCandidate ? null : forkHistory(scope, userId);
+
+            eligibleCardIds = cards.join();
+            if (eligibleCardIds.isEmpty()) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "No active cards found for this user.");
+            }
+
+            if (request.getActualCardId() != null && !eligibleCardIds.contains(request.getActualCardId())) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "actualCardId must be one of your active cards.");
+            }
+
+            Optional<RecommendationDTO> precomputed = matrix == null
+                    ? Optional.empty()
+                    : cardCategoryMatrixService.tryRecommend(new RecommendationRequestDTO(
+                            userId,
+                            request.getMerchant().trim(),
+                            normalizeCategory(category),
+                            request.getAmount(),
+                            normalizeCurrency(request.getCurrency()),
+                            request.getContextNotes(),
+                            eligibleCardIds
+                    ), matrix::join);
+            recommendation = precomputed.orElseGet(() -> {
+                RequestFanOut.Task<String> history = eagerHistory != null ? eagerHistory : forkHistory(scope, userId);
+                String historyContext = history.join();
+                try (ServerTiming.Span ignored = ServerTiming.start("rec")) {
+                    return recommendationCacheService.getRecommendation(new RecommendationRequestDTO(
+                            userId,
+                            request.getMerchant().trim(),
+                            normalizeCategory(category),
+                            request.getAmount(),
+                            normalizeCurrency(request.getCurrency()),
+                            mergeContextNotes(request.getContextNotes(), historyContext),
+                            eligibleCardIds
+                    ));
+                }
+            });
         }
-
-        if (request.getActualCardId() != null && !eligibleCardIds.contains(request.getActualCardId())) {
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "actualCardId must be one of your active cards.");
-        }
-
-        RecommendationRequestDTO recRequest = new RecommendationRequestDTO(
-                userId,
-                request.getMerchant().trim(),
-                normalizeCategory(request.getCategory()),
-                request.getAmount(),
-                normalizeCurrency(request.getCurrency()),
-                mergeContextNotes(request.getContextNotes(), buildRecentValidationContext(userId)),
-                eligibleCardIds
-        );
-
-        RecommendationDTO recommendation = aiServiceClient.getRecommendation(recRequest);
         Long suggestedCardId = extractSuggestedCardId(recommendation);
 
-        TransactionResponse transaction = transactionService.createTransaction(
-                userId,
-                new TransactionRequest(
-                        request.getAmount(),
-                        request.getMerchant().trim(),
-                        normalizeCategory(request.getCategory()),
-                        normalizeCurrency(request.getCurrency()),
-                        request.getTransactionDate() != null ? request.getTransactionDate() : LocalDate.now(),
-                        suggestedCardId,
-                        request.getActualCardId()
-                )
-        );
+        // Stored with the category the user gave: MerchantClassifier learns from stored categories,
+        // so saving its own guess would make a wrong guess outrank the seed dictionary.
+        TransactionResponse transaction;
+        try (ServerTiming.Span ignored = ServerTiming.start("save")) {
+            transaction = transactionService.createTransaction(
+                    userId,
+                    new TransactionRequest(
+                            request.getAmount(),
+                            request.getMerchant().trim(),
+                            normalizeCategory(request.getCategory()),
+                            normalizeCurrency(request.getCurrency()),
+                            request.getTransactionDate() != null ? request.getTransactionDate() : LocalDate.now(),
+                            suggestedCardId,
+                            request.getActualCardId()
+                    )
+            );
+        }
 
         return ValidationResponseDTO.builder()
                 .transaction(transaction)
                 .recommendation(recommendation)
+                .categoryInference(categoryInference)
                 .message("Validation processed and saved.")
                 .build();
     }
 
+    private RequestFanOut.Task<String> forkHistory(RequestFanOut.Scope scope, Long userId) {
+        return scope.fork("history", () -> {
+            try (ServerTiming.Span ignored = ServerTiming.start("history")) {
+                return transactionService.buildRecentValidationContext(userId);
+            }
+        });
+    }
+
+    private CategoryInference inferCategory(Long userId, String merchant, String category) {
+        if (category != null && !category.isBlank()) {
+            return null;
+        }
+        return merchantClassifier.classify(userId, merchant).orElse(null);
+    }
+
     private String normalizeCategory(String category) {
         return (category == null || category.isBlank()) ? "general" : category;
     }
@@ -105,34 +172,4 @@ public class ValidationService {
         }
         return hasHistory ? historyContext : null;
     }
-
-    private String buildRecentValidationContext(Long userId) {
-        List<TransactionResponse> recent = transactionService.listTransactions(userId).stream()
-                .sorted(
-                        Comparator.comparing(
-                                TransactionResponse::getTransactionDate,
-                                Comparator.nullsLast(Comparator.reverseOrder())
-                        ).thenComparing(
-                                TransactionResponse::getId,
-                                Comparator.nullsLast(Comparator.reverseOrder())
-                        )
-                )
-                .limit(5)
-                .toList();
-
-        if (recent.isEmpty()) {
-            return "";
-        }
-
-        return recent.stream()
-                .map(tx -> {
-                    String merchant = tx.getMerchant() == null ? "unknown-merchant" : tx.getMerchant();
-                    String category = tx.getCategory() == null ? "general" : tx.getCategory();
-                    String currency = tx.getCurrency() == null ? "INR" : tx.getCurrency();
-                    String amount = tx.getAmount() == null ? "0" : tx.getAmount().toPlainString();
-                    return merchant + ":" + category + ":" + currency + ":" + amount;
-                })
-                .reduce((left, right) -> left + " ; " + right)
-                .orElse("");
-    }
 }
@@ -0,0 +1,82 @@
+-- Schema as previously generated by spring.jpa.hibernate.ddl-auto=update. Existing databases are
+-- baselined at this version (spring.flyway.baseline-version=1) and skip it.
+
+create table users (
+    id                bigserial primary key,
+    email             varchar(255) not null constraint uk_users_email unique,
+    password          varchar(255) not null,
+    first_name        varchar(255),
+    last_name         varchar(255),
+    profile_image_url varchar(255),
+    enabled           boolean      not null,
+    role              varchar(255) not null check (role in ('USER', 'ADMIN')),
+    created_at        timestamp(6),
+    updated_at        timestamp(6)
+);
+
+create table cards (
+    id        bigserial primary key,
+    name      varchar(255),
+    issuer    varchar(255),
+    network   varchar(255),
+    image_url varchar(255)
+);
+
+create table user_cards (
+    id               bigserial primary key,
+    user_id          bigint       not null constraint fk_user_cards_user references users,
+    card_name        varchar(255),
+    issuer           varchar(255),
+    network          varchar(255),
+    last_four_digits varchar(255),
+    active           boolean      not null,
+    doc_status       varchar(255) check (doc_status in ('NOT_UPLOADED', 'PROCESSING', 'COMPLETED', 'FAILED')),
+    docs3key         varchar(255),
+    last_analyzed_at timestamp(6) with time zone
+);
+
+create table card_reward_rules (
+    id                          bigserial primary key,
+    user_card_id                bigint                      not null
+        constraint fk_card_reward_rules_user_card references user_cards on delete cascade,
+    document_id                 bigint,
+    category                    varchar(255)                not null,
+    reward_type                 varchar(255),
+    reward_rate                 float(53),
+    points_per_unit             float(53),
+    spend_unit                  float(53),
+    point_value_rupees          float(53),
+    effective_reward_percentage float(53)                   not null,
+    conditions                  text,
+    created_at                  timestamp(6) with time zone not null
+);
+
+create table transactions (
+    id                bigserial primary key,
+    user_id           bigint constraint fk_transactions_user references users,
+    amount            numeric(38, 2),
+    merchant          varchar(255),
+    category          varchar(255),
+    currency          varchar(255),
+    transaction_date  date,
+    suggested_card_id bigint,
+    actual_card_id    bigint
+);
+
+create table uploaded_documents (
+    id            bigserial primary key,
+    user_id       bigint constraint fk_uploaded_documents_user references users,
+    s3url         varchar(255),
+    document_type varchar(255),
+    status        varchar(255) check (status in ('PENDING', 'COMPLETED', 'FAILED')),
+    ai_summary    text,
+    uploaded_at   timestamp(6)
+);
+
+create table advisor_messages (
+    id         bigserial primary key,
+    user_id    bigint        not null constraint fk_advisor_messages_user references users,
+    sender     varchar(16)   not null,
+    text       varchar(4000) not null,
+    created_at timestamp(6)  not null
+);
@@ -0,0 +1,31 @@
+-- Indexes for the per-user read paths; each matches the filter and sort of a repository query.
+-- Built CONCURRENTLY so adopting them on a populated database does not block writes; Flyway runs
+-- this script outside a transaction.
+
+-- UserCardRepository.findResponsesByUserId, and the ON DELETE path from users
+create index concurrently if not exists idx_user_cards_user_id
+    on user_cards (user_id, id);
+
+-- findActiveByUserId / findActiveIdsByUserId: only active cards, answerable from the index alone
+create index concurrently if not exists idx_user_cards_active_user_id
+    on user_cards (user_id, id) where active;
+
+-- findIdsByUserIdAndDocS3Key: the card an uploaded document belongs to
+create index concurrently if not exists idx_user_cards_user_id_docs3key
+    on user_cards (user_id, docs3key) where docs3key is not null;
+
+-- CardRewardRuleRepository.findByUserCardIdIn / deleteByUserCardId, and the cascade from user_cards
+create index concurrently if not exists idx_card_reward_rules_user_card_id
+    on card_reward_rules (user_card_id);
+
+-- TransactionRepository.findRecentSummariesByUserId (newest first, undated last) and findSummariesByUserId
+create index concurrently if not exists idx_transactions_user_id_date
+    on transactions (user_id, transaction_date desc nulls last, id desc);
+
+-- UploadedDocumentRepository.findByUserIdOrderByUploadedAtDesc
+create index concurrently if not exists idx_uploaded_documents_user_id_uploaded_at
+    on uploaded_documents (user_id, uploaded_at desc);
+
+-- AdvisorMessageRepository.findByUserIdOrderByCreatedAtAsc / deleteByUserId
+create index concurrently if not exists idx_advisor_messages_user_id_created_at
+    on advisor_messages (user_id, created_at);
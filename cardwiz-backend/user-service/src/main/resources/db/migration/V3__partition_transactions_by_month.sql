@@ -0,0 +1,59 @@
+-- Range-partitions transactions by month of transaction_date. Per-user queries then only walk the
+-- partitions still in the database, and TransactionPartitionMaintenance archives a whole month by
+-- detaching its partition. Rows dated outside every partition land in transactions_default until
+-- the maintenance job gives their month a partition of its own.
+--
+-- The primary key of a partitioned table must contain the partition key, so transaction_date
+-- becomes required: undated rows are dated today, as TransactionService now does for new ones.
+
+update transactions set transaction_date = current_date where transaction_date is null;
+
+alter table transactions rename to transactions_unpartitioned;
+alter index transactions_pkey rename to transactions_unpartitioned_pkey;
+alter index if exists idx_transactions_user_id_date rename to idx_transactions_unpartitioned_user_id_date;
+alter sequence transactions_id_seq owned by none;
+
+create table transactions (
+    id                bigint not null default nextval('transactions_id_seq'),
+    user_id           bigint constraint fk_transactions_user references users,
+    amount            numeric(38, 2),
+    merchant          varchar(255),
+    category          varchar(255),
+    currency          varchar(255),
+    transaction_date  date   not null,
+    suggested_card_id bigint,
+    actual_card_id    bigint,
+    primary key (id, transaction_date)
+) partition by range (transaction_date);
+
+alter sequence transactions_id_seq owned by transactions.id;
+
+create table transactions_default partition of transactions default;
+
+-- One partition per month that has data, plus the current month and the two after it
+do $$
+declare
+    month date;
+begin
+    for month in
+        select date_trunc('month', transaction_date)::date from transactions_unpartitioned
+        union
+        select generate_series(date_trunc('month', current_date),
+                               date_trunc('month', current_date) + interval '2 months',
+                               interval '1 month')::date
+    loop
+        execute format('create table %I partition of transactions for values from (%L) to (%L)',
+                       'transactions_p' || to_char(month, 'YYYYMM'), month, (month + interval '1 month')::date);
+    end loop;
+end $$;
+
+insert into transactions (id, user_id, amount, merchant, category, currency, transaction_date,
+                          suggested_card_id, actual_card_id)
+select id, user_id, amount, merchant, category, currency, transaction_date, suggested_card_id, actual_card_id
+from transactions_unpartitioned;
+
+drop table transactions_unpartitioned;
+
+-- Same definition as in V2; created on every partition, present and future
+create index idx_transactions_user_id_date
+    on transactions (user_id, transaction_date desc nulls last, id desc);
@@ -0,0 +1,12 @@
+-- The reward rules of each card whose embeddings ai-service holds, by content-addressed rule id.
+-- RuleEmbeddingSync diffs a re-ingested document against these rows, so only rules whose text
+-- changed are embedded again and rules that disappeared are deleted from the vector store.
+
+create table card_rule_embeddings (
+    id           bigserial primary key,
+    user_card_id bigint                      not null
+        constraint fk_card_rule_embeddings_user_card references user_cards on delete cascade,
+    rule_id      bigint                      not null,
+    synced_at    timestamp(6) with time zone not null,
+    constraint uk_card_rule_embeddings_card_rule unique (user_card_id, rule_id)
+);
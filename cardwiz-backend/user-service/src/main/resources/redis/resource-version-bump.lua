@@ -0,0 +1,12 @@
+-- Bumps one user's resource version after a committed change.
+-- KEYS[1] version key
+-- ARGV[1] key TTL in ms
+-- Versions are server time in ms, kept strictly increasing. A key lost to expiry or a flush is
+-- seeded above every version handed out before it, so an old ETag can never match again.
+local time = redis.call('TIME')
+local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+
+local current = tonumber(redis.call('GET', KEYS[1])) or 0
+local version = math.max(current + 1, now)
+redis.call('SET', KEYS[1], string.format('%d', version), 'PX', ARGV[1])
+return version
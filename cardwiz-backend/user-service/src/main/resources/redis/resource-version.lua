@@ -0,0 +1,18 @@
+-- Current versions of one user's resources, seeding missing keys with the server time.
+-- KEYS    version keys
+-- ARGV[1] key TTL in ms
+-- Returns {version, ms since that version was set} for each key, flattened in KEYS order.
+local time = redis.call('TIME')
+local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+
+local result = {}
+for _, key in ipairs(KEYS) do
+    local version = tonumber(redis.call('GET', key))
+    if version == nil then
+        version = now
+        redis.call('SET', key, string.format('%d', version), 'PX', ARGV[1])
+    end
+    table.insert(result, version)
+    table.insert(result, math.max(0, now - version))
+end
+return result
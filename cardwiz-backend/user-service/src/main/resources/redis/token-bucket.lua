@@ -0,0 +1,35 @@
+-- Token bucket, one hash per user and budget: {tokens, ts}.
+-- KEYS[1] bucket key
+-- ARGV[1] capacity (tokens), ARGV[2] refill rate (tokens per millisecond), ARGV[3] tokens requested
+-- Returns {allowed (1/0), tokens left (floored), retry-after in ms when rejected}.
+-- Time comes from the Redis server so every user-service instance refills against one clock.
+local capacity = tonumber(ARGV[1])
+local rate = tonumber(ARGV[2])
+local requested = tonumber(ARGV[3])
+
+local time = redis.call('TIME')
+local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+
+local bucket = redis.call('HMGET', KEYS[1], 'tokens', 'ts')
+local tokens = tonumber(bucket[1])
+local ts = tonumber(bucket[2])
+if tokens == nil or ts == nil then
+    tokens = capacity
+    ts = now
+end
+
+tokens = math.min(capacity, tokens + math.max(0, now - ts) * rate)
+
+local allowed = 0
+local retry_after = 0
+if tokens >= requested then
+    tokens = tokens - requested
+    allowed = 1
+else
+    retry_after = math.ceil((requested - tokens) / rate)
+end
+
+redis.call('HSET', KEYS[1], 'tokens', tostring(tokens), 'ts', tostring(now))
+redis.call('PEXPIRE', KEYS[1], math.ceil(capacity / rate) + 1000)
+
+return {allowed, math.floor(tokens), retry_after}
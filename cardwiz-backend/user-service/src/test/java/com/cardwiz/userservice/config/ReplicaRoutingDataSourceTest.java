@@ -0,0 +1,148 @@
+package com.cardwiz.userservice.config;
+
+import com.cardwiz.userservice.H2JpaTest;
+import com.cardwiz.userservice.models.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Which database serves a transaction, with two in-memory H2 databases standing in for the primary
+ * and the replica. Each read reports {@code DATABASE()}, the name of the database it ran on.
+ */
+@H2JpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:primarydb;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "app.datasource.replica.url=jdbc:h2:mem:replicadb;DB_CLOSE_DELAY=-1",
+        "app.datasource.replica.read-your-writes-window=1m"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({ReadReplicaConfig.class, ReadYourWrites.class, ReplicaRoutingDataSourceTest.Reads.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ReplicaRoutingDataSourceTest {
+
+    @Autowired
+    private Reads reads;
+
+    @AfterEach
+    void clearPrincipal() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void replicaReadsUseTheReplica() {
+        assertThat(reads.replicaRead()).isEqualTo("REPLICADB");
+    }
+
+    @Test
+    void otherTransactionsUseThePrimary() {
+        assertThat(reads.plainReadOnly()).isEqualTo("PRIMARYDB");
+        assertThat(reads.readWrite()).isEqualTo("PRIMARYDB");
+    }
+
+    @Test
+    void replicaReadJoiningAWriteUsesThePrimary() {
+        assertThat(reads.replicaReadInsideReadWrite()).isEqualTo("PRIMARYDB");
+    }
+
+    @Test
+    void userReadsTheirOwnWritesFromThePrimary() {
+        authenticateAs(41L);
+        assertThat(reads.readWrite()).isEqualTo("PRIMARYDB");
+        assertThat(reads.replicaRead()).isEqualTo("PRIMARYDB");
+
+        authenticateAs(42L);
+        assertThat(reads.replicaRead()).isEqualTo("REPLICADB");
+    }
+
+    @Test
+    void fallsBackToThePrimaryWhileTheReplicaIsDown() throws SQLException {
+        DriverManagerDataSource primary = new DriverManagerDataSource("jdbc:h2:mem:fallbackdb;DB_CLOSE_DELAY=-1");
+        DriverManagerDataSource unreachable = new DriverManagerDataSource("jdbc:h2:tcp://127.0.0.1:1/unreachable");
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primary, unreachable,
+                new ReadYourWrites("jdbc:h2:tcp://127.0.0.1:1/unreachable", Duration.ofMinutes(1)),
+                Duration.ofMinutes(1), meterRegistry);
+
+        ReplicaRoutingDataSource.bindReplicaEligible(true);
+        try {
+            assertThat(databaseName(routing)).isEqualTo("FALLBACKDB");
+            assertThat(meterRegistry.get("cardwiz.datasource.replica.reads").tag("target", "primary_fallback")
+                    .counter().count()).isEqualTo(1d);
+            // Within the retry interval the replica is not tried again
+            assertThat(routing.determineCurrentLookupKey()).isEqualTo(ReplicaRoutingDataSource.Route.PRIMARY);
+        } finally {
+            ReplicaRoutingDataSource.bindReplicaEligible(false);
+        }
+    }
+
+    private static void authenticateAs(Long userId) {
+        User user = User.builder().id(userId).email("user" + userId + "@example.com").password("x").build();
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user, null, List.of()));
+    }
+
+    private static String databaseName(ReplicaRoutingDataSource routing) throws SQLException {
+        try (Connection connection = routing.getConnection();
+             ResultSet resultSet = connection.createStatement().executeQuery("select database()")) {
+            resultSet.next();
+            return resultSet.getString(1);
+        }
+    }
+
+    static class Reads {
+
+        @PersistenceContext
+        private EntityManager entityManager;
+
+        @Autowired
+        @Lazy
+        private Reads self;
+
+        @ReplicaRead
+        public String replicaRead() {
+            return databaseName();
+        }
+
+        @Transactional(readOnly = true)
+        public String plainReadOnly() {
+            return databaseName();
+        }
+
+        @Transactional
+        public String readWrite() {
+            return databaseName();
+        }
+
+        @Transactional
+        public String replicaReadInsideReadWrite() {
+            return self.replicaRead();
+        }
+
+        private String databaseName() {
+            return (String) entityManager.createNativeQuery("select database()").getSingleResult();
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package com.cardwiz.userservice.repositories;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs every repository query against the Flyway schema on PostgreSQL, seeded with a few thousand
+ * users, and fails when the plan of any statement it issues contains a sequential scan. Plans are
+ * the generic ones ({@code plan_cache_mode = force_generic_plan}), i.e. what a prepared statement
+ * gets for an arbitrary user rather than for the seeded values.
+ * <p>
+ * Also fails if the migrations and the entity mapping disagree: the context starts with
+ * {@code ddl-auto=validate}. Skipped when Docker is not available.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "com.cardwiz.userservice.repositories.QueryPlanTest$SqlCapture"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+class QueryPlanTest {
+
+    private static final int USERS = 5_000;
+    private static final long USER_ID = 2_500L;
+    private static final Pattern POSITIONAL_PARAMETER = Pattern.compile("\\?");
+
+    @Container
+    @ServiceConnection
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserCardRepository userCardRepository;
+
+    @Autowired
+    private CardRewardRuleRepository cardRewardRuleRepository;
+
+    @Autowired
+    private CardRuleEmbeddingRepository cardRuleEmbeddingRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private UploadedDocumentRepository uploadedDocumentRepository;
+
+    @Autowired
+    private AdvisorMessageRepository advisorMessageRepository;
+
+    @Test
+    void repositoryQueriesUseIndexes() {
+        seed();
+        List<Long> cardIds = userCardRepository.findResponsesByUserId(USER_ID).stream()
+                .map(card -> card.getId())
+                .toList();
+        Long documentId = uploadedDocumentRepository.findByUserIdOrderByUploadedAtDesc(USER_ID).get(0).getId();
+
+        Map<String, Runnable> queries = new LinkedHashMap<>();
+        queries.put("UserRepository.findByEmail", () -> userRepository.findByEmail("user2500@example.com"));
+        queries.put("UserRepository.existsByEmail", () -> userRepository.existsByEmail("user2500@example.com"));
+        queries.put("UserCardRepository.findActiveByUserId", () -> userCardRepository.findActiveByUserId(USER_ID));
+        queries.put("UserCardRepository.findResponsesByUserId", () -> userCardRepository.findResponsesByUserId(USER_ID));
+        queries.put("UserCardRepository.findActiveIdsByUserId", () -> userCardRepository.findActiveIdsByUserId(USER_ID));
+        queries.put("UserCardRepository.findUserIdById", () -> userCardRepository.findUserIdById(cardIds.get(0)));
+        queries.put("UserCardRepository.findIdsByUserIdAndDocS3Key",
+                () -> userCardRepository.findIdsByUserIdAndDocS3Key(USER_ID, "documents/2500/0.pdf"));
+        queries.put("CardRewardRuleRepository.findByUserCardIdIn", () -> cardRewardRuleRepository.findByUserCardIdIn(cardIds));
+        queries.put("CardRewardRuleRepository.deleteByUserCardId", () -> cardRewardRuleRepository.deleteByUserCardId(cardIds.get(0)));
+        queries.put("CardRuleEmbeddingRepository.findRuleIdsByUserCardId",
+                () -> cardRuleEmbeddingRepository.findRuleIdsByUserCardId(cardIds.get(0)));
+        queries.put("CardRuleEmbeddingRepository.deleteByUserCardIdAndRuleIdIn",
+                () -> cardRuleEmbeddingRepository.deleteByUserCardIdAndRuleIdIn(cardIds.get(0), List.of(1L, 2L)));
+        queries.put("TransactionRepository.findSummariesByUserId", () -> transactionRepository.findSummariesByUserId(USER_ID));
+        queries.put("TransactionRepository.streamSummariesByUserId",
+                () -> transactionRepository.streamSummariesByUserId(USER_ID).forEach(row -> { }));
+        queries.put("TransactionRepository.streamPaidSummariesByUserId",
+                () -> transactionRepository.streamPaidSummariesByUserId(USER_ID).forEach(row -> { }));
+        queries.put("TransactionRepository.findRecentSummariesByUserId",
+                () -> transactionRepository.findRecentSummariesByUserId(USER_ID, Limit.of(5)));
+        queries.put("TransactionRepository.countMerchantCategoriesByUserId",
+                () -> transactionRepository.countMerchantCategoriesByUserId(USER_ID, Limit.of(1000)));
+        queries.put("TransactionRepository.sumSpendByMerchantAndCategory",
+                () -> transactionRepository.sumSpendByMerchantAndCategory(USER_ID, LocalDate.now().minusDays(365)));
+        queries.put("UploadedDocumentRepository.findByUserIdOrderByUploadedAtDesc",
+                () -> uploadedDocumentRepository.findByUserIdOrderByUploadedAtDesc(USER_ID));
+        queries.put("UploadedDocumentRepository.findByIdAndUserId",
+                () -> uploadedDocumentRepository.findByIdAndUserId(documentId, USER_ID));
+        queries.put("AdvisorMessageRepository.findByUserIdOrderByCreatedAtAsc",
+                () -> advisorMessageRepository.findByUserIdOrderByCreatedAtAsc(USER_ID));
+        queries.put("AdvisorMessageRepository.streamByUserId",
+                () -> advisorMessageRepository.streamByUserId(USER_ID).forEach(row -> { }));
+        queries.put("AdvisorMessageRepository.deleteByUserId", () -> advisorMessageRepository.deleteByUserId(USER_ID));
+
+        List<String> sequentialScans = new ArrayList<>();
+        queries.forEach((name, query) -> {
+            entityManager.clear();
+            SqlCapture.clear();
+            query.run();
+            // Derived deletes issue their DELETE statements on flush
+            entityManager.flush();
+            for (String sql : SqlCapture.statements()) {
+                String plan = explain(sql);
+                if (plan.contains("Seq Scan")) {
+                    sequentialScans.add(name + "\n  " + sql + "\n" + plan);
+                }
+            }
+        });
+
+        assertThat(sequentialScans).as("statements planned with a sequential scan").isEmpty();
+    }
+
+    private String explain(String sql) {
+        Matcher matcher = POSITIONAL_PARAMETER.matcher(sql);
+        StringBuilder numbered = new StringBuilder();
+        List<String> arguments = new ArrayList<>();
+        while (matcher.find()) {
+            arguments.add("null");
+            matcher.appendReplacement(numbered, "\\$" + arguments.size());
+        }
+        matcher.appendTail(numbered);
+
+        jdbcTemplate.execute("set local plan_cache_mode = force_generic_plan");
+        jdbcTemplate.execute("prepare plan_probe as " + numbered);
+        try {
+            String execute = arguments.isEmpty() ? "plan_probe" : "plan_probe(" + String.join(", ", arguments) + ")";
+            return String.join("\n", jdbcTemplate.queryForList("explain execute " + execute, String.class));
+        } finally {
+            jdbcTemplate.execute("deallocate plan_probe");
+        }
+    }
+
+    private void seed() {
+        jdbcTemplate.update("""
+                insert into users (id, email, password, enabled, role, created_at)
+                select g, 'user' || g || '@example.com', '$2a$10$hash', true, 'USER', now()
+                from generate_series(1, ?) g""", USERS);
+        // Four cards per user, the last one inactive; the first has an uploaded document
+        jdbcTemplate.update("""
+                insert into user_cards (user_id, card_name, issuer, network, last_four_digits, active, doc_status, docs3key)
+                select u, 'Card ' || c, 'HDFC', 'VISA', lpad(c::text, 4, '0'), c < 3,
+                       case when c = 0 then 'COMPLETED' else 'NOT_UPLOADED' end,
+                       case when c = 0 then 'documents/' || u || '/0.pdf' end
+                from generate_series(1, ?) u, generate_series(0, 3) c""", USERS);
+        jdbcTemplate.update("""
+                insert into card_reward_rules (user_card_id, category, effective_reward_percentage, created_at)
+                select id, category, 1.5, now()
+                from user_cards, unnest(array['dining', 'travel', 'fuel']) category""");
+        jdbcTemplate.update("""
+                insert into card_rule_embeddings (user_card_id, rule_id, synced_at)
+                select id, id * 8 + r, now()
+                from user_cards, generate_series(0, 2) r""");
+        // Every three days from two months back to two months ahead: rows in each monthly partition the
+        // migration creates (this month and the next two) and in the default one for earlier months
+        jdbcTemplate.update("""
+                insert into transactions (user_id, amount, merchant, category, currency, transaction_date)
+                select u, 100 + t, 'Merchant ' || t, 'dining', 'INR', current_date - 60 + 3 * t
+                from generate_series(1, ?) u, generate_series(0, 39) t""", USERS);
+        jdbcTemplate.update("""
+                insert into uploaded_documents (user_id, s3url, document_type, status, uploaded_at)
+                select u, 'documents/' || u || '/' || d || '.pdf', 'BROCHURE', 'COMPLETED', now() - d * interval '1 day'
+                from generate_series(1, ?) u, generate_series(0, 1) d""", USERS);
+        jdbcTemplate.update("""
+                insert into advisor_messages (user_id, sender, text, created_at)
+                select u, case when m % 2 = 0 then 'user' else 'bot' end, 'message ' || m, now() - m * interval '1 minute'
+                from generate_series(1, ?) u, generate_series(0, 9) m""", USERS);
+        jdbcTemplate.execute("select setval(pg_get_serial_sequence('users', 'id'), " + USERS + ")");
+        jdbcTemplate.execute("analyze");
+    }
+
+    public static class SqlCapture implements StatementInspector {
+        private static final List<String> STATEMENTS = new ArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            synchronized (STATEMENTS) {
+                STATEMENTS.add(sql);
+            }
+            return sql;
+        }
+
+        static List<String> statements() {
+            synchronized (STATEMENTS) {
+                return List.copyOf(STATEMENTS);
+            }
+        }
+
+        static void clear() {
+            synchronized (STATEMENTS) {
+                STATEMENTS.clear();
+            }
+        }
+    }
+}
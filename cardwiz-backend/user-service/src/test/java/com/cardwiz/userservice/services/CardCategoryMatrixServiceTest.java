@@ -0,0 +1,93 @@
+package com.cardwiz.userservice.services;
+
+import com.cardwiz.userservice.dtos.RecommendationDTO;
+import com.cardwiz.userservice.dtos.RecommendationRequestDTO;
+import com.cardwiz.userservice.models.CardRewardRule;
+import com.cardwiz.userservice.models.UserCard;
+import com.cardwiz.userservice.repositories.CardRewardRuleRepository;
+import com.cardwiz.userservice.repositories.UserCardRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CardCategoryMatrixServiceTest {
+
+    private static final Long USER_ID = 7L;
+
+    private final UserCardRepository userCardRepository = mock(UserCardRepository.class);
+    private final CardRewardRuleRepository cardRewardRuleRepository = mock(CardRewardRuleRepository.class);
+    private final CardCategoryMatrixService matrixService = new CardCategoryMatrixService(
+            userCardRepository,
+            cardRewardRuleRepository,
+            new RecommendationKeyCanonicalizer("100,500,2000"),
+            new ConcurrentMapCacheManager(CardCategoryMatrixService.CACHE_NAME),
+            new SimpleMeterRegistry());
+
+    private final UserCard dining = card(1L, "Dining Card");
+    private final UserCard flat = card(2L, "Flat Card");
+    private final UserCard fuel = card(3L, "Fuel Card");
+
+    @AfterEach
+    void tearDown() {
+        matrixService.shutdown();
+    }
+
+    @Test
+    void answersWhenEveryCardHasAnUnconditionalRate() {
+        stored(rule(dining, "dining", 5.0d, null), rule(flat, "general", 2.0d, "none"));
+
+        Optional<RecommendationDTO> answer = matrixService.tryRecommend(request(1L, 2L));
+
+        assertThat(answer).map(recommendation -> recommendation.getBestCard().getName()).contains("Dining Card");
+    }
+
+    @Test
+    void leavesConditionalRulesToAiService() {
+        stored(rule(dining, "dining", 5.0d, "above INR 5,000 a month, capped at INR 500"),
+                rule(flat, "general", 2.0d, null));
+
+        assertThat(matrixService.tryRecommend(request(1L, 2L))).isEmpty();
+    }
+
+    @Test
+    void leavesCardsWithoutAnApplicableRuleToAiService() {
+        // The fuel card has no dining or general rule, so its dining rate is unknown rather than 0%
+        stored(rule(dining, "dining", 5.0d, null), rule(fuel, "fuel", 4.0d, null));
+
+        assertThat(matrixService.tryRecommend(request(1L, 3L))).isEmpty();
+        assertThat(matrixService.tryRecommend(request(1L))).isPresent();
+    }
+
+    private void stored(CardRewardRule... rules) {
+        when(userCardRepository.findActiveByUserId(USER_ID)).thenReturn(List.of(dining, flat, fuel));
+        when(cardRewardRuleRepository.findByUserCardIdIn(any())).thenReturn(List.of(rules));
+    }
+
+    private static RecommendationRequestDTO request(Long... cardIds) {
+        return new RecommendationRequestDTO(USER_ID, "Truffles", "dining", new BigDecimal("1000"), "INR", null, List.of(cardIds));
+    }
+
+    private static UserCard card(Long id, String name) {
+        return UserCard.builder().id(id).cardName(name).active(true).build();
+    }
+
+    private static CardRewardRule rule(UserCard card, String category, double percentage, String conditions) {
+        return CardRewardRule.builder()
+                .userCard(card)
+                .category(category)
+                .rewardType("CASHBACK")
+                .effectiveRewardPercentage(percentage)
+                .conditions(conditions)
+                .build();
+    }
+}
@@ -0,0 +1,85 @@
+package com.cardwiz.userservice.services;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ConditionalGetTest {
+
+    private static final String ETAG = "\"cards-7-1760000000000\"";
+
+    private final ResourceVersions resourceVersions = mock(ResourceVersions.class);
+    private final ConditionalGet conditionalGet = new ConditionalGet(resourceVersions);
+    private final AtomicInteger loads = new AtomicInteger();
+    private final Supplier<List<String>> body = () -> {
+        loads.incrementAndGet();
+        return List.of("card");
+    };
+
+    @Test
+    void answersAMatchingIfNoneMatchWithoutLoadingTheBody() {
+        when(resourceVersions.etag(7L, ResourceVersions.Resource.CARDS)).thenReturn(ETAG);
+
+        ResponseEntity<List<String>> response = conditionalGet.respond(request(ETAG), 7L, ResourceVersions.Resource.CARDS, body);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(response.getHeaders().getETag()).isEqualTo(ETAG);
+        assertThat(response.hasBody()).isFalse();
+        assertThat(loads).hasValue(0);
+    }
+
+    @Test
+    void returnsTheBodyWithTheCurrentEtagOtherwise() {
+        when(resourceVersions.etag(7L, ResourceVersions.Resource.CARDS)).thenReturn(ETAG);
+
+        ResponseEntity<List<String>> response = conditionalGet.respond(
+                request("\"cards-7-1759999999999\""), 7L, ResourceVersions.Resource.CARDS, body);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getETag()).isEqualTo(ETAG);
+        assertThat(response.getHeaders().getCacheControl()).isEqualTo("no-cache, private");
+        assertThat(response.getBody()).containsExactly("card");
+    }
+
+    @Test
+    void returnsTheBodyWithoutEtagWhenTheVersionIsUnknown() {
+        ResponseEntity<List<String>> response = conditionalGet.respond(request(ETAG), 7L, ResourceVersions.Resource.CARDS, body);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getETag()).isNull();
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void sendsAnIncompleteBodyWithoutTheEtag() {
+        List<ResourceVersions.Resource> resources =
+                List.of(ResourceVersions.Resource.CARDS, ResourceVersions.Resource.COVERAGE);
+        when(resourceVersions.etag(7L, ResourceVersions.Resource.CARDS, ResourceVersions.Resource.COVERAGE)).thenReturn(ETAG);
+
+        ResponseEntity<List<String>> response = conditionalGet.respond(
+                request("W/\"cards-7-1759999999999\""), 7L, resources, etag -> body.get(), value -> false);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getETag()).isNull();
+        assertThat(response.getHeaders().getCacheControl()).isEqualTo("no-store");
+        assertThat(response.getBody()).containsExactly("card");
+    }
+
+    private static ServletWebRequest request(String ifNoneMatch) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/cards");
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        return new ServletWebRequest(request, new MockHttpServletResponse());
+    }
+}
@@ -0,0 +1,97 @@
+package com.cardwiz.userservice.services;
+
+import com.cardwiz.userservice.dtos.DashboardResponse;
+import com.cardwiz.userservice.dtos.EmbeddingCoverageResponseDTO;
+import com.cardwiz.userservice.dtos.TransactionResponse;
+import com.cardwiz.userservice.dtos.UserResponseDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DashboardServiceTest {
+
+    private static final Long USER_ID = 7L;
+    private static final String ETAG = "\"profile+cards+transactions+coverage-7-1.2.3.4\"";
+
+    private final UserService userService = mock(UserService.class);
+    private final CardService cardService = mock(CardService.class);
+    private final TransactionService transactionService = mock(TransactionService.class);
+    private final AiServiceClient aiServiceClient = mock(AiServiceClient.class);
+    private final RequestFanOut requestFanOut = new RequestFanOut();
+    private final DashboardService dashboardService = new DashboardService(
+            userService,
+            cardService,
+            transactionService,
+            aiServiceClient,
+            requestFanOut,
+            new ConcurrentMapCacheManager(DashboardService.CACHE_NAME),
+            new SimpleMeterRegistry());
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(requestFanOut, "deadline", Duration.ofSeconds(3));
+        ReflectionTestUtils.setField(dashboardService, "recentTransactions", 10);
+        UserResponseDTO profile = new UserResponseDTO();
+        profile.setId(String.valueOf(USER_ID));
+        when(userService.getUserProfile(USER_ID)).thenReturn(profile);
+        when(cardService.getCardsForUser(USER_ID)).thenReturn(List.of());
+        when(cardService.getActiveCardIds(USER_ID)).thenReturn(List.of(3L, 4L));
+        when(transactionService.listRecentTransactions(USER_ID, 10))
+                .thenReturn(List.of(TransactionResponse.builder().id(1L).build()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        requestFanOut.shutdown();
+    }
+
+    @Test
+    void assemblesOnceAndServesTheSameVersionFromTheCache() {
+        when(aiServiceClient.getEmbeddingCoverage(List.of(3L, 4L))).thenReturn(new EmbeddingCoverageResponseDTO(List.of(4L)));
+
+        DashboardResponse first = dashboardService.getDashboard(USER_ID, ETAG);
+        DashboardResponse second = dashboardService.getDashboard(USER_ID, ETAG);
+
+        assertThat(first.getKnowledgeCoverage()).isEqualTo(Map.of(3L, false, 4L, true));
+        assertThat(first.getRecentTransactions()).extracting(TransactionResponse::getId).containsExactly(1L);
+        assertThat(second).isSameAs(first);
+        verify(transactionService, times(1)).listRecentTransactions(USER_ID, 10);
+        verify(aiServiceClient, times(1)).getEmbeddingCoverage(any());
+    }
+
+    @Test
+    void servesTheRestWithoutCachingWhenCoverageFails() {
+        when(aiServiceClient.getEmbeddingCoverage(any())).thenThrow(new RuntimeException("ai-service unavailable"));
+
+        DashboardResponse dashboard = dashboardService.getDashboard(USER_ID, ETAG);
+        dashboardService.getDashboard(USER_ID, ETAG);
+
+        assertThat(dashboard.getKnowledgeCoverage()).isNull();
+        assertThat(dashboard.getProfile().getId()).isEqualTo("7");
+        verify(transactionService, times(2)).listRecentTransactions(USER_ID, 10);
+    }
+
+    @Test
+    void assemblesWithoutTheCacheWhenThereIsNoEtag() {
+        when(aiServiceClient.getEmbeddingCoverage(any())).thenReturn(new EmbeddingCoverageResponseDTO(List.of()));
+
+        dashboardService.getDashboard(USER_ID, null);
+        dashboardService.getDashboard(USER_ID, null);
+
+        verify(userService, times(2)).getUserProfile(USER_ID);
+    }
+}
@@ -0,0 +1,79 @@
+package com.cardwiz.userservice.services;
+
+import com.cardwiz.userservice.dtos.AdvisorMessageResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ExportWriterTest {
+
+    private final ExportWriter exportWriter = new ExportWriter(new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS));
+
+    private final Map<String, Function<AdvisorMessageResponse, ?>> columns = new LinkedHashMap<>();
+
+    {
+        columns.put("id", AdvisorMessageResponse::getId);
+        columns.put("sender", AdvisorMessageResponse::getSender);
+        columns.put("text", AdvisorMessageResponse::getText);
+    }
+
+    @Test
+    void writesOneJsonObjectPerLine() {
+        String body = export(ExportFormat.NDJSON, message(1L, "hi"), message(2L, "there"));
+
+        assertThat(body).isEqualTo("""
+                {"id":1,"sender":"user","text":"hi","createdAt":"2026-10-01T09:30:00"}
+                {"id":2,"sender":"user","text":"there","createdAt":"2026-10-01T09:30:00"}
+                """);
+    }
+
+    @Test
+    void quotesCsvFieldsThatNeedIt() {
+        String body = export(ExportFormat.CSV,
+                message(1L, "plain"),
+                message(2L, "a, \"quoted\"\nline"),
+                message(3L, "=HYPERLINK(\"x\")"),
+                message(4L, "-12.5"),
+                message(5L, null),
+                message(6L, "\t=1+1"),
+                message(7L, "\r42"));
+
+        assertThat(body).isEqualTo("id,sender,text\r\n"
+                + "1,user,plain\r\n"
+                + "2,user,\"a, \"\"quoted\"\"\nline\"\r\n"
+                + "3,user,\"'=HYPERLINK(\"\"x\"\")\"\r\n"
+                + "4,user,-12.5\r\n"
+                + "5,user,\r\n"
+                + "6,user,\"'\t=1+1\"\r\n"
+                + "7,user,\"'\r42\"\r\n");
+    }
+
+    @Test
+    void writesNothingButTheCsvHeaderForNoRows() {
+        assertThat(export(ExportFormat.NDJSON)).isEmpty();
+        assertThat(export(ExportFormat.CSV)).isEqualTo("id,sender,text\r\n");
+    }
+
+    private String export(ExportFormat format, AdvisorMessageResponse... rows) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportWriter.write(Stream.of(rows), format, columns, out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private static AdvisorMessageResponse message(Long id, String text) {
+        return new AdvisorMessageResponse(id, "user", text, LocalDateTime.of(2026, 10, 1, 9, 30));
+    }
+}
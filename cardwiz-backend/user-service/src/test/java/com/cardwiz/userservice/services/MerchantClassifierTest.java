@@ -0,0 +1,86 @@
+package com.cardwiz.userservice.services;
+
+import com.cardwiz.userservice.dtos.CategoryInference;
+import com.cardwiz.userservice.dtos.MerchantCategoryCount;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class MerchantClassifierTest {
+
+    private static final Long USER_ID = 42L;
+
+    private final TransactionService transactionService = mock(TransactionService.class);
+    private final MerchantClassifier classifier = new MerchantClassifier(
+            transactionService,
+            new RecommendationKeyCanonicalizer("100,500,1000"),
+            new SimpleMeterRegistry(),
+            new ClassPathResource("merchants/merchant-categories.csv"),
+            0.6d,
+            Duration.ofMinutes(10));
+
+    @Test
+    void findsBundledMerchantsInsideCardNarrations() {
+        assertThat(classifier.classify(USER_ID, "SWIGGY*ORDER 8812734 BANGALORE")).get()
+                .extracting(CategoryInference::getCategory, CategoryInference::getSource)
+                .containsExactly("dining", MerchantClassifier.SOURCE_DICTIONARY);
+        assertThat(classifier.classify(USER_ID, "POS 4411 INDIAN OIL CORP LTD")).get()
+                .extracting(CategoryInference::getCategory).isEqualTo("fuel");
+        assertThat(classifier.classify(USER_ID, "Domino's Pizza")).get()
+                .extracting(CategoryInference::getCategory).isEqualTo("dining");
+    }
+
+    @Test
+    void prefersTheLongerPatternItContains() {
+        CategoryInference video = classifier.classify(USER_ID, "Amazon Prime Video").orElseThrow();
+        CategoryInference instamart = classifier.classify(USER_ID, "Swiggy Instamart").orElseThrow();
+
+        assertThat(video.getCategory()).isEqualTo("entertainment");
+        assertThat(instamart.getCategory()).isEqualTo("grocery");
+        assertThat(instamart.getConfidence()).isBetween(0.6d, 0.9d);
+        assertThat(classifier.classify(USER_ID, "Amazon.in").orElseThrow().getCategory()).isEqualTo("online_shopping");
+    }
+
+    @Test
+    void matchesWholeWordsOnly() {
+        // "ola" and "shell" must not fire inside other words
+        assertThat(classifier.classify(USER_ID, "Motorola Service Centre")).isEmpty();
+        assertThat(classifier.classify(USER_ID, "Seashells Boutique")).isEmpty();
+    }
+
+    @Test
+    void learnsTheUsersOwnLabelsAndLoadsThemOnce() {
+        when(transactionService.countMerchantCategories(USER_ID)).thenReturn(List.of(
+                new MerchantCategoryCount("Uber", "Business Travel", 4L),
+                new MerchantCategoryCount("UBER", "dining", 1L),
+                new MerchantCategoryCount("Sharma Kirana Store", "general", 9L),
+                new MerchantCategoryCount("Corner Cafe", "grocery", 1L)));
+
+        CategoryInference uber = classifier.classify(USER_ID, "UBER TRIP HELP.UBER.COM").orElseThrow();
+        CategoryInference cafe = classifier.classify(USER_ID, "Corner Cafe").orElseThrow();
+
+        assertThat(uber.getCategory()).isEqualTo("business_travel");
+        assertThat(uber.getSource()).isEqualTo(MerchantClassifier.SOURCE_HISTORY);
+        assertThat(uber.getConfidence()).isEqualTo(0.667d);
+        // One labelled transaction is not enough on its own, and "general" labels teach nothing
+        assertThat(cafe.getCategory()).isEqualTo("dining");
+        assertThat(cafe.getSource()).isEqualTo(MerchantClassifier.SOURCE_DICTIONARY);
+        assertThat(classifier.classify(USER_ID, "Sharma Kirana Store").orElseThrow().getCategory()).isEqualTo("grocery");
+        verify(transactionService, times(1)).countMerchantCategories(USER_ID);
+    }
+
+    @Test
+    void leavesUnknownMerchantsUnclassified() {
+        assertThat(classifier.classify(USER_ID, "ZXQ Traders 99812")).isEmpty();
+        assertThat(classifier.classify(USER_ID, "  ")).isEmpty();
+    }
+}
@@ -0,0 +1,123 @@
+package com.cardwiz.userservice.services;
+
+import com.cardwiz.userservice.dtos.CardCategoryMatrix;
+import com.cardwiz.userservice.dtos.CategoryInference;
+import com.cardwiz.userservice.dtos.StatementMissedSavingsResponseDTO;
+import com.cardwiz.userservice.dtos.TransactionSummary;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class MissedSavingsCalculatorTest {
+
+    private static final Long USER_ID = 42L;
+    private static final Long DINING_CARD = 11L;
+    private static final Long FLAT_CARD = 22L;
+
+    private final TransactionService transactionService = mock(TransactionService.class);
+    private final CardCategoryMatrixService cardCategoryMatrixService = mock(CardCategoryMatrixService.class);
+    private final MerchantClassifier merchantClassifier = mock(MerchantClassifier.class);
+    private final MissedSavingsCalculator calculator = new MissedSavingsCalculator(
+            transactionService,
+            cardCategoryMatrixService,
+            merchantClassifier,
+            new RecommendationKeyCanonicalizer("100,500,1000"),
+            2,
+            2);
+
+    @AfterEach
+    void tearDown() {
+        calculator.shutdown();
+    }
+
+    @Test
+    void comparesEachPaidTransactionWithTheBestActiveCard() {
+        // The dining card earns 5% on dining and 1% elsewhere, with conditions; the flat card 1.5% everywhere
+        when(cardCategoryMatrixService.getMatrix(USER_ID)).thenReturn(new CardCategoryMatrix(
+                new long[]{DINING_CARD, FLAT_CARD},
+                new String[]{"Dining Card", "Flat Card"},
+                new String[]{"dining", "general"},
+                new int[]{0, 2, 4},
+                new int[]{0, 1, 1, 0},
+                new int[]{500, 150, 150, 100},
+                new byte[]{1, 1, 1, 1},
+                new boolean[]{true, true, true, true},
+                new boolean[]{false, true},
+                0L));
+        when(merchantClassifier.classify(eq(USER_ID), anyString())).thenReturn(Optional.empty());
+        when(merchantClassifier.classify(USER_ID, "Swiggy"))
+                .thenReturn(Optional.of(new CategoryInference("dining", 0.9d, MerchantClassifier.SOURCE_DICTIONARY)));
+        stored(
+                transaction(1L, "1000", "Dining", "Truffles", FLAT_CARD, "INR"),
+                transaction(2L, "200", null, "Swiggy", DINING_CARD, "INR"),
+                transaction(3L, "1000", "general", "Sharma Kirana Store", DINING_CARD, null),
+                transaction(4L, "-500", "dining", "Truffles", FLAT_CARD, "INR"),
+                transaction(5L, "100", "dining", "Nobu", DINING_CARD, "USD"),
+                transaction(6L, "300", "dining", "Truffles", 99L, "INR"),
+                transaction(7L, "500", "general", "Petrol Pump", FLAT_CARD, "INR"));
+
+        StatementMissedSavingsResponseDTO response = calculator.calculate(USER_ID, "inr", 30);
+
+        // Refund, other currency and the card that is no longer active are left out; only the petrol
+        // pump involves no card with conditions
+        assertThat(response.getSummary()).isEqualTo(
+                new StatementMissedSavingsResponseDTO.Summary(4, 2700.0d, 42.5d, 82.5d, 40.0d, "INR", 3));
+        assertThat(response.getTransactions())
+                .extracting(StatementMissedSavingsResponseDTO.TransactionRow::getMerchant,
+                        StatementMissedSavingsResponseDTO.TransactionRow::getActualCardId,
+                        StatementMissedSavingsResponseDTO.TransactionRow::getOptimalCardName,
+                        StatementMissedSavingsResponseDTO.TransactionRow::getMissedValue,
+                        StatementMissedSavingsResponseDTO.TransactionRow::getEstimate)
+                .containsExactly(
+                        tuple("Truffles", FLAT_CARD, "Dining Card", 35.0d, true),
+                        tuple("Sharma Kirana Store", DINING_CARD, "Flat Card", 5.0d, true));
+        assertThat(response.getTransactions().get(0).getActualRewardSource()).isEqualTo(MissedSavingsCalculator.REWARD_SOURCE);
+        assertThat(response.getStatementS3Key()).isNull();
+
+        StatementMissedSavingsResponseDTO top = calculator.calculate(USER_ID, "INR", 1);
+        assertThat(top.getSummary().getTotalMissedSavings()).isEqualTo(40.0d);
+        assertThat(top.getTransactions()).extracting(StatementMissedSavingsResponseDTO.TransactionRow::getDate)
+                .containsExactly("2024-03-01");
+    }
+
+    @Test
+    void rejectsRowLimitsOutsideTheCap() {
+        assertThatThrownBy(() -> calculator.calculate(USER_ID, "INR", 0)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> calculator.calculate(USER_ID, "INR", MissedSavingsCalculator.MAX_ROWS + 1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void stored(TransactionSummary... transactions) {
+        when(transactionService.forEachPaidBatch(eq(USER_ID), anyInt(), any())).thenAnswer(invocation -> {
+            int batchSize = invocation.getArgument(1);
+            Consumer<List<TransactionSummary>> batches = invocation.getArgument(2);
+            List<TransactionSummary> rows = List.of(transactions);
+            for (int from = 0; from < rows.size(); from += batchSize) {
+                batches.accept(rows.subList(from, Math.min(rows.size(), from + batchSize)));
+            }
+            return (long) rows.size();
+        });
+    }
+
+    private static TransactionSummary transaction(Long id, String amount, String category, String merchant,
+                                                  Long actualCardId, String currency) {
+        return new TransactionSummary(id, new BigDecimal(amount), merchant, category, currency,
+                LocalDate.of(2024, 3, id.intValue()), null, actualCardId);
+    }
+}
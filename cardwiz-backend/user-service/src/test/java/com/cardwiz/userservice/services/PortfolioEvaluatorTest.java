@@ -0,0 +1,99 @@
+package com.cardwiz.userservice.services;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PortfolioEvaluatorTest {
+
+    private static final ForkJoinPool POOL = new ForkJoinPool(4);
+
+    @AfterAll
+    static void shutdown() {
+        POOL.shutdownNow();
+    }
+
+    @Test
+    void routesEachCategoryToTheBestKeptCard() {
+        // Spend (paise) in dining, fuel, travel; card 0 is a dining card, 1 a fuel card, 2 earns 1% everywhere
+        long[] spend = {50_000_00L, 20_000_00L, 30_000_00L};
+        int[][] rates = {
+                {500, 100, 100},
+                {100, 400, 100},
+                {100, 100, 100}
+        };
+        PortfolioEvaluator evaluator = new PortfolioEvaluator(spend, rates);
+
+        PortfolioEvaluator.Result result = evaluator.search(POOL, 2, 3);
+
+        assertThat(result.best()).extracting(subset -> Arrays.toString(subset.cards()))
+                .containsExactly("[0, 1]", "[0, 2]", "[1, 2]");
+        // 5% of 50k + 4% of 20k + 1% of 30k = 3,600 rupees
+        assertThat(result.best().get(0).value()).isEqualTo(3_600L * 100 * 10_000);
+        assertThat(evaluator.bestCard(result.best().get(0).cards(), 2)).isEqualTo(0);
+        assertThat(result.evaluated() + result.pruned()).isEqualTo(3);
+    }
+
+    @Test
+    void matchesExhaustiveSearchWhilePruning() {
+        Random random = new Random(7);
+        long pruned = 0;
+        for (int run = 0; run < 20; run++) {
+            int cards = 8 + random.nextInt(10);
+            int categories = 5 + random.nextInt(20);
+            long[] spend = new long[categories];
+            int[][] rates = new int[cards][categories];
+            for (int c = 0; c < categories; c++) {
+                spend[c] = random.nextInt(1_000_000_00);
+                for (int card = 0; card < cards; card++) {
+                    rates[card][c] = random.nextInt(4) == 0 ? 100 + random.nextInt(900) : random.nextInt(150);
+                }
+            }
+            int size = 1 + random.nextInt(Math.min(cards, 5));
+            PortfolioEvaluator evaluator = new PortfolioEvaluator(spend, rates);
+
+            PortfolioEvaluator.Result result = evaluator.search(POOL, size, 3);
+
+            List<long[]> expected = exhaustive(evaluator, cards, size);
+            assertThat(result.best()).extracting(PortfolioEvaluator.Subset::value)
+                    .containsExactly(expected.get(0)[0], expected.get(1)[0], expected.get(2)[0]);
+            assertThat(result.evaluated() + result.pruned()).isEqualTo(PortfolioEvaluator.binomial(cards, size));
+            pruned += result.pruned();
+        }
+        assertThat(pruned).isPositive();
+    }
+
+    @Test
+    void rejectsSubsetsLargerThanThePortfolio() {
+        PortfolioEvaluator evaluator = new PortfolioEvaluator(new long[]{100L}, new int[][]{{100}});
+
+        assertThatThrownBy(() -> evaluator.search(POOL, 2, 1)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static List<long[]> exhaustive(PortfolioEvaluator evaluator, int cards, int size) {
+        List<long[]> values = new ArrayList<>();
+        for (int mask = 0; mask < 1 << cards; mask++) {
+            if (Integer.bitCount(mask) != size) {
+                continue;
+            }
+            int[] subset = new int[size];
+            for (int card = 0, i = 0; card < cards; card++) {
+                if ((mask & 1 << card) != 0) {
+                    subset[i++] = card;
+                }
+            }
+            values.add(new long[]{evaluator.value(subset)});
+        }
+        values.sort(Comparator.comparingLong((long[] value) -> value[0]).reversed());
+        return values;
+    }
+}
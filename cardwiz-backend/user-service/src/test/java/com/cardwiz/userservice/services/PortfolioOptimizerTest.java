@@ -0,0 +1,75 @@
+package com.cardwiz.userservice.services;
+
+import com.cardwiz.userservice.dtos.CardCategoryMatrix;
+import com.cardwiz.userservice.dtos.MerchantCategorySpend;
+import com.cardwiz.userservice.dtos.PortfolioOptimizationResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PortfolioOptimizerTest {
+
+    private static final Long USER_ID = 42L;
+    private static final Long CAPPED_CARD = 11L;
+    private static final Long FLAT_CARD = 22L;
+
+    private final TransactionService transactionService = mock(TransactionService.class);
+    private final CardService cardService = mock(CardService.class);
+    private final CardCategoryMatrixService cardCategoryMatrixService = mock(CardCategoryMatrixService.class);
+    private final PortfolioOptimizer optimizer = new PortfolioOptimizer(
+            transactionService,
+            cardService,
+            cardCategoryMatrixService,
+            mock(MerchantClassifier.class),
+            new RecommendationKeyCanonicalizer("100,500,1000"),
+            Duration.ofDays(365),
+            Duration.ofDays(30),
+            2);
+
+    @AfterEach
+    void tearDown() {
+        optimizer.shutdown();
+    }
+
+    @Test
+    void marksWhateverIsRoutedToACardWithConditionalRulesAsAnEstimate() {
+        // The capped card earns 5% on dining and 1% elsewhere but has conditions; the flat card 1.5% everywhere
+        when(cardCategoryMatrixService.getMatrix(USER_ID)).thenReturn(new CardCategoryMatrix(
+                new long[]{CAPPED_CARD, FLAT_CARD},
+                new String[]{"Capped Card", "Flat Card"},
+                new String[]{"dining", "general"},
+                new int[]{0, 2, 4},
+                new int[]{0, 1, 1, 0},
+                new int[]{500, 150, 150, 100},
+                new byte[]{1, 1, 1, 1},
+                new boolean[]{true, true, true, true},
+                new boolean[]{false, true},
+                0L));
+        when(cardService.getActiveCardIds(USER_ID)).thenReturn(List.of(CAPPED_CARD, FLAT_CARD));
+        LocalDate yearAgo = LocalDate.now().minusDays(364);
+        when(transactionService.sumSpend(eq(USER_ID), any())).thenReturn(List.of(
+                new MerchantCategorySpend("Truffles", "dining", new BigDecimal("10000"), 10L, yearAgo),
+                new MerchantCategorySpend("Kirana", "grocery", new BigDecimal("1000"), 5L, yearAgo)));
+
+        PortfolioOptimizationResponse response = optimizer.optimize(USER_ID, 1, 2);
+
+        assertThat(response.getCardsWithConditionalRules()).containsExactly(CAPPED_CARD);
+        assertThat(response.getCards())
+                .extracting(PortfolioOptimizationResponse.CardValue::getCardId, PortfolioOptimizationResponse.CardValue::isEstimate)
+                .containsExactly(tuple(CAPPED_CARD, true), tuple(FLAT_CARD, false));
+        assertThat(response.getPortfolios())
+                .extracting(PortfolioOptimizationResponse.Portfolio::getCardIds, PortfolioOptimizationResponse.Portfolio::isEstimate)
+                .containsExactly(tuple(List.of(CAPPED_CARD), true), tuple(List.of(FLAT_CARD), false));
+    }
+}
@@ -0,0 +1,223 @@
+package com.cardwiz.userservice.services;
+
+import com.cardwiz.userservice.H2JpaTest;
+import com.cardwiz.userservice.config.ReadYourWrites;
+import com.cardwiz.userservice.dtos.DocumentJobStatusDTO;
+import com.cardwiz.userservice.dtos.TransactionResponse;
+import com.cardwiz.userservice.dtos.UserCardResponse;
+import com.cardwiz.userservice.models.DocumentStatus;
+import com.cardwiz.userservice.models.ProcessingStatus;
+import com.cardwiz.userservice.models.Transaction;
+import com.cardwiz.userservice.models.UploadedDocument;
+import com.cardwiz.userservice.models.User;
+import com.cardwiz.userservice.models.UserCard;
+import com.cardwiz.userservice.models.UserRole;
+import com.cardwiz.userservice.repositories.UserCardRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * SQL statements issued by the read path of each card, transaction and document endpoint. Each
+ * read is one statement that never touches the {@code users} table: the {@code User} associations
+ * are lazy and list reads select projections.
+ */
+@H2JpaTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "com.cardwiz.userservice.services.ReadPathStatementCountTest$SqlCapture"
+})
+@Import({CardService.class, TransactionService.class, ReadYourWrites.class})
+class ReadPathStatementCountTest {
+
+    @MockBean
+    private CardCategoryMatrixService cardCategoryMatrixService;
+
+    @MockBean
+    private TransactionArchive transactionArchive;
+
+    @MockBean
+    private ExportWriter exportWriter;
+
+    @MockBean
+    private ResourceVersions resourceVersions;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private CardService cardService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private UserCardRepository userCardRepository;
+
+    private Long userId;
+    private Long cardId;
+    private Long transactionId;
+    private Long documentId;
+
+    @BeforeEach
+    void setUp() {
+        User user = entityManager.persist(User.builder()
+                .email("reader@example.com")
+                .password("$2a$10$hash")
+                .enabled(true)
+                .role(UserRole.USER)
+                .build());
+        userId = user.getId();
+
+        for (int i = 0; i < 4; i++) {
+            UserCard card = entityManager.persist(UserCard.builder()
+                    .user(user)
+                    .cardName("Card " + i)
+                    .issuer("HDFC")
+                    .network("VISA")
+                    .lastFourDigits("000" + i)
+                    .active(i != 3)
+                    .docStatus(DocumentStatus.COMPLETED)
+                    .docS3Key("documents/" + i + ".pdf")
+                    .build());
+            if (i == 0) {
+                cardId = card.getId();
+            }
+        }
+        for (int i = 0; i < 8; i++) {
+            Transaction tx = entityManager.persist(Transaction.builder()
+                    .user(user)
+                    .amount(BigDecimal.valueOf(100 + i))
+                    .merchant("Merchant " + i)
+                    .category("dining")
+                    .currency("INR")
+                    .transactionDate(i == 7 ? null : LocalDate.of(2026, 10, 1 + i))
+                    .build());
+            transactionId = tx.getId();
+        }
+        documentId = entityManager.persist(UploadedDocument.builder()
+                .user(user)
+                .s3Url("documents/2.pdf")
+                .documentType("BROCHURE")
+                .status(ProcessingStatus.COMPLETED)
+                .build()).getId();
+
+        entityManager.flush();
+        entityManager.clear();
+        statistics().clear();
+        SqlCapture.clear();
+    }
+
+    @Test
+    void listCards() {
+        List<UserCardResponse> cards = assertSingleStatement(() -> cardService.getCardsForUser(userId));
+        assertThat(cards).hasSize(4);
+    }
+
+    @Test
+    void getCard() {
+        UserCardResponse card = assertSingleStatement(() -> cardService.getCard(userId, cardId));
+        assertThat(card.getId()).isEqualTo(cardId);
+    }
+
+    @Test
+    void activeCardIds() {
+        List<Long> ids = assertSingleStatement(() -> cardService.getActiveCardIds(userId));
+        assertThat(ids).hasSize(3);
+    }
+
+    @Test
+    void activeCardsForCategoryMatrix() {
+        List<UserCard> cards = assertSingleStatement(() -> userCardRepository.findActiveByUserId(userId));
+        assertThat(cards).hasSize(3);
+    }
+
+    @Test
+    void listTransactions() {
+        List<TransactionResponse> transactions = assertSingleStatement(() -> transactionService.listTransactions(userId));
+        assertThat(transactions).hasSize(8);
+    }
+
+    @Test
+    void getTransaction() {
+        TransactionResponse transaction = assertSingleStatement(() -> transactionService.getTransaction(userId, transactionId));
+        assertThat(transaction.getId()).isEqualTo(transactionId);
+    }
+
+    @Test
+    void recentValidationContext() {
+        String context = assertSingleStatement(() -> transactionService.buildRecentValidationContext(userId));
+        // Newest five dated transactions; the undated one sorts last and is cut by the limit
+        assertThat(context.split(" ; "))
+                .extracting(entry -> entry.substring(0, entry.indexOf(':')))
+                .containsExactly("Merchant 6", "Merchant 5", "Merchant 4", "Merchant 3", "Merchant 2");
+    }
+
+    @Test
+    void documentJobStatus() {
+        DocumentJobStatusDTO status = cardService.getDocumentJobStatus(userId, documentId);
+
+        assertThat(status.getCardId()).isNotNull();
+        assertThat(statistics().getPrepareStatementCount()).isEqualTo(2);
+        assertThat(SqlCapture.statements()).noneMatch(ReadPathStatementCountTest::readsUsers);
+    }
+
+    private <T> T assertSingleStatement(Supplier<T> read) {
+        T result = read.get();
+        assertThat(statistics().getPrepareStatementCount())
+                .as("statements: %s", SqlCapture.statements())
+                .isEqualTo(1);
+        assertThat(SqlCapture.statements()).noneMatch(ReadPathStatementCountTest::readsUsers);
+        return result;
+    }
+
+    private Statistics statistics() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    private static boolean readsUsers(String sql) {
+        return sql.toLowerCase().matches("(?s).*\\b(from|join)\\s+users\\b.*");
+    }
+
+    public static class SqlCapture implements StatementInspector {
+        private static final List<String> STATEMENTS = new ArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            synchronized (STATEMENTS) {
+                STATEMENTS.add(sql);
+            }
+            return sql;
+        }
+
+        static List<String> statements() {
+            synchronized (STATEMENTS) {
+                return List.copyOf(STATEMENTS);
+            }
+        }
+
+        static void clear() {
+            synchronized (STATEMENTS) {
+                STATEMENTS.clear();
+            }
+        }
+    }
+}
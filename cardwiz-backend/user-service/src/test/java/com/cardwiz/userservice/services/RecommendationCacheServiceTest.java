@@ -0,0 +1,121 @@
+package com.cardwiz.userservice.services;
+
+import com.cardwiz.userservice.dtos.CardCategoryMatrix;
+import com.cardwiz.userservice.dtos.RecommendationDTO;
+import com.cardwiz.userservice.dtos.RecommendationRequestDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RecommendationCacheServiceTest {
+
+    private static final Long USER_ID = 7L;
+
+    private final AiServiceClient aiServiceClient = mock(AiServiceClient.class);
+    private final CardCategoryMatrixService cardCategoryMatrixService = mock(CardCategoryMatrixService.class);
+    private final RecommendationCacheService cacheService = new RecommendationCacheService(
+            aiServiceClient,
+            new ConcurrentMapCacheManager(RecommendationCacheService.CACHE_NAME),
+            mock(StringRedisTemplate.class),
+            new RecommendationKeyCanonicalizer("100,500,2000"),
+            cardCategoryMatrixService,
+            new SimpleMeterRegistry());
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(cacheService, "softTtl", Duration.ofMinutes(8));
+        ReflectionTestUtils.setField(cacheService, "xfetchBeta", 1.0d);
+        when(aiServiceClient.getRecommendation(any())).thenReturn(recommendationFor1000());
+    }
+
+    @AfterEach
+    void tearDown() {
+        cacheService.shutdown();
+    }
+
+    @Test
+    void rescalesWithinTheBandAndLabelsTheModelsReasoning() {
+        when(cardCategoryMatrixService.getMatrix(USER_ID)).thenReturn(matrix(true, true));
+
+        cacheService.getRecommendation(request("1000"));
+        RecommendationDTO rescaled = cacheService.getRecommendation(request("1200"));
+
+        verify(aiServiceClient, times(1)).getRecommendation(any());
+        RecommendationDTO.BestCard bestCard = rescaled.getBestCard();
+        assertThat(bestCard.getRewards().getEstimatedValue()).isEqualTo(60.0d);
+        assertThat(bestCard.getCalculationLogic()).isEqualTo("INR 1200.00 x 5.00% = INR 60.00");
+        assertThat(rescaled.getComparisonTable().get(0).getEstimatedValue()).isEqualTo(24.0d);
+        assertThat(rescaled.getBestOption().getEstimatedReward())
+                .isEqualTo("For INR 1,200 spent, you would earn: INR 60.00 (5.00%).");
+        assertThat(rescaled.getAlternatives().get(0).getEstimatedReward())
+                .isEqualTo("For INR 1,200 spent, you would earn: INR 24.00 (2.00%).");
+
+        // What the model wrote stays as written, labelled with the amount it was written for
+        assertThat(bestCard.getReasoning())
+                .containsExactly("Dining Card earns the most on dining.", "You earn INR 50.00 on INR 1,000.");
+        assertThat(rescaled.getBestOption().getReasoning())
+                .isEqualTo("Dining Card earns the most on dining. You earn INR 50.00 on INR 1,000.");
+        assertThat(rescaled.getAlternatives().get(0).getReasoning()).isEqualTo("Lower rate.");
+        assertThat(rescaled.getTransactionContext().getSpendAmount()).isEqualTo(1200.0d);
+        assertThat(rescaled.getTransactionContext().getReasoningSpendAmount()).isEqualTo(1000.0d);
+    }
+
+    @Test
+    void keysOnTheExactAmountWhenARuleHasConditions() {
+        when(cardCategoryMatrixService.getMatrix(USER_ID)).thenReturn(matrix(true, false));
+
+        cacheService.getRecommendation(request("1000"));
+        cacheService.getRecommendation(request("1200"));
+        cacheService.getRecommendation(request("1000.00"));
+
+        verify(aiServiceClient, times(2)).getRecommendation(any());
+    }
+
+    private static CardCategoryMatrix matrix(boolean diningLinear, boolean flatLinear) {
+        CardCategoryMatrix matrix = new CardCategoryMatrix();
+        matrix.setCardIds(new long[]{1L, 2L});
+        matrix.setLinearCards(new boolean[]{diningLinear, flatLinear});
+        return matrix;
+    }
+
+    private static RecommendationRequestDTO request(String amount) {
+        return new RecommendationRequestDTO(USER_ID, "Truffles", "dining", new BigDecimal(amount), "INR", null, List.of(1L, 2L));
+    }
+
+    private static RecommendationDTO recommendationFor1000() {
+        List<String> reasoning = List.of("Dining Card earns the most on dining.", "You earn INR 50.00 on INR 1,000.");
+        return new RecommendationDTO(
+                new RecommendationDTO.CardRecommendation(1L, "Dining Card",
+                        "For INR 1,000 spent, you would earn: INR 50.00 worth of rewards (5.00%).",
+                        String.join(" ", reasoning), 0.85d),
+                List.of(new RecommendationDTO.CardRecommendation(2L, "Flat Card",
+                        "For INR 1,000 spent, you would earn: INR 20.00 (2.00%).", "Lower rate.", 0.6d)),
+                null,
+                "rec_1",
+                new RecommendationDTO.TransactionContext("Truffles", "dining", 1000.0d, "INR", null),
+                new RecommendationDTO.BestCard(1L, "Dining Card", "WINNER",
+                        new RecommendationDTO.Rewards(50.0d, "INR", 5.0d, "CASHBACK", null),
+                        "Cashback 5.00% on INR 1,000. Estimated value = INR 50.00.", reasoning, null),
+                List.of(new RecommendationDTO.ComparisonRow("Flat Card", 2.0d, 20.0d, "Lower rate.")),
+                List.of(1L, 2L),
+                List.of(),
+                Boolean.TRUE,
+                "rag",
+                null);
+    }
+}
@@ -0,0 +1,77 @@
+package com.cardwiz.userservice.services;
+
+import com.cardwiz.userservice.config.ReadYourWrites;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+
+class ResourceVersionsTest {
+
+    private static final Long USER_ID = 7L;
+
+    private final StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+    private final ResourceVersions resourceVersions =
+            new ResourceVersions(redisTemplate, mock(ReadYourWrites.class), "", Duration.ofSeconds(5));
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(resourceVersions, "versionTtl", Duration.ofDays(30));
+        doReturn(List.of(1_760_000_000_000L, 60_000L))
+                .when(redisTemplate).execute(argThat(script -> script != null && List.class.equals(script.getResultType())), anyList(), any());
+    }
+
+    @Test
+    void sendsNoEtagAfterAFailedBumpUntilARetrySucceeds() {
+        redisDown();
+        resourceVersions.bump(USER_ID, ResourceVersions.Resource.CARDS);
+
+        // The old version is still in Redis, but answering 304 with it would hide the change
+        assertThat(resourceVersions.etag(USER_ID, ResourceVersions.Resource.CARDS)).isNull();
+        assertThat(resourceVersions.etag(USER_ID, ResourceVersions.Resource.PROFILE)).isNotNull();
+
+        redisUp();
+        assertThat(resourceVersions.etag(USER_ID, ResourceVersions.Resource.CARDS))
+                .isEqualTo("\"cards-7-1760000000000\"");
+    }
+
+    @Test
+    void retriesFailedBumpsInTheBackground() {
+        redisDown();
+        resourceVersions.bump(USER_ID, ResourceVersions.Resource.TRANSACTIONS);
+        resourceVersions.retryFailedBumps();
+        assertThat(resourceVersions.etag(USER_ID, ResourceVersions.Resource.TRANSACTIONS)).isNull();
+
+        redisUp();
+        resourceVersions.retryFailedBumps();
+        // Redis goes down for bumps again: the read no longer needs one
+        redisDown();
+        assertThat(resourceVersions.etag(USER_ID, ResourceVersions.Resource.TRANSACTIONS)).isNotNull();
+    }
+
+    private void redisDown() {
+        doThrow(new RedisConnectionFailureException("Redis is down"))
+                .when(redisTemplate).execute(isBump(), anyList(), any());
+    }
+
+    private void redisUp() {
+        doReturn(1_760_000_000_001L).when(redisTemplate).execute(isBump(), anyList(), any());
+    }
+
+    private static RedisScript<Long> isBump() {
+        return argThat(script -> script != null && Long.class.equals(script.getResultType()));
+    }
+}
@@ -0,0 +1,173 @@
+package com.cardwiz.userservice.services;
+
+import com.cardwiz.userservice.H2JpaTest;
+import com.cardwiz.userservice.dtos.AiResponseDTO;
+import com.cardwiz.userservice.dtos.RuleEmbeddingSyncRequestDTO;
+import com.cardwiz.userservice.dtos.RuleEmbeddingSyncResponseDTO;
+import com.cardwiz.userservice.models.CardRuleEmbedding;
+import com.cardwiz.userservice.repositories.CardRuleEmbeddingRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Diffing a card's rules against the set recorded at its last sync, against H2 (each sync commits
+ * on its own, hence no test transaction). H2 has no advisory locks, so the card lock is a no-op.
+ */
+@H2JpaTest(properties = "spring.jpa.show-sql=false")
+@Import(RuleEmbeddingSync.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class RuleEmbeddingSyncTest {
+
+    private static final Long CARD_ID = 7L;
+
+    @MockBean
+    private AiServiceClient aiServiceClient;
+
+    @MockBean
+    private ResourceVersions resourceVersions;
+
+    @Autowired
+    private RuleEmbeddingSync ruleEmbeddingSync;
+
+    @Autowired
+    private CardRuleEmbeddingRepository cardRuleEmbeddingRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final AiResponseDTO.ExtractedRuleDTO dining = rule("dining", 5.0d, "weekends only");
+    private final AiResponseDTO.ExtractedRuleDTO fuel = rule("fuel", 1.0d, null);
+    private final AiResponseDTO.ExtractedRuleDTO travel = rule("travel", 2.0d, null);
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.execute("create alias if not exists pg_advisory_xact_lock as 'void lock(long key) {}'");
+    }
+
+    @AfterEach
+    void tearDown() {
+        cardRuleEmbeddingRepository.deleteAll();
+    }
+
+    @Test
+    void reIngestionSendsOnlyChangedAddedAndRemovedRules() {
+        when(aiServiceClient.syncRuleEmbeddings(any())).thenReturn(new RuleEmbeddingSyncResponseDTO(CARD_ID, 0, 0));
+        ruleEmbeddingSync.sync(CARD_ID, List.of(dining, fuel, travel));
+        RuleEmbeddingSyncRequestDTO first = lastRequest();
+        reset(aiServiceClient);
+
+        // Same terms, re-extracted in another order: nothing to send
+        ruleEmbeddingSync.sync(CARD_ID, List.of(travel, rule("dining", 5.0d, "weekends only"), fuel));
+        verify(aiServiceClient, never()).syncRuleEmbeddings(any());
+
+        // Dining changes, fuel is gone, lounge is new
+        AiResponseDTO.ExtractedRuleDTO newDining = rule("dining", 10.0d, "weekends only");
+        AiResponseDTO.ExtractedRuleDTO lounge = rule("lounge", 0.0d, "4 visits a year");
+        ruleEmbeddingSync.sync(CARD_ID, List.of(newDining, travel, lounge));
+        RuleEmbeddingSyncRequestDTO second = lastRequest();
+
+        assertThat(first.isReplace()).isTrue();
+        assertThat(first.getUpserts()).hasSize(3);
+        assertThat(second.isReplace()).isFalse();
+        assertThat(second.getUpserts()).extracting(RuleEmbeddingSyncRequestDTO.RuleDTO::getRuleId)
+                .containsExactly(ruleId(newDining), ruleId(lounge));
+        assertThat(second.getDeleteRuleIds()).containsExactlyInAnyOrder(ruleId(dining), ruleId(fuel));
+        assertThat(cardRuleEmbeddingRepository.findRuleIdsByUserCardId(CARD_ID))
+                .containsExactlyInAnyOrder(ruleId(newDining), ruleId(travel), ruleId(lounge));
+    }
+
+    @Test
+    void keepsTheRecordWhenAiServiceFails() {
+        when(aiServiceClient.syncRuleEmbeddings(any())).thenThrow(new RuntimeException("ai-service unavailable"));
+
+        assertThatThrownBy(() -> ruleEmbeddingSync.sync(CARD_ID, List.of(dining)))
+                .hasMessageContaining("unavailable");
+
+        assertThat(cardRuleEmbeddingRepository.findRuleIdsByUserCardId(CARD_ID)).isEmpty();
+    }
+
+    @Test
+    void diffsAgainWhenAnotherSyncRecordedFirst() {
+        AtomicLong calls = new AtomicLong();
+        when(aiServiceClient.syncRuleEmbeddings(any())).thenAnswer(invocation -> {
+            // Another instance records its own sync of the card while this one is embedding
+            if (calls.incrementAndGet() == 1) {
+                recordedElsewhere(ruleId(fuel));
+            }
+            return new RuleEmbeddingSyncResponseDTO(CARD_ID, 0, 0);
+        });
+
+        ruleEmbeddingSync.sync(CARD_ID, List.of(dining, travel));
+
+        ArgumentCaptor<RuleEmbeddingSyncRequestDTO> requests = ArgumentCaptor.forClass(RuleEmbeddingSyncRequestDTO.class);
+        verify(aiServiceClient, times(2)).syncRuleEmbeddings(requests.capture());
+        RuleEmbeddingSyncRequestDTO retry = requests.getAllValues().get(1);
+        assertThat(retry.isReplace()).isFalse();
+        assertThat(retry.getDeleteRuleIds()).containsExactly(ruleId(fuel));
+        assertThat(cardRuleEmbeddingRepository.findRuleIdsByUserCardId(CARD_ID))
+                .containsExactlyInAnyOrder(ruleId(dining), ruleId(travel));
+    }
+
+    @Test
+    void clearsTheRecordWhenItKeepsChanging() {
+        AtomicLong otherRuleId = new AtomicLong();
+        when(aiServiceClient.syncRuleEmbeddings(any())).thenAnswer(invocation -> {
+            recordedElsewhere(otherRuleId.incrementAndGet());
+            return new RuleEmbeddingSyncResponseDTO(CARD_ID, 0, 0);
+        });
+
+        assertThatThrownBy(() -> ruleEmbeddingSync.sync(CARD_ID, List.of(dining)))
+                .isInstanceOf(IllegalStateException.class);
+
+        verify(aiServiceClient, times(3)).syncRuleEmbeddings(any());
+        assertThat(cardRuleEmbeddingRepository.findRuleIdsByUserCardId(CARD_ID)).isEmpty();
+    }
+
+    @Test
+    void ruleIdsAreStablePerCardAndContent() {
+        String content = RewardRules.buildRuleContentText(dining);
+
+        assertThat(RuleEmbeddingSync.ruleId(CARD_ID, content)).isEqualTo(RuleEmbeddingSync.ruleId(CARD_ID, content));
+        assertThat(RuleEmbeddingSync.ruleId(CARD_ID, content)).isNotEqualTo(RuleEmbeddingSync.ruleId(8L, content));
+        assertThat(RuleEmbeddingSync.ruleContents(CARD_ID, List.of(dining, rule("dining", 5.0d, "weekends only"))))
+                .hasSize(1);
+    }
+
+    private void recordedElsewhere(long ruleId) {
+        cardRuleEmbeddingRepository.save(CardRuleEmbedding.builder().userCardId(CARD_ID).ruleId(ruleId).build());
+    }
+
+    private RuleEmbeddingSyncRequestDTO lastRequest() {
+        ArgumentCaptor<RuleEmbeddingSyncRequestDTO> request = ArgumentCaptor.forClass(RuleEmbeddingSyncRequestDTO.class);
+        verify(aiServiceClient, times(1)).syncRuleEmbeddings(request.capture());
+        return request.getValue();
+    }
+
+    private static long ruleId(AiResponseDTO.ExtractedRuleDTO rule) {
+        return RuleEmbeddingSync.ruleId(CARD_ID, RewardRules.buildRuleContentText(rule));
+    }
+
+    private static AiResponseDTO.ExtractedRuleDTO rule(String category, double rate, String conditions) {
+        return new AiResponseDTO.ExtractedRuleDTO("Millennia", category, rate, "CASHBACK", null, null, null, null, conditions);
+    }
+}
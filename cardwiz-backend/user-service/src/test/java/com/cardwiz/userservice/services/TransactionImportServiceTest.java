@@ -0,0 +1,136 @@
+package com.cardwiz.userservice.services;
+
+import com.cardwiz.userservice.H2JpaTest;
+import com.cardwiz.userservice.dtos.TransactionImportResponse;
+import com.cardwiz.userservice.models.User;
+import com.cardwiz.userservice.models.UserRole;
+import com.cardwiz.userservice.repositories.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * CSV import against H2: parsing, chunked writes (each chunk commits on its own, hence no test
+ * transaction) and skipping rows that were imported before.
+ */
+@H2JpaTest(properties = "spring.jpa.show-sql=false")
+@Import(TransactionImportService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class TransactionImportServiceTest {
+
+    @MockBean
+    private CacheManager cacheManager;
+
+    @MockBean
+    private ResourceVersions resourceVersions;
+
+    @Autowired
+    private TransactionImportService importService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final Cache recommendations = mock(Cache.class);
+    private Long userId;
+
+    @BeforeEach
+    void setUp() {
+        when(cacheManager.getCache(RecommendationCacheService.CACHE_NAME)).thenReturn(recommendations);
+        userId = userRepository.save(User.builder()
+                .email("importer@example.com")
+                .password("$2a$10$hash")
+                .enabled(true)
+                .role(UserRole.USER)
+                .build()).getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("delete from transactions");
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void importsValidRowsAndReportsTheRest() {
+        String csv = """
+                \uFEFFTxn Date,Narration,Amount (INR),Category
+                05/03/2026,"Swiggy, Bangalore",450.00,dining
+                2026-03-06,Uber,"1,200.50",travel
+
+                07 Mar 2026,Card payment,"5,000.00 Cr",
+                08/03/2026,Refund,(120.00),
+                yesterday,Zomato,300,dining
+                09/03/2026,Amazon,abc,shopping
+                """;
+
+        TransactionImportResponse response = importService.importCsv(userId, csvFile(csv));
+
+        assertThat(response.getImported()).isEqualTo(2);
+        assertThat(response.getSkipped()).isEqualTo(2);
+        assertThat(response.getFailed()).isEqualTo(2);
+        assertThat(response.getErrors()).containsExactly(
+                "line 7: unrecognised date 'yesterday'",
+                "line 8: invalid amount 'abc'");
+        assertThat(jdbcTemplate.queryForObject(
+                "select amount from transactions where merchant = 'Swiggy, Bangalore' and transaction_date = ?",
+                BigDecimal.class, LocalDate.of(2026, 3, 5))).isEqualByComparingTo("450.00");
+        verify(recommendations, times(1)).clear();
+        verify(resourceVersions, times(1)).bump(userId, ResourceVersions.Resource.TRANSACTIONS);
+    }
+
+    @Test
+    void writesLargeFilesInChunksAndSkipsRowsImportedBefore() {
+        StringBuilder csv = new StringBuilder("date,merchant,amount\n");
+        int rows = TransactionImportService.CHUNK_SIZE * 2 + 500;
+        for (int i = 0; i < rows; i++) {
+            // Every row twice over two consecutive lines: both copies import on the first run
+            csv.append(LocalDate.of(2026, 1, 1).plusDays(i / 20)).append(",Merchant ").append(i / 2)
+                    .append(',').append(100 + i / 2).append('\n');
+        }
+
+        TransactionImportResponse first = importService.importCsv(userId, csvFile(csv.toString()));
+        TransactionImportResponse again = importService.importCsv(userId, csvFile(csv.toString()));
+
+        assertThat(first.getImported()).isEqualTo(rows);
+        assertThat(again.getImported()).isZero();
+        assertThat(again.getSkipped()).isEqualTo(rows);
+        assertThat(jdbcTemplate.queryForObject("select count(*) from transactions", Long.class)).isEqualTo(rows);
+        verify(recommendations, times(1)).clear();
+    }
+
+    @Test
+    void rejectsAFileWithoutDateAndAmountColumns() {
+        assertThatThrownBy(() -> importService.importCsv(userId, csvFile("merchant,total\nUber,100\n")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("date and an amount");
+        verify(recommendations, never()).clear();
+    }
+
+    private static MockMultipartFile csvFile(String content) {
+        return new MockMultipartFile("file", "export.csv", "text/csv", content.getBytes(StandardCharsets.UTF_8));
+    }
+}
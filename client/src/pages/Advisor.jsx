@@ -140,7 +140,11 @@ const Advisor = () => {
             const rewardValue = Number(richBest.rewards.estimated_value ?? 0);
             const effectivePct = Number(richBest.rewards.effective_percentage ?? 0);
             const reasoning = Array.isArray(richBest.reasoning) ? richBest.reasoning.filter(Boolean) : [];
-            const reasons = reasoning.length > 0 ? `Why: ${reasoning.join(' | ')}` : '';
+            // Shared from a recommendation for another amount in the same band: the reasoning quotes that amount
+            const writtenFor = tx.reasoning_spend_amount != null
+                ? ` (written for ${currency} ${Number(tx.reasoning_spend_amount).toLocaleString()})`
+                : '';
+            const reasons = reasoning.length > 0 ? `Why${writtenFor}: ${reasoning.join(' | ')}` : '';
             const warning = richBest.warning ? `Warning: ${richBest.warning}` : '';
 
             const comparisonRows = Array.isArray(payload?.comparison_table) ? payload.comparison_table : [];
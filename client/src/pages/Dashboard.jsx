@@ -12,8 +12,7 @@ import { Add as AddIcon, ArrowForward as ArrowForwardIcon } from '@mui/icons-mat
 import { useNavigate } from 'react-router-dom';
 import RewardCard from '../components/RewardCard';
 import ValidationDialogForm from '../components/ValidationDialogForm';
-import axiosClient from '../api/axiosClient';
-import { fetchCards } from '../store/slices/cardSlice';
+import { fetchDashboard } from '../store/slices/cardSlice';
 
 const Dashboard = () => {
     const dispatch = useDispatch();
@@ -24,18 +23,17 @@ const Dashboard = () => {
     const [lastValidationResult, setLastValidationResult] = useState(null);
     const [dialogOpen, setDialogOpen] = useState(false);
 
-    const loadRecentValidations = async () => {
+    const loadDashboard = async () => {
         try {
-            const response = await axiosClient.get('/transactions');
-            setRecentValidations(Array.isArray(response.data) ? response.data : []);
+            const dashboard = await dispatch(fetchDashboard()).unwrap();
+            setRecentValidations(Array.isArray(dashboard?.recentTransactions) ? dashboard.recentTransactions : []);
         } catch (_) {
             setRecentValidations([]);
         }
     };
 
     useEffect(() => {
-        dispatch(fetchCards());
-        loadRecentValidations();
+        loadDashboard();
     }, [dispatch]);
 
     const sortedValidations = useMemo(() => {
@@ -233,7 +231,7 @@ const Dashboard = () => {
                 cards={cards}
                 onSaved={(payload) => {
                     setLastValidationResult(payload);
-                    loadRecentValidations();
+                    loadDashboard();
                 }}
             />
         </Box>
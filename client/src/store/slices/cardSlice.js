@@ -14,6 +14,19 @@ export const fetchCards = createAsyncThunk(
     }
 );
 
+// Profile, cards, knowledge coverage and recent transactions in one round trip
+export const fetchDashboard = createAsyncThunk(
+    'cards/fetchDashboard',
+    async (_, { rejectWithValue }) => {
+        try {
+            const response = await axiosClient.get('/dashboard');
+            return response.data;
+        } catch (error) {
+            return rejectWithValue(error.message);
+        }
+    }
+);
+
 export const addCard = createAsyncThunk(
     'cards/addCard',
     async (cardData, { rejectWithValue }) => {
@@ -69,6 +82,18 @@ const cardSlice = createSlice({
                 state.loading = false;
                 state.error = action.payload;
             })
+            // Fetch Dashboard
+            .addCase(fetchDashboard.pending, (state) => {
+                state.loading = true;
+            })
+            .addCase(fetchDashboard.fulfilled, (state, action) => {
+                state.loading = false;
+                state.items = action.payload?.cards || [];
+            })
+            .addCase(fetchDashboard.rejected, (state, action) => {
+                state.loading = false;
+                state.error = action.payload;
+            })
             // Add Card
             .addCase(addCard.fulfilled, (state, action) => {
                 state.items.push(action.payload);